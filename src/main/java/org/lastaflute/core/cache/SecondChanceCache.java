@@ -0,0 +1,216 @@
+/*
+ * Copyright 2015-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.core.cache;
+
+import java.util.Iterator;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+
+/**
+ * The bounded concurrent cache keyed by string, bounded by total weight of entries. <br>
+ * The eviction is approximate LRU by second-chance (clock) algorithm, no lock when reading.
+ * The clock is the iteration order of the map, and its hand is kept across evictions.
+ * @param <ENTRY> The type of cached entry.
+ * @author jflute
+ * @since 0.8.4
+ */
+public abstract class SecondChanceCache<ENTRY extends SecondChanceCache.SecondChanceEntry> {
+
+    // ===================================================================================
+    //                                                                           Attribute
+    //                                                                           =========
+    protected final long maxWeight;
+    protected final ConcurrentHashMap<String, ENTRY> entryMap;
+    protected final AtomicLong totalWeight = new AtomicLong();
+    protected final ReentrantLock evictionLock = new ReentrantLock();
+    protected Iterator<Entry<String, ENTRY>> clockHand; // null allowed: not started yet, guarded by eviction lock
+
+    // -----------------------------------------------------
+    //                                            Statistics
+    //                                            ----------
+    protected final LongAdder hitCount = new LongAdder();
+    protected final LongAdder missCount = new LongAdder();
+    protected final LongAdder evictionCount = new LongAdder();
+
+    // ===================================================================================
+    //                                                                         Constructor
+    //                                                                         ===========
+    /**
+     * @param maxWeight The max weight of total cached entries, should be positive. (NotMinus, NotZero)
+     * @param initialCapacity The initial capacity of entry map. (NotMinus)
+     */
+    protected SecondChanceCache(long maxWeight, int initialCapacity) {
+        if (maxWeight <= 0) {
+            throw new IllegalArgumentException("The argument 'maxWeight' should be positive: " + maxWeight);
+        }
+        this.maxWeight = maxWeight;
+        this.entryMap = new ConcurrentHashMap<String, ENTRY>(initialCapacity);
+    }
+
+    // ===================================================================================
+    //                                                                        Entry Access
+    //                                                                        ============
+    protected void markHit(ENTRY entry) {
+        if (!entry.referenced) { // to avoid writing per hit
+            entry.referenced = true; // second chance
+        }
+        hitCount.increment();
+    }
+
+    protected void markMiss() {
+        missCount.increment();
+    }
+
+    /**
+     * Register the entry if the existing entry of the key is replaceable, and evict entries if over.
+     * @param key The key of the entry. (NotNull)
+     * @param entry The entry to be registered. (NotNull)
+     * @param replaceable The determination of existing entry, true if it can be replaced. (NotNull)
+     * @return true if registered, false if the existing entry is not replaceable.
+     */
+    protected boolean registerEntry(String key, ENTRY entry, Predicate<ENTRY> replaceable) {
+        while (true) {
+            final ENTRY existing = entryMap.get(key);
+            if (existing == null) {
+                if (entryMap.putIfAbsent(key, entry) == null) {
+                    break;
+                }
+            } else if (!replaceable.test(existing)) {
+                return false;
+            } else if (replaceEntry(key, existing, entry)) {
+                return true; // already evicted if needed
+            }
+            // retry if competed with other thread
+        }
+        totalWeight.addAndGet(entry.getWeight());
+        evictIfNeeds();
+        return true;
+    }
+
+    protected boolean replaceEntry(String key, ENTRY existing, ENTRY entry) {
+        if (!entryMap.replace(key, existing, entry)) { // already replaced or removed
+            return false;
+        }
+        totalWeight.addAndGet(entry.getWeight() - existing.getWeight());
+        evictIfNeeds();
+        return true;
+    }
+
+    protected boolean removeEntry(String key, ENTRY entry) {
+        if (!entryMap.remove(key, entry)) { // already replaced or removed
+            return false;
+        }
+        totalWeight.addAndGet(-entry.getWeight());
+        return true;
+    }
+
+    // ===================================================================================
+    //                                                                            Eviction
+    //                                                                            ========
+    protected void evictIfNeeds() {
+        if (totalWeight.get() > maxWeight) {
+            evict();
+        }
+    }
+
+    protected void evict() {
+        if (!evictionLock.tryLock()) { // other thread is evicting
+            return;
+        }
+        try {
+            final long targetWeight = maxWeight - (maxWeight / 10); // to avoid eviction per registration
+            sweep(targetWeight); // first round gives second chance to referenced entries
+            if (totalWeight.get() > targetWeight) {
+                sweep(targetWeight); // second round evicts entries not referenced again
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    protected void sweep(long targetWeight) { // at most one round from the hand kept across sweeps
+        int remaining = entryMap.size();
+        while (totalWeight.get() > targetWeight && remaining-- > 0) {
+            if (clockHand == null || !clockHand.hasNext()) { // wrap around
+                clockHand = entryMap.entrySet().iterator(); // weakly consistent so usable after modification
+                if (!clockHand.hasNext()) {
+                    return;
+                }
+            }
+            final Entry<String, ENTRY> mapEntry = clockHand.next();
+            final ENTRY entry = mapEntry.getValue();
+            if (entry.referenced) {
+                entry.referenced = false; // second chance
+            } else if (removeEntry(mapEntry.getKey(), entry)) { // not replaced yet
+                evictionCount.increment();
+            }
+        }
+    }
+
+    /**
+     * Clear all cached entries.
+     */
+    public void clear() {
+        evictionLock.lock();
+        try {
+            for (Entry<String, ENTRY> mapEntry : entryMap.entrySet()) {
+                removeEntry(mapEntry.getKey(), mapEntry.getValue());
+            }
+            clockHand = null; // restarts from the head
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    // ===================================================================================
+    //                                                                        Cached Entry
+    //                                                                        ============
+    /**
+     * The entry of the cache, which has reference mark for second chance.
+     */
+    public static abstract class SecondChanceEntry {
+
+        protected volatile boolean referenced; // for second chance
+
+        /**
+         * @return The weight of the entry for the max weight of cache. (NotMinus)
+         */
+        public abstract long getWeight();
+    }
+
+    // ===================================================================================
+    //                                                                            Accessor
+    //                                                                            ========
+    public int size() {
+        return entryMap.size();
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2015-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.core.json;
+
+import java.util.function.Consumer;
+
+import org.lastaflute.core.json.adapter.CompiledBeanGsonAdaptable;
+
+import com.google.gson.GsonBuilder;
+
+/**
+ * The JSON parser that uses compiled bean adapters instead of reflective adapters of Gson. <br>
+ * The adapter is built once per bean class at first use, with property accessors and adapters resolved,
+ * so the JSON mapping is same as {@link GsonJsonParser} without reflection per property when reading and writing beans.
+ * <pre>
+ * e.g. your JSON resource provider
+ *  public RealJsonParser provideJsonParser() {
+ *      return new CompiledGsonJsonParser(builder -&gt; builder.serializeNulls(), op -&gt; {});
+ *  }
+ * </pre>
+ * @author jflute
+ * @since 0.8.4
+ */
+public class CompiledGsonJsonParser extends GsonJsonParser implements CompiledBeanGsonAdaptable {
+
+    // ===================================================================================
+    //                                                                         Constructor
+    //                                                                         ===========
+    public CompiledGsonJsonParser(Consumer<GsonBuilder> oneArgLambda, Consumer<JsonMappingOption> opLambda) {
+        super(oneArgLambda, opLambda);
+    }
+
+    // ===================================================================================
+    //                                                                    Default Settings
+    //                                                                    ================
+    @Override
+    protected void setupDefaultSettings(GsonBuilder builder) {
+        // registered first to be the lowest priority in your factories (Gson reverses them)
+        // so your adapters are prior, and built-in types e.g. String, List are not compiled
+        registerCompiledBeanAdapter(builder);
+        super.setupDefaultSettings(builder);
+    }
+
+    protected void registerCompiledBeanAdapter(GsonBuilder builder) {
+        builder.registerTypeAdapterFactory(createCompiledBeanTypeAdapterFactory());
+    }
+}
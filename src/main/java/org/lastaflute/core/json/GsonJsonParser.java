@@ -15,9 +15,15 @@
  */
 package org.lastaflute.core.json;
 
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
 import java.lang.reflect.ParameterizedType;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.function.Consumer;
 
 import org.dbflute.util.DfCollectionUtil;
@@ -31,6 +37,11 @@ import org.lastaflute.core.json.adapter.StringGsonAdaptable;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonIOException;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.MalformedJsonException;
 
 /**
  * @author jflute
@@ -137,21 +148,115 @@ public class GsonJsonParser implements RealJsonParser // adapters here
     @Override
     public <BEAN> BEAN fromJsonParameteried(String json, ParameterizedType parameterizedType) {
         final BEAN bean = gson.fromJson(json, parameterizedType); // if empty JSON, new-only instance
-        if (bean != null) {
-            return bean;
-        } else { // e.g. empty string JSON
-            final Class<?> rawClass = DfReflectionUtil.getRawClass(parameterizedType.getRawType()); // null allowed?
-            if (List.class.equals(rawClass)) {
-                @SuppressWarnings("unchecked")
-                final BEAN emptyList = (BEAN) DfCollectionUtil.newArrayListSized(2); // empty but mutable for coherence
-                return emptyList;
-            } else if (Map.class.equals(rawClass)) {
-                @SuppressWarnings("unchecked")
-                final BEAN emptyList = (BEAN) DfCollectionUtil.newHashMapSized(2); // empty but mutable for coherence
-                return emptyList;
-            } else {
-                return newEmptyInstance(parameterizedType);
+        return bean != null ? bean : newEmptyParameterized(parameterizedType);
+    }
+
+    @Override
+    public <BEAN> BEAN fromJson(Reader reader, Class<BEAN> beanType) { // streaming, no intermediate string
+        final BEAN bean = gson.fromJson(reader, beanType); // if empty JSON, new-only instance
+        return bean != null ? bean : newEmptyInstance(beanType);
+    }
+
+    @Override
+    public <BEAN> BEAN fromJsonParameteried(Reader reader, ParameterizedType parameterizedType) {
+        final BEAN bean = gson.fromJson(reader, parameterizedType); // if empty JSON, new-only instance
+        return bean != null ? bean : newEmptyParameterized(parameterizedType);
+    }
+
+    @Override
+    public <BEAN> Iterator<BEAN> fromJsonArrayIterator(Reader reader, Class<BEAN> elementType) { // streaming per element
+        final JsonReader jsonReader = gson.newJsonReader(reader);
+        jsonReader.setLenient(true); // same as whole parsing by Gson
+        return newGsonArrayElementIterator(jsonReader, elementType);
+    }
+
+    protected <BEAN> Iterator<BEAN> newGsonArrayElementIterator(JsonReader jsonReader, Class<BEAN> elementType) {
+        return new GsonArrayElementIterator<BEAN>(gson, jsonReader, elementType);
+    }
+
+    /**
+     * The iterator of JSON array elements, which parses one element per next() from the JSON reader.
+     * @param <BEAN> The type of element bean.
+     */
+    protected static class GsonArrayElementIterator<BEAN> implements Iterator<BEAN> {
+
+        protected final Gson gson; // not null
+        protected final JsonReader jsonReader; // not null
+        protected final Class<BEAN> elementType; // not null
+        protected boolean begun; // true after array start is read
+        protected boolean ended; // true after array end (or empty JSON) is read
+
+        public GsonArrayElementIterator(Gson gson, JsonReader jsonReader, Class<BEAN> elementType) {
+            this.gson = gson;
+            this.jsonReader = jsonReader;
+            this.elementType = elementType;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (ended) {
+                return false;
+            }
+            try {
+                if (!begun) {
+                    begun = true;
+                    if (!beginArray()) { // e.g. empty JSON
+                        ended = true;
+                        return false;
+                    }
+                }
+                if (jsonReader.hasNext()) {
+                    return true;
+                }
+                jsonReader.endArray();
+                if (jsonReader.peek() != JsonToken.END_DOCUMENT) {
+                    throw new JsonIOException("JSON document was not fully consumed.");
+                }
+                ended = true;
+                return false;
+            } catch (MalformedJsonException e) {
+                throw new JsonSyntaxException(e);
+            } catch (IOException e) {
+                throw new JsonIOException(e);
+            }
+        }
+
+        protected boolean beginArray() throws IOException {
+            final JsonToken firstToken;
+            try {
+                firstToken = jsonReader.peek();
+            } catch (EOFException ignored) { // empty JSON, same as empty list
+                return false;
+            }
+            if (firstToken == JsonToken.NULL) { // null JSON, same as empty list
+                jsonReader.nextNull();
+                return false;
+            }
+            jsonReader.beginArray();
+            return true;
+        }
+
+        @Override
+        public BEAN next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException("No more element in the JSON array: " + elementType);
             }
+            return gson.fromJson(jsonReader, elementType); // only one element
+        }
+    }
+
+    protected <BEAN> BEAN newEmptyParameterized(ParameterizedType parameterizedType) { // e.g. empty string JSON
+        final Class<?> rawClass = DfReflectionUtil.getRawClass(parameterizedType.getRawType()); // null allowed?
+        if (List.class.equals(rawClass)) {
+            @SuppressWarnings("unchecked")
+            final BEAN emptyList = (BEAN) DfCollectionUtil.newArrayListSized(2); // empty but mutable for coherence
+            return emptyList;
+        } else if (Map.class.equals(rawClass)) {
+            @SuppressWarnings("unchecked")
+            final BEAN emptyList = (BEAN) DfCollectionUtil.newHashMapSized(2); // empty but mutable for coherence
+            return emptyList;
+        } else {
+            return newEmptyInstance(parameterizedType);
         }
     }
 
@@ -174,6 +279,11 @@ public class GsonJsonParser implements RealJsonParser // adapters here
         return gson.toJson(bean);
     }
 
+    @Override
+    public void toJson(Object bean, Writer writer) { // is not null, already checked
+        gson.toJson(bean, writer); // written by JSON writer incrementally
+    }
+
     // ===================================================================================
     //                                                                            Accessor
     //                                                                            ========
@@ -15,7 +15,10 @@
  */
 package org.lastaflute.core.json;
 
+import java.io.Reader;
+import java.io.Writer;
 import java.lang.reflect.ParameterizedType;
+import java.util.Iterator;
 
 /**
  * @author jflute
@@ -48,10 +51,61 @@ public interface JsonManager {
      */
     <BEAN> BEAN fromJsonParameteried(String json, ParameterizedType parameterizedType);
 
+    /**
+     * Convert from the JSON stream to the specified bean, without intermediate string. <br>
+     * The reader is read until the end of JSON, but not closed here. <br>
+     * The default implementation reads all as string so you should override it for streaming.
+     * @param <BEAN> The type of JSON bean.
+     * @param reader The reader of JSON to be parsed, e.g. request body. (NotNull, EmptyAllowed: returns new-only)
+     * @param beanType The type of bean to convert, should have default constructor. (NotNull)
+     * @return The new-created bean that has the JSON values. (NotNull: if empty JSON, new-only)
+     */
+    default <BEAN> BEAN fromJson(Reader reader, Class<BEAN> beanType) {
+        return fromJson(JsonWholeStringHelper.readJsonAsString(reader), beanType);
+    }
+
+    /**
+     * Convert from the JSON stream to the parameterized bean, without intermediate string. <br>
+     * The reader is read until the end of JSON, but not closed here. <br>
+     * The default implementation reads all as string so you should override it for streaming.
+     * @param <BEAN> The type of JSON bean as root.
+     * @param reader The reader of JSON to be parsed, e.g. request body. (NotNull, EmptyAllowed: returns new-only)
+     * @param parameterizedType The parameterized type of bean to convert, should have default constructor. (NotNull)
+     * @return The new-created bean that has the JSON values, also List and Map. (NotNull: if empty JSON, new-only)
+     */
+    default <BEAN> BEAN fromJsonParameteried(Reader reader, ParameterizedType parameterizedType) {
+        return fromJsonParameteried(JsonWholeStringHelper.readJsonAsString(reader), parameterizedType);
+    }
+
+    /**
+     * Convert from the JSON array stream to the iterator of beans, which reads the array element by element. <br>
+     * The elements are parsed when iterated so memory usage does not depend on the array size. <br>
+     * The reader is read until the end of JSON when all elements are iterated, but not closed here. <br>
+     * The default implementation reads all elements at first so you should override it for streaming.
+     * @param <BEAN> The type of JSON bean as element.
+     * @param reader The reader of JSON array to be parsed, e.g. request body. (NotNull, EmptyAllowed: returns empty iterator)
+     * @param elementType The type of element bean to convert, should have default constructor. (NotNull)
+     * @return The iterator of new-created beans that have the JSON values. (NotNull, EmptyAllowed: if empty JSON or null)
+     */
+    default <BEAN> Iterator<BEAN> fromJsonArrayIterator(Reader reader, Class<BEAN> elementType) {
+        return JsonWholeStringHelper.readJsonArrayIterator(reader, elementType, (json, arrayType) -> fromJson(json, arrayType));
+    }
+
     /**
      * Convert from the source object to JSON string.
      * @param bean The instance of bean to encode. (NotNull)
      * @return The encoded JSON string. (NotNull)
      */
     String toJson(Object bean);
+
+    /**
+     * Convert from the source object to JSON and write it to the writer, without whole JSON string. <br>
+     * The writer is not flushed and closed here. <br>
+     * The default implementation writes the whole string so you should override it for streaming.
+     * @param bean The instance of bean to encode. (NotNull)
+     * @param writer The writer of JSON, e.g. response writer. (NotNull)
+     */
+    default void toJson(Object bean, Writer writer) {
+        JsonWholeStringHelper.writeJson(toJson(bean), writer);
+    }
 }
\ No newline at end of file
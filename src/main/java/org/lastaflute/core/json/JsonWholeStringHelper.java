@@ -0,0 +1,88 @@
+/*
+ * Copyright 2015-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.core.json;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.lang.reflect.Array;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.function.BiFunction;
+
+/**
+ * The helper for default methods of JSON interfaces, which handle the whole JSON string (not streaming). <br>
+ * It is shared by {@link JsonManager} and {@link RealJsonParser} not to increase their public methods.
+ * @author jflute
+ * @since 0.8.4
+ */
+final class JsonWholeStringHelper {
+
+    private JsonWholeStringHelper() {
+    }
+
+    /**
+     * @param reader The reader of JSON, read until the end but not closed here. (NotNull)
+     * @return The read string of JSON. (NotNull, EmptyAllowed)
+     */
+    static String readJsonAsString(Reader reader) {
+        final StringBuilder sb = new StringBuilder();
+        final char[] buf = new char[4096];
+        try {
+            int size;
+            while ((size = reader.read(buf)) >= 0) {
+                sb.append(buf, 0, size);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read the JSON from the reader: " + reader, e);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @param <BEAN> The type of JSON bean as element.
+     * @param reader The reader of JSON array, read until the end but not closed here. (NotNull)
+     * @param elementType The type of element bean to convert. (NotNull)
+     * @param arrayParser The parser of the whole JSON string to the array of beans. (NotNull)
+     * @return The iterator of already-parsed beans. (NotNull, EmptyAllowed: if empty JSON or null)
+     */
+    static <BEAN> Iterator<BEAN> readJsonArrayIterator(Reader reader, Class<BEAN> elementType,
+            BiFunction<String, Class<BEAN[]>, BEAN[]> arrayParser) {
+        final String json = readJsonAsString(reader);
+        final String trimmed = json.trim();
+        if (trimmed.isEmpty() || trimmed.equals("null")) { // not to parse as new-only array
+            return Collections.emptyIterator();
+        }
+        @SuppressWarnings("unchecked")
+        final Class<BEAN[]> arrayType = (Class<BEAN[]>) Array.newInstance(elementType, 0).getClass();
+        final BEAN[] beans = arrayParser.apply(json, arrayType);
+        return beans != null ? Arrays.asList(beans).iterator() : Collections.emptyIterator();
+    }
+
+    /**
+     * @param json The whole string of JSON to be written. (NotNull)
+     * @param writer The writer of JSON, not flushed and closed here. (NotNull)
+     */
+    static void writeJson(String json, Writer writer) {
+        try {
+            writer.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write the JSON to the writer: " + writer, e);
+        }
+    }
+}
@@ -15,7 +15,10 @@
  */
 package org.lastaflute.core.json;
 
+import java.io.Reader;
+import java.io.Writer;
 import java.lang.reflect.ParameterizedType;
+import java.util.Iterator;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.Resource;
@@ -218,12 +221,40 @@ public class SimpleJsonManager implements JsonManager {
         return realJsonParser.fromJsonParameteried(json, parameterizedType);
     }
 
+    @Override
+    public <BEAN> BEAN fromJson(Reader reader, Class<BEAN> beanType) {
+        assertArgumentNotNull("reader", reader);
+        assertArgumentNotNull("beanType", beanType);
+        return realJsonParser.fromJson(reader, beanType);
+    }
+
+    @Override
+    public <BEAN> BEAN fromJsonParameteried(Reader reader, ParameterizedType parameterizedType) {
+        assertArgumentNotNull("reader", reader);
+        assertArgumentNotNull("parameterizedType", parameterizedType);
+        return realJsonParser.fromJsonParameteried(reader, parameterizedType);
+    }
+
+    @Override
+    public <BEAN> Iterator<BEAN> fromJsonArrayIterator(Reader reader, Class<BEAN> elementType) {
+        assertArgumentNotNull("reader", reader);
+        assertArgumentNotNull("elementType", elementType);
+        return realJsonParser.fromJsonArrayIterator(reader, elementType);
+    }
+
     @Override
     public String toJson(Object bean) {
         assertArgumentNotNull("bean", bean);
         return realJsonParser.toJson(bean);
     }
 
+    @Override
+    public void toJson(Object bean, Writer writer) {
+        assertArgumentNotNull("bean", bean);
+        assertArgumentNotNull("writer", writer);
+        realJsonParser.toJson(bean, writer);
+    }
+
     // ===================================================================================
     //                                                                        Small Helper
     //                                                                        ============
@@ -41,10 +41,20 @@ public interface BooleanGsonAdaptable { // to show property path in exception me
 
         protected final JsonMappingOption option;
         protected final JsonSimpleTextReadingFilter readingFilter; // null allowed
+        protected final boolean emptyToNullReading; // resolved when created
+        protected final boolean nullToEmptyWriting; // resolved when created
+        protected final boolean everywhereQuoteWriting; // resolved when created
+        protected final Function<Object, Boolean> booleanDeserializer; // null allowed, resolved when created
+        protected final Function<Boolean, Object> booleanSerializer; // null allowed, resolved when created
 
         public TypeAdapterBoolean(JsonMappingOption option) {
             this.option = option;
             this.readingFilter = option.getSimpleTextReadingFilter().orElse(null); // cache, unwrap for performance
+            this.emptyToNullReading = option.isEmptyToNullReading();
+            this.nullToEmptyWriting = option.isNullToEmptyWriting();
+            this.everywhereQuoteWriting = option.isEverywhereQuoteWriting();
+            this.booleanDeserializer = option.getBooleanDeserializer().orElse(null);
+            this.booleanSerializer = option.getBooleanSerializer().orElse(null);
         }
 
         @Override
@@ -77,13 +87,12 @@ public interface BooleanGsonAdaptable { // to show property path in exception me
         }
 
         protected boolean isEmptyToNullReading() {
-            return option.isEmptyToNullReading();
+            return emptyToNullReading;
         }
 
         protected Boolean readAsBoolean(JsonToken token, Object exp) throws IOException {
-            final OptionalThing<Function<Object, Boolean>> deserializer = option.getBooleanDeserializer();
-            if (deserializer.isPresent()) { // cannot use lambda because of IOException
-                return deserializer.get().apply(exp);
+            if (booleanDeserializer != null) {
+                return booleanDeserializer.apply(exp);
             } else {
                 return Boolean.parseBoolean(exp.toString());
             }
@@ -119,17 +128,20 @@ public interface BooleanGsonAdaptable { // to show property path in exception me
         }
 
         protected OptionalThing<Object> filterBySerializerIfNeeds(Boolean value) {
-            return option.getBooleanSerializer().map(serializer -> {
-                return serializer.apply(value);
+            if (booleanSerializer == null) {
+                return OptionalThing.empty();
+            }
+            return OptionalThing.ofNullable(booleanSerializer.apply(value), () -> {
+                throw new IllegalStateException("Not found the serialized boolean: " + value);
             });
         }
 
         protected boolean isNullToEmptyWriting() {
-            return option.isNullToEmptyWriting();
+            return nullToEmptyWriting;
         }
 
         protected boolean isEverywhereQuoteWriting() {
-            return option.isEverywhereQuoteWriting();
+            return everywhereQuoteWriting;
         }
     }
 
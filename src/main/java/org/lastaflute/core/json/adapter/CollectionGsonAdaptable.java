@@ -87,16 +87,20 @@ public interface CollectionGsonAdaptable { // to show property path in exception
 
         protected final TypeAdapter<Collection<?>> embedded;
         protected final JsonMappingOption option;
+        protected final boolean listNullToEmptyReading; // resolved when created
+        protected final boolean listNullToEmptyWriting; // resolved when created
 
         @SuppressWarnings("unchecked")
         public WrappingTypeAdapterCollection(TypeAdapter<?> embedded, JsonMappingOption option) {
             this.embedded = (TypeAdapter<Collection<?>>) embedded;
             this.option = option;
+            this.listNullToEmptyReading = option.isListNullToEmptyReading();
+            this.listNullToEmptyWriting = option.isListNullToEmptyWriting();
         }
 
         @Override
         public Collection<?> read(JsonReader in) throws IOException {
-            if (option.isListNullToEmptyReading()) {
+            if (listNullToEmptyReading) {
                 if (in.peek() == JsonToken.NULL) {
                     in.nextNull();
                     return Collections.emptyList();
@@ -107,7 +111,7 @@ public interface CollectionGsonAdaptable { // to show property path in exception
 
         @Override
         public void write(JsonWriter out, Collection<?> collection) throws IOException {
-            if (option.isListNullToEmptyWriting()) {
+            if (listNullToEmptyWriting) {
                 if (collection == null) {
                     out.beginArray();
                     out.endArray();
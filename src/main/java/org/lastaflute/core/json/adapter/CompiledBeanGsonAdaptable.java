@@ -0,0 +1,486 @@
+/*
+ * Copyright 2015-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.core.json.adapter;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.dbflute.util.DfReflectionUtil;
+
+import com.google.gson.FieldNamingStrategy;
+import com.google.gson.Gson;
+import com.google.gson.InstanceCreator;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.annotations.SerializedName;
+import com.google.gson.internal.$Gson$Types;
+import com.google.gson.internal.ConstructorConstructor;
+import com.google.gson.internal.Excluder;
+import com.google.gson.internal.ObjectConstructor;
+import com.google.gson.internal.bind.ReflectiveTypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * The adaptable of compiled bean adapter, which is built once per bean class at first use. <br>
+ * Property accessors, property adapters and runtime-type decisions are resolved when it is built,
+ * so reading and writing beans need no reflection and no adapter lookup per property. <br>
+ * The JSON mapping is same as reflective adapter of Gson (e.g. SerializedName, exclusion, naming policy),
+ * and beans that it cannot compile plainly (e.g. no default constructor, JsonAdapter) are left to Gson.
+ * @author jflute
+ * @since 0.8.4
+ */
+public interface CompiledBeanGsonAdaptable {
+
+    // ===================================================================================
+    //                                                                Type Adapter Factory
+    //                                                                ====================
+    class CompiledBeanTypeAdapterFactory implements TypeAdapterFactory {
+
+        @Override
+        public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+            final Class<? super T> rawType = type.getRawType();
+            if (!isCompiledBeanTarget(rawType)) {
+                return null; // e.g. built-in types, collection, map
+            }
+            final Map<Type, InstanceCreator<?>> instanceCreators = prepareInstanceCreators(gson);
+            if (instanceCreators == null) { // cannot know registered creators
+                return null; // by reflective adapter (with registered creators)
+            }
+            final ObjectConstructor<T> creatorConstructor; // null allowed: when no creator for the type
+            final MethodHandle compiledConstructor; // null allowed: when creator
+            if (instanceCreators.containsKey(type.getType()) || instanceCreators.containsKey(rawType)) {
+                creatorConstructor = createConstructorConstructor(instanceCreators).get(type); // same as Gson
+                compiledConstructor = null;
+            } else {
+                final Constructor<? super T> constructor = findDefaultConstructor(rawType);
+                if (constructor == null) { // e.g. inner class
+                    return null; // by reflective adapter (with unsafe allocation)
+                }
+                creatorConstructor = null;
+                compiledConstructor = compileConstructor(constructor);
+            }
+            final List<CompiledPropertyBinding> bindingList = compileBindings(gson, type, rawType);
+            if (bindingList == null) { // e.g. JsonAdapter on field, duplicate names
+                return null; // by reflective adapter (also for exception)
+            }
+            return newCompiledBeanTypeAdapter(rawType, compiledConstructor, creatorConstructor, bindingList);
+        }
+
+        protected boolean isCompiledBeanTarget(Class<?> rawType) {
+            if (rawType.isPrimitive() || rawType.isArray() || rawType.isInterface() || rawType.isEnum() || rawType.isAnonymousClass()) {
+                return false;
+            }
+            if (Modifier.isAbstract(rawType.getModifiers()) || rawType.isAnnotationPresent(JsonAdapter.class)) {
+                return false;
+            }
+            if (Collection.class.isAssignableFrom(rawType) || Map.class.isAssignableFrom(rawType)) {
+                return false; // by collection and map adapters
+            }
+            if (Enum.class.isAssignableFrom(rawType) || Throwable.class.isAssignableFrom(rawType)) {
+                return false; // e.g. enum constant with body, exception that refers itself
+            }
+            final String name = rawType.getName();
+            return !name.startsWith("java.") && !name.startsWith("javax.") && !name.startsWith("com.google.gson.");
+        }
+
+        // -----------------------------------------------------
+        //                                           Constructor
+        //                                           -----------
+        /**
+         * Prepare the instance creators, which are prior to default constructor same as Gson.
+         * @param gson The Gson instance that has the registered creators. (NotNull)
+         * @return The map of instance creators keyed by type. (NullAllowed: when cannot know them)
+         */
+        protected Map<Type, InstanceCreator<?>> prepareInstanceCreators(Gson gson) {
+            return extractRegisteredInstanceCreators(gson); // e.g. by GsonBuilder.registerTypeAdapter()
+        }
+
+        @SuppressWarnings("unchecked")
+        protected Map<Type, InstanceCreator<?>> extractRegisteredInstanceCreators(Gson gson) { // no public getter
+            final Field gsonField = DfReflectionUtil.getWholeField(Gson.class, "constructorConstructor");
+            final Field creatorField = DfReflectionUtil.getWholeField(ConstructorConstructor.class, "instanceCreators");
+            if (gsonField == null || creatorField == null) { // e.g. other version of Gson
+                return null;
+            }
+            final Object constructorConstructor = DfReflectionUtil.getValueForcedly(gsonField, gson);
+            return constructorConstructor != null ? (Map<Type, InstanceCreator<?>>) DfReflectionUtil.getValueForcedly(creatorField,
+                    constructorConstructor) : null;
+        }
+
+        protected ConstructorConstructor createConstructorConstructor(Map<Type, InstanceCreator<?>> instanceCreators) {
+            return new ConstructorConstructor(instanceCreators);
+        }
+
+        @SuppressWarnings("unchecked")
+        protected <T> Constructor<? super T> findDefaultConstructor(Class<? super T> rawType) {
+            for (Constructor<?> constructor : rawType.getDeclaredConstructors()) {
+                if (constructor.getParameterCount() == 0) {
+                    return (Constructor<? super T>) constructor;
+                }
+            }
+            return null;
+        }
+
+        protected MethodHandle compileConstructor(Constructor<?> constructor) {
+            constructor.setAccessible(true);
+            try {
+                return MethodHandles.lookup().unreflectConstructor(constructor).asType(MethodType.methodType(Object.class));
+            } catch (IllegalAccessException e) { // basically no way because of accessible
+                throw new IllegalStateException("Failed to compile the constructor: " + constructor, e);
+            }
+        }
+
+        // -----------------------------------------------------
+        //                                      Compile Bindings
+        //                                      ----------------
+        /**
+         * Compile the bindings of fields in the same order as reflective adapter of Gson.
+         * @param gson The Gson instance to get property adapters. (NotNull)
+         * @param type The type token of the bean. (NotNull)
+         * @param rawType The raw type of the bean. (NotNull)
+         * @return The list of bindings. (NullAllowed: when the bean cannot be compiled plainly)
+         */
+        protected List<CompiledPropertyBinding> compileBindings(Gson gson, TypeToken<?> type, Class<?> rawType) {
+            final Excluder excluder = gson.excluder();
+            final FieldNamingStrategy namingStrategy = gson.fieldNamingStrategy();
+            final List<CompiledPropertyBinding> bindingList = new ArrayList<CompiledPropertyBinding>();
+            final Map<String, Boolean> nameMap = new HashMap<String, Boolean>();
+            TypeToken<?> currentType = type;
+            Class<?> currentRaw = rawType;
+            while (currentRaw != Object.class) {
+                for (Field field : currentRaw.getDeclaredFields()) {
+                    final boolean serialize = isIncludedField(excluder, field, true);
+                    final boolean deserialize = isIncludedField(excluder, field, false);
+                    if (!serialize && !deserialize) {
+                        continue;
+                    }
+                    if (field.isAnnotationPresent(JsonAdapter.class)) {
+                        return null;
+                    }
+                    field.setAccessible(true);
+                    final Type fieldType = $Gson$Types.resolve(currentType.getType(), currentRaw, field.getGenericType());
+                    final List<String> jsonNames = extractJsonNames(namingStrategy, field);
+                    for (int i = 0; i < jsonNames.size(); i++) {
+                        final String jsonName = jsonNames.get(i);
+                        if (nameMap.put(jsonName, Boolean.TRUE) != null) { // duplicate
+                            return null;
+                        }
+                        final boolean alternate = i > 0; // only deserialized
+                        bindingList.add(newCompiledPropertyBinding(gson, field, jsonName, fieldType, serialize && !alternate, deserialize));
+                    }
+                }
+                currentType = TypeToken.get($Gson$Types.resolve(currentType.getType(), currentRaw, currentRaw.getGenericSuperclass()));
+                currentRaw = currentType.getRawType();
+            }
+            return bindingList;
+        }
+
+        protected boolean isIncludedField(Excluder excluder, Field field, boolean serialize) {
+            return !excluder.excludeClass(field.getType(), serialize) && !excluder.excludeField(field, serialize);
+        }
+
+        protected List<String> extractJsonNames(FieldNamingStrategy namingStrategy, Field field) {
+            final SerializedName annotation = field.getAnnotation(SerializedName.class);
+            if (annotation == null) {
+                return Collections.singletonList(namingStrategy.translateName(field));
+            }
+            final String[] alternates = annotation.alternate();
+            final List<String> nameList = new ArrayList<String>(alternates.length + 1);
+            nameList.add(annotation.value());
+            for (String alternate : alternates) {
+                nameList.add(alternate);
+            }
+            return nameList;
+        }
+
+        protected CompiledPropertyBinding newCompiledPropertyBinding(Gson gson, Field field, String jsonName, Type fieldType,
+                boolean serialize, boolean deserialize) {
+            return new CompiledPropertyBinding(gson, field, jsonName, fieldType, serialize, deserialize);
+        }
+
+        protected <T> TypeAdapter<T> newCompiledBeanTypeAdapter(Class<? super T> rawType, MethodHandle constructor,
+                ObjectConstructor<T> creatorConstructor, List<CompiledPropertyBinding> bindingList) {
+            return new CompiledBeanTypeAdapter<T>(rawType, constructor, creatorConstructor, bindingList);
+        }
+    }
+
+    // ===================================================================================
+    //                                                                        Type Adapter
+    //                                                                        ============
+    class CompiledBeanTypeAdapter<T> extends TypeAdapter<T> {
+
+        protected final Class<?> beanType; // not null
+        protected final MethodHandle constructor; // null allowed: when creator, ()Object
+        protected final ObjectConstructor<T> creatorConstructor; // null allowed: when default constructor
+        protected final CompiledPropertyBinding[] writtenBindings; // not null, in field order
+        protected final Map<String, CompiledPropertyBinding> readBindingMap; // not null, keyed by JSON name
+
+        public CompiledBeanTypeAdapter(Class<?> beanType, MethodHandle constructor, ObjectConstructor<T> creatorConstructor,
+                List<CompiledPropertyBinding> bindingList) {
+            this.beanType = beanType;
+            this.constructor = constructor;
+            this.creatorConstructor = creatorConstructor;
+            final List<CompiledPropertyBinding> writtenList = new ArrayList<CompiledPropertyBinding>(bindingList.size());
+            final Map<String, CompiledPropertyBinding> readMap = new HashMap<String, CompiledPropertyBinding>(bindingList.size());
+            for (CompiledPropertyBinding binding : bindingList) {
+                if (binding.isSerialized()) {
+                    writtenList.add(binding);
+                }
+                if (binding.isDeserialized()) {
+                    readMap.put(binding.getJsonName(), binding);
+                }
+            }
+            this.writtenBindings = writtenList.toArray(new CompiledPropertyBinding[writtenList.size()]);
+            this.readBindingMap = readMap;
+        }
+
+        @Override
+        public T read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            final T bean = newBean();
+            try {
+                in.beginObject();
+                while (in.hasNext()) {
+                    final CompiledPropertyBinding binding = readBindingMap.get(in.nextName());
+                    if (binding != null) {
+                        binding.read(in, bean);
+                    } else { // unknown property
+                        in.skipValue();
+                    }
+                }
+            } catch (IllegalStateException e) { // same as reflective adapter
+                throw new JsonSyntaxException(e);
+            }
+            in.endObject();
+            return bean;
+        }
+
+        @SuppressWarnings("unchecked")
+        protected T newBean() {
+            if (creatorConstructor != null) { // e.g. registered instance creator
+                return creatorConstructor.construct();
+            }
+            try {
+                return (T) constructor.invokeExact();
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) { // e.g. checked exception from constructor
+                throw new RuntimeException("Failed to invoke the constructor: " + beanType.getName(), e);
+            }
+        }
+
+        @Override
+        public void write(JsonWriter out, T value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            for (CompiledPropertyBinding binding : writtenBindings) {
+                binding.write(out, value);
+            }
+            out.endObject();
+        }
+
+        @Override
+        public String toString() {
+            return "compiled:{" + beanType.getName() + ", properties=" + writtenBindings.length + "}";
+        }
+    }
+
+    // ===================================================================================
+    //                                                                    Property Binding
+    //                                                                    ================
+    class CompiledPropertyBinding {
+
+        protected final Gson gson; // not null, for runtime type
+        protected final Field field; // not null, accessible
+        protected final String jsonName; // not null
+        protected final Type fieldType; // not null, resolved
+        protected final boolean serialized;
+        protected final boolean deserialized;
+        protected final boolean primitive; // e.g. int, null is not set
+        protected final TypeAdapter<Object> adapter; // not null, for declared type
+        protected final boolean runtimeTypeChecked; // true if value class may be more specific than declared type
+        protected final MethodHandle getter; // null allowed: then field reflection
+        protected final MethodHandle setter; // null allowed: then field reflection e.g. final field
+
+        @SuppressWarnings("unchecked")
+        public CompiledPropertyBinding(Gson gson, Field field, String jsonName, Type fieldType, boolean serialized,
+                boolean deserialized) {
+            this.gson = gson;
+            this.field = field;
+            this.jsonName = jsonName;
+            this.fieldType = fieldType;
+            this.serialized = serialized;
+            this.deserialized = deserialized;
+            final Class<?> rawType = $Gson$Types.getRawType(fieldType);
+            this.primitive = rawType.isPrimitive();
+            if (primitive) { // same adapter as runtime (wrapper) type
+                this.adapter = (TypeAdapter<Object>) gson.getAdapter(DfReflectionUtil.getWrapperClass(rawType));
+                this.runtimeTypeChecked = false;
+            } else {
+                this.adapter = (TypeAdapter<Object>) gson.getAdapter(TypeToken.get(fieldType));
+                this.runtimeTypeChecked = isRuntimeTypeCheckNeeded(fieldType);
+            }
+            this.getter = compileGetter(field);
+            this.setter = compileSetter(field);
+        }
+
+        protected boolean isRuntimeTypeCheckNeeded(Type fieldType) { // resolved here, not per writing
+            if (fieldType instanceof TypeVariable<?>) {
+                return true;
+            }
+            if (fieldType instanceof Class<?>) {
+                return !Modifier.isFinal(((Class<?>) fieldType).getModifiers()); // e.g. String, Integer, LocalDate are final
+            }
+            return false; // e.g. parameterized type, same as Gson
+        }
+
+        protected MethodHandle compileGetter(Field field) {
+            try {
+                return MethodHandles.lookup().unreflectGetter(field).asType(MethodType.methodType(Object.class, Object.class));
+            } catch (IllegalAccessException | RuntimeException ignored) {
+                return null; // by reflection
+            }
+        }
+
+        protected MethodHandle compileSetter(Field field) {
+            if (Modifier.isFinal(field.getModifiers())) { // method handle cannot set it
+                return null; // by reflection
+            }
+            try {
+                return MethodHandles.lookup().unreflectSetter(field).asType(MethodType.methodType(void.class, Object.class, Object.class));
+            } catch (IllegalAccessException | RuntimeException ignored) {
+                return null; // by reflection
+            }
+        }
+
+        // -----------------------------------------------------
+        //                                                  Read
+        //                                                  ----
+        public void read(JsonReader in, Object bean) throws IOException {
+            final Object value = adapter.read(in);
+            if (value != null || !primitive) {
+                setValue(bean, value);
+            }
+        }
+
+        protected void setValue(Object bean, Object value) {
+            try {
+                if (setter != null) {
+                    setter.invokeExact(bean, value);
+                } else {
+                    field.set(bean, value);
+                }
+            } catch (IllegalAccessException e) { // no way because of accessible
+                throw new AssertionError(e);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) { // no way for field
+                throw new IllegalStateException("Failed to set the field: " + field, e);
+            }
+        }
+
+        // -----------------------------------------------------
+        //                                                 Write
+        //                                                 -----
+        public void write(JsonWriter out, Object bean) throws IOException {
+            final Object value = getValue(bean);
+            if (value == bean) { // avoid recursion, same as reflective adapter
+                return;
+            }
+            out.name(jsonName);
+            chooseAdapter(value).write(out, value);
+        }
+
+        protected Object getValue(Object bean) {
+            try {
+                return getter != null ? (Object) getter.invokeExact(bean) : field.get(bean);
+            } catch (IllegalAccessException e) { // no way because of accessible
+                throw new AssertionError(e);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) { // no way for field
+                throw new IllegalStateException("Failed to get the field: " + field, e);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        protected TypeAdapter<Object> chooseAdapter(Object value) { // same rule as runtime type wrapper of Gson
+            if (!runtimeTypeChecked || value == null || value.getClass() == fieldType) {
+                return adapter;
+            }
+            final TypeAdapter<Object> runtimeAdapter = (TypeAdapter<Object>) gson.getAdapter(value.getClass()); // cached by Gson
+            if (!isReflectiveAdapter(runtimeAdapter)) {
+                return runtimeAdapter; // e.g. registered adapter for subclass
+            } else if (!isReflectiveAdapter(adapter)) {
+                return adapter; // e.g. registered adapter for declared type
+            } else {
+                return runtimeAdapter;
+            }
+        }
+
+        protected boolean isReflectiveAdapter(TypeAdapter<?> adapter) {
+            return adapter instanceof CompiledBeanTypeAdapter || adapter instanceof ReflectiveTypeAdapterFactory.Adapter;
+        }
+
+        @Override
+        public String toString() {
+            return "binding:{" + field.getName() + " as " + jsonName + ", " + (getter != null ? "handle" : "reflection") + "}";
+        }
+
+        public String getJsonName() {
+            return jsonName;
+        }
+
+        public boolean isSerialized() {
+            return serialized;
+        }
+
+        public boolean isDeserialized() {
+            return deserialized;
+        }
+    }
+
+    // ===================================================================================
+    //                                                                             Creator
+    //                                                                             =======
+    default TypeAdapterFactory createCompiledBeanTypeAdapterFactory() {
+        return new CompiledBeanTypeAdapterFactory();
+    }
+}
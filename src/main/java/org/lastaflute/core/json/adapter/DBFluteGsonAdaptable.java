@@ -73,11 +73,15 @@ public interface DBFluteGsonAdaptable {
         protected final Class<?> clsType;
         protected final JsonMappingOption option;
         protected final JsonSimpleTextReadingFilter readingFilter; // null allowed
+        protected final boolean emptyToNullReading; // resolved when created
+        protected final boolean nullToEmptyWriting; // resolved when created
 
         public TypeAdapterClassification(Class<?> clsType, JsonMappingOption option) {
             this.clsType = clsType;
             this.option = option;
             this.readingFilter = option.getSimpleTextReadingFilter().orElse(null); // cache, unwrap for performance
+            this.emptyToNullReading = option.isEmptyToNullReading();
+            this.nullToEmptyWriting = option.isNullToEmptyWriting();
         }
 
         @Override
@@ -109,7 +113,7 @@ public interface DBFluteGsonAdaptable {
         }
 
         protected boolean isEmptyToNullReading() {
-            return option.isEmptyToNullReading();
+            return emptyToNullReading;
         }
 
         @Override
@@ -122,7 +126,7 @@ public interface DBFluteGsonAdaptable {
         }
 
         protected boolean isNullToEmptyWriting() {
-            return option.isNullToEmptyWriting();
+            return nullToEmptyWriting;
         }
 
         protected void throwJsonPropertyClassificationCodeOfMethodNotFoundException(String code, JsonReader in,
@@ -92,10 +92,14 @@ public interface Java8TimeGsonAdaptable {
 
         protected final JsonMappingOption option;
         protected final JsonSimpleTextReadingFilter readingFilter; // null allowed
+        protected final boolean emptyToNullReading; // resolved when created
+        protected final boolean nullToEmptyWriting; // resolved when created
 
         public AbstractTypeDateTimeAdapter(JsonMappingOption option) {
             this.option = option;
             this.readingFilter = option.getSimpleTextReadingFilter().orElse(null); // cache, unwrap for performance
+            this.emptyToNullReading = option.isEmptyToNullReading();
+            this.nullToEmptyWriting = option.isNullToEmptyWriting();
         }
 
         @Override
@@ -125,7 +129,7 @@ public interface Java8TimeGsonAdaptable {
         }
 
         protected boolean isEmptyToNullReading() {
-            return option.isEmptyToNullReading();
+            return emptyToNullReading;
         }
 
         @Override
@@ -138,7 +142,7 @@ public interface Java8TimeGsonAdaptable {
         }
 
         protected boolean isNullToEmptyWriting() {
-            return option.isNullToEmptyWriting();
+            return nullToEmptyWriting;
         }
 
         protected abstract DateTimeFormatter getDateTimeFormatter();
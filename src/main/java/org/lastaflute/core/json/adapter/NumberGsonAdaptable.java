@@ -45,10 +45,16 @@ public interface NumberGsonAdaptable { // to show property path in exception mes
 
         protected final JsonMappingOption option;
         protected final JsonSimpleTextReadingFilter readingFilter; // null allowed
+        protected final boolean emptyToNullReading; // resolved when created
+        protected final boolean nullToEmptyWriting; // resolved when created
+        protected final boolean everywhereQuoteWriting; // resolved when created
 
         public AbstractTypeAdapterNumber(JsonMappingOption option) {
             this.option = option;
             this.readingFilter = option.getSimpleTextReadingFilter().orElse(null); // cache, unwrap for performance
+            this.emptyToNullReading = option.isEmptyToNullReading();
+            this.nullToEmptyWriting = option.isNullToEmptyWriting();
+            this.everywhereQuoteWriting = option.isEverywhereQuoteWriting();
         }
 
         @Override
@@ -83,7 +89,7 @@ public interface NumberGsonAdaptable { // to show property path in exception mes
         }
 
         protected boolean isEmptyToNullReading() {
-            return option.isEmptyToNullReading();
+            return emptyToNullReading;
         }
 
         @Override
@@ -100,11 +106,11 @@ public interface NumberGsonAdaptable { // to show property path in exception mes
         }
 
         protected boolean isNullToEmptyWriting() {
-            return option.isNullToEmptyWriting();
+            return nullToEmptyWriting;
         }
 
         protected boolean isEverywhereQuoteWriting() {
-            return option.isEverywhereQuoteWriting();
+            return everywhereQuoteWriting;
         }
 
         protected abstract TypeAdapter<NUM> getRealAdapter();
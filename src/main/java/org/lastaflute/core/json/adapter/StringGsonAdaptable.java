@@ -39,10 +39,14 @@ public interface StringGsonAdaptable { // to show property path in exception mes
         protected final TypeAdapter<String> realAdapter = TypeAdapters.STRING;
         protected final JsonMappingOption option;
         protected final JsonSimpleTextReadingFilter readingFilter; // null allowed
+        protected final boolean emptyToNullReading; // resolved when created
+        protected final boolean nullToEmptyWriting; // resolved when created
 
         public TypeAdapterString(JsonMappingOption option) {
             this.option = option;
             this.readingFilter = option.getSimpleTextReadingFilter().orElse(null); // cache, unwrap for performance
+            this.emptyToNullReading = option.isEmptyToNullReading();
+            this.nullToEmptyWriting = option.isNullToEmptyWriting();
         }
 
         @Override
@@ -63,7 +67,7 @@ public interface StringGsonAdaptable { // to show property path in exception mes
         }
 
         protected boolean isEmptyToNullReading() {
-            return option.isEmptyToNullReading();
+            return emptyToNullReading;
         }
 
         @Override
@@ -76,7 +80,7 @@ public interface StringGsonAdaptable { // to show property path in exception mes
         }
 
         protected boolean isNullToEmptyWriting() {
-            return option.isNullToEmptyWriting();
+            return nullToEmptyWriting;
         }
     }
 
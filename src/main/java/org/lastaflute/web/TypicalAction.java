@@ -206,7 +206,7 @@ public abstract class TypicalAction extends LastaAction implements ActionHook, L
     }
 
     protected int calculateSqlExecutionCountLimit(ActionRuntime runtime) {
-        return runtime.getActionExecute().getSqlExecutionCountLimit().orElse(30);
+        return runtime.getExecutePlan().getSqlExecutionCountLimit().orElse(30);
     }
 
     // -----------------------------------------------------
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2015-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, 
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.web.api;
+
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * The stream of JSON body elements, which reads the list JSON from request body element by element. <br>
+ * Define it as action argument instead of List&lt;SeaBody&gt; for large body e.g. bulk import,
+ * then memory usage does not depend on the element count.
+ * <pre>
+ * &#064;Execute
+ * public JsonResponse&lt;Void&gt; index(JsonBodyStream&lt;SeaBody&gt; <span style="color: #553000">bodyStream</span>) {
+ *     <span style="color: #553000">bodyStream</span>.forEach(<span style="color: #553000">body</span> <span style="font-size: 120%">-</span>&gt; {
+ *         validateApi(<span style="color: #553000">body</span>, <span style="color: #553000">messages</span> <span style="font-size: 120%">-</span>&gt; {}); <span style="color: #3F7E5E">// validated per element</span>
+ *         ...
+ *     });
+ *     return JsonResponse.asEmptyBody();
+ * }
+ * </pre>
+ * The elements can be read only once, and should be read in the execute method (while request body is alive).
+ * @param <BODY> The type of JSON body as element.
+ * @author jflute
+ * @since 0.8.4
+ */
+public class JsonBodyStream<BODY> {
+
+    // ===================================================================================
+    //                                                                           Attribute
+    //                                                                           =========
+    protected final Class<BODY> bodyType; // not null
+    protected final Iterator<BODY> elementIterator; // not null, parsing when iterated
+    protected boolean consumed; // true after forEach() or stream()
+
+    // ===================================================================================
+    //                                                                         Constructor
+    //                                                                         ===========
+    /**
+     * @param bodyType The type of JSON body as element. (NotNull)
+     * @param elementIterator The iterator of elements, which parses the element when iterated. (NotNull)
+     */
+    public JsonBodyStream(Class<BODY> bodyType, Iterator<BODY> elementIterator) {
+        assertArgumentNotNull("bodyType", bodyType);
+        assertArgumentNotNull("elementIterator", elementIterator);
+        this.bodyType = bodyType;
+        this.elementIterator = elementIterator;
+    }
+
+    // ===================================================================================
+    //                                                                         Read Stream
+    //                                                                         ===========
+    /**
+     * Read the JSON body element by element, and handle each element by the callback. <br>
+     * The next element is not parsed until the callback of the previous element returns,
+     * so you can validate (and stop by validation error) each element in the callback.
+     * @param bodyLambda The callback for each element, e.g. validate and save it. (NotNull)
+     * @return The count of handled elements. (NotMinus)
+     */
+    public int forEach(Consumer<BODY> bodyLambda) {
+        assertArgumentNotNull("bodyLambda", bodyLambda);
+        markConsumed();
+        int count = 0;
+        while (elementIterator.hasNext()) {
+            bodyLambda.accept(elementIterator.next());
+            ++count;
+        }
+        return count;
+    }
+
+    /**
+     * Read the JSON body as sequential stream, which parses the element when the stream pulls it.
+     * @return The sequential stream of elements, should be consumed only once. (NotNull)
+     */
+    public Stream<BODY> stream() {
+        markConsumed();
+        final int characteristics = Spliterator.ORDERED;
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(elementIterator, characteristics), false);
+    }
+
+    protected void markConsumed() {
+        if (consumed) {
+            String msg = "The JSON body stream has been already read, cannot read it twice: " + bodyType;
+            throw new IllegalStateException(msg);
+        }
+        consumed = true;
+    }
+
+    // ===================================================================================
+    //                                                                        Small Helper
+    //                                                                        ============
+    protected void assertArgumentNotNull(String variableName, Object value) {
+        if (variableName == null) {
+            throw new IllegalArgumentException("The variableName should not be null.");
+        }
+        if (value == null) {
+            throw new IllegalArgumentException("The argument '" + variableName + "' should not be null.");
+        }
+    }
+
+    // ===================================================================================
+    //                                                                      Basic Override
+    //                                                                      ==============
+    @Override
+    public String toString() {
+        return "bodyStream:{" + bodyType.getSimpleName() + (consumed ? ", consumed" : "") + "}";
+    }
+
+    // ===================================================================================
+    //                                                                            Accessor
+    //                                                                            ========
+    public Class<BODY> getBodyType() {
+        return bodyType;
+    }
+
+    public boolean isConsumed() {
+        return consumed;
+    }
+}
@@ -809,7 +809,11 @@ public abstract class TypicalLoginAssist<ID, USER_BEAN extends UserBean<ID>, USE
     }
 
     protected boolean isExplicitAllowAnyoneAccessAction(LoginHandlingResource resource) {
-        return hasAnnotation(resource.getActionClass(), resource.getExecuteMethod(), getAllowAnyoneAccessAnnotationType());
+        final Class<? extends Annotation> annoType = getAllowAnyoneAccessAnnotationType();
+        if (AllowAnyoneAccess.class.equals(annoType)) { // default annotation is already determined
+            return resource.getActionRuntime().getExecutePlan().isAllowAnyoneAccess();
+        }
+        return hasAnnotation(resource.getActionClass(), resource.getExecuteMethod(), annoType);
     }
 
     protected Class<? extends Annotation> getAllowAnyoneAccessAnnotationType() {
@@ -95,6 +95,33 @@ public interface ActionAdjustmentProvider {
         return null;
     }
 
+    /**
+     * Provide the max size of routing cache, which keeps found actions (or not-found) per request path. <br>
+     * The cache is used only when cool deploy, and cleared when the action mappings are disposed. <br>
+     * If you customize the request path for action mapping, the customization should be stable per request path.
+     * @return The max count of cached request paths. (zero or minus: no cache)
+     */
+    default int provideRoutingCacheSize() {
+        return 0;
+    }
+
+    /**
+     * Adjust the bulkhead of the action execute, which limits concurrent requests of the action. <br>
+     * This method is called once per action execute at first request (and after hot deploy). <br>
+     * Requests over the limit are rejected as 503 (Service Unavailable).
+     * <pre>
+     * e.g. report export action
+     *  if (execute.getExecuteMethod().getDeclaringClass().equals(ReportAction.class)) {
+     *      return new ActionBulkheadOption(4).waitQueue(8, 3000L);
+     *  }
+     * </pre>
+     * @param execute The action execute of current request. (NotNull)
+     * @return The option of action bulkhead. (NullAllowed: if null, no bulkhead)
+     */
+    default ActionBulkheadOption adjustActionBulkhead(ActionExecute execute) {
+        return null;
+    }
+
     /**
      * Adjust (defined) action response just before reflection to response, e.g. header.
      * @param response The defined action response. (NotNull)
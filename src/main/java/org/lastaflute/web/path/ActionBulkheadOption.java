@@ -0,0 +1,116 @@
+/*
+ * Copyright 2015-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.web.path;
+
+import org.dbflute.util.DfTypeUtil;
+
+/**
+ * The option of action bulkhead, which limits concurrent requests of the action execute.
+ * <pre>
+ * e.g. max 4 requests in flight, max 8 requests waiting for 3 seconds
+ *  new ActionBulkheadOption(4).waitQueue(8, 3000L)
+ * e.g. shared by several executes (so the max count is for them)
+ *  new ActionBulkheadOption(4).shareBy("report")
+ * </pre>
+ * @author jflute
+ * @since 0.8.4
+ */
+public class ActionBulkheadOption {
+
+    // ===================================================================================
+    //                                                                           Attribute
+    //                                                                           =========
+    protected final int maxInFlight; // positive
+    protected int waitQueueSize; // zero means no waiting
+    protected long waitTimeoutMillis;
+    protected String bulkheadName; // null allowed, if null, per action execute
+
+    // ===================================================================================
+    //                                                                         Constructor
+    //                                                                         ===========
+    /**
+     * @param maxInFlight The max count of requests processed concurrently. (NotMinus, NotZero)
+     */
+    public ActionBulkheadOption(int maxInFlight) {
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("The argument 'maxInFlight' should be positive: " + maxInFlight);
+        }
+        this.maxInFlight = maxInFlight;
+    }
+
+    // ===================================================================================
+    //                                                                              Facade
+    //                                                                              ======
+    /**
+     * Accept waiting requests when the bulkhead is full. (default is no waiting, rejected immediately)
+     * @param waitQueueSize The max count of waiting requests. (NotMinus)
+     * @param waitTimeoutMillis The timeout milliseconds for waiting, rejected if over. (NotMinus)
+     * @return this. (NotNull)
+     */
+    public ActionBulkheadOption waitQueue(int waitQueueSize, long waitTimeoutMillis) {
+        if (waitQueueSize < 0) {
+            throw new IllegalArgumentException("The argument 'waitQueueSize' should not be minus: " + waitQueueSize);
+        }
+        if (waitTimeoutMillis < 0) {
+            throw new IllegalArgumentException("The argument 'waitTimeoutMillis' should not be minus: " + waitTimeoutMillis);
+        }
+        this.waitQueueSize = waitQueueSize;
+        this.waitTimeoutMillis = waitTimeoutMillis;
+        return this;
+    }
+
+    /**
+     * Share the bulkhead by the name, executes that have the same name use the same bulkhead. <br>
+     * The first option of the name is used for the bulkhead settings.
+     * @param bulkheadName The name of shared bulkhead. (NotNull, NotEmpty)
+     * @return this. (NotNull)
+     */
+    public ActionBulkheadOption shareBy(String bulkheadName) {
+        if (bulkheadName == null || bulkheadName.trim().isEmpty()) {
+            throw new IllegalArgumentException("The argument 'bulkheadName' should not be null or empty: " + bulkheadName);
+        }
+        this.bulkheadName = bulkheadName;
+        return this;
+    }
+
+    // ===================================================================================
+    //                                                                      Basic Override
+    //                                                                      ==============
+    @Override
+    public String toString() {
+        final String title = DfTypeUtil.toClassTitle(this);
+        return title + ":{" + maxInFlight + ", queue=" + waitQueueSize + ", timeout=" + waitTimeoutMillis + ", " + bulkheadName + "}";
+    }
+
+    // ===================================================================================
+    //                                                                            Accessor
+    //                                                                            ========
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public int getWaitQueueSize() {
+        return waitQueueSize;
+    }
+
+    public long getWaitTimeoutMillis() {
+        return waitTimeoutMillis;
+    }
+
+    public String getBulkheadName() { // null allowed
+        return bulkheadName;
+    }
+}
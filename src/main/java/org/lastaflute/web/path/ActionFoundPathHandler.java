@@ -16,6 +16,7 @@
 package org.lastaflute.web.path;
 
 import org.lastaflute.web.ruts.config.ActionExecute;
+import org.lastaflute.web.ruts.config.UrlParamMatchResult;
 
 /**
  * @author jflute
@@ -36,4 +37,20 @@ public interface ActionFoundPathHandler {
      * @throws Exception When the handling process throws something.
      */
     boolean handleActionPath(String requestPath, String actionName, String paramPath, ActionExecute methodByParam) throws Exception;
+
+    /**
+     * Handle the found action path with the result of URL parameter matching. <br>
+     * The matched values can be reused so that URL pattern is not evaluated again. <br>
+     * As default, the result is ignored and the plain handling is called.
+     * @param requestPath The path of request. (NotNull)
+     * @param actionName The component name of found action. (NotNull)
+     * @param paramPath The path for parameters. (NotNull, EmptyAllowed)
+     * @param matchResult The result of URL parameter matching, which has action execute. (NullAllowed: when the path of parameter is empty)
+     * @return Is it handled? (true if the action was found by the path)
+     * @throws Exception When the handling process throws something.
+     */
+    default boolean handleActionPath(String requestPath, String actionName, String paramPath, UrlParamMatchResult matchResult)
+            throws Exception {
+        return handleActionPath(requestPath, actionName, paramPath, matchResult != null ? matchResult.getExecute() : null);
+    }
 }
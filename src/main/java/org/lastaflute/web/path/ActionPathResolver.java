@@ -16,7 +16,9 @@
 package org.lastaflute.web.path;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.Resource;
@@ -27,14 +29,23 @@ import org.dbflute.util.DfCollectionUtil;
 import org.dbflute.util.DfStringUtil;
 import org.dbflute.util.Srl;
 import org.lastaflute.core.direction.FwAssistantDirector;
+import org.lastaflute.core.smartdeploy.ManagedHotdeploy;
+import org.lastaflute.core.util.ContainerUtil;
 import org.lastaflute.di.core.LaContainer;
 import org.lastaflute.di.naming.NamingConvention;
 import org.lastaflute.di.util.LdiStringUtil;
 import org.lastaflute.web.UrlChain;
 import org.lastaflute.web.direction.FwWebDirection;
 import org.lastaflute.web.exception.ActionClassPackageMismatchException;
+import org.lastaflute.web.path.ActionRoutingCache.RoutingHit;
+import org.lastaflute.web.path.ActionRoutingTrie.RoutingNode;
 import org.lastaflute.web.ruts.config.ActionExecute;
+import org.lastaflute.web.ruts.config.ActionMapping;
+import org.lastaflute.web.ruts.config.ModuleConfig;
+import org.lastaflute.web.ruts.config.UrlParamMatchResult;
+import org.lastaflute.web.servlet.request.RequestManager;
 import org.lastaflute.web.util.LaActionExecuteUtil;
+import org.lastaflute.web.util.LaModuleConfigUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -69,6 +80,21 @@ public class ActionPathResolver {
     /** The provider of action adjustment. (NotNull: after initialization) */
     protected ActionAdjustmentProvider actionAdjustmentProvider;
 
+    /** The trie of action path for routing, built at first routing. (NullAllowed: before routing, or when hot deploy) */
+    protected volatile ActionRoutingTrie routingTrie;
+
+    /** Is the routing trie already prepared? (also true when the trie cannot be built) */
+    protected volatile boolean routingTriePrepared;
+
+    /** The cache of routing result per request path. (NullAllowed: when no cache size) */
+    protected ActionRoutingCache routingCache;
+
+    /** The request manager to get HTTP method for routing cache key, lazy-loaded. (NullAllowed: before routing) */
+    protected volatile RequestManager cachedRequestManager;
+
+    /** The reverse routing table of action path per action type, e.g. SeaLandAction to /sea/land/. (NotNull) */
+    protected final Map<Class<?>, String> actionPathMap = DfCollectionUtil.newConcurrentHashMap();
+
     // ===================================================================================
     //                                                                          Initialize
     //                                                                          ==========
@@ -80,6 +106,7 @@ public class ActionPathResolver {
     public synchronized void initialize() {
         final FwWebDirection direction = assistOptionalActionDirection();
         actionAdjustmentProvider = direction.assistActionAdjustmentProvider();
+        routingCache = createRoutingCache();
         showBootLogging();
     }
 
@@ -87,10 +114,18 @@ public class ActionPathResolver {
         return assistantDirector.assistWebDirection();
     }
 
+    protected ActionRoutingCache createRoutingCache() {
+        final int cacheSize = actionAdjustmentProvider.provideRoutingCacheSize();
+        return cacheSize > 0 && !ManagedHotdeploy.isHotdeploy() ? new ActionRoutingCache(cacheSize) : null;
+    }
+
     protected void showBootLogging() {
         if (logger.isInfoEnabled()) {
             logger.info("[Action Resolver]");
             logger.info(" actionAdjustmentProvider: " + actionAdjustmentProvider);
+            if (routingCache != null) {
+                logger.info(" routingCache: " + routingCache);
+            }
         }
     }
 
@@ -108,9 +143,174 @@ public class ActionPathResolver {
         assertArgumentNotNull("requestPath", requestPath);
         assertArgumentNotNull("handler", handler);
         final String customized = actionAdjustmentProvider.customizeActionMappingRequestPath(requestPath);
-        return doHandleActionPath(customized != null ? customized : requestPath, handler);
+        final String mappingPath = customized != null ? customized : requestPath;
+        if (routingCache != null) {
+            final String cacheKey = buildRoutingCacheKey(mappingPath);
+            if (cacheKey != null) {
+                return doHandleActionPathByCache(routingCache, cacheKey, mappingPath, handler);
+            }
+        }
+        return doHandleActionPathBySearching(mappingPath, handler);
+    }
+
+    protected boolean doHandleActionPathBySearching(String mappingPath, ActionFoundPathHandler handler) throws Exception {
+        final ActionRoutingTrie trie = prepareRoutingTrie();
+        if (trie != null) { // basically when cool deploy
+            return doHandleActionPathByTrie(trie, mappingPath, handler);
+        } else { // e.g. hot deploy (action components are lazy-loaded)
+            return doHandleActionPath(mappingPath, handler);
+        }
+    }
+
+    // -----------------------------------------------------
+    //                                         Routing Cache
+    //                                         -------------
+    protected String buildRoutingCacheKey(String mappingPath) {
+        if (mappingPath.length() > getRoutingCacheKeyPathLimit()) { // e.g. long parameters, not worth caching
+            return null;
+        }
+        // HTTP method is needed because e.g. RESTful execute methods are matched by it
+        final String httpMethod = getRequestManager().getHttpMethod().orElse("");
+        final String normalizedPath = mappingPath.endsWith("/") ? mappingPath.substring(0, mappingPath.length() - 1) : mappingPath;
+        return httpMethod + " " + normalizedPath; // e.g. GET /sea/land (same routing as /sea/land/)
+    }
+
+    protected int getRoutingCacheKeyPathLimit() {
+        return 256;
+    }
+
+    protected boolean doHandleActionPathByCache(ActionRoutingCache cache, String cacheKey, String mappingPath,
+            ActionFoundPathHandler handler) throws Exception {
+        final int generation = LaModuleConfigUtil.getModuleConfig().getDisposedCount();
+        List<RoutingHit> hitList = cache.find(cacheKey, generation);
+        if (hitList == null) { // not cached yet
+            // collect all routing hits by recording handler (not stop at first hit)
+            // because the actual handler may skip the hit e.g. by no execute method for the request
+            final List<RoutingHit> recordedList = new ArrayList<RoutingHit>(2);
+            doHandleActionPathBySearching(mappingPath, createRoutingHitRecorder(recordedList));
+            cache.cache(cacheKey, generation, recordedList); // empty list means not found (negative cache)
+            hitList = recordedList;
+        }
+        for (RoutingHit hit : hitList) { // same order as searching
+            if (handler.handleActionPath(mappingPath, hit.getActionName(), hit.getParamPath(), hit.getMatchResult())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    protected ActionFoundPathHandler createRoutingHitRecorder(List<RoutingHit> recordedList) {
+        return new ActionFoundPathHandler() {
+            public boolean handleActionPath(String requestPath, String actionName, String paramPath, UrlParamMatchResult matchResult)
+                    throws Exception {
+                recordedList.add(new RoutingHit(actionName, paramPath, matchResult));
+                return false; // to continue searching
+            }
+
+            public boolean handleActionPath(String requestPath, String actionName, String paramPath, ActionExecute execByParam)
+                    throws Exception {
+                throw new IllegalStateException("Not called from resolver: " + actionName + ", " + paramPath);
+            }
+        };
+    }
+
+    // #hope no use DI container here (same as action execute)
+    protected RequestManager getRequestManager() {
+        if (cachedRequestManager != null) {
+            return cachedRequestManager;
+        }
+        synchronized (this) {
+            if (cachedRequestManager != null) {
+                return cachedRequestManager;
+            }
+            cachedRequestManager = ContainerUtil.getComponent(RequestManager.class);
+        }
+        return cachedRequestManager;
     }
 
+    // -----------------------------------------------------
+    //                                          Routing Trie
+    //                                          ------------
+    protected ActionRoutingTrie prepareRoutingTrie() {
+        if (!isRoutingTrieAvailable()) {
+            return null;
+        }
+        if (routingTriePrepared) {
+            return routingTrie;
+        }
+        synchronized (this) {
+            if (routingTriePrepared) {
+                return routingTrie;
+            }
+            routingTrie = buildRoutingTrie(LaModuleConfigUtil.getModuleConfig()); // null allowed
+            routingTriePrepared = true;
+            if (logger.isDebugEnabled()) {
+                logger.debug("...Preparing routing trie: " + routingTrie);
+            }
+        }
+        return routingTrie;
+    }
+
+    protected boolean isRoutingTrieAvailable() {
+        // all action mappings are registered at boot unless hot deploy
+        // (hot deploy needs to ask container because actions are lazy-loaded)
+        return !ManagedHotdeploy.isHotdeploy();
+    }
+
+    protected ActionRoutingTrie buildRoutingTrie(ModuleConfig moduleConfig) {
+        final List<ActionMapping> mappingList = moduleConfig.getActionMappingList();
+        final List<String> actionNameList = new ArrayList<String>(mappingList.size());
+        for (ActionMapping mapping : mappingList) {
+            actionNameList.add(mapping.getActionName());
+        }
+        return ActionRoutingTrie.build(actionNameList, namingConvention.getActionSuffix());
+    }
+
+    protected boolean doHandleActionPathByTrie(ActionRoutingTrie trie, String requestPath, ActionFoundPathHandler handler)
+            throws Exception {
+        // same order as container searching, but only one walk (no name building and no container access)
+        final String[] names = LdiStringUtil.split(requestPath, "/"); // e.g. [sea, land] if /sea/land/
+        final boolean existsRootAction = trie.existsRootAction();
+        final String rootAction = ActionRoutingTrie.ROOT_ACTION_NAME;
+        if (names.length == 0) { // root action, / => rootAction
+            if (existsRootAction) {
+                if (actuallyHandleActionPath(requestPath, handler, rootAction, null)) {
+                    return true;
+                }
+            }
+        }
+        RoutingNode node = trie.getRootNode(); // null after no more candidate
+        for (int index = 0; index < names.length; index++) {
+            final String currentName = names[index];
+            if (containsNotAllowedCharacterAsActionPath(currentName)) { // e.g. /Sea/land/, /sea/Land/
+                return false; // cannot use upper case in action path (while, allowed in param path)
+            }
+            node = node != null ? node.findChild(currentName) : null;
+            if (node != null) {
+                final List<String> candidateList = node.getCandidateList(); // e.g. seaLandAction, sea_seaLandAction, ...
+                if (!candidateList.isEmpty()) {
+                    final String paramPath = buildParamPath(names, index + 1);
+                    for (String actionName : candidateList) {
+                        if (actuallyHandleActionPath(requestPath, handler, actionName, paramPath)) {
+                            return true;
+                        }
+                    }
+                }
+            }
+        }
+        if (names.length > 0) { // e.g. /sea/land but not found except root action
+            if (existsRootAction) {
+                if (actuallyHandleActionPath(requestPath, handler, rootAction, buildParamPath(names, 0))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // -----------------------------------------------------
+    //                                   Container Searching
+    //                                   -------------------
     protected boolean doHandleActionPath(String requestPath, ActionFoundPathHandler handler) throws Exception {
         final String[] names = LdiStringUtil.split(requestPath, "/"); // e.g. [sea, land] if /sea/land/
         final LaContainer root = container.getRoot(); // because actions are in root
@@ -264,13 +464,17 @@ public class ActionPathResolver {
     protected boolean actuallyHandleActionPath(String requestPath, ActionFoundPathHandler handler, String actionName, String paramPath)
             throws Exception {
         final boolean emptyParam = paramPath == null || paramPath.isEmpty();
-        final ActionExecute execByParam = !emptyParam ? findExecuteConfig(actionName, paramPath).orElse(null) : null;
-        if (emptyParam || execByParam != null) { // certainly hit
-            return handler.handleActionPath(requestPath, actionName, paramPath, execByParam);
+        final UrlParamMatchResult matchResult = !emptyParam ? matchExecuteConfig(actionName, paramPath).orElse(null) : null;
+        if (emptyParam || matchResult != null) { // certainly hit
+            return handler.handleActionPath(requestPath, actionName, paramPath, matchResult);
         }
         return false;
     }
 
+    protected OptionalThing<UrlParamMatchResult> matchExecuteConfig(String actionName, String paramPath) {
+        return LaActionExecuteUtil.matchActionExecute(actionName, paramPath);
+    }
+
     protected OptionalThing<ActionExecute> findExecuteConfig(String actionName, String paramPath) {
         return LaActionExecuteUtil.findActionExecute(actionName, paramPath);
     }
@@ -301,9 +505,9 @@ public class ActionPathResolver {
     public String toActionUrl(Class<?> actionType, UrlChain chain) {
         assertArgumentNotNull("actionType", actionType);
         assertArgumentNotNull("chain", chain);
-        final String actionPath = resolveActionPath(actionType);
+        final String actionPath = resolveActionPath(actionType); // basically from reverse routing table
         final List<Object> getParamList = extractGetParamList(chain);
-        final StringBuilder sb = new StringBuilder();
+        final StringBuilder sb = new StringBuilder(actionPath.length() + estimateChainLength(chain));
         sb.append(actionPath);
         buildUrlParts(sb, chain);
         buildGetParam(sb, actionPath, getParamList);
@@ -311,11 +515,18 @@ public class ActionPathResolver {
         return sb.toString();
     }
 
+    protected int estimateChainLength(UrlChain chain) { // to avoid buffer expanding
+        final Object[] urlParts = chain.getUrlParts();
+        final Object[] paramsOnGet = chain.getParamsOnGet();
+        final int elementCount = (urlParts != null ? urlParts.length : 0) + (paramsOnGet != null ? paramsOnGet.length : 0);
+        return elementCount * 12 + (chain.getHashOnUrl() != null ? 16 : 0); // rough estimation
+    }
+
     protected List<Object> extractGetParamList(UrlChain chain) {
         final Object[] paramsOnGet = chain != null ? chain.getParamsOnGet() : null;
         final List<Object> getParamList;
         if (paramsOnGet != null) {
-            getParamList = DfCollectionUtil.newArrayList(paramsOnGet);
+            getParamList = Arrays.asList(paramsOnGet); // only for reading so no copy
         } else {
             getParamList = DfCollectionUtil.emptyList();
         }
@@ -368,7 +579,27 @@ public class ActionPathResolver {
     // -----------------------------------------------------
     //                                    Resolve ActionPath
     //                                    ------------------
+    /**
+     * Resolve the action path of the action type, e.g. SeaLandAction to /sea/land/.
+     * @param actionType The class type of action. (NotNull)
+     * @return The path of the action, starts and ends with slash. (NotNull)
+     */
     public String resolveActionPath(Class<?> actionType) {
+        if (!isReverseRoutingTableAvailable()) { // classes are reloaded so no cache
+            return doResolveActionPath(actionType);
+        }
+        final String cached = actionPathMap.get(actionType);
+        if (cached != null) {
+            return cached;
+        }
+        return actionPathMap.computeIfAbsent(actionType, tp -> doResolveActionPath(tp)); // only first time per action
+    }
+
+    protected boolean isReverseRoutingTableAvailable() {
+        return !ManagedHotdeploy.isHotdeploy();
+    }
+
+    protected String doResolveActionPath(Class<?> actionType) {
         final String delimiter = "/";
         return delimiter + decamelize(toSimpleActionName(actionType), delimiter) + delimiter;
     }
@@ -610,4 +841,17 @@ public class ActionPathResolver {
             throw new IllegalArgumentException("The argument '" + variableName + "' should not be null.");
         }
     }
+
+    // ===================================================================================
+    //                                                                            Accessor
+    //                                                                            ========
+    /**
+     * Get the cache of routing result, e.g. to see hit/miss statistics.
+     * @return The optional routing cache. (NotNull, EmptyAllowed: when no cache size or hot deploy)
+     */
+    public OptionalThing<ActionRoutingCache> getRoutingCache() {
+        return OptionalThing.ofNullable(routingCache, () -> {
+            throw new IllegalStateException("Not found the routing cache (not enabled).");
+        });
+    }
 }
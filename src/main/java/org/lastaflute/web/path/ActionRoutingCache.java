@@ -0,0 +1,183 @@
+/*
+ * Copyright 2015-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.web.path;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.dbflute.util.DfTypeUtil;
+import org.lastaflute.core.cache.SecondChanceCache;
+import org.lastaflute.core.cache.SecondChanceCache.SecondChanceEntry;
+import org.lastaflute.web.ruts.config.UrlParamMatchResult;
+
+/**
+ * The bounded concurrent cache of routing result, keyed by e.g. HTTP method and request path. <br>
+ * The result is the list of routing hits (found action and parameter path) in searching order,
+ * so empty list means not-found path (negative cache). <br>
+ * The eviction is approximate LRU by second-chance (clock) algorithm, no lock when reading.
+ * @author jflute
+ * @since 0.8.4
+ */
+public class ActionRoutingCache extends SecondChanceCache<ActionRoutingCache.RoutingEntry> {
+
+    // ===================================================================================
+    //                                                                           Attribute
+    //                                                                           =========
+    protected volatile int generation; // module configuration generation that cached results depend on
+    protected final LongAdder invalidationCount = new LongAdder(); // statistics
+
+    // ===================================================================================
+    //                                                                         Constructor
+    //                                                                         ===========
+    /**
+     * @param maxSize The max size of cached paths, should be positive. (NotMinus, NotZero)
+     */
+    public ActionRoutingCache(int maxSize) {
+        super(maxSize, Math.min(Math.max(maxSize, 0), 1024)); // weight is one per entry
+    }
+
+    // ===================================================================================
+    //                                                                          Find/Cache
+    //                                                                          ==========
+    /**
+     * @param key The key of routing, e.g. GET /sea/land (NotNull)
+     * @param currentGeneration The current generation of module configuration, changed when disposed.
+     * @return The read-only list of cached routing hits. (NullAllowed: when not cached, EmptyAllowed: when cached as not-found)
+     */
+    public List<RoutingHit> find(String key, int currentGeneration) {
+        invalidateIfGenerationChanged(currentGeneration);
+        final RoutingEntry entry = entryMap.get(key);
+        if (entry == null) {
+            markMiss();
+            return null;
+        }
+        markHit(entry);
+        return entry.hitList;
+    }
+
+    /**
+     * @param key The key of routing, e.g. GET /sea/land (NotNull)
+     * @param currentGeneration The current generation of module configuration when routing was resolved.
+     * @param hitList The list of routing hits in searching order. (NotNull, EmptyAllowed: when not found)
+     */
+    public void cache(String key, int currentGeneration, List<RoutingHit> hitList) {
+        invalidateIfGenerationChanged(currentGeneration);
+        registerEntry(key, new RoutingEntry(Collections.unmodifiableList(hitList)), existing -> true);
+    }
+
+    protected void invalidateIfGenerationChanged(int currentGeneration) {
+        if (generation != currentGeneration) { // e.g. module configuration is disposed by hot deploy
+            evictionLock.lock();
+            try {
+                if (generation != currentGeneration) {
+                    clear();
+                    generation = currentGeneration;
+                }
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Clear all cached routing results.
+     */
+    @Override
+    public void clear() {
+        super.clear();
+        invalidationCount.increment();
+    }
+
+    // ===================================================================================
+    //                                                                        Cached Value
+    //                                                                        ============
+    protected static class RoutingEntry extends SecondChanceEntry {
+
+        protected final List<RoutingHit> hitList; // not null, read-only
+
+        public RoutingEntry(List<RoutingHit> hitList) {
+            this.hitList = hitList;
+        }
+
+        @Override
+        public long getWeight() {
+            return 1L; // by count
+        }
+    }
+
+    /**
+     * The hit of routing, which is the found action with parameter path.
+     */
+    public static class RoutingHit {
+
+        protected final String actionName; // not null
+        protected final String paramPath; // null allowed
+        protected final UrlParamMatchResult matchResult; // null allowed
+
+        public RoutingHit(String actionName, String paramPath, UrlParamMatchResult matchResult) {
+            this.actionName = actionName;
+            this.paramPath = paramPath;
+            this.matchResult = matchResult;
+        }
+
+        @Override
+        public String toString() {
+            return "hit:{" + actionName + ", " + paramPath + "}";
+        }
+
+        /**
+         * @return The component name of found action. (NotNull)
+         */
+        public String getActionName() {
+            return actionName;
+        }
+
+        /**
+         * @return The path for parameters. (NullAllowed: when root action without parameter)
+         */
+        public String getParamPath() {
+            return paramPath;
+        }
+
+        /**
+         * @return The result of URL parameter matching. (NullAllowed: when the path of parameter is empty)
+         */
+        public UrlParamMatchResult getMatchResult() {
+            return matchResult;
+        }
+    }
+
+    // ===================================================================================
+    //                                                                      Basic Override
+    //                                                                      ==============
+    @Override
+    public String toString() {
+        return DfTypeUtil.toClassTitle(this) + ":{size=" + entryMap.size() + "/" + maxWeight + ", hit=" + hitCount.sum() + ", miss="
+                + missCount.sum() + ", eviction=" + evictionCount.sum() + ", invalidation=" + invalidationCount.sum() + "}";
+    }
+
+    // ===================================================================================
+    //                                                                            Accessor
+    //                                                                            ========
+    public int getMaxSize() {
+        return (int) maxWeight;
+    }
+
+    public long getInvalidationCount() {
+        return invalidationCount.sum();
+    }
+}
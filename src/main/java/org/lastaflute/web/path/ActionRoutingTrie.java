@@ -0,0 +1,347 @@
+/*
+ * Copyright 2015-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.web.path;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.dbflute.util.DfStringUtil;
+import org.dbflute.util.DfTypeUtil;
+import org.dbflute.util.Srl;
+
+/**
+ * The immutable trie of action path segments, built from registered action names. <br>
+ * Each node has the ordered candidate actions for the path (from the node to root),
+ * which is the same order as searching component names in {@link ActionPathResolver}.
+ * <pre>
+ * e.g. /sea/land/ (candidate order)
+ *  seaLandAction          : segments [sea, land], package count 0
+ *  sea_seaLandAction      : segments [sea, land], package count 1
+ *  sea_land_seaLandAction : segments [sea, land], package count 2
+ * </pre>
+ * @author jflute
+ * @since 0.8.4
+ */
+public class ActionRoutingTrie {
+
+    // ===================================================================================
+    //                                                                          Definition
+    //                                                                          ==========
+    public static final String ROOT_ACTION_NAME = "rootAction";
+
+    /** The max count of ambiguous boundaries in one action name, e.g. sea2nd can be /sea2nd/ or /sea/2nd/. */
+    protected static final int AMBIGUOUS_BOUNDARY_LIMIT = 8;
+
+    // ===================================================================================
+    //                                                                           Attribute
+    //                                                                           =========
+    protected final RoutingNode rootNode; // not null, root of segments (has no candidate)
+    protected final boolean existsRootAction;
+    protected final int actionCount;
+
+    // ===================================================================================
+    //                                                                         Constructor
+    //                                                                         ===========
+    protected ActionRoutingTrie(RoutingNode rootNode, boolean existsRootAction, int actionCount) {
+        this.rootNode = rootNode;
+        this.existsRootAction = existsRootAction;
+        this.actionCount = actionCount;
+    }
+
+    // ===================================================================================
+    //                                                                               Build
+    //                                                                               =====
+    /**
+     * Build the routing trie from the action names.
+     * @param actionNameList The collection of component names of action e.g. sea_seaLandAction. (NotNull)
+     * @param actionSuffix The suffix of action component name e.g. Action. (NotNull)
+     * @return The new-created routing trie. (NullAllowed: when the action names cannot be routed by trie)
+     */
+    public static ActionRoutingTrie build(Collection<String> actionNameList, String actionSuffix) {
+        final RoutingNode rootNode = new RoutingNode(0);
+        boolean existsRootAction = false;
+        for (String actionName : actionNameList) {
+            if (ROOT_ACTION_NAME.equals(actionName)) {
+                existsRootAction = true; // also registered as /root/ below (same as resolver)
+            }
+            final ActionNameDecomposition decomposition = decompose(actionName, actionSuffix);
+            if (decomposition == null) { // e.g. sea_landAction (cannot be routed by convention)
+                continue;
+            }
+            if (decomposition.isOverAmbiguous()) { // too many variations so give up trie
+                return null;
+            }
+            for (List<String> segmentList : decomposition.getSegmentVariationList()) {
+                RoutingNode current = rootNode;
+                for (String segment : segmentList) {
+                    current = current.prepareChild(segment);
+                }
+                current.registerCandidate(decomposition.getPackageCount(), actionName);
+            }
+        }
+        rootNode.freeze();
+        return new ActionRoutingTrie(rootNode, existsRootAction, actionNameList.size());
+    }
+
+    // -----------------------------------------------------
+    //                                         Decomposition
+    //                                         -------------
+    // _/_/_/_/_/_/_/_/_/_/_/_/_/_/_/_/_/_/_/_/_/_/_/_/_/_/_/_/_/_/_/_/_/_/_/_/_/_/_/_/_/_/
+    // reverse of name building in resolver:
+    //   sea_land_seaLandIksAction
+    //    => package segments [sea, land] (package count 2)
+    //    => class prefix seaLandIks, starts with camel-joined package 'seaLand'
+    //    => rest 'Iks' => segments [sea, land, iks]
+    // _/_/_/_/_/_/_/_/_/_/
+    protected static ActionNameDecomposition decompose(String actionName, String actionSuffix) {
+        if (!actionName.endsWith(actionSuffix)) {
+            return null;
+        }
+        final String body = actionName.substring(0, actionName.length() - actionSuffix.length());
+        final List<String> packageList = new ArrayList<String>(DfStringUtil.splitList(body, "_"));
+        final String classPrefix = packageList.remove(packageList.size() - 1);
+        if (classPrefix.isEmpty()) {
+            return null;
+        }
+        final StringBuilder joinedSb = new StringBuilder();
+        for (String pkg : packageList) {
+            if (pkg.isEmpty() || Srl.isUpperCaseAny(pkg)) { // cannot be requested
+                return null;
+            }
+            joinedSb.append(joinedSb.length() == 0 ? pkg : initCap(pkg));
+        }
+        final String joined = joinedSb.toString();
+        if (!classPrefix.startsWith(joined)) { // e.g. sea_landAction
+            return null;
+        }
+        final String rest = classPrefix.substring(joined.length()); // e.g. Iks or seaLand (when no package)
+        final boolean firstUncapped = packageList.isEmpty(); // first segment of no-package action is not capitalized
+        final List<List<String>> restVariationList = splitRestSegments(rest, firstUncapped);
+        if (restVariationList == null) {
+            return null;
+        }
+        if (restVariationList.isEmpty()) { // over limit
+            return new ActionNameDecomposition(packageList.size(), Collections.emptyList(), true);
+        }
+        final List<List<String>> variationList = new ArrayList<List<String>>(restVariationList.size());
+        for (List<String> restSegmentList : restVariationList) {
+            final List<String> segmentList = new ArrayList<String>(packageList.size() + restSegmentList.size());
+            segmentList.addAll(packageList);
+            segmentList.addAll(restSegmentList);
+            variationList.add(segmentList);
+        }
+        return new ActionNameDecomposition(packageList.size(), variationList, false);
+    }
+
+    /**
+     * @param rest The rest string of class prefix, might be empty. (NotNull)
+     * @param firstUncapped Is the first segment written as plain (not capitalized)?
+     * @return The list of segment variations. (NullAllowed: when invalid, EmptyAllowed: when over ambiguous limit)
+     */
+    protected static List<List<String>> splitRestSegments(String rest, boolean firstUncapped) {
+        if (rest.isEmpty()) {
+            final List<List<String>> variationList = new ArrayList<List<String>>(1);
+            variationList.add(Collections.emptyList());
+            return variationList;
+        }
+        // segments in request path cannot have upper case, so upper case is always boundary,
+        // and uncased character (e.g. digit) can be boundary or not because initCap() keeps it
+        final List<Integer> ambiguousList = new ArrayList<Integer>(2);
+        final char firstCh = rest.charAt(0);
+        if (firstUncapped ? Character.isUpperCase(firstCh) : Character.isLowerCase(firstCh)) {
+            return null; // e.g. SeaAction (no package) or sea_sealandAction
+        }
+        for (int i = 1; i < rest.length(); i++) {
+            if (isUncasedChar(rest.charAt(i))) {
+                ambiguousList.add(i);
+            }
+        }
+        if (ambiguousList.size() > AMBIGUOUS_BOUNDARY_LIMIT) {
+            return Collections.emptyList();
+        }
+        final int variationCount = 1 << ambiguousList.size();
+        final List<List<String>> variationList = new ArrayList<List<String>>(variationCount);
+        for (int bits = 0; bits < variationCount; bits++) {
+            final List<String> segmentList = new ArrayList<String>(4);
+            int begin = 0;
+            for (int i = 1; i <= rest.length(); i++) {
+                final boolean boundary;
+                if (i == rest.length()) {
+                    boundary = true;
+                } else if (Character.isUpperCase(rest.charAt(i))) {
+                    boundary = true;
+                } else {
+                    final int ambiguousIndex = ambiguousList.indexOf(i);
+                    boundary = ambiguousIndex >= 0 && (bits & (1 << ambiguousIndex)) != 0;
+                }
+                if (boundary) {
+                    final String written = rest.substring(begin, i);
+                    final boolean uncapped = firstUncapped && begin == 0;
+                    final String segment = uncapped ? written : initUncap(written);
+                    if (!(uncapped ? segment : initCap(segment)).equals(written)) { // e.g. special case character
+                        return null;
+                    }
+                    segmentList.add(segment);
+                    begin = i;
+                }
+            }
+            variationList.add(segmentList);
+        }
+        return variationList;
+    }
+
+    protected static boolean isUncasedChar(char ch) {
+        return !Character.isUpperCase(ch) && !Character.isLowerCase(ch);
+    }
+
+    protected static String initCap(String str) {
+        return DfStringUtil.initCap(str);
+    }
+
+    protected static String initUncap(String str) {
+        return DfStringUtil.initUncap(str);
+    }
+
+    protected static class ActionNameDecomposition {
+
+        protected final int packageCount;
+        protected final List<List<String>> segmentVariationList; // not null
+        protected final boolean overAmbiguous;
+
+        public ActionNameDecomposition(int packageCount, List<List<String>> segmentVariationList, boolean overAmbiguous) {
+            this.packageCount = packageCount;
+            this.segmentVariationList = segmentVariationList;
+            this.overAmbiguous = overAmbiguous;
+        }
+
+        public int getPackageCount() {
+            return packageCount;
+        }
+
+        public List<List<String>> getSegmentVariationList() {
+            return segmentVariationList;
+        }
+
+        public boolean isOverAmbiguous() {
+            return overAmbiguous;
+        }
+    }
+
+    // ===================================================================================
+    //                                                                        Routing Node
+    //                                                                        ============
+    public static class RoutingNode {
+
+        protected final int depth; // zero if root node
+        protected Map<String, RoutingNode> childMap; // null allowed if no child, read-only after freeze
+        protected String[] candidates; // indexed by package count, has depth + 1 size, null element allowed
+        protected List<String> candidateList; // not null after freeze, read-only, ordered by package count
+
+        public RoutingNode(int depth) {
+            this.depth = depth;
+        }
+
+        protected RoutingNode prepareChild(String segment) {
+            if (childMap == null) {
+                childMap = new HashMap<String, RoutingNode>(4);
+            }
+            RoutingNode child = childMap.get(segment);
+            if (child == null) {
+                child = new RoutingNode(depth + 1);
+                childMap.put(segment, child);
+            }
+            return child;
+        }
+
+        protected void registerCandidate(int packageCount, String actionName) {
+            if (candidates == null) {
+                candidates = new String[depth + 1]; // package count is from zero to depth
+            }
+            if (candidates[packageCount] == null) { // basically no duplicate (component name is unique)
+                candidates[packageCount] = actionName;
+            }
+        }
+
+        protected void freeze() {
+            if (candidates != null) {
+                final List<String> orderedList = new ArrayList<String>(candidates.length);
+                for (String candidate : candidates) {
+                    if (candidate != null) {
+                        orderedList.add(candidate);
+                    }
+                }
+                candidateList = Collections.unmodifiableList(orderedList);
+                candidates = null; // no longer used
+            } else {
+                candidateList = Collections.emptyList();
+            }
+            if (childMap != null) {
+                for (RoutingNode child : childMap.values()) {
+                    child.freeze();
+                }
+                childMap = Collections.unmodifiableMap(childMap);
+            } else {
+                childMap = Collections.emptyMap();
+            }
+        }
+
+        /**
+         * @param segment The segment of request path, e.g. sea. (NotNull)
+         * @return The child node for the segment. (NullAllowed: when not found)
+         */
+        public RoutingNode findChild(String segment) {
+            return childMap.get(segment);
+        }
+
+        /**
+         * @return The read-only list of action names in searching order. (NotNull, EmptyAllowed)
+         */
+        public List<String> getCandidateList() {
+            return candidateList;
+        }
+
+        public int getDepth() {
+            return depth;
+        }
+    }
+
+    // ===================================================================================
+    //                                                                      Basic Override
+    //                                                                      ==============
+    @Override
+    public String toString() {
+        return DfTypeUtil.toClassTitle(this) + ":{actions=" + actionCount + ", rootAction=" + existsRootAction + "}";
+    }
+
+    // ===================================================================================
+    //                                                                            Accessor
+    //                                                                            ========
+    public RoutingNode getRootNode() {
+        return rootNode;
+    }
+
+    public boolean existsRootAction() {
+        return existsRootAction;
+    }
+
+    public int getActionCount() {
+        return actionCount;
+    }
+}
@@ -16,6 +16,7 @@
 package org.lastaflute.web.response;
 
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -25,6 +26,7 @@ import org.dbflute.optional.OptionalThing;
 import org.dbflute.util.DfCollectionUtil;
 import org.dbflute.util.DfTypeUtil;
 import org.lastaflute.web.aspect.RomanticActionCustomizer;
+import org.lastaflute.web.response.stream.JsonArrayStreamCall;
 
 /**
  * @param <BEAN> The type of JSON bean.
@@ -50,6 +52,11 @@ public class JsonResponse<BEAN> implements ApiResponse {
     protected boolean returnAsEmptyBody;
     protected boolean returnAsJsonDirectly;
     protected String directJson;
+    protected boolean returnAsJsonArrayStream;
+    protected JsonArrayStreamCall<?> jsonArrayStreamCall;
+    protected String serializedCacheKey; // null allowed: not cached
+    protected String serializedCacheVersion; // not null if cache key exists
+    protected boolean serializedCacheGzip;
     protected boolean undefined;
     protected ResponseHook afterTxCommitHook;
     protected Class<?>[] validatorGroups;
@@ -124,8 +131,8 @@ public class JsonResponse<BEAN> implements ApiResponse {
     //                                                                              Option
     //                                                                              ======
     // -----------------------------------------------------
-    //                                                 JSON
-    //                                                ------
+    //                                                  JSON
+    //                                                  ----
     public JsonResponse<BEAN> asJsonp(String callback) {
         assertArgumentNotNull("callback", callback);
         assertDefinedState("asJsonp");
@@ -167,6 +174,80 @@ public class JsonResponse<BEAN> implements ApiResponse {
         return this;
     }
 
+    // -----------------------------------------------------
+    //                                     Json Array Stream
+    //                                     -----------------
+    /**
+     * Respond JSON array whose elements are written to response when produced, e.g. by cursor select. <br>
+     * The elements are not kept in memory so it is for huge list, sent by chunked transfer (no content length).
+     * <pre>
+     * <span style="color: #70226C">return</span> JsonResponse.asJsonArrayStream(<span style="color: #553000">out</span> <span style="color: #90226C; font-weight: bold"><span style="font-size: 120%">-</span>&gt;</span> {
+     *     memberBhv.selectCursor(<span style="color: #553000">cb</span> <span style="color: #90226C; font-weight: bold"><span style="font-size: 120%">-</span>&gt;</span> {
+     *         ...
+     *     }, <span style="color: #553000">member</span> <span style="color: #90226C; font-weight: bold"><span style="font-size: 120%">-</span>&gt;</span> {
+     *         <span style="color: #553000">out</span>.write(mappingToBean(<span style="color: #553000">member</span>));
+     *     });
+     * });
+     * </pre>
+     * The callback is called when the response is reflected (after action transaction),
+     * and JSON bean validator is not applied to the elements. <br>
+     * The response is committed (status 200) when the first chunk is flushed to the client,
+     * so if the callback fails after that, the client receives the truncated (invalid) JSON array.
+     * The client should handle the broken JSON as failure. (before commit, the error response is sent)
+     * @param <ELEMENT> The type of element in JSON array.
+     * @param streamLambda The callback to produce elements of JSON array. (NotNull)
+     * @return The new-created JSON response for the JSON array stream. (NotNull)
+     */
+    @SuppressWarnings("unchecked")
+    public static <ELEMENT> JsonResponse<List<ELEMENT>> asJsonArrayStream(JsonArrayStreamCall<ELEMENT> streamLambda) { // user interface
+        return (JsonResponse<List<ELEMENT>>) (JsonResponse<?>) new JsonResponse<Object>(DUMMY).ofJsonArrayStream(streamLambda);
+    }
+
+    protected JsonResponse<BEAN> ofJsonArrayStream(JsonArrayStreamCall<?> streamLambda) { // internal use
+        assertArgumentNotNull("streamLambda", streamLambda);
+        returnAsJsonArrayStream = true; // for quick determination
+        jsonArrayStreamCall = streamLambda;
+        return this;
+    }
+
+    // -----------------------------------------------------
+    //                                      Serialized Cache
+    //                                      ----------------
+    /**
+     * Cache the serialized JSON bytes by the key and checked by the version. <br>
+     * It is for payloads that are same for every caller, e.g. code list, classification dump.
+     * The cached bytes are written to response without serialization while the version is same.
+     * <pre>
+     * <span style="color: #70226C">return new</span> JsonResponse&lt;&gt;(bean).<span style="color: #CC4747">cacheSerialized</span>("code-list-sea", codeListVersion);
+     * </pre>
+     * The JSON bean validator is applied only when serialized (cache miss),
+     * and JSONP response is not cached (serialized per request).
+     * @param key The application key of the payload, should be unique in the application. (NotNull)
+     * @param version The application version of the payload, changed when the payload is changed. (NotNull)
+     * @return this. (NotNull)
+     */
+    public JsonResponse<BEAN> cacheSerialized(String key, String version) {
+        assertArgumentNotNull("key", key);
+        assertArgumentNotNull("version", version);
+        assertDefinedState("cacheSerialized");
+        serializedCacheKey = key;
+        serializedCacheVersion = version;
+        return this;
+    }
+
+    /**
+     * Cache the serialized JSON bytes with the gzipped bytes, written as gzip if the client accepts it. <br>
+     * It is for big payloads, see {@link #cacheSerialized(String, String)} for the detail.
+     * @param key The application key of the payload, should be unique in the application. (NotNull)
+     * @param version The application version of the payload, changed when the payload is changed. (NotNull)
+     * @return this. (NotNull)
+     */
+    public JsonResponse<BEAN> cacheSerializedWithGzip(String key, String version) {
+        cacheSerialized(key, version);
+        serializedCacheGzip = true;
+        return this;
+    }
+
     // -----------------------------------------------------
     //                                     Undefined Control
     //                                     -----------------
@@ -246,8 +327,11 @@ public class JsonResponse<BEAN> implements ApiResponse {
         final String forcedlyJSExp = forcedlyJavaScript ? ", JavaScript" : "";
         final String emptyExp = returnAsEmptyBody ? ", emptyBody" : "";
         final String directExp = returnAsJsonDirectly ? ", directly" : "";
+        final String streamExp = returnAsJsonArrayStream ? ", arrayStream" : "";
+        final String cacheExp = serializedCacheKey != null ? ", cache=" + serializedCacheKey + "@" + serializedCacheVersion : "";
         final String undefinedExp = undefined ? ", undefined" : "";
-        return classTitle + ":{" + jsonExp + callbackExp + forcedlyJSExp + emptyExp + directExp + undefinedExp + "}";
+        return classTitle + ":{" + jsonExp + callbackExp + forcedlyJSExp + emptyExp + directExp + streamExp + cacheExp + undefinedExp
+                + "}";
     }
 
     // ===================================================================================
@@ -293,6 +377,45 @@ public class JsonResponse<BEAN> implements ApiResponse {
         });
     }
 
+    // -----------------------------------------------------
+    //                                     Json Array Stream
+    //                                     -----------------
+    public boolean isReturnAsJsonArrayStream() { // quick determination
+        return returnAsJsonArrayStream;
+    }
+
+    public OptionalThing<JsonArrayStreamCall<?>> getJsonArrayStreamCall() {
+        return OptionalThing.ofNullable(jsonArrayStreamCall, () -> {
+            String msg = "Not found the JSON array stream: " + JsonResponse.this.toString();
+            throw new IllegalStateException(msg);
+        });
+    }
+
+    // -----------------------------------------------------
+    //                                      Serialized Cache
+    //                                      ----------------
+    public boolean isCacheSerialized() { // quick determination
+        return serializedCacheKey != null;
+    }
+
+    public OptionalThing<String> getSerializedCacheKey() {
+        return OptionalThing.ofNullable(serializedCacheKey, () -> {
+            String msg = "Not found the serialized cache key: " + JsonResponse.this.toString();
+            throw new IllegalStateException(msg);
+        });
+    }
+
+    public OptionalThing<String> getSerializedCacheVersion() {
+        return OptionalThing.ofNullable(serializedCacheVersion, () -> {
+            String msg = "Not found the serialized cache version: " + JsonResponse.this.toString();
+            throw new IllegalStateException(msg);
+        });
+    }
+
+    public boolean isSerializedCacheGzip() {
+        return serializedCacheGzip;
+    }
+
     // -----------------------------------------------------
     //                                     Undefined Control
     //                                     -----------------
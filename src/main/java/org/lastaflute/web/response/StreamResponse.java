@@ -15,6 +15,7 @@
  */
 package org.lastaflute.web.response;
 
+import java.nio.file.Path;
 import java.util.Collections;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -57,6 +58,8 @@ public class StreamResponse implements ActionResponse {
     protected byte[] byteData;
     protected WritternStreamCall streamCall;
     protected WritternZipStreamCall zipStreamCall;
+    protected Integer zipParallelism; // null allowed: not parallel
+    protected Path filePath;
     protected Integer contentLength;
     protected boolean undefined;
     protected boolean returnAsEmptyBody;
@@ -179,6 +182,7 @@ public class StreamResponse implements ActionResponse {
             String msg = "The zip stream call already exists, so cannot call data(): " + zipStreamCall;
             throw new IllegalStateException(msg);
         }
+        assertFilePathNotExists("data");
         this.byteData = data;
     }
 
@@ -228,6 +232,7 @@ public class StreamResponse implements ActionResponse {
             String msg = "The zip stream call already exists, so cannot call data(): " + zipStreamCall;
             throw new IllegalStateException(msg);
         }
+        assertFilePathNotExists("stream");
         streamCall = writtenStreamLambda;
     }
 
@@ -259,6 +264,7 @@ public class StreamResponse implements ActionResponse {
             String msg = "The stream call already exists, so cannot call data(): " + streamCall;
             throw new IllegalStateException(msg);
         }
+        assertFilePathNotExists("zipStreamChunked");
         this.zipStreamCall = oneArgLambda;
         setupZipStreamChunkedContentType();
     }
@@ -267,6 +273,68 @@ public class StreamResponse implements ActionResponse {
         contentTypeZip(); // forcedly
     }
 
+    /**
+     * Write and deflate the entries of zip stream in parallel, keeping the entry order. <br>
+     * The writers are called in other threads (inheriting e.g. thread cache, access context, but not transaction),
+     * and compressed bytes of in-flight entries are held in memory until their turn.
+     * <pre>
+     * <span style="color: #70226C">return</span> asStream("sea.zip").zipStreamChunked(out <span style="color: #90226C; font-weight: bold"><span style="font-size: 120%">-</span>&gt;</span> {
+     *     ...
+     * }).<span style="color: #CC4747">parallelZipDeflate</span>(4);
+     * </pre>
+     * @param parallelism The max count of entries written and deflated at the same time. (NotMinus, NotZero)
+     * @return this. (NotNull)
+     */
+    public StreamResponse parallelZipDeflate(int parallelism) {
+        assertDefinedState("parallelZipDeflate");
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("The argument 'parallelism' should be positive: " + parallelism);
+        }
+        if (zipStreamCall == null) {
+            String msg = "The zip stream call is required, so call zipStreamChunked() before parallelZipDeflate(): " + this;
+            throw new IllegalStateException(msg);
+        }
+        this.zipParallelism = parallelism;
+        return this;
+    }
+
+    /**
+     * Download the file by the path, e.g. huge archive, video. <br>
+     * The file is written by file channel (sendfile if the container supports it) with content length,
+     * and Range request (with If-Range) is responded as 206 Partial Content for e.g. resumable download.
+     * <pre>
+     * <span style="color: #70226C">return</span> asStream("sea.mp4").contentType("video/mp4").<span style="color: #CC4747">file</span>(<span style="color: #553000">moviePath</span>);
+     * </pre>
+     * The file should not be changed while downloading. (the length is fixed when response starts)
+     * @param filePath The path of the file to download. (NotNull)
+     * @return this. (NotNull)
+     */
+    public StreamResponse file(Path filePath) {
+        assertArgumentNotNull("filePath", filePath);
+        assertDefinedState("file");
+        if (byteData != null) {
+            String msg = "The byte data already exists, so cannot call file(): " + byteData;
+            throw new IllegalStateException(msg);
+        }
+        if (streamCall != null) {
+            String msg = "The stream call already exists, so cannot call file(): " + streamCall;
+            throw new IllegalStateException(msg);
+        }
+        if (zipStreamCall != null) {
+            String msg = "The zip stream call already exists, so cannot call file(): " + zipStreamCall;
+            throw new IllegalStateException(msg);
+        }
+        this.filePath = filePath;
+        return this;
+    }
+
+    protected void assertFilePathNotExists(String methodName) {
+        if (filePath != null) {
+            String msg = "The file path already exists, so cannot call " + methodName + "(): " + filePath;
+            throw new IllegalStateException(msg);
+        }
+    }
+
     public byte[] getByteData() {
         return byteData;
     }
@@ -279,6 +347,10 @@ public class StreamResponse implements ActionResponse {
         return zipStreamCall;
     }
 
+    public Path getFilePath() {
+        return filePath;
+    }
+
     public Integer getContentLength() {
         return contentLength;
     }
@@ -330,7 +402,7 @@ public class StreamResponse implements ActionResponse {
         for (Entry<String, String[]> entry : headerMap.entrySet()) {
             resource.header(entry.getKey(), entry.getValue());
         }
-        if (!returnAsEmptyBody && byteData == null && streamCall == null && zipStreamCall == null) {
+        if (!returnAsEmptyBody && byteData == null && streamCall == null && zipStreamCall == null && filePath == null) {
             throwStreamByteDataInputStreamNotFoundException();
         }
         if (byteData != null) {
@@ -345,6 +417,12 @@ public class StreamResponse implements ActionResponse {
         }
         if (zipStreamCall != null) {
             resource.zipStreamChunked(zipStreamCall);
+            if (zipParallelism != null) {
+                resource.zipParallelism(zipParallelism);
+            }
+        }
+        if (filePath != null) {
+            resource.file(filePath);
         }
         if (returnAsEmptyBody) {
             resource.asEmptyBody();
@@ -374,6 +452,8 @@ public class StreamResponse implements ActionResponse {
         br.addElement("    });");
         br.addElement("  (o):");
         br.addElement("    return asStream(\"sea.zip\").zipStreamChunked(consumerMap); // Good");
+        br.addElement("  (o):");
+        br.addElement("    return asStream(\"sea.mp4\").file(moviePath); // Good");
         br.addItem("File Name");
         br.addElement(fileName);
         final String msg = br.buildExceptionMessage();
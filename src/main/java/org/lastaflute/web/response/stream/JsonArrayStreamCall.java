@@ -0,0 +1,40 @@
+/*
+ * Copyright 2015-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.web.response.stream;
+
+/**
+ * The callback to produce elements of JSON array response, e.g. by cursor select.
+ * <pre>
+ * <span style="color: #70226C">return</span> JsonResponse.asJsonArrayStream(<span style="color: #553000">out</span> <span style="color: #90226C; font-weight: bold"><span style="font-size: 120%">-</span>&gt;</span> {
+ *     memberBhv.selectCursor(<span style="color: #553000">cb</span> <span style="color: #90226C; font-weight: bold"><span style="font-size: 120%">-</span>&gt;</span> {
+ *         ...
+ *     }, <span style="color: #553000">member</span> <span style="color: #90226C; font-weight: bold"><span style="font-size: 120%">-</span>&gt;</span> {
+ *         <span style="color: #553000">out</span>.write(mappingToBean(<span style="color: #553000">member</span>));
+ *     });
+ * });
+ * </pre>
+ * @param <ELEMENT> The type of element in JSON array.
+ * @author jflute
+ * @since 0.8.4
+ */
+@FunctionalInterface
+public interface JsonArrayStreamCall<ELEMENT> {
+
+    /**
+     * @param out The output of JSON array, which writes the element to response immediately. (NotNull)
+     */
+    void callback(JsonArrayStreamOut<ELEMENT> out);
+}
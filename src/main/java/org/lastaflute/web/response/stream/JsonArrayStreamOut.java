@@ -0,0 +1,33 @@
+/*
+ * Copyright 2015-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.web.response.stream;
+
+/**
+ * The output of JSON array response, which serializes the element to response when written.
+ * @param <ELEMENT> The type of element in JSON array.
+ * @author jflute
+ * @since 0.8.4
+ */
+@FunctionalInterface
+public interface JsonArrayStreamOut<ELEMENT> {
+
+    /**
+     * Write the element to the JSON array of response. <br>
+     * If the client aborts the request, this throws unchecked IO exception so that e.g. cursor select stops.
+     * @param element The element of JSON array, which is serialized immediately. (NullAllowed: as JSON null)
+     */
+    void write(ELEMENT element);
+}
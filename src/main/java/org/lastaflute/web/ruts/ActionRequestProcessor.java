@@ -16,8 +16,15 @@
 package org.lastaflute.web.ruts;
 
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Supplier;
 
+import javax.servlet.AsyncContext;
 import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 
 import org.dbflute.helper.message.ExceptionMessageBuilder;
 import org.dbflute.optional.OptionalThing;
@@ -27,9 +34,16 @@ import org.lastaflute.core.util.ContainerUtil;
 import org.lastaflute.db.jta.stage.NoneTransactionStage;
 import org.lastaflute.db.jta.stage.TransactionStage;
 import org.lastaflute.db.jta.stage.VestibuleTxProvider;
+import org.lastaflute.web.exception.ActionBulkheadRejectedException;
 import org.lastaflute.web.path.ActionAdjustmentProvider;
 import org.lastaflute.web.ruts.config.ActionExecute;
 import org.lastaflute.web.ruts.config.ModuleConfig;
+import org.lastaflute.web.ruts.multipart.MultipartRequestHandler;
+import org.lastaflute.web.ruts.multipart.SpoolingMultipartRequestHandler;
+import org.lastaflute.web.ruts.process.ActionAsyncListener;
+import org.lastaflute.web.ruts.process.ActionAsyncThreadContext;
+import org.lastaflute.web.ruts.process.ActionBulkhead;
+import org.lastaflute.web.ruts.process.ActionBulkheadRegistry;
 import org.lastaflute.web.ruts.process.ActionCoinHelper;
 import org.lastaflute.web.ruts.process.ActionFormMapper;
 import org.lastaflute.web.ruts.process.ActionResponseReflector;
@@ -38,12 +52,19 @@ import org.lastaflute.web.ruts.process.RequestUrlParam;
 import org.lastaflute.web.ruts.renderer.HtmlRenderer;
 import org.lastaflute.web.ruts.renderer.HtmlRenderingProvider;
 import org.lastaflute.web.servlet.request.RequestManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * @author jflute
  */
 public class ActionRequestProcessor {
 
+    // ===================================================================================
+    //                                                                          Definition
+    //                                                                          ==========
+    private static final Logger logger = LoggerFactory.getLogger(ActionRequestProcessor.class);
+
     // ===================================================================================
     //                                                                           Attribute
     //                                                                           =========
@@ -53,6 +74,7 @@ public class ActionRequestProcessor {
     protected ModuleConfig moduleConfig;
     protected ActionCoinHelper actionCoinHelper;
     protected ActionFormMapper actionFormMapper;
+    protected ActionBulkheadRegistry actionBulkheadRegistry;
 
     // -----------------------------------------------------
     //                                     Lazy-Loaded Cache
@@ -77,6 +99,7 @@ public class ActionRequestProcessor {
         this.moduleConfig = moduleConfig;
         this.actionCoinHelper = createActionCoinHelper(moduleConfig);
         this.actionFormMapper = createActionFormPopulator(moduleConfig);
+        this.actionBulkheadRegistry = createActionBulkheadRegistry(moduleConfig);
     }
 
     protected ActionCoinHelper createActionCoinHelper(ModuleConfig moduleConfig) {
@@ -87,6 +110,11 @@ public class ActionRequestProcessor {
         return new ActionFormMapper(moduleConfig, getAssistantDirector(), getRequestManager());
     }
 
+    protected ActionBulkheadRegistry createActionBulkheadRegistry(ModuleConfig moduleConfig) {
+        final ActionAdjustmentProvider adjustmentProvider = getAssistantDirector().assistWebDirection().assistActionAdjustmentProvider();
+        return new ActionBulkheadRegistry(moduleConfig, adjustmentProvider);
+    }
+
     // ===================================================================================
     //                                                                             Process
     //                                                                             =======
@@ -111,8 +139,8 @@ public class ActionRequestProcessor {
     }
 
     // ===================================================================================
-    //                                                                               Fire
-    //                                                                              ======
+    //                                                                                Fire
+    //                                                                                ====
     /**
      * Fire the action, creating, populating, performing and to next.
      * @param runtime The runtime meta of action execute, which has action execute, URL parameter and states. (NotNull)
@@ -120,16 +148,166 @@ public class ActionRequestProcessor {
      * @throws ServletException When the action fails about the Servlet.
      */
     protected void fire(ActionRuntime runtime) throws IOException, ServletException {
+        if (runtime.getExecutePlan().isAsyncExecute()) { // e.g. CompletableFuture<JsonResponse<SeaBean>>
+            fireAsync(runtime);
+            return;
+        }
         final ActionResponseReflector reflector = createResponseReflector(runtime);
         ready(runtime, reflector);
 
-        final OptionalThing<VirtualForm> form = prepareActionForm(runtime);
-        populateParameter(runtime, form);
+        final OptionalThing<ActionBulkhead> bulkhead = enterBulkheadIfExists(runtime);
+        try {
+            final OptionalThing<VirtualForm> form = prepareActionForm(runtime);
+            populateParameter(runtime, form);
 
-        final VirtualAction action = createAction(runtime, reflector);
-        final NextJourney journey = performAction(action, form, runtime); // #to_action
+            final VirtualAction action = createAction(runtime, reflector);
+            final NextJourney journey = performAction(action, form, runtime); // #to_action
 
-        toNext(runtime, journey);
+            toNext(runtime, journey);
+        } finally {
+            finishMultipartIfExists(runtime);
+            bulkhead.ifPresent(head -> head.leave());
+        }
+    }
+
+    // -----------------------------------------------------
+    //                                            Fire Async
+    //                                            ----------
+    /**
+     * Fire the action asynchronously, the request is completed when the future of execute method is completed. <br>
+     * The filters and servlet need to be async-supported, or the request thread waits for the future.
+     * @param runtime The runtime meta of action execute, which has action execute, URL parameter and states. (NotNull)
+     * @throws IOException When the action fails about the IO.
+     * @throws ServletException When the action fails about the Servlet.
+     */
+    protected void fireAsync(ActionRuntime runtime) throws IOException, ServletException {
+        final ActionResponseReflector reflector = createResponseReflector(runtime);
+        ready(runtime, reflector);
+
+        final OptionalThing<ActionBulkhead> bulkhead = enterBulkheadIfExists(runtime);
+        boolean leaveLater = false; // true if the bulkhead is left at completion
+        try {
+            final OptionalThing<VirtualForm> form = prepareActionForm(runtime);
+            populateParameter(runtime, form);
+
+            final VirtualAction action = createAction(runtime, reflector);
+            final HttpServletRequest request = getRequestManager().getRequest();
+            if (!request.isAsyncSupported()) { // e.g. filter without async-supported
+                final Supplier<NextJourney> finisher;
+                try {
+                    finisher = performActionAsync(action, form, runtime).toCompletableFuture().join();
+                } catch (CompletionException e) { // same as exception in execute method
+                    toNext(runtime, handleActionFailureException(action, form, runtime, toAsyncFailureException(e)));
+                    return;
+                }
+                toNext(runtime, performFinisher(action, form, runtime, finisher));
+                return;
+            }
+            final CompletionStage<Supplier<NextJourney>> stage;
+            final ActionAsyncThreadContext threadContext;
+            try {
+                stage = action.executeAsync(form); // #to_action
+                threadContext = captureAsyncThreadContext(); // after prologue (access context) in action
+            } catch (RuntimeException e) { // async is not started yet so same as synchronous
+                toNext(runtime, handleActionFailureException(action, form, runtime, e));
+                return;
+            } finally {
+                actionCoinHelper.clearContextJustInCase();
+            }
+            final HttpServletResponse response = getRequestManager().getResponseManager().getResponse();
+            final AsyncContext asyncContext = request.startAsync(request, response);
+            final ActionAsyncListener listener = createAsyncListener(runtime);
+            asyncContext.addListener(listener);
+            stage.whenComplete((finisher, cause) -> { // cause is basically null (handled in action)
+                threadContext.carry(() -> {
+                    completeAsync(action, form, runtime, finisher, cause, response, asyncContext, listener, bulkhead);
+                });
+            });
+            leaveLater = true;
+        } finally {
+            if (!leaveLater) {
+                finishMultipartIfExists(runtime);
+                bulkhead.ifPresent(head -> head.leave());
+            }
+        }
+    }
+
+    protected ActionAsyncThreadContext captureAsyncThreadContext() {
+        return ActionAsyncThreadContext.capture();
+    }
+
+    protected ActionAsyncListener createAsyncListener(ActionRuntime runtime) {
+        return new ActionAsyncListener(runtime);
+    }
+
+    protected void completeAsync(VirtualAction action, OptionalThing<VirtualForm> form, ActionRuntime runtime,
+            Supplier<NextJourney> finisher, Throwable cause, HttpServletResponse response, AsyncContext asyncContext,
+            ActionAsyncListener listener, OptionalThing<ActionBulkhead> bulkhead) { // completion thread
+        try {
+            if (!listener.beginCompletion()) { // e.g. timeout, the response may be recycled
+                logger.debug("...Skipping the response of the expired asynchronous action: {}", runtime);
+                return;
+            }
+            try {
+                final NextJourney journey;
+                if (cause != null) { // same as exception in execute method
+                    journey = handleActionFailureException(action, form, runtime, toAsyncFailureException(cause));
+                } else {
+                    journey = performFinisher(action, form, runtime, finisher);
+                }
+                toNext(runtime, journey);
+            } catch (Throwable e) { // e.g. not handled failure (ServletException)
+                handleAsyncFailureException(runtime, response, e);
+            } finally {
+                if (listener.endCompletion()) { // not expired while writing
+                    asyncContext.complete(); // last
+                }
+            }
+        } finally { // also when expired, the action has used the resources until now
+            finishMultipartIfExists(runtime);
+            bulkhead.ifPresent(head -> head.leave());
+        }
+    }
+
+    protected RuntimeException toAsyncFailureException(Throwable cause) {
+        final Throwable actual = cause instanceof CompletionException && cause.getCause() != null ? cause.getCause() : cause;
+        if (actual instanceof RuntimeException) {
+            return (RuntimeException) actual;
+        }
+        return new IllegalStateException("Failed to complete the asynchronous action.", actual);
+    }
+
+    protected CompletionStage<Supplier<NextJourney>> performActionAsync(VirtualAction action, OptionalThing<VirtualForm> form,
+            ActionRuntime runtime) throws IOException, ServletException {
+        try {
+            return action.executeAsync(form); // #to_action
+        } catch (RuntimeException e) {
+            final NextJourney journey = handleActionFailureException(action, form, runtime, e);
+            return CompletableFuture.completedFuture(() -> journey);
+        }
+    }
+
+    protected NextJourney performFinisher(VirtualAction action, OptionalThing<VirtualForm> form, ActionRuntime runtime,
+            Supplier<NextJourney> finisher) throws IOException, ServletException {
+        try {
+            return finisher.get(); // reflecting response and hooks
+        } catch (RuntimeException e) {
+            return handleActionFailureException(action, form, runtime, e);
+        } finally {
+            actionCoinHelper.clearContextJustInCase();
+        }
+    }
+
+    protected void handleAsyncFailureException(ActionRuntime runtime, HttpServletResponse response, Throwable cause) {
+        // no way to throw to servlet container because of completion thread
+        // (the sendError() is handled as error page by container when completed)
+        logger.error("Failed to complete the asynchronous action: " + runtime, cause);
+        if (!response.isCommitted()) {
+            try {
+                response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            } catch (IOException ignored) { // e.g. client abort
+            }
+        }
     }
 
     // ===================================================================================
@@ -148,6 +326,56 @@ public class ActionRequestProcessor {
         actionCoinHelper.resolveLocale(runtime);
     }
 
+    // ===================================================================================
+    //                                                                            Bulkhead
+    //                                                                            ========
+    protected OptionalThing<ActionBulkhead> enterBulkheadIfExists(ActionRuntime runtime) {
+        final OptionalThing<ActionBulkhead> optBulkhead = actionBulkheadRegistry.findBulkhead(runtime.getActionExecute());
+        optBulkhead.ifPresent(bulkhead -> {
+            if (!bulkhead.tryEnter()) {
+                throwActionBulkheadRejectedException(runtime, bulkhead);
+            }
+        });
+        return optBulkhead;
+    }
+
+    protected void throwActionBulkheadRejectedException(ActionRuntime runtime, ActionBulkhead bulkhead) {
+        final ExceptionMessageBuilder br = new ExceptionMessageBuilder();
+        br.addNotice("The action bulkhead is full so the request was rejected.");
+        br.addItem("Advice");
+        br.addElement("Too many concurrent requests to the action.");
+        br.addElement("Confirm the bulkhead settings or the performance of the action.");
+        br.addItem("Action Execute");
+        br.addElement(runtime.getActionExecute());
+        br.addItem("Bulkhead");
+        br.addElement(bulkhead);
+        final String msg = br.buildExceptionMessage();
+        throw new ActionBulkheadRejectedException(msg);
+    }
+
+    // ===================================================================================
+    //                                                                           Multipart
+    //                                                                           =========
+    protected void finishMultipartIfExists(ActionRuntime runtime) { // e.g. deleting temporary files of uploaded files
+        runtime.getMultipartHandler().filter(handler -> isMultipartFinishTarget(handler)).ifPresent(handler -> {
+            try {
+                handler.finish();
+            } catch (RuntimeException e) { // not to hide action exception
+                logger.warn("Failed to finish the multipart handler: " + handler, e);
+            }
+        });
+    }
+
+    /**
+     * Is the multipart handler finished at request end by framework? <br>
+     * Only the spooling handler because finish() of your handler has not been called by framework.
+     * @param handler The handler of multipart request. (NotNull)
+     * @return The determination, true or false.
+     */
+    protected boolean isMultipartFinishTarget(MultipartRequestHandler handler) {
+        return handler instanceof SpoolingMultipartRequestHandler;
+    }
+
     // ===================================================================================
     //                                                                         Action Form
     //                                                                         ===========
@@ -243,6 +471,16 @@ public class ActionRequestProcessor {
         throw new IllegalStateException(msg);
     }
 
+    // ===================================================================================
+    //                                                                            Accessor
+    //                                                                            ========
+    /**
+     * @return The registry of action bulkheads, e.g. for statistics of bulkheads. (NotNull: after initialization)
+     */
+    public ActionBulkheadRegistry getActionBulkheadRegistry() {
+        return actionBulkheadRegistry;
+    }
+
     // ===================================================================================
     //                                                                           Component
     //                                                                           =========
@@ -17,10 +17,15 @@ package org.lastaflute.web.ruts;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -41,6 +46,7 @@ import org.lastaflute.web.exception.ExecuteMethodArgumentMismatchException;
 import org.lastaflute.web.hook.ActionHook;
 import org.lastaflute.web.response.ActionResponse;
 import org.lastaflute.web.ruts.config.ActionExecute;
+import org.lastaflute.web.ruts.config.ExecuteMethodInvoker;
 import org.lastaflute.web.ruts.process.ActionResponseReflector;
 import org.lastaflute.web.ruts.process.ActionRuntime;
 import org.lastaflute.web.ruts.process.exception.ActionCreateFailureException;
@@ -196,13 +202,163 @@ public class GodHandableAction implements VirtualAction {
     }
 
     protected TransactionGenre getExecuteTransactionGenre() {
-        return execute.getTransactionGenre();
+        return execute.getExecutePlan().getTransactionGenre();
     }
 
     protected void hookAfterTxCommitIfExists(ExecuteTransactionResult result) {
         result.getResponse().getAfterTxCommitHook().ifPresent(afterTx -> afterTx.hook());
     }
 
+    // -----------------------------------------------------
+    //                                         Async Execute
+    //                                         -------------
+    // _/_/_/_/_/_/_/_/_/_/_/_/_/_/_/_/_/_/_/_/_/_/_/_/_/_/_/_/_/_/_/_/_/_/_/_/_/_/_/_/_/_/
+    // for execute method returning e.g. CompletableFuture<JsonResponse<SeaBean>>
+    //  request thread    : before hook, transaction (execute method until returning future)
+    //  completion thread : transaction (reflecting response), finally hook (called by finisher)
+    // the transaction of request thread is committed before the future completes,
+    // so the completion has its own transaction with the same genre as the execute method
+    // _/_/_/_/_/_/_/_/_/_/
+    @Override
+    public CompletionStage<Supplier<NextJourney>> executeAsync(OptionalThing<VirtualForm> form) {
+        final ActionHook hook = prepareActionHook();
+        try {
+            final ActionResponse before = processHookBefore(hook);
+            if (before.isDefined()) { // e.g. login required
+                return CompletableFuture.completedFuture(() -> finishAsync(hook, () -> reflect(before)));
+            } else { // mainly here
+                final AsyncTransactionResult result = transactionalExecuteAsync(form, hook); // #to_action
+                return result.getStage().handle((response, cause) -> {
+                    return () -> finishAsync(hook, () -> transactionalReflectAsync(result, response, cause));
+                });
+            }
+        } catch (RuntimeException e) {
+            return CompletableFuture.completedFuture(() -> finishAsync(hook, () -> {
+                throw e; // handled by finisher (monologue)
+            }));
+        } catch (Error e) {
+            try {
+                redCardableAssist.translateToHotdeployErrorIfPossible(e);
+                throw e;
+            } finally {
+                processHookFinally(hook);
+                prepareTransactionMemoriesIfExists();
+            }
+        }
+    }
+
+    protected AsyncTransactionResult transactionalExecuteAsync(OptionalThing<VirtualForm> form, ActionHook hook) {
+        return (AsyncTransactionResult) stage.selectable(tx -> {
+            doExecuteAsync(form, hook, tx); // #to_action
+        }, getExecuteTransactionGenre()).get(); // because of not null
+    }
+
+    protected void doExecuteAsync(OptionalThing<VirtualForm> form, ActionHook hook, BegunTx<Object> tx) {
+        showAction(runtime);
+        final Object[] requestArgs = toRequestArgs(form);
+        final Object result = invokeExecuteMethod(execute.getExecuteMethod(), requestArgs); // #to_action
+        redCardableAssist.assertExecuteReturnNotNull(requestArgs, result);
+        final CompletionStage<?> futureStage;
+        if (result instanceof ActionResponse) { // e.g. validation error response
+            futureStage = CompletableFuture.completedFuture(result);
+        } else {
+            futureStage = (CompletionStage<?>) result; // checked at boot
+        }
+        if (runtime.hasValidationError()) {
+            tx.rollbackOnly();
+        }
+        tx.returns(newAsyncTransactionResult(futureStage, requestArgs));
+    }
+
+    protected AsyncTransactionResult newAsyncTransactionResult(CompletionStage<?> futureStage, Object[] requestArgs) {
+        return new AsyncTransactionResult(futureStage, requestArgs);
+    }
+
+    protected static class AsyncTransactionResult {
+
+        protected final CompletionStage<?> stage;
+        protected final Object[] requestArgs;
+
+        public AsyncTransactionResult(CompletionStage<?> stage, Object[] requestArgs) {
+            this.stage = stage;
+            this.requestArgs = requestArgs;
+        }
+
+        public CompletionStage<?> getStage() {
+            return stage;
+        }
+
+        public Object[] getRequestArgs() {
+            return requestArgs;
+        }
+    }
+
+    protected NextJourney transactionalReflectAsync(AsyncTransactionResult txResult, Object result, Throwable cause) {
+        final ExecuteTransactionResult reflected = (ExecuteTransactionResult) stage.selectable(tx -> {
+            doReflectAsync(txResult, result, cause, tx); // completion thread
+        }, getExecuteTransactionGenre()).get(); // because of not null
+        if (!reflected.isRollbackOnly()) {
+            hookAfterTxCommitIfExists(reflected);
+        }
+        return reflected.getJourney();
+    }
+
+    protected void doReflectAsync(AsyncTransactionResult txResult, Object result, Throwable cause, BegunTx<Object> tx) {
+        final ActionResponse response = extractAsyncResponse(txResult, result, cause);
+        redCardableAssist.assertExecuteMethodResponseDefined(response);
+        final NextJourney journey = reflect(response); // also response handling in transaction
+        final boolean rollbackOnly;
+        if (runtime.hasValidationError()) {
+            tx.rollbackOnly();
+            rollbackOnly = true;
+        } else {
+            rollbackOnly = false;
+        }
+        tx.returns(newExecuteTransactionResult(response, journey, rollbackOnly));
+    }
+
+    protected ActionResponse extractAsyncResponse(AsyncTransactionResult txResult, Object result, Throwable cause) {
+        if (cause != null) {
+            final Throwable unwrapped = cause instanceof CompletionException && cause.getCause() != null ? cause.getCause() : cause;
+            if (unwrapped instanceof ValidationErrorException) { // e.g. validate() in future
+                return handleValidationErrorException((ValidationErrorException) unwrapped);
+            }
+            if (unwrapped instanceof RuntimeException) {
+                throw (RuntimeException) unwrapped;
+            }
+            if (unwrapped instanceof Error) {
+                throw (Error) unwrapped;
+            }
+            final String msg = setupMethodExceptionMessage("Found the exception in the future of method.", txResult.getRequestArgs());
+            throw new ActionWrappedCheckedException(msg, unwrapped);
+        }
+        final Object[] requestArgs = txResult.getRequestArgs();
+        redCardableAssist.assertExecuteReturnNotNull(requestArgs, result);
+        redCardableAssist.assertExecuteMethodReturnTypeActionResponse(requestArgs, result);
+        final ActionResponse response = (ActionResponse) result;
+        runtime.manageActionResponse(response);
+        return response;
+    }
+
+    protected NextJourney finishAsync(ActionHook hook, Supplier<NextJourney> reflection) { // completion thread
+        NextJourney journey;
+        try {
+            journey = reflection.get();
+        } catch (RuntimeException e) {
+            final ActionResponse monologue = tellExceptionMonologue(hook, e);
+            journey = reflect(monologue);
+        } catch (Error e) {
+            redCardableAssist.translateToHotdeployErrorIfPossible(e);
+            throw e;
+        } finally {
+            processHookFinally(hook);
+            prepareTransactionMemoriesIfExists();
+        }
+        setupDisplayData(journey);
+        showTransition(journey);
+        return journey;
+    }
+
     // -----------------------------------------------------
     //                                      Reflect Response
     //                                      ----------------
@@ -322,12 +478,25 @@ public class GodHandableAction implements VirtualAction {
     }
 
     protected Object[] toRequestArgs(OptionalThing<VirtualForm> optForm) {
-        final List<Object> paramList = new ArrayList<Object>(4);
-        execute.getUrlParamArgs().ifPresent(args -> {
-            paramList.addAll(runtime.getRequestUrlParam().getUrlParamValueMap().values());
-        });
-        optForm.ifPresent(form -> paramList.add(form.getRealForm()));
-        return !paramList.isEmpty() ? paramList.toArray(new Object[paramList.size()]) : EMPTY_ARRAY;
+        final Collection<Object> urlParamValues;
+        if (execute.getUrlParamArgs().isPresent()) {
+            urlParamValues = runtime.getRequestUrlParam().getUrlParamValueMap().values();
+        } else {
+            urlParamValues = Collections.emptyList();
+        }
+        final int argCount = urlParamValues.size() + (optForm.isPresent() ? 1 : 0);
+        if (argCount == 0) {
+            return EMPTY_ARRAY;
+        }
+        final Object[] requestArgs = new Object[argCount]; // sized directly (no list)
+        int index = 0;
+        for (Object value : urlParamValues) {
+            requestArgs[index++] = value;
+        }
+        if (optForm.isPresent()) {
+            requestArgs[index] = optForm.get().getRealForm();
+        }
+        return requestArgs;
     }
 
     protected void showAction(ActionRuntime runtime) {
@@ -342,7 +511,12 @@ public class GodHandableAction implements VirtualAction {
     protected Object invokeExecuteMethod(Method executeMethod, Object[] requestArgs) {
         Object result = null;
         try {
-            result = executeMethod.invoke(action, requestArgs); // #to_action just here
+            final ExecuteMethodInvoker invoker = execute.getExecuteMethodInvoker();
+            if (invoker.canInvokeDirectly(action, requestArgs)) { // basically here
+                result = invoker.invokeDirectly(action, requestArgs); // #to_action just here
+            } else { // e.g. argument mismatch, reflection for the same exception handling
+                result = executeMethod.invoke(action, requestArgs); // #to_action or here
+            }
             redCardableAssist.checkValidatorCalled();
         } catch (InvocationTargetException e) { // e.g. exception in the method
             return handleExecuteMethodInvocationTargetException(executeMethod, requestArgs, e);
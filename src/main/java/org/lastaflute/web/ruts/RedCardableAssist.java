@@ -30,6 +30,7 @@ import org.lastaflute.web.exception.RebootAfterGenerateError;
 import org.lastaflute.web.response.ActionResponse;
 import org.lastaflute.web.response.ResponseHook;
 import org.lastaflute.web.ruts.config.ActionExecute;
+import org.lastaflute.web.ruts.config.ActionExecutePlan;
 import org.lastaflute.web.ruts.config.ActionFormMeta;
 import org.lastaflute.web.ruts.process.ActionRuntime;
 import org.lastaflute.web.validation.ActionValidator;
@@ -193,7 +194,8 @@ public class RedCardableAssist {
     //                                                                    Validator Called
     //                                                                    ================
     public void checkValidatorCalled() {
-        if (!execute.isSuppressValidatorCallCheck() && certainlyNotBeValidatorCalled()) {
+        final ActionExecutePlan plan = execute.getExecutePlan();
+        if (!plan.isSuppressValidatorCallCheck() && plan.isFormExists() && certainlyNotBeValidatorCalled()) {
             execute.getFormMeta().filter(meta -> isValidatorAnnotated(meta)).ifPresent(meta -> {
                 throwLonelyValidatorAnnotationException(meta); // #hope see fields in nested element
             });
@@ -15,6 +15,10 @@
  */
 package org.lastaflute.web.ruts;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Supplier;
+
 import org.dbflute.optional.OptionalThing;
 
 /**
@@ -23,4 +27,15 @@ import org.dbflute.optional.OptionalThing;
 public interface VirtualAction {
 
     NextJourney execute(OptionalThing<VirtualForm> form);
+
+    /**
+     * Execute the action asynchronously, for execute method returning completion stage of response. <br>
+     * The returned stage is completed with the finisher of the action (reflecting response and hooks),
+     * which should be called with the inherited thread context.
+     * @param form The optional action form. (NotNull, EmptyAllowed)
+     * @return The completion stage of action finisher, always completed normally. (NotNull)
+     */
+    default CompletionStage<Supplier<NextJourney>> executeAsync(OptionalThing<VirtualForm> form) {
+        return CompletableFuture.completedFuture(() -> execute(form)); // as synchronous as default
+    }
 }
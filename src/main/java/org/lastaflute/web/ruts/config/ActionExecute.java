@@ -20,18 +20,21 @@ import java.lang.reflect.Method;
 import java.lang.reflect.Parameter;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletionStage;
 import java.util.function.Consumer;
 
 import javax.servlet.http.HttpServletRequest;
 
 import org.dbflute.helper.message.ExceptionMessageBuilder;
 import org.dbflute.optional.OptionalThing;
+import org.dbflute.util.DfReflectionUtil;
 import org.dbflute.util.Srl;
 import org.lastaflute.core.util.ContainerUtil;
 import org.lastaflute.db.jta.stage.TransactionGenre;
 import org.lastaflute.web.api.ApiAction;
 import org.lastaflute.web.exception.ActionFormNotFoundException;
 import org.lastaflute.web.exception.UrlParamArgsNotFoundException;
+import org.lastaflute.web.login.AllowAnyoneAccess;
 import org.lastaflute.web.response.ApiResponse;
 import org.lastaflute.web.ruts.VirtualForm;
 import org.lastaflute.web.ruts.config.analyzer.ExecuteArgAnalyzer;
@@ -77,6 +80,16 @@ public class ActionExecute implements Serializable {
     //                                           -----------
     protected final PreparedUrlPattern preparedUrlPattern; // not null
 
+    // -----------------------------------------------------
+    //                                               Invoker
+    //                                               -------
+    protected final ExecuteMethodInvoker executeMethodInvoker; // not null
+
+    // -----------------------------------------------------
+    //                                        Execution Plan
+    //                                        --------------
+    protected final ActionExecutePlan executePlan; // not null, static decisions per execute
+
     // -----------------------------------------------------
     //                                     Lazy-Loaded Cache
     //                                     -----------------
@@ -124,6 +137,12 @@ public class ActionExecute implements Serializable {
         // defined parameter again (uses URL pattern result)
         this.urlParamArgs = prepareUrlParamArgs(urlParamTypeList, optionalGenericTypeMap);
 
+        // compiled invoker for action calls
+        this.executeMethodInvoker = newExecuteMethodInvoker(executeMethod);
+
+        // static decisions for requests (uses all above)
+        this.executePlan = createExecutePlan();
+
         // check finally
         checkExecuteMethod(executeArgAnalyzer);
     }
@@ -172,6 +191,38 @@ public class ActionExecute implements Serializable {
         return new PreparedUrlPattern(chosenBox, regexpBox);
     }
 
+    // -----------------------------------------------------
+    //                                               Invoker
+    //                                               -------
+    protected ExecuteMethodInvoker newExecuteMethodInvoker(Method executeMethod) {
+        return new ExecuteMethodInvoker(executeMethod);
+    }
+
+    // -----------------------------------------------------
+    //                                        Execution Plan
+    //                                        --------------
+    protected ActionExecutePlan createExecutePlan() {
+        final boolean allowAnyoneAccess = isAllowAnyoneAccessAnnotated();
+        final boolean apiExecute = isReturnApiResponse() || isImpelementApiAction();
+        final boolean asyncExecute = isReturnCompletionStage();
+        final boolean formExists = formMeta.isPresent();
+        final boolean validatorAnnotated = formMeta.filter(meta -> meta.isValidatorAnnotated()).isPresent();
+        return newActionExecutePlan(allowAnyoneAccess, apiExecute, asyncExecute, transactionGenre, sqlExecutionCountLimit, formExists,
+                validatorAnnotated, suppressValidatorCallCheck);
+    }
+
+    protected boolean isAllowAnyoneAccessAnnotated() { // same as login assist (declaring class of execute method)
+        final Class<AllowAnyoneAccess> annoType = AllowAnyoneAccess.class;
+        return executeMethod.getDeclaringClass().getAnnotation(annoType) != null || executeMethod.getAnnotation(annoType) != null;
+    }
+
+    protected ActionExecutePlan newActionExecutePlan(boolean allowAnyoneAccess, boolean apiExecute, boolean asyncExecute,
+            TransactionGenre transactionGenre, OptionalThing<Integer> sqlExecutionCountLimit, boolean formExists,
+            boolean validatorAnnotated, boolean suppressValidatorCallCheck) {
+        return new ActionExecutePlan(allowAnyoneAccess, apiExecute, asyncExecute, transactionGenre, sqlExecutionCountLimit, formExists,
+                validatorAnnotated, suppressValidatorCallCheck);
+    }
+
     // -----------------------------------------------------
     //                                           Action Form
     //                                           -----------
@@ -249,17 +300,43 @@ public class ActionExecute implements Serializable {
     //                                      by URL Parameter
     //                                      ----------------
     public boolean determineTargetByUrlParameter(String paramPath) {
+        if (!isTargetHttpMethodAndParamPath(paramPath)) {
+            return false;
+        }
+        return handleOptionalParameterMapping(paramPath) || preparedUrlPattern.matches(paramPath);
+    }
+
+    /**
+     * Match the URL parameter with this execute, keeping the matched values for URL parameter analyzing.
+     * @param paramPath The path of URL parameter, e.g. sea/3 (NotNull, NotEmpty)
+     * @return The result of matching that has matched values. (NullAllowed: when unmatched)
+     */
+    public UrlParamMatchResult matchUrlParameter(String paramPath) {
+        if (!isTargetHttpMethodAndParamPath(paramPath)) {
+            return null;
+        }
+        if (handleOptionalParameterMapping(paramPath)) {
+            return newUrlParamMatchResult(null); // values are resolved by analyzer
+        }
+        final List<String> matchedValueList = preparedUrlPattern.extractMatchedValues(paramPath);
+        return matchedValueList != null ? newUrlParamMatchResult(matchedValueList) : null;
+    }
+
+    protected boolean isTargetHttpMethodAndParamPath(String paramPath) {
         if (restfulHttpMethod.filter(httpMethod -> !matchesWithRequestedHttpMethod(httpMethod)).isPresent()) {
             return false;
         }
-        if (!isParameterEmpty(paramPath)) {
-            return handleOptionalParameterMapping(paramPath) || preparedUrlPattern.matcher(paramPath).find();
-        } else {
+        if (isParameterEmpty(paramPath)) {
             // should not be called if param is empty, old code is like this:
             //return "index".equals(urlPattern);
             String msg = "The paramPath should not be null or empty: [" + paramPath + "], " + toSimpleMethodExp();
             throw new IllegalStateException(msg);
         }
+        return true;
+    }
+
+    protected UrlParamMatchResult newUrlParamMatchResult(List<String> matchedValueList) {
+        return new UrlParamMatchResult(this, matchedValueList);
     }
 
     protected boolean matchesWithRequestedHttpMethod(String httpMethod) {
@@ -287,6 +364,19 @@ public class ActionExecute implements Serializable {
         }
     }
 
+    /**
+     * Find the literal first segment that the matched URL parameter always starts with, e.g. 'sea' if 'sea/{}'. <br>
+     * This is used to dispatch the URL parameter to candidate executes without matching all.
+     * @return The literal of first segment. (NullAllowed: when variable, optional parameter, or regular expression)
+     */
+    public String findUrlParameterFirstLiteral() {
+        if (hasOptionalUrlParameter()) { // matched by parameter count
+            return null;
+        }
+        final UrlPatternSegmentMatcher segmentMatcher = preparedUrlPattern.getSegmentMatcher();
+        return segmentMatcher != null ? segmentMatcher.getFirstLiteral() : null;
+    }
+
     protected boolean hasOptionalUrlParameter() {
         // already checked here that optional parameters are defined at rear arguments
         return urlParamArgs.map(args -> {
@@ -336,11 +426,23 @@ public class ActionExecute implements Serializable {
      * @return The determination, true or false.
      */
     public boolean isApiExecute() {
-        return isReturnApiResponse() || isImpelementApiAction();
+        return executePlan.isApiExecute(); // decided when created
     }
 
     protected boolean isReturnApiResponse() {
-        return ApiResponse.class.isAssignableFrom(getExecuteMethod().getReturnType());
+        return ApiResponse.class.isAssignableFrom(getResponseType());
+    }
+
+    protected boolean isReturnCompletionStage() { // async execute
+        return CompletionStage.class.isAssignableFrom(getExecuteMethod().getReturnType());
+    }
+
+    protected Class<?> getResponseType() { // e.g. JsonResponse if CompletableFuture<JsonResponse<SeaBean>>
+        if (isReturnCompletionStage()) {
+            final Class<?> futureResponseType = DfReflectionUtil.getGenericFirstClass(getExecuteMethod().getGenericReturnType());
+            return futureResponseType != null ? futureResponseType : Object.class; // null checked later
+        }
+        return getExecuteMethod().getReturnType();
     }
 
     protected boolean isImpelementApiAction() {
@@ -395,6 +497,20 @@ public class ActionExecute implements Serializable {
         return executeMethod;
     }
 
+    /**
+     * @return The compiled invoker of the execute method. (NotNull)
+     */
+    public ExecuteMethodInvoker getExecuteMethodInvoker() {
+        return executeMethodInvoker;
+    }
+
+    /**
+     * @return The immutable execution plan decided when this execute is created. (NotNull)
+     */
+    public ActionExecutePlan getExecutePlan() {
+        return executePlan;
+    }
+
     public String getMappingMethodName() {
         return mappingMethodName;
     }
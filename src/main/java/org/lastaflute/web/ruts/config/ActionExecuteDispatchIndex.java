@@ -0,0 +1,146 @@
+/*
+ * Copyright 2015-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.web.ruts.config;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The immutable index of action executes to dispatch URL parameter to candidates. <br>
+ * The candidates are narrowed by RESTful HTTP method and literal first segment of URL pattern,
+ * keeping registration order so the first-match priority is same as matching all executes.
+ * <pre>
+ * e.g. get$index(int), get$sea(int), post$index(Form), land(String)
+ *  GET  3        : get$index, land
+ *  GET  sea/3    : get$sea, land (if sea/{} pattern)
+ *  POST 3        : post$index, land
+ *  PUT  3        : land
+ * </pre>
+ * @author jflute
+ * @since 0.8.4
+ */
+public class ActionExecuteDispatchIndex {
+
+    // ===================================================================================
+    //                                                                          Definition
+    //                                                                          ==========
+    /** The key for other HTTP methods or other first segments. (only for unrestricted executes) */
+    protected static final String OTHER_KEY = "";
+
+    protected static final ActionExecute[] EMPTY_EXECUTES = new ActionExecute[0];
+
+    // ===================================================================================
+    //                                                                           Attribute
+    //                                                                           =========
+    /** The map of candidate executes, keyed by lower-case HTTP method and first segment. (NotNull, ReadOnly) */
+    protected final Map<String, Map<String, ActionExecute[]>> candidateMap;
+
+    // ===================================================================================
+    //                                                                         Constructor
+    //                                                                         ===========
+    protected ActionExecuteDispatchIndex(Map<String, Map<String, ActionExecute[]>> candidateMap) {
+        this.candidateMap = candidateMap;
+    }
+
+    // ===================================================================================
+    //                                                                               Build
+    //                                                                               =====
+    /**
+     * Build the dispatch index from the action executes.
+     * @param executeList The collection of action executes in registration order. (NotNull)
+     * @return The new-created dispatch index. (NotNull)
+     */
+    public static ActionExecuteDispatchIndex build(Collection<ActionExecute> executeList) {
+        final Set<String> methodKeySet = new LinkedHashSet<String>();
+        final Set<String> segmentKeySet = new LinkedHashSet<String>();
+        methodKeySet.add(OTHER_KEY);
+        segmentKeySet.add(OTHER_KEY);
+        for (ActionExecute execute : executeList) {
+            execute.getRestfulHttpMethod().ifPresent(httpMethod -> methodKeySet.add(httpMethod.toLowerCase()));
+            final String firstLiteral = execute.findUrlParameterFirstLiteral();
+            if (firstLiteral != null) {
+                segmentKeySet.add(firstLiteral);
+            }
+        }
+        final Map<String, Map<String, ActionExecute[]>> candidateMap = new HashMap<String, Map<String, ActionExecute[]>>();
+        for (String methodKey : methodKeySet) {
+            final Map<String, ActionExecute[]> segmentMap = new HashMap<String, ActionExecute[]>();
+            for (String segmentKey : segmentKeySet) {
+                segmentMap.put(segmentKey, filterCandidates(executeList, methodKey, segmentKey));
+            }
+            candidateMap.put(methodKey, segmentMap);
+        }
+        return new ActionExecuteDispatchIndex(candidateMap);
+    }
+
+    protected static ActionExecute[] filterCandidates(Collection<ActionExecute> executeList, String methodKey, String segmentKey) {
+        final List<ActionExecute> candidateList = new ArrayList<ActionExecute>(executeList.size());
+        for (ActionExecute execute : executeList) {
+            final boolean methodTarget = execute.getRestfulHttpMethod().map(httpMethod -> {
+                return httpMethod.equalsIgnoreCase(methodKey); // other key is not matched
+            }).orElse(true);
+            if (!methodTarget) {
+                continue;
+            }
+            final String firstLiteral = execute.findUrlParameterFirstLiteral();
+            if (firstLiteral != null && !firstLiteral.equals(segmentKey)) { // other key is not matched
+                continue;
+            }
+            candidateList.add(execute);
+        }
+        return candidateList.isEmpty() ? EMPTY_EXECUTES : candidateList.toArray(new ActionExecute[candidateList.size()]);
+    }
+
+    // ===================================================================================
+    //                                                                     Find Candidates
+    //                                                                     ===============
+    /**
+     * Find the candidate executes that can match with the URL parameter.
+     * @param httpMethod The requested HTTP method e.g. GET. (NullAllowed: then only for non-restful executes)
+     * @param paramPath The path of URL parameter, e.g. sea/3 (NotNull)
+     * @return The array of candidate executes in registration order, should not be modified. (NotNull, EmptyAllowed)
+     */
+    public ActionExecute[] findCandidates(String httpMethod, String paramPath) {
+        Map<String, ActionExecute[]> segmentMap = httpMethod != null ? candidateMap.get(httpMethod.toLowerCase()) : null;
+        if (segmentMap == null) { // e.g. no restful execute for the HTTP method
+            segmentMap = candidateMap.get(OTHER_KEY);
+        }
+        final int delimiterIndex = paramPath.indexOf('/');
+        final String firstSegment = delimiterIndex >= 0 ? paramPath.substring(0, delimiterIndex) : paramPath;
+        final ActionExecute[] candidates = segmentMap.get(firstSegment);
+        return candidates != null ? candidates : segmentMap.get(OTHER_KEY);
+    }
+
+    /**
+     * @return Does the index need HTTP method to find candidates? (false if no restful execute)
+     */
+    public boolean needsHttpMethod() {
+        return candidateMap.size() > 1; // has restful HTTP method keys
+    }
+
+    // ===================================================================================
+    //                                                                      Basic Override
+    //                                                                      ==============
+    @Override
+    public String toString() {
+        return "dispatch:{methods=" + candidateMap.keySet() + "}";
+    }
+}
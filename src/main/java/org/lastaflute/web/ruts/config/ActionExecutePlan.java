@@ -0,0 +1,137 @@
+/*
+ * Copyright 2015-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.web.ruts.config;
+
+import java.io.Serializable;
+
+import org.dbflute.optional.OptionalThing;
+import org.lastaflute.db.jta.stage.TransactionGenre;
+
+/**
+ * The immutable execution plan of action execute, decided when the action execute is created. <br>
+ * It has static decisions per execute method (e.g. annotations, transaction)
+ * so hooks and assists can use them without reflection in every request.
+ * @author jflute
+ * @since 0.8.4
+ */
+public class ActionExecutePlan implements Serializable {
+
+    // ===================================================================================
+    //                                                                          Definition
+    //                                                                          ==========
+    private static final long serialVersionUID = 1L;
+
+    // ===================================================================================
+    //                                                                           Attribute
+    //                                                                           =========
+    protected final boolean allowAnyoneAccess; // @AllowAnyoneAccess on action class or execute method
+    protected final boolean apiExecute; // e.g. JSON response return type
+    protected final boolean asyncExecute; // e.g. CompletableFuture<JsonResponse<SeaBean>> return type
+    protected final TransactionGenre transactionGenre; // not null
+    protected final OptionalThing<Integer> sqlExecutionCountLimit; // not null, empty allowed
+    protected final boolean formExists; // action form argument is defined
+    protected final boolean validatorAnnotated; // action form might have validator annotations
+    protected final boolean suppressValidatorCallCheck;
+
+    // ===================================================================================
+    //                                                                         Constructor
+    //                                                                         ===========
+    public ActionExecutePlan(boolean allowAnyoneAccess, boolean apiExecute, boolean asyncExecute,
+            TransactionGenre transactionGenre, OptionalThing<Integer> sqlExecutionCountLimit, boolean formExists,
+            boolean validatorAnnotated, boolean suppressValidatorCallCheck) {
+        assertArgumentNotNull("transactionGenre", transactionGenre);
+        assertArgumentNotNull("sqlExecutionCountLimit", sqlExecutionCountLimit);
+        this.allowAnyoneAccess = allowAnyoneAccess;
+        this.apiExecute = apiExecute;
+        this.asyncExecute = asyncExecute;
+        this.transactionGenre = transactionGenre;
+        this.sqlExecutionCountLimit = sqlExecutionCountLimit;
+        this.formExists = formExists;
+        this.validatorAnnotated = validatorAnnotated;
+        this.suppressValidatorCallCheck = suppressValidatorCallCheck;
+    }
+
+    // ===================================================================================
+    //                                                                        Small Helper
+    //                                                                        ============
+    protected void assertArgumentNotNull(String variableName, Object value) {
+        if (variableName == null) {
+            throw new IllegalArgumentException("The variableName should not be null.");
+        }
+        if (value == null) {
+            throw new IllegalArgumentException("The argument '" + variableName + "' should not be null.");
+        }
+    }
+
+    // ===================================================================================
+    //                                                                      Basic Override
+    //                                                                      ==============
+    @Override
+    public String toString() {
+        return "plan:{anyone=" + allowAnyoneAccess + ", api=" + apiExecute + ", async=" + asyncExecute + ", tx=" + transactionGenre
+                + ", sqlLimit=" + sqlExecutionCountLimit.orElse(null) + ", form=" + formExists + ", validator=" + validatorAnnotated + "}";
+    }
+
+    // ===================================================================================
+    //                                                                            Accessor
+    //                                                                            ========
+    /**
+     * @return Is the action (class or method) annotated as allowing anyone access? (not login required)
+     */
+    public boolean isAllowAnyoneAccess() {
+        return allowAnyoneAccess;
+    }
+
+    /**
+     * @return Is the action execute for API request? (contains e.g. JSON response return type)
+     */
+    public boolean isApiExecute() {
+        return apiExecute;
+    }
+
+    /**
+     * @return Does the execute method return completion stage of response? (then the request is processed asynchronously)
+     */
+    public boolean isAsyncExecute() {
+        return asyncExecute;
+    }
+
+    public TransactionGenre getTransactionGenre() {
+        return transactionGenre;
+    }
+
+    public OptionalThing<Integer> getSqlExecutionCountLimit() {
+        return sqlExecutionCountLimit;
+    }
+
+    /**
+     * @return Does the execute method have action form argument?
+     */
+    public boolean isFormExists() {
+        return formExists;
+    }
+
+    /**
+     * @return Might the action form have validator annotations? (false if no form)
+     */
+    public boolean isValidatorAnnotated() {
+        return validatorAnnotated;
+    }
+
+    public boolean isSuppressValidatorCallCheck() {
+        return suppressValidatorCallCheck;
+    }
+}
@@ -32,6 +32,7 @@ import org.dbflute.util.Srl;
 import org.lastaflute.di.helper.beans.BeanDesc;
 import org.lastaflute.di.helper.beans.PropertyDesc;
 import org.lastaflute.di.helper.beans.factory.BeanDescFactory;
+import org.lastaflute.web.api.JsonBodyStream;
 import org.lastaflute.web.exception.ActionFormCreateFailureException;
 import org.lastaflute.web.ruts.VirtualForm;
 import org.lastaflute.web.ruts.VirtualForm.RealFormSupplier;
@@ -53,6 +54,7 @@ public class ActionFormMeta {
     protected final OptionalThing<Consumer<Object>> formSetupper; // not null, empty allowed
     protected final Map<String, ActionFormProperty> propertyMap; // not null
     protected final boolean validatorAnnotated; // not null
+    protected final OptionalThing<ActionFormBinder> formBinder; // not null, empty allowed when e.g. list form
 
     // ===================================================================================
     //                                                                         Constructor
@@ -66,6 +68,7 @@ public class ActionFormMeta {
         this.formSetupper = formSetupper;
         this.propertyMap = setupProperties(formType);
         this.validatorAnnotated = mightBeValidatorAnnotated();
+        this.formBinder = prepareFormBinder();
     }
 
     protected Map<String, ActionFormProperty> setupProperties(Class<?> formType) {
@@ -112,6 +115,20 @@ public class ActionFormMeta {
         return ActionValidator.isValidatorAnnotation(annoType);
     }
 
+    // ===================================================================================
+    //                                                                         Form Binder
+    //                                                                         ===========
+    protected OptionalThing<ActionFormBinder> prepareFormBinder() {
+        if (listFormParameter.isPresent() || List.class.isAssignableFrom(formType) || Map.class.isAssignableFrom(formType)) {
+            return OptionalThing.empty(); // e.g. JSON body of list type, map form (mapped by plain logic)
+        }
+        return OptionalThing.of(newActionFormBinder(formType));
+    }
+
+    protected ActionFormBinder newActionFormBinder(Class<?> formType) {
+        return new ActionFormBinder(formType);
+    }
+
     // ===================================================================================
     //                                                                   Property Handling
     //                                                                   =================
@@ -173,7 +190,7 @@ public class ActionFormMeta {
     }
 
     protected void checkInstantiatedFormType() {
-        if (List.class.isAssignableFrom(formType)) { // e.g. List<SeaForm>, JSON body of list type
+        if (List.class.isAssignableFrom(formType) || isJsonBodyStream()) { // e.g. List<SeaForm>, JSON body of list type
             String msg = "Cannot instantiate the form because of list type, should not come here:" + formType;
             throw new IllegalStateException(msg);
         }
@@ -243,10 +260,24 @@ public class ActionFormMeta {
         });
     }
 
+    /**
+     * @return Is the form stream of JSON body elements? e.g. JsonBodyStream&lt;SeaBody&gt;
+     */
+    public boolean isJsonBodyStream() {
+        return listFormParameter.isPresent() && JsonBodyStream.class.isAssignableFrom(formType);
+    }
+
     // -----------------------------------------------------
     //                                              Analyzed
     //                                              --------
     public boolean isValidatorAnnotated() {
         return validatorAnnotated;
     }
+
+    /**
+     * @return The optional compiled binder of the form for parameter mapping. (NotNull, EmptyAllowed: when e.g. list form)
+     */
+    public OptionalThing<ActionFormBinder> getFormBinder() {
+        return formBinder;
+    }
 }
\ No newline at end of file
@@ -16,12 +16,14 @@
 package org.lastaflute.web.ruts.config;
 
 import java.lang.reflect.Method;
+import java.util.Arrays;
 import java.util.Map;
 
 import javax.servlet.http.HttpServletRequest;
 
 import org.dbflute.optional.OptionalThing;
 import org.dbflute.util.DfTypeUtil;
+import org.lastaflute.core.util.ContainerUtil;
 import org.lastaflute.di.core.ComponentDef;
 import org.lastaflute.di.helper.beans.BeanDesc;
 import org.lastaflute.di.helper.beans.factory.BeanDescFactory;
@@ -29,6 +31,7 @@ import org.lastaflute.di.util.ArrayMap;
 import org.lastaflute.web.path.ActionAdjustmentProvider;
 import org.lastaflute.web.response.HtmlResponse;
 import org.lastaflute.web.ruts.NextJourney;
+import org.lastaflute.web.servlet.request.RequestManager;
 import org.lastaflute.web.util.LaServletContextUtil;
 
 /**
@@ -45,6 +48,12 @@ public class ActionMapping {
     protected final String actionName;
     protected final ActionAdjustmentProvider adjustmentProvider;
     protected final ArrayMap<String, ActionExecute> executeMap = new ArrayMap<String, ActionExecute>(); // array to get first
+    protected volatile ActionExecuteDispatchIndex dispatchIndex; // null allowed until first finding, cleared per registration
+
+    // -----------------------------------------------------
+    //                                     Lazy-Loaded Cache
+    //                                     -----------------
+    protected volatile RequestManager cachedRequestManager; // null allowed until lazy-loaded
 
     // ===================================================================================
     //                                                                         Constructor
@@ -59,9 +68,10 @@ public class ActionMapping {
     // -----------------------------------------------------
     //                                      Register Execute
     //                                      ----------------
-    public void registerExecute(ActionExecute execute) {
+    public synchronized void registerExecute(ActionExecute execute) { // registered only at boot (or hot deploy)
         // plain name here, may contain restful http method e.g. get$index
         executeMap.put(execute.getExecuteMethod().getName(), execute);
+        dispatchIndex = null; // built at first finding after the last registration
     }
 
     // ===================================================================================
@@ -76,7 +86,7 @@ public class ActionMapping {
     //                                                                        ============
     // optional unused for performance
     public ActionExecute findActionExecute(String paramPath) { // null allowed when not found
-        for (ActionExecute execute : executeMap.values()) {
+        for (ActionExecute execute : findCandidateExecutes(paramPath)) {
             if (execute.determineTargetByUrlParameter(paramPath)) {
                 return execute;
             }
@@ -84,6 +94,41 @@ public class ActionMapping {
         return null;
     }
 
+    public UrlParamMatchResult matchActionExecute(String paramPath) { // null allowed when not found
+        for (ActionExecute execute : findCandidateExecutes(paramPath)) {
+            final UrlParamMatchResult result = execute.matchUrlParameter(paramPath);
+            if (result != null) {
+                return result;
+            }
+        }
+        return null;
+    }
+
+    protected Iterable<ActionExecute> findCandidateExecutes(String paramPath) {
+        if (paramPath == null || paramPath.isEmpty()) { // empty is checked by execute
+            return executeMap.values();
+        }
+        final ActionExecuteDispatchIndex index = prepareDispatchIndex();
+        final String httpMethod = index.needsHttpMethod() ? getRequestManager().getHttpMethod().orElse(null) : null;
+        final ActionExecute[] candidates = index.findCandidates(httpMethod, paramPath);
+        return Arrays.asList(candidates); // same order as execute map
+    }
+
+    protected ActionExecuteDispatchIndex prepareDispatchIndex() {
+        ActionExecuteDispatchIndex index = dispatchIndex;
+        if (index != null) { // mainly here
+            return index;
+        }
+        synchronized (this) { // same lock as registration
+            index = dispatchIndex;
+            if (index == null) { // first finding after registration
+                index = ActionExecuteDispatchIndex.build(executeMap.values());
+                dispatchIndex = index;
+            }
+            return index;
+        }
+    }
+
     public ActionExecute findActionExecute(HttpServletRequest request) { // null allowed when not found
         for (ActionExecute execute : executeMap.values()) {
             if (execute.determineTargetByRequestParameter(request)) { // request parameter contains e.g. doUpdate=update
@@ -180,6 +225,23 @@ public class ActionMapping {
         return path.endsWith(".jsp");
     }
 
+    // ===================================================================================
+    //                                                                        Small Helper
+    //                                                                        ============
+    // #hope no use DI container here (same as action execute)
+    protected RequestManager getRequestManager() {
+        if (cachedRequestManager != null) {
+            return cachedRequestManager;
+        }
+        synchronized (this) {
+            if (cachedRequestManager != null) {
+                return cachedRequestManager;
+            }
+            cachedRequestManager = ContainerUtil.getComponent(RequestManager.class);
+        }
+        return cachedRequestManager;
+    }
+
     // ===================================================================================
     //                                                                      Basic Override
     //                                                                      ==============
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2015-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.web.ruts.config;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+import org.dbflute.util.DfReflectionUtil;
+
+/**
+ * The direct invoker of execute method, compiled as method handle when action execute is created. <br>
+ * The method handle is spread as (Object action, Object[] args)Object so no reflection in action calls. <br>
+ * Arguments that cannot be passed to the method (e.g. different type or number) are not invoked directly,
+ * so the caller should use reflection for them to keep the same exception handling.
+ * @author jflute
+ * @since 0.8.4
+ */
+public class ExecuteMethodInvoker {
+
+    // ===================================================================================
+    //                                                                           Attribute
+    //                                                                           =========
+    protected final Method executeMethod; // not null
+    protected final MethodHandle methodHandle; // null allowed when e.g. not accessible
+    protected final Class<?>[] argTypes; // not null, wrapper type if primitive
+    protected final boolean[] primitiveArgs; // not null, same size as argTypes
+
+    // ===================================================================================
+    //                                                                         Constructor
+    //                                                                         ===========
+    /**
+     * @param executeMethod The execute method of action. (NotNull)
+     */
+    public ExecuteMethodInvoker(Method executeMethod) {
+        if (executeMethod == null) {
+            throw new IllegalArgumentException("The argument 'executeMethod' should not be null.");
+        }
+        this.executeMethod = executeMethod;
+        this.methodHandle = compileMethodHandle(executeMethod);
+        final Class<?>[] parameterTypes = executeMethod.getParameterTypes();
+        this.argTypes = new Class<?>[parameterTypes.length];
+        this.primitiveArgs = new boolean[parameterTypes.length];
+        for (int i = 0; i < parameterTypes.length; i++) {
+            final Class<?> parameterType = parameterTypes[i];
+            primitiveArgs[i] = parameterType.isPrimitive();
+            argTypes[i] = parameterType.isPrimitive() ? DfReflectionUtil.getWrapperClass(parameterType) : parameterType;
+        }
+    }
+
+    protected MethodHandle compileMethodHandle(Method executeMethod) {
+        final int argCount = executeMethod.getParameterCount();
+        try {
+            final MethodHandle plain = MethodHandles.publicLookup().unreflect(executeMethod);
+            // (SeaAction, Integer, SeaForm)ActionResponse => (Object, Object[])Object
+            return plain.asType(MethodType.genericMethodType(argCount + 1)).asSpreader(Object[].class, argCount);
+        } catch (IllegalAccessException | RuntimeException ignored) { // e.g. non-public action class
+            return null; // invoked by reflection
+        }
+    }
+
+    // ===================================================================================
+    //                                                                              Invoke
+    //                                                                              ======
+    /**
+     * Can the arguments be passed to the execute method directly?
+     * @param action The action instance that has the execute method. (NotNull)
+     * @param requestArgs The array of arguments for the execute method. (NotNull)
+     * @return The determination, true or false. (false if e.g. type mismatch, then use reflection)
+     */
+    public boolean canInvokeDirectly(Object action, Object[] requestArgs) {
+        if (methodHandle == null || !executeMethod.getDeclaringClass().isInstance(action)) {
+            return false;
+        }
+        if (requestArgs.length != argTypes.length) {
+            return false;
+        }
+        for (int i = 0; i < requestArgs.length; i++) {
+            final Object arg = requestArgs[i];
+            if (arg == null ? primitiveArgs[i] : !argTypes[i].isInstance(arg)) { // null cannot be unboxed
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Invoke the execute method directly, should be called after {@link #canInvokeDirectly(Object, Object[])}.
+     * @param action The action instance that has the execute method. (NotNull)
+     * @param requestArgs The array of arguments for the execute method. (NotNull)
+     * @return The returned object from the execute method. (NullAllowed: basically not null, checked later)
+     * @throws InvocationTargetException When the execute method throws, same as reflection.
+     */
+    public Object invokeDirectly(Object action, Object[] requestArgs) throws InvocationTargetException {
+        try {
+            return (Object) methodHandle.invokeExact(action, requestArgs);
+        } catch (Throwable e) { // arguments are already checked so thrown by the method
+            throw new InvocationTargetException(e);
+        }
+    }
+
+    // ===================================================================================
+    //                                                                      Basic Override
+    //                                                                      ==============
+    @Override
+    public String toString() {
+        return "invoker:{" + executeMethod.getName() + ", " + (methodHandle != null ? "handle" : "reflection") + "}";
+    }
+
+    // ===================================================================================
+    //                                                                            Accessor
+    //                                                                            ========
+    public Method getExecuteMethod() {
+        return executeMethod;
+    }
+
+    public boolean isDirectInvocable() {
+        return methodHandle != null;
+    }
+}
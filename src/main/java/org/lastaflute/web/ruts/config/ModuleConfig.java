@@ -17,6 +17,7 @@ package org.lastaflute.web.ruts.config;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -44,6 +45,7 @@ public class ModuleConfig implements Disposable, Serializable {
     protected final Map<String, ActionMapping> actionMappingMap = new HashMap<String, ActionMapping>();
     protected final List<ActionMapping> actionMappingList = new ArrayList<ActionMapping>();
     protected volatile boolean initialized;
+    protected volatile int disposedCount; // to invalidate e.g. routing cache depending on the mappings
 
     // ===================================================================================
     //                                                                         Constructor
@@ -99,6 +101,7 @@ public class ModuleConfig implements Disposable, Serializable {
         actionMappingMap.clear();
         actionMappingList.clear();
         initialized = false;
+        ++disposedCount; // only by disposing thread
     }
 
     // ===================================================================================
@@ -110,4 +113,21 @@ public class ModuleConfig implements Disposable, Serializable {
         final String hash = Integer.toHexString(hashCode());
         return title + ":{mapping=" + actionMappingMap.size() + "}@" + hash;
     }
+
+    // ===================================================================================
+    //                                                                            Accessor
+    //                                                                            ========
+    /**
+     * @return The read-only list of registered action mappings, in registration order. (NotNull)
+     */
+    public List<ActionMapping> getActionMappingList() {
+        return Collections.unmodifiableList(actionMappingList);
+    }
+
+    /**
+     * @return The count of disposing, which is changed when the action mappings are disposed e.g. by hot deploy.
+     */
+    public int getDisposedCount() {
+        return disposedCount;
+    }
 }
@@ -16,6 +16,9 @@
 package org.lastaflute.web.ruts.config;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -37,6 +40,7 @@ public class PreparedUrlPattern implements Serializable {
     protected final String sourceUrlPattern; // not null, empty allowed, might be derived
     protected final boolean specified; // true if urlPattern is defined by annotation
     protected final Pattern regexpPattern; // not null e.g. ^([^/]+)$ or ^([^/]+)/([^/]+)$ or ^sea/([^/]+)$
+    protected final UrlPatternSegmentMatcher segmentMatcher; // null allowed when complex pattern e.g. sea-{}
     protected final boolean methodNamePrefix; // true if urlPattern is [method]/...
 
     // ===================================================================================
@@ -49,6 +53,7 @@ public class PreparedUrlPattern implements Serializable {
         this.sourceUrlPattern = chosenBox.getSourceUrlPattern();
         this.specified = chosenBox.isSpecified();
         this.regexpPattern = regexpBox.getRegexpPattern();
+        this.segmentMatcher = regexpBox.getSegmentMatcher();
         this.methodNamePrefix = chosenBox.isMethodNamePrefix();
         assertArgumentNotNull("resolvedUrlPattern of chosenBox", resolvedUrlPattern);
         assertArgumentNotNull("sourceUrlPattern of chosenBox", sourceUrlPattern);
@@ -58,6 +63,42 @@ public class PreparedUrlPattern implements Serializable {
     // ===================================================================================
     //                                                                              Facade
     //                                                                              ======
+    /**
+     * Does the parameter path match with the URL pattern? <br>
+     * The regex-free matcher is used if the pattern is simple, otherwise regular expression.
+     * @param paramPath The path of URL parameter, e.g. sea/3 (NotNull)
+     * @return The determination, true or false.
+     */
+    public boolean matches(String paramPath) {
+        assertArgumentNotNull("paramPath", paramPath);
+        if (segmentMatcher != null) { // mainly here
+            return segmentMatcher.matches(paramPath);
+        }
+        return regexpPattern.matcher(paramPath).find();
+    }
+
+    /**
+     * Extract the matched values of URL parameters by the URL pattern.
+     * @param paramPath The path of URL parameter, e.g. sea/3 (NotNull)
+     * @return The read-only list of matched values, group order e.g. [3] (NullAllowed: when unmatched)
+     */
+    public List<String> extractMatchedValues(String paramPath) {
+        assertArgumentNotNull("paramPath", paramPath);
+        if (segmentMatcher != null) { // mainly here
+            return segmentMatcher.extract(paramPath);
+        }
+        final Matcher matcher = regexpPattern.matcher(paramPath);
+        if (!matcher.find()) {
+            return null;
+        }
+        final int groupCount = matcher.groupCount();
+        final List<String> valueList = new ArrayList<String>(groupCount);
+        for (int i = 0; i < groupCount; i++) {
+            valueList.add(matcher.group(i + 1)); // group 1 origin (0 provides all string)
+        }
+        return Collections.unmodifiableList(valueList);
+    }
+
     public Matcher matcher(String paramPath) {
         assertArgumentNotNull("paramPath", paramPath);
         return regexpPattern.matcher(paramPath);
@@ -107,6 +148,13 @@ public class PreparedUrlPattern implements Serializable {
         return regexpPattern;
     }
 
+    /**
+     * @return The regex-free matcher of the URL pattern. (NullAllowed: when the pattern needs regular expression)
+     */
+    public UrlPatternSegmentMatcher getSegmentMatcher() {
+        return segmentMatcher;
+    }
+
     public boolean isMethodNamePrefix() {
         return methodNamePrefix;
     }
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2015-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.web.ruts.config;
+
+import java.util.List;
+
+/**
+ * The result of URL parameter matching in routing, to reuse matched values in URL parameter analyzing.
+ * @author jflute
+ * @since 0.8.4
+ */
+public class UrlParamMatchResult {
+
+    // ===================================================================================
+    //                                                                           Attribute
+    //                                                                           =========
+    protected final ActionExecute execute; // not null
+    protected final List<String> matchedValueList; // null allowed when matched by optional parameter mapping
+
+    // ===================================================================================
+    //                                                                         Constructor
+    //                                                                         ===========
+    /**
+     * @param execute The matched action execute. (NotNull)
+     * @param matchedValueList The read-only list of values matched by URL pattern. (NullAllowed: when not by URL pattern)
+     */
+    public UrlParamMatchResult(ActionExecute execute, List<String> matchedValueList) {
+        if (execute == null) {
+            throw new IllegalArgumentException("The argument 'execute' should not be null.");
+        }
+        this.execute = execute;
+        this.matchedValueList = matchedValueList;
+    }
+
+    // ===================================================================================
+    //                                                                      Basic Override
+    //                                                                      ==============
+    @Override
+    public String toString() {
+        return "matched:{" + execute.toSimpleMethodExp() + ", " + matchedValueList + "}";
+    }
+
+    // ===================================================================================
+    //                                                                            Accessor
+    //                                                                            ========
+    /**
+     * @return The matched action execute. (NotNull)
+     */
+    public ActionExecute getExecute() {
+        return execute;
+    }
+
+    /**
+     * @return The read-only list of values matched by URL pattern, group order. (NullAllowed: when e.g. optional parameter mapping)
+     */
+    public List<String> getMatchedValueList() {
+        return matchedValueList;
+    }
+}
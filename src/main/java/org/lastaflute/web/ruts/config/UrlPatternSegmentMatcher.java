@@ -0,0 +1,193 @@
+/*
+ * Copyright 2015-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.web.ruts.config;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.lastaflute.web.ruts.config.analyzer.UrlPatternAnalyzer;
+
+/**
+ * The regex-free matcher of URL pattern compiled by segments. <br>
+ * It can handle only the URL pattern that each segment is literal or whole variable.
+ * <pre>
+ * e.g. can handle
+ *  {}/{}        : ^([^/]+)/([^/]+)$
+ *  sea/{}       : ^sea/([^/]+)$
+ *  sea/{}/land  : ^sea/([\-\.\d]+)/land$ (if number parameter)
+ *
+ * e.g. cannot handle (regular expression is used)
+ *  sea-{}/land  : variable with literal in one segment
+ *  sea.land/{}  : regular expression meta character in literal
+ * </pre>
+ * @author jflute
+ * @since 0.8.4
+ */
+public class UrlPatternSegmentMatcher implements Serializable {
+
+    // ===================================================================================
+    //                                                                          Definition
+    //                                                                          ==========
+    private static final long serialVersionUID = 1L;
+
+    /** The table of number element characters, derived from the regular expression class not to be different. (ASCII only) */
+    protected static final boolean[] NUMBER_ELEMENT_CHAR_TABLE = prepareNumberElementCharTable();
+
+    private static boolean[] prepareNumberElementCharTable() {
+        final Pattern pattern = Pattern.compile(UrlPatternAnalyzer.ELEMENT_NUMBER_CHAR_CLASS); // \d is ASCII digit
+        final boolean[] table = new boolean[128];
+        for (char ch = 0; ch < table.length; ch++) {
+            table[ch] = pattern.matcher(String.valueOf(ch)).matches();
+        }
+        return table;
+    }
+
+    // ===================================================================================
+    //                                                                           Attribute
+    //                                                                           =========
+    protected final String[] literals; // not null, null element means variable segment
+    protected final boolean[] numberVariables; // not null, same size as literals, true if number variable segment
+
+    // ===================================================================================
+    //                                                                         Constructor
+    //                                                                         ===========
+    /**
+     * @param literals The array of literal segments, null element means variable segment. (NotNull)
+     * @param numberVariables The array of number determination for variable segments. (NotNull)
+     */
+    public UrlPatternSegmentMatcher(String[] literals, boolean[] numberVariables) {
+        assertArgumentNotNull("literals", literals);
+        assertArgumentNotNull("numberVariables", numberVariables);
+        if (literals.length != numberVariables.length) {
+            String msg = "The size of literals and numberVariables should be same: " + literals.length + ", " + numberVariables.length;
+            throw new IllegalArgumentException(msg);
+        }
+        this.literals = literals;
+        this.numberVariables = numberVariables;
+    }
+
+    // ===================================================================================
+    //                                                                               Match
+    //                                                                               =====
+    /**
+     * Does the parameter path match with the URL pattern? <br>
+     * (same as find() of the regular expression built by the analyzer, which is anchored by ^ and $)
+     * @param paramPath The path of URL parameter, e.g. sea/3 (NotNull)
+     * @return The determination, true or false.
+     */
+    public boolean matches(String paramPath) {
+        return doMatch(paramPath, null);
+    }
+
+    /**
+     * Extract the values of variable segments if the parameter path matches. (same as regular expression groups)
+     * @param paramPath The path of URL parameter, e.g. sea/3 (NotNull)
+     * @return The read-only list of variable values, e.g. [3] (NullAllowed: when unmatched, EmptyAllowed: when no variable)
+     */
+    public List<String> extract(String paramPath) {
+        final List<String> valueList = new ArrayList<String>(literals.length);
+        return doMatch(paramPath, valueList) ? Collections.unmodifiableList(valueList) : null;
+    }
+
+    protected boolean doMatch(String paramPath, List<String> valueList) { // value list is null allowed if no extraction
+        final int segmentCount = literals.length;
+        final int length = paramPath.length();
+        int begin = 0;
+        for (int i = 0; i < segmentCount; i++) {
+            int end = paramPath.indexOf('/', begin);
+            if (i == segmentCount - 1) { // last segment
+                if (end >= 0) { // e.g. sea/3/land for sea/{}
+                    return false;
+                }
+                end = length;
+            } else if (end < 0) { // e.g. sea for sea/{}
+                return false;
+            }
+            if (!matchesSegment(i, paramPath, begin, end)) {
+                return false;
+            }
+            if (valueList != null && literals[i] == null) {
+                valueList.add(paramPath.substring(begin, end));
+            }
+            begin = end + 1;
+        }
+        return true;
+    }
+
+    protected boolean matchesSegment(int segmentIndex, String paramPath, int begin, int end) {
+        final String literal = literals[segmentIndex];
+        if (literal != null) {
+            final int literalLength = literal.length();
+            return end - begin == literalLength && paramPath.regionMatches(begin, literal, 0, literalLength);
+        }
+        if (begin >= end) { // variable needs one or more characters
+            return false;
+        }
+        if (numberVariables[segmentIndex]) {
+            for (int i = begin; i < end; i++) {
+                if (!isNumberElementChar(paramPath.charAt(i))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    protected boolean isNumberElementChar(char ch) { // by the same class as ELEMENT_NUMBER_PATTERN
+        return ch < NUMBER_ELEMENT_CHAR_TABLE.length && NUMBER_ELEMENT_CHAR_TABLE[ch];
+    }
+
+    // ===================================================================================
+    //                                                                       First Literal
+    //                                                                       =============
+    /**
+     * @return The literal of first segment, e.g. 'sea' if 'sea/{}'. (NullAllowed: when the first segment is variable)
+     */
+    public String getFirstLiteral() {
+        return literals.length > 0 ? literals[0] : null;
+    }
+
+    // ===================================================================================
+    //                                                                        Small Helper
+    //                                                                        ============
+    protected void assertArgumentNotNull(String variableName, Object value) {
+        if (variableName == null) {
+            throw new IllegalArgumentException("The variableName should not be null.");
+        }
+        if (value == null) {
+            throw new IllegalArgumentException("The argument '" + variableName + "' should not be null.");
+        }
+    }
+
+    // ===================================================================================
+    //                                                                      Basic Override
+    //                                                                      ==============
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < literals.length; i++) {
+            if (i > 0) {
+                sb.append("/");
+            }
+            final String literal = literals[i];
+            sb.append(literal != null ? literal : (numberVariables[i] ? "{number}" : "{}"));
+        }
+        return "segment:{" + sb + "}";
+    }
+}
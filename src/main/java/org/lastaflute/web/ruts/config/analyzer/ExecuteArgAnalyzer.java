@@ -28,6 +28,7 @@ import java.util.Map;
 import org.dbflute.helper.message.ExceptionMessageBuilder;
 import org.dbflute.util.DfReflectionUtil;
 import org.dbflute.util.Srl;
+import org.lastaflute.web.api.JsonBodyStream;
 import org.lastaflute.web.exception.ActionFormNotLastParameterException;
 import org.lastaflute.web.exception.ExecuteMethodOptionalParameterGenericNotFoundException;
 import org.lastaflute.web.exception.ExecuteMethodOptionalParameterGenericNotScalarException;
@@ -115,9 +116,22 @@ public class ExecuteArgAnalyzer {
             final Class<?> genericType = DfReflectionUtil.getGenericFirstClass(pt); // almost not null, already checked
             return genericType != null && isBeanActionFormType(genericType) ? genericType : null; // e.g. List<SeaForm>
         }
+        if (isJsonBodyStreamType(parameter.getType())) { // read element by element
+            final Type pt = parameter.getParameterizedType();
+            final Class<?> genericType = DfReflectionUtil.getGenericFirstClass(pt); // null if non-generic
+            return genericType != null && isJsonBodyType(genericType) ? genericType : null; // e.g. JsonBodyStream<SeaBody>
+        }
         return null;
     }
 
+    protected boolean isJsonBodyStreamType(Class<?> parameterType) {
+        return JsonBodyStream.class.equals(parameterType);
+    }
+
+    protected boolean isJsonBodyType(Class<?> genericType) {
+        return !genericType.getName().startsWith("java.") && genericType.getName().endsWith(getBodySuffix());
+    }
+
     // -----------------------------------------------------
     //                                            Check Form
     //                                            ----------
@@ -238,6 +252,12 @@ public class ExecuteArgAnalyzer {
                 throwActionFormNonGenericListParameterException(executeMethod, parameter);
             }
         }
+        if (isJsonBodyStreamType(parameter.getType())) { // cannot be URL parameter so check here
+            final Class<?> genericType = DfReflectionUtil.getGenericFirstClass(parameter.getParameterizedType());
+            if (genericType == null || !isJsonBodyType(genericType)) { // e.g. JsonBodyStream, JsonBodyStream<SeaForm>
+                throwActionFormNonBodyJsonBodyStreamParameterException(executeMethod, parameter);
+            }
+        }
     }
 
     protected boolean isNonGenericCheckTargetType(Class<?> tp) {
@@ -280,6 +300,26 @@ public class ExecuteArgAnalyzer {
         throw new ActionFormNotLastParameterException(msg);
     }
 
+    protected void throwActionFormNonBodyJsonBodyStreamParameterException(Method executeMethod, Parameter parameter) {
+        final ExceptionMessageBuilder br = new ExceptionMessageBuilder();
+        br.addNotice("Cannot use JsonBodyStream without JSON body generic type.");
+        br.addItem("Advice");
+        br.addElement("Add JSON body type (e.g. SeaBody) as generic type");
+        br.addElement("of the JsonBodyStream parameter.");
+        br.addElement("  (x):");
+        br.addElement("    public JsonResponse<Void> index(JsonBodyStream bodyStream) { // *Bad");
+        br.addElement("  (x):");
+        br.addElement("    public JsonResponse<Void> index(JsonBodyStream<SeaForm> bodyStream) { // *Bad");
+        br.addElement("  (o):");
+        br.addElement("    public JsonResponse<Void> index(JsonBodyStream<SeaBody> bodyStream) { // Good");
+        br.addItem("Execute Method");
+        br.addElement(LaActionExecuteUtil.buildSimpleMethodExp(executeMethod));
+        br.addItem("JsonBodyStream Parameter");
+        br.addElement(parameter);
+        final String msg = br.buildExceptionMessage();
+        throw new ActionFormNotLastParameterException(msg);
+    }
+
     protected List<Class<?>> prepareUrlParamTypeList(List<Class<?>> urlParamTypeList) {
         return urlParamTypeList != null ? Collections.unmodifiableList(urlParamTypeList) : Collections.emptyList();
     }
@@ -31,6 +31,7 @@ import org.lastaflute.web.exception.UrlPatternEndBraceNotFoundException;
 import org.lastaflute.web.exception.UrlPatternFrontOrRearSlashUnneededException;
 import org.lastaflute.web.exception.UrlPatternMethodKeywordWithOptionalArgException;
 import org.lastaflute.web.exception.UrlPatternNonsenseSettingException;
+import org.lastaflute.web.ruts.config.UrlPatternSegmentMatcher;
 import org.lastaflute.web.util.LaActionExecuteUtil;
 
 /**
@@ -42,9 +43,12 @@ public class UrlPatternAnalyzer {
     //                                                                          Definition
     //                                                                          ==========
     public static final String ELEMENT_BASIC_PATTERN = "([^/]+)";
-    public static final String ELEMENT_NUMBER_PATTERN = "([^/&&\\-\\.\\d]+)";
+    /** The character class of number element: digit, minus and dot e.g. 3, -1, 1.5 (also used by segment matcher) */
+    public static final String ELEMENT_NUMBER_CHAR_CLASS = "[\\-\\.\\d]"; // no intersection, its negation differs by JDK
+    public static final String ELEMENT_NUMBER_PATTERN = "(" + ELEMENT_NUMBER_CHAR_CLASS + "+)";
     public static final String METHOD_KEYWORD_MARK = "@word";
     public static final String REST_DELIMITER = "$";
+    protected static final String SEGMENT_UNSUPPORTED_CHARS = "{}\\^.|?*+()[]";
 
     // ===================================================================================
     //                                                                             Extract
@@ -370,7 +374,8 @@ public class UrlPatternAnalyzer {
             }
         }
         assertEndBraceExists(executeMethod, urlPattern, index);
-        return new UrlPatternRegexpBox(buildRegexpPattern(sb.toString()), varList);
+        final UrlPatternSegmentMatcher segmentMatcher = buildSegmentMatcher(urlPattern, urlParamTypeList, optionalGenericTypeMap);
+        return new UrlPatternRegexpBox(buildRegexpPattern(sb.toString()), varList, segmentMatcher);
     }
 
     protected void setupParameterPattern(StringBuilder sb, List<Class<?>> urlParamTypeList, Map<Integer, Class<?>> optionalGenericTypeMap,
@@ -408,15 +413,66 @@ public class UrlPatternAnalyzer {
         return Srl.replace(pattern, "$", "\\$");
     }
 
+    // -----------------------------------------------------
+    //                                       Segment Matcher
+    //                                       ---------------
+    /**
+     * Build the regex-free matcher if the URL pattern is simple.
+     * @param urlPattern The resolved URL pattern, e.g. sea/{}/land (NotNull, EmptyAllowed)
+     * @param urlParamTypeList The list of URL parameter types. (NotNull, EmptyAllowed)
+     * @param optionalGenericTypeMap The map of optional generic types keyed by argument index. (NotNull, EmptyAllowed)
+     * @return The segment matcher for the URL pattern. (NullAllowed: when complex pattern, so regular expression is used)
+     */
+    protected UrlPatternSegmentMatcher buildSegmentMatcher(String urlPattern, List<Class<?>> urlParamTypeList,
+            Map<Integer, Class<?>> optionalGenericTypeMap) {
+        final List<String> segmentList = Srl.splitList(urlPattern, "/"); // keeps empty element
+        final int segmentCount = segmentList.size();
+        final String[] literals = new String[segmentCount];
+        final boolean[] numberVariables = new boolean[segmentCount];
+        int parameterIndex = -1;
+        for (int i = 0; i < segmentCount; i++) {
+            final String segment = segmentList.get(i);
+            if (segment.startsWith("{") && segment.endsWith("}") && segment.indexOf('}') == segment.length() - 1) { // e.g. {}
+                ++parameterIndex;
+                numberVariables[i] = needsNumberTypePattern(urlParamTypeList, optionalGenericTypeMap, parameterIndex);
+            } else {
+                if (!isSegmentMatcherLiteral(segment)) { // e.g. sea-{}, sea.land
+                    return null;
+                }
+                literals[i] = segment;
+            }
+        }
+        return newUrlPatternSegmentMatcher(literals, numberVariables);
+    }
+
+    protected boolean isSegmentMatcherLiteral(String segment) {
+        for (int i = 0; i < segment.length(); i++) {
+            if (SEGMENT_UNSUPPORTED_CHARS.indexOf(segment.charAt(i)) >= 0) { // e.g. brace or regular expression meta
+                return false;
+            }
+        }
+        return true; // '$' is escaped as literal in regular expression so it's OK
+    }
+
+    protected UrlPatternSegmentMatcher newUrlPatternSegmentMatcher(String[] literals, boolean[] numberVariables) {
+        return new UrlPatternSegmentMatcher(literals, numberVariables);
+    }
+
     public static class UrlPatternRegexpBox {
 
         protected final Pattern regexpPattern;
         protected final List<String> varList;
+        protected final UrlPatternSegmentMatcher segmentMatcher; // null allowed
 
         public UrlPatternRegexpBox(Pattern regexpPattern, List<String> varList) {
+            this(regexpPattern, varList, null);
+        }
+
+        public UrlPatternRegexpBox(Pattern regexpPattern, List<String> varList, UrlPatternSegmentMatcher segmentMatcher) {
             assertArgumentNotNull("regexpPattern", regexpPattern);
             this.regexpPattern = regexpPattern;
             this.varList = varList != null ? Collections.unmodifiableList(varList) : Collections.emptyList();
+            this.segmentMatcher = segmentMatcher;
         }
 
         protected void assertArgumentNotNull(String variableName, Object value) {
@@ -435,6 +491,13 @@ public class UrlPatternAnalyzer {
         public List<String> getVarList() {
             return varList;
         }
+
+        /**
+         * @return The regex-free matcher of the URL pattern. (NullAllowed: when the pattern needs regular expression)
+         */
+        public UrlPatternSegmentMatcher getSegmentMatcher() {
+            return segmentMatcher;
+        }
     }
 
     // -----------------------------------------------------
@@ -30,6 +30,7 @@ import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletionStage;
 
 import org.dbflute.helper.message.ExceptionMessageBuilder;
 import org.dbflute.jdbc.Classification;
@@ -94,7 +95,15 @@ public class ExecuteMethodChecker implements Serializable {
     }
 
     protected boolean isAllowedReturnType() {
-        return ActionResponse.class.isAssignableFrom(executeMethod.getReturnType());
+        final Class<?> returnType = executeMethod.getReturnType();
+        if (ActionResponse.class.isAssignableFrom(returnType)) {
+            return true;
+        }
+        if (CompletionStage.class.isAssignableFrom(returnType)) { // async execute, e.g. CompletableFuture<JsonResponse<SeaBean>>
+            final Class<?> futureResponseType = DfReflectionUtil.getGenericFirstClass(executeMethod.getGenericReturnType());
+            return futureResponseType != null && ActionResponse.class.isAssignableFrom(futureResponseType);
+        }
+        return false;
     }
 
     protected void throwExecuteMethodReturnTypeNotResponseException() {
@@ -110,6 +119,8 @@ public class ExecuteMethodChecker implements Serializable {
         br.addElement("    public JsonResponse index(SeaForm form) { // Good");
         br.addElement("  (o):");
         br.addElement("    public StreamResponse index(SeaForm form) { // Good");
+        br.addElement("  (o):");
+        br.addElement("    public CompletableFuture<JsonResponse<SeaBean>> index(SeaForm form) { // Good (async)");
         br.addItem("Execute Method");
         br.addElement(LaActionExecuteUtil.buildSimpleMethodExp(executeMethod));
         final String msg = br.buildExceptionMessage();
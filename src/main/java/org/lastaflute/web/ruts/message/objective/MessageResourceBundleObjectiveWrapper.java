@@ -123,6 +123,10 @@ public class MessageResourceBundleObjectiveWrapper implements MessageResourceBun
     // ===================================================================================
     //                                                                            Accessor
     //                                                                            ========
+    public MessageResourceBundle getWrappedBundle() {
+        return wrappedBundle;
+    }
+
     public boolean isDefaultLang() {
         return defaultLang;
     }
@@ -16,8 +16,9 @@
 package org.lastaflute.web.ruts.message.objective;
 
 import java.io.Serializable;
-import java.text.MessageFormat;
+import java.lang.reflect.Field;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
@@ -25,12 +26,14 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Properties;
 import java.util.Set;
 import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
 
 import org.dbflute.helper.message.ExceptionMessageBuilder;
 import org.dbflute.util.DfCollectionUtil;
+import org.dbflute.util.DfReflectionUtil;
 import org.dbflute.util.DfStringUtil;
 import org.dbflute.util.DfTypeUtil;
 import org.dbflute.util.Srl.ScopeInfo;
@@ -40,6 +43,7 @@ import org.lastaflute.di.Disposable;
 import org.lastaflute.di.DisposableUtil;
 import org.lastaflute.di.helper.message.MessageResourceBundle;
 import org.lastaflute.di.helper.message.MessageResourceBundleFactory;
+import org.lastaflute.di.helper.message.MessageResourceBundleImpl;
 import org.lastaflute.di.util.LdiResourceUtil;
 import org.lastaflute.web.direction.FwWebDirection;
 import org.lastaflute.web.ruts.message.MessageResources;
@@ -47,6 +51,8 @@ import org.lastaflute.web.ruts.message.exception.MessageLabelByLabelParameterNot
 import org.lastaflute.web.ruts.message.exception.MessageLabelByLabelVariableInfinityLoopException;
 import org.lastaflute.web.ruts.message.exception.MessageLabelByLabelVariableInvalidKeyException;
 import org.lastaflute.web.ruts.message.exception.MessageLabelByLabelVariableNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * @author jflute
@@ -57,6 +63,7 @@ public class ObjectiveMessageResources implements MessageResources, Disposable,
     //                                                                          Definition
     //                                                                          ==========
     private static final long serialVersionUID = 1L;
+    private static final Logger logger = LoggerFactory.getLogger(ObjectiveMessageResources.class);
 
     /** The key prefix for errors of message resources, which contains dot at last. */
     public static final String ERRORS_KEY_PREFIX = "errors.";
@@ -79,12 +86,18 @@ public class ObjectiveMessageResources implements MessageResources, Disposable,
     /** The cache map of bundle. The string key is message (bundle) name (NotNull) */
     protected static final Map<String, Map<Locale, MessageResourceBundle>> bundleCacheMap = newConcurrentHashMap();
 
+    /** The mark of resolved message map that cannot be built, e.g. unknown bundle type. (NotNull) */
+    protected static final Map<String, String> UNRESOLVABLE_MESSAGE_MAP = Collections.unmodifiableMap(new HashMap<String, String>());
+
     // ===================================================================================
     //                                                                           Attribute
     //                                                                           =========
     protected boolean returnNull = true; // as default
     protected boolean escape = true; // as default
-    protected final Map<String, MessageFormat> formatMap = new HashMap<String, MessageFormat>();
+    protected boolean flattenedTable; // false as default, compact table for resolved messages if true
+    protected final Map<Locale, Map<String, ObjectiveMessageTemplate>> templateMap = newConcurrentHashMap(); // locale and key
+    protected final Map<Locale, Map<String, String>> resolvedMessageMap = newConcurrentHashMap(); // label variables resolved
+    protected final Map<Locale, RuntimeException> resolvingFailureMap = newConcurrentHashMap(); // guarded by resolved map
 
     /**
      * The cache of assistant director, which can be lazy-loaded when you get it.
@@ -197,24 +210,36 @@ public class ObjectiveMessageResources implements MessageResources, Disposable,
     }
 
     protected String formatMessage(Locale locale, String key, Object args[]) {
-        MessageFormat format = null;
-        final String formatKey = messageKey(locale, key);
-        synchronized (formatMap) {
-            format = (MessageFormat) formatMap.get(formatKey);
-            if (format == null) {
-                final String formatString = getMessage(locale, key);
-                if (formatString == null) {
-                    return returnNull ? null : ("???" + formatKey + "???");
-                }
-                format = new MessageFormat(escape(formatString));
-                format.setLocale(locale);
-                formatMap.put(formatKey, format);
+        final Locale templateLocale = locale != null ? locale : Locale.ROOT; // same key as before (null and root are empty)
+        Map<String, ObjectiveMessageTemplate> keyTemplateMap = templateMap.get(templateLocale);
+        if (keyTemplateMap == null) {
+            keyTemplateMap = newConcurrentHashMap();
+            final Map<String, ObjectiveMessageTemplate> existing = templateMap.putIfAbsent(templateLocale, keyTemplateMap);
+            if (existing != null) {
+                keyTemplateMap = existing;
+            }
+        }
+        ObjectiveMessageTemplate template = keyTemplateMap.get(key);
+        if (template == null) { // no problem if compiled twice, immutable
+            final String formatString = getMessage(locale, key);
+            if (formatString == null) {
+                return returnNull ? null : ("???" + messageKey(locale, key) + "???");
             }
+            template = newMessageTemplate(escape(formatString), locale);
+            keyTemplateMap.put(key, template);
         }
-        return format.format(args);
+        return template.format(args);
+    }
+
+    protected ObjectiveMessageTemplate newMessageTemplate(String pattern, Locale locale) {
+        return new ObjectiveMessageTemplate(pattern, locale);
     }
 
     protected String doGetMessage(Locale locale, String key) {
+        final Map<String, String> resolvedMap = findResolvedMessageMap(locale);
+        if (resolvedMap != null) { // basically here
+            return resolvedMap.get(key); // already resolved label variables
+        }
         // almost same as super's (seasar's) process
         // only changed is how to get bundle
         final MessageResourceBundle bundle = getBundle(locale);
@@ -482,6 +507,86 @@ public class ObjectiveMessageResources implements MessageResources, Disposable,
         return bundleList;
     }
 
+    // ===================================================================================
+    //                                                                    Resolved Message
+    //                                                                    ================
+    /**
+     * Find the map of messages whose label variables are resolved, built when the bundle is loaded. <br>
+     * The map has all keys of the bundle hierarchy (with extends), so runtime lookup is one hash get.
+     * It is compact open-addressing table if flattened table is enabled. <br>
+     * Exceptions of label variables (e.g. not found, infinity loop) are thrown when it is built,
+     * and the same exception is thrown again by later lookups of the locale without building again.
+     * @param locale The locale of current request. (NullAllowed: when system default locale)
+     * @return The read-only map of resolved message, keyed by message key. (NullAllowed: when unknown bundle type)
+     */
+    protected Map<String, String> findResolvedMessageMap(Locale locale) {
+        final Locale mapLocale = locale != null ? locale : Locale.ROOT; // null key is not allowed
+        final Map<String, String> cachedMap = resolvedMessageMap.get(mapLocale);
+        if (cachedMap != null) {
+            return cachedMap != UNRESOLVABLE_MESSAGE_MAP ? cachedMap : null;
+        }
+        synchronized (resolvedMessageMap) {
+            final Map<String, String> retryMap = resolvedMessageMap.get(mapLocale);
+            if (retryMap != null) {
+                return retryMap != UNRESOLVABLE_MESSAGE_MAP ? retryMap : null;
+            }
+            final RuntimeException failure = resolvingFailureMap.get(mapLocale);
+            if (failure != null) { // broken label variable, not to build per request
+                throw failure;
+            }
+            final Map<String, String> builtMap;
+            try {
+                builtMap = buildResolvedMessageMap(locale); // may throw label exceptions
+            } catch (RuntimeException e) {
+                resolvingFailureMap.put(mapLocale, e);
+                throw e;
+            }
+            resolvedMessageMap.put(mapLocale, builtMap != null ? builtMap : UNRESOLVABLE_MESSAGE_MAP);
+            return builtMap;
+        }
+    }
+
+    protected Map<String, String> buildResolvedMessageMap(Locale locale) {
+        final MessageResourceBundle bundle = getBundle(locale); // with extends
+        final Set<String> keySet = new LinkedHashSet<String>();
+        for (MessageResourceBundle element : convertToHierarchyList(bundle)) {
+            final Properties prop = extractBundleProperties(element);
+            if (prop == null) { // unknown bundle
+                return null; // resolved per request
+            }
+            keySet.addAll(prop.stringPropertyNames());
+        }
+        final Map<String, String> resolvedMap = new HashMap<String, String>(keySet.size() * 4 / 3 + 1);
+        for (String key : keySet) {
+            final String message = bundle.get(key); // first found in hierarchy
+            resolvedMap.put(key, resolveLabelVariableMessage(locale, key, message, createCallerKeySet()));
+        }
+        return flattenedTable ? newMessageTable(resolvedMap) : Collections.unmodifiableMap(resolvedMap);
+    }
+
+    protected Map<String, String> newMessageTable(Map<String, String> resolvedMap) {
+        return new ObjectiveMessageTable(resolvedMap);
+    }
+
+    protected Properties extractBundleProperties(MessageResourceBundle bundle) {
+        final MessageResourceBundle plainBundle;
+        if (bundle instanceof MessageResourceBundleObjectiveWrapper) {
+            plainBundle = ((MessageResourceBundleObjectiveWrapper) bundle).getWrappedBundle();
+        } else {
+            plainBundle = bundle;
+        }
+        if (!(plainBundle instanceof MessageResourceBundleImpl)) {
+            logger.info("...Resolving messages per request because of unknown bundle type: {}", plainBundle.getClass().getName());
+            return null;
+        }
+        final Field field = DfReflectionUtil.getWholeField(plainBundle.getClass(), "prop"); // no getter of properties
+        if (field == null) {
+            logger.info("...Resolving messages per request because of no properties field: {}", plainBundle.getClass().getName());
+            return null;
+        }
+        return (Properties) DfReflectionUtil.getValueForcedly(field, plainBundle);
+    }
+
     // ===================================================================================
     //                                                                      Label Handling
     //                                                                      ==============
@@ -493,15 +598,16 @@ public class ObjectiveMessageResources implements MessageResources, Disposable,
      * @return The list of filtered parameters resolved label arguments. (NotNull, EmptyAllowed)
      */
     protected List<Object> resolveLabelParameter(Locale locale, String key, Object[] args) {
-        final MessageResourceBundle bundle = getBundle(locale);
         if (args == null || args.length == 0) {
             return DfCollectionUtil.emptyList();
         }
+        final Map<String, String> resolvedMap = findResolvedMessageMap(locale);
+        final MessageResourceBundle bundle = resolvedMap == null ? getBundle(locale) : null;
         final List<Object> resolvedList = new ArrayList<Object>(args.length);
         for (Object arg : args) {
             if (canBeLabelKey(arg)) {
                 final String labelKey = (String) arg;
-                final String label = bundle.get(labelKey);
+                final String label = resolvedMap != null ? resolvedMap.get(labelKey) : bundle.get(labelKey);
                 if (label != null) {
                     resolvedList.add(label);
                     continue;
@@ -634,7 +740,11 @@ public class ObjectiveMessageResources implements MessageResources, Disposable,
     @Override
     public void dispose() {
         bundleCacheMap.clear();
-        formatMap.clear();
+        templateMap.clear();
+        synchronized (resolvedMessageMap) {
+            resolvedMessageMap.clear();
+            resolvingFailureMap.clear();
+        }
         initialized = false;
     }
 
@@ -803,4 +913,24 @@ public class ObjectiveMessageResources implements MessageResources, Disposable,
     public void setEscape(boolean escape) {
         this.escape = escape;
     }
+
+    public boolean isFlattenedTable() {
+        return flattenedTable;
+    }
+
+    /**
+     * Use the open-addressing table (interned keys) for flattened messages per locale,
+     * instead of hash map that has entry objects. <br>
+     * The already-built messages are cleared when it is changed, so it also works after the first lookup.
+     * @param flattenedTable Is the flattened table enabled?
+     */
+    public void setFlattenedTable(boolean flattenedTable) {
+        synchronized (resolvedMessageMap) {
+            if (this.flattenedTable != flattenedTable) {
+                this.flattenedTable = flattenedTable;
+                resolvedMessageMap.clear(); // built again by new table type
+                resolvingFailureMap.clear();
+            }
+        }
+    }
 }
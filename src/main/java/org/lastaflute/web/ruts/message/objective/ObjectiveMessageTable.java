@@ -0,0 +1,181 @@
+/*
+ * Copyright 2015-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.web.ruts.message.objective;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * The immutable flattened table of messages for one locale, as open-addressing string table. <br>
+ * Keys are interned and stored in plain arrays with linear probing,
+ * so it has no entry objects per message and lookup is one probe sequence without hierarchy.
+ * <pre>
+ * e.g. app_message extends common_message, locale = ja
+ *  app_message_ja, common_message_ja, app_message, common_message (first found wins)
+ *   to
+ *  keys   : [labels.sea, null, errors.required, ...]
+ *  values : [Sea,        null, {0} is required, ...]
+ * </pre>
+ * @author jflute
+ * @since 0.8.4
+ */
+public class ObjectiveMessageTable extends AbstractMap<String, String> {
+
+    // ===================================================================================
+    //                                                                          Definition
+    //                                                                          ==========
+    /** The max ratio of size to capacity, same as hash map but no entry objects. */
+    protected static final float LOAD_FACTOR = 0.75f;
+
+    // ===================================================================================
+    //                                                                           Attribute
+    //                                                                           =========
+    protected final String[] keys; // not null, length is power of two, null element means empty slot
+    protected final String[] values; // not null, same length as keys
+    protected final int mask; // length - 1
+    protected final int shift; // 32 - bits of length, for fibonacci hashing
+    protected final int size;
+
+    // ===================================================================================
+    //                                                                         Constructor
+    //                                                                         ===========
+    /**
+     * @param messageMap The map of message keyed by message key, which has flattened messages. (NotNull, NullValueNotAllowed)
+     */
+    public ObjectiveMessageTable(Map<String, String> messageMap) {
+        if (messageMap == null) {
+            throw new IllegalArgumentException("The argument 'messageMap' should not be null.");
+        }
+        final int capacity = calculateCapacity(messageMap.size());
+        this.keys = new String[capacity];
+        this.values = new String[capacity];
+        this.mask = capacity - 1;
+        this.shift = Integer.numberOfLeadingZeros(capacity) + 1;
+        int count = 0;
+        for (Entry<String, String> entry : messageMap.entrySet()) {
+            final String key = entry.getKey();
+            final String value = entry.getValue();
+            if (key == null || value == null) {
+                throw new IllegalArgumentException("The key and value in the message map should not be null: " + entry);
+            }
+            int index = indexOf(key);
+            while (keys[index] != null) { // unique keys in map so no equals here
+                index = (index + 1) & mask;
+            }
+            keys[index] = key.intern(); // shared with other locales and class constants
+            values[index] = value;
+            ++count;
+        }
+        this.size = count;
+    }
+
+    protected int calculateCapacity(int expectedSize) {
+        int capacity = 16;
+        while (capacity * LOAD_FACTOR < expectedSize) {
+            capacity = capacity << 1;
+        }
+        return capacity;
+    }
+
+    protected int indexOf(String key) {
+        // spread by golden ratio because string hash of sequential keys (e.g. sea1, sea2) are clustered
+        return (key.hashCode() * 0x9E3779B9) >>> shift; // hash code is cached in string
+    }
+
+    // ===================================================================================
+    //                                                                              Lookup
+    //                                                                              ======
+    @Override
+    public String get(Object key) {
+        if (!(key instanceof String)) {
+            return null;
+        }
+        final String keyStr = (String) key;
+        int index = indexOf(keyStr);
+        while (true) {
+            final String current = keys[index];
+            if (current == null) { // empty slot, not found
+                return null;
+            }
+            if (current == keyStr || current.equals(keyStr)) { // identity first for interned key
+                return values[index];
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null; // no null value
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return The count of slots in the table, for e.g. load factor check. (NotMinus)
+     */
+    public int capacity() {
+        return keys.length;
+    }
+
+    // ===================================================================================
+    //                                                                           Entry Set
+    //                                                                           =========
+    @Override
+    public Set<Entry<String, String>> entrySet() { // for e.g. debug, not for lookup
+        return new AbstractSet<Entry<String, String>>() {
+            @Override
+            public Iterator<Entry<String, String>> iterator() {
+                return new Iterator<Entry<String, String>>() {
+                    private int nextIndex = findNext(0);
+
+                    public boolean hasNext() {
+                        return nextIndex < keys.length;
+                    }
+
+                    public Entry<String, String> next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        final int index = nextIndex;
+                        nextIndex = findNext(index + 1);
+                        return new SimpleImmutableEntry<String, String>(keys[index], values[index]);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    protected int findNext(int fromIndex) {
+        int index = fromIndex;
+        while (index < keys.length && keys[index] == null) {
+            ++index;
+        }
+        return index;
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright 2015-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.web.ruts.message.objective;
+
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The immutable template of message, compiled once per locale and key. <br>
+ * Simple placeholders e.g. {0} are pre-parsed to literal chunks and argument indexes
+ * so formatting needs no lock and allocates only the output string. <br>
+ * Complex patterns (e.g. {0,number}, quoted text) and number or date arguments are formatted
+ * by copy of prototype message format, because message format instance is not thread-safe.
+ * <pre>
+ * e.g. "{0} is required, {1}'s"
+ *  literals : ["", " is required, ", "'s"]
+ *  indexes  : [0, 1]
+ * </pre>
+ * @author jflute
+ * @since 0.8.4
+ */
+public class ObjectiveMessageTemplate {
+
+    // ===================================================================================
+    //                                                                           Attribute
+    //                                                                           =========
+    protected final String pattern; // not null, already escaped
+    protected final Locale locale; // null allowed
+    protected final String[] literals; // null allowed when complex, one more than indexes
+    protected final int[] argIndexes; // null allowed when complex
+    protected final int literalLength; // total length of literals, for buffer size
+    protected volatile MessageFormat prototypeFormat; // null allowed: lazy-loaded if simple, never formats directly
+
+    // ===================================================================================
+    //                                                                         Constructor
+    //                                                                         ===========
+    /**
+     * @param pattern The pattern of message format, already escaped if needed. (NotNull)
+     * @param locale The locale for the number and date formatting. (NullAllowed)
+     * @throws IllegalArgumentException When the pattern is invalid as message format.
+     */
+    public ObjectiveMessageTemplate(String pattern, Locale locale) {
+        if (pattern == null) {
+            throw new IllegalArgumentException("The argument 'pattern' should not be null.");
+        }
+        this.pattern = pattern;
+        this.locale = locale;
+        final List<String> literalList = new ArrayList<String>(4);
+        final List<Integer> indexList = new ArrayList<Integer>(4);
+        if (compileSimplePattern(pattern, literalList, indexList)) {
+            this.literals = literalList.toArray(new String[literalList.size()]);
+            this.argIndexes = new int[indexList.size()];
+            for (int i = 0; i < argIndexes.length; i++) {
+                argIndexes[i] = indexList.get(i);
+            }
+            int length = 0;
+            for (String literal : literals) {
+                length += literal.length();
+            }
+            this.literalLength = length;
+        } else { // e.g. {0,number}, 'quoted'
+            this.literals = null;
+            this.argIndexes = null;
+            this.literalLength = pattern.length();
+            this.prototypeFormat = createMessageFormat(); // eager to throw if invalid like before
+        }
+    }
+
+    /**
+     * @param pattern The pattern of message format. (NotNull)
+     * @param literalList The list to be filled with literal chunks. (NotNull)
+     * @param indexList The list to be filled with argument indexes. (NotNull)
+     * @return Is the pattern simple? (true if only literals, doubled quotes and {number} placeholders)
+     */
+    protected boolean compileSimplePattern(String pattern, List<String> literalList, List<Integer> indexList) {
+        final StringBuilder sb = new StringBuilder(pattern.length());
+        final int length = pattern.length();
+        int i = 0;
+        while (i < length) {
+            final char ch = pattern.charAt(i);
+            if (ch == '\'') {
+                if (i + 1 < length && pattern.charAt(i + 1) == '\'') { // escaped quote
+                    sb.append('\'');
+                    i = i + 2;
+                    continue;
+                }
+                return false; // quoted text
+            } else if (ch == '{') {
+                final int endIndex = pattern.indexOf('}', i + 1);
+                if (endIndex < 0 || endIndex == i + 1) { // e.g. unmatched, {}
+                    return false; // message format handles it
+                }
+                int argIndex = 0;
+                for (int j = i + 1; j < endIndex; j++) {
+                    final char digit = pattern.charAt(j);
+                    if (digit < '0' || digit > '9' || argIndex > 9999) { // e.g. {0,number}
+                        return false;
+                    }
+                    argIndex = argIndex * 10 + (digit - '0');
+                }
+                literalList.add(sb.toString());
+                indexList.add(argIndex);
+                sb.setLength(0);
+                i = endIndex + 1;
+                continue;
+            }
+            sb.append(ch);
+            ++i;
+        }
+        literalList.add(sb.toString());
+        return true;
+    }
+
+    // ===================================================================================
+    //                                                                              Format
+    //                                                                              ======
+    /**
+     * Format the message with the arguments, same result as message format.
+     * @param args The array of arguments for placeholders. (NotNull)
+     * @return The formatted message. (NotNull)
+     */
+    public String format(Object[] args) {
+        if (literals == null || needsFormatArgument(args)) {
+            return ((MessageFormat) getPrototypeFormat().clone()).format(args); // cloned not to share state
+        }
+        final StringBuilder sb = new StringBuilder(literalLength + argIndexes.length * 16);
+        for (int i = 0; i < argIndexes.length; i++) {
+            sb.append(literals[i]);
+            final int argIndex = argIndexes[i];
+            if (argIndex < args.length) {
+                final Object arg = args[argIndex];
+                sb.append(arg instanceof String ? (String) arg : String.valueOf(arg)); // null as "null" like message format
+            } else { // same as message format
+                sb.append('{').append(argIndex).append('}');
+            }
+        }
+        sb.append(literals[argIndexes.length]);
+        return sb.toString();
+    }
+
+    protected boolean needsFormatArgument(Object[] args) {
+        for (int argIndex : argIndexes) {
+            if (argIndex < args.length) {
+                final Object arg = args[argIndex];
+                if (arg instanceof Number || arg instanceof Date) { // locale-dependent
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    protected MessageFormat getPrototypeFormat() {
+        MessageFormat format = prototypeFormat;
+        if (format == null) { // only simple pattern, no problem if created twice
+            format = createMessageFormat();
+            prototypeFormat = format;
+        }
+        return format;
+    }
+
+    protected MessageFormat createMessageFormat() {
+        final MessageFormat format = new MessageFormat(pattern);
+        format.setLocale(locale);
+        return format;
+    }
+
+    // ===================================================================================
+    //                                                                      Basic Override
+    //                                                                      ==============
+    @Override
+    public String toString() {
+        return "template:{" + pattern + ", " + (literals != null ? "simple" : "complex") + "}";
+    }
+
+    // ===================================================================================
+    //                                                                            Accessor
+    //                                                                            ========
+    public String getPattern() {
+        return pattern;
+    }
+
+    /**
+     * @return Is the pattern compiled as simple template? (false if formatted by message format)
+     */
+    public boolean isSimple() {
+        return literals != null;
+    }
+}
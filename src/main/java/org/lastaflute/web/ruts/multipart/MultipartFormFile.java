@@ -17,6 +17,13 @@ package org.lastaflute.web.ruts.multipart;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+
+import org.dbflute.optional.OptionalThing;
 
 /**
  * @author modified by jflute (originated in Struts)
@@ -34,4 +41,60 @@ public interface MultipartFormFile {
     String getFileName();
 
     void destroy();
+
+    // ===================================================================================
+    //                                                                          Large File
+    //                                                                          ==========
+    /**
+     * @return The size of file as long, for large file over integer range. (NotMinus)
+     */
+    default long getFileLength() {
+        return getFileSize();
+    }
+
+    /**
+     * Get the path of temporary file that has the uploaded data, if the data is spooled to disk. <br>
+     * The file is deleted when the request ends, so move or copy it if you need it after the request.
+     * @return The optional path of spooled file. (NotNull, EmptyAllowed: when in memory or not supported)
+     */
+    default OptionalThing<Path> getSpooledPath() {
+        return OptionalThing.empty();
+    }
+
+    /**
+     * Open the channel to read the uploaded data, should be closed by caller. <br>
+     * It is file channel if the data is spooled to disk.
+     * @return The new-opened channel for the data. (NotNull)
+     * @throws IOException When it fails to open the channel.
+     */
+    default ReadableByteChannel openChannel() throws IOException {
+        return Channels.newChannel(getInputStream());
+    }
+
+    /**
+     * Transfer the uploaded data to the channel, without copying whole data to heap. <br>
+     * It uses zero-copy transfer (FileChannel.transferTo()) if the data is spooled to disk.
+     * <pre>
+     * try (FileChannel out = FileChannel.open(path, CREATE, WRITE)) {
+     *     formFile.transferTo(out);
+     * }
+     * </pre>
+     * @param target The channel to write the data, not closed here. (NotNull)
+     * @return The count of transferred bytes. (NotMinus)
+     * @throws IOException When it fails to read or write.
+     */
+    default long transferTo(WritableByteChannel target) throws IOException {
+        try (ReadableByteChannel source = openChannel()) {
+            final ByteBuffer buffer = ByteBuffer.allocate(8192);
+            long transferred = 0;
+            while (source.read(buffer) >= 0) {
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    transferred += target.write(buffer);
+                }
+                buffer.clear();
+            }
+            return transferred;
+        }
+    }
 }
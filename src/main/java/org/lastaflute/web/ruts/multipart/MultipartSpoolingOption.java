@@ -0,0 +1,156 @@
+/*
+ * Copyright 2015-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.web.ruts.multipart;
+
+import java.nio.file.Path;
+
+import org.dbflute.optional.OptionalThing;
+
+/**
+ * The option of spooling multipart handler.
+ * <pre>
+ * e.g. files over 64KB are spooled, max 1GB per request
+ *  new SpoolingMultipartRequestHandler(op -&gt; op.memoryThreshold(64 * 1024).maxRequestSize(1024L * 1024L * 1024L))
+ * </pre>
+ * @author jflute
+ * @since 0.8.4
+ */
+public class MultipartSpoolingOption {
+
+    // ===================================================================================
+    //                                                                           Attribute
+    //                                                                           =========
+    protected int memoryThreshold = 16 * 1024; // per file part
+    protected long memoryBudget = 4L * 1024L * 1024L; // per request, also for text parts
+    protected long maxRequestSize = -1L; // minus means no limit
+    protected long maxFileSize = -1L; // minus means no limit
+    protected Path tempDirectory; // null allowed, if null, system default
+    protected int bufferSize = 8192;
+    protected int maxHeaderSize = 8192; // per part
+
+    // ===================================================================================
+    //                                                                              Facade
+    //                                                                              ======
+    /**
+     * @param memoryThreshold The max size of file part kept in memory, over it is spooled to file. (NotMinus: if zero, always file)
+     * @return this. (NotNull)
+     */
+    public MultipartSpoolingOption memoryThreshold(int memoryThreshold) {
+        assertNotMinus("memoryThreshold", memoryThreshold);
+        this.memoryThreshold = memoryThreshold;
+        return this;
+    }
+
+    /**
+     * @param memoryBudget The max size of data kept in memory per request, file parts are spooled if over it. (NotMinus)
+     * @return this. (NotNull)
+     */
+    public MultipartSpoolingOption memoryBudget(long memoryBudget) {
+        assertNotMinus("memoryBudget", memoryBudget);
+        this.memoryBudget = memoryBudget;
+        return this;
+    }
+
+    /**
+     * @param maxRequestSize The max size of request body, exceeded if over it. (NotMinus)
+     * @return this. (NotNull)
+     */
+    public MultipartSpoolingOption maxRequestSize(long maxRequestSize) {
+        assertNotMinus("maxRequestSize", maxRequestSize);
+        this.maxRequestSize = maxRequestSize;
+        return this;
+    }
+
+    /**
+     * @param maxFileSize The max size of one file, exceeded if over it. (NotMinus)
+     * @return this. (NotNull)
+     */
+    public MultipartSpoolingOption maxFileSize(long maxFileSize) {
+        assertNotMinus("maxFileSize", maxFileSize);
+        this.maxFileSize = maxFileSize;
+        return this;
+    }
+
+    /**
+     * @param tempDirectory The directory for spooled files. (NotNull)
+     * @return this. (NotNull)
+     */
+    public MultipartSpoolingOption tempDirectory(Path tempDirectory) {
+        if (tempDirectory == null) {
+            throw new IllegalArgumentException("The argument 'tempDirectory' should not be null.");
+        }
+        this.tempDirectory = tempDirectory;
+        return this;
+    }
+
+    /**
+     * @param bufferSize The size of reading buffer. (NotMinus)
+     * @return this. (NotNull)
+     */
+    public MultipartSpoolingOption bufferSize(int bufferSize) {
+        assertNotMinus("bufferSize", bufferSize);
+        this.bufferSize = bufferSize;
+        return this;
+    }
+
+    protected void assertNotMinus(String variableName, long value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("The argument '" + variableName + "' should not be minus: " + value);
+        }
+    }
+
+    // ===================================================================================
+    //                                                                      Basic Override
+    //                                                                      ==============
+    @Override
+    public String toString() {
+        return "spoolingOption:{threshold=" + memoryThreshold + ", budget=" + memoryBudget + ", maxRequest=" + maxRequestSize
+                + ", maxFile=" + maxFileSize + ", temp=" + tempDirectory + "}";
+    }
+
+    // ===================================================================================
+    //                                                                            Accessor
+    //                                                                            ========
+    public int getMemoryThreshold() {
+        return memoryThreshold;
+    }
+
+    public long getMemoryBudget() {
+        return memoryBudget;
+    }
+
+    public long getMaxRequestSize() {
+        return maxRequestSize;
+    }
+
+    public long getMaxFileSize() {
+        return maxFileSize;
+    }
+
+    public OptionalThing<Path> getTempDirectory() {
+        return OptionalThing.ofNullable(tempDirectory, () -> {
+            throw new IllegalStateException("Not found the temporary directory (system default).");
+        });
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    public int getMaxHeaderSize() {
+        return maxHeaderSize;
+    }
+}
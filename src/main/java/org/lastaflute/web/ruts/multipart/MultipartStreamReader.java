@@ -0,0 +1,264 @@
+/*
+ * Copyright 2015-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.web.ruts.multipart;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The reader of multipart stream (RFC 7578), which reads parts sequentially from the input stream. <br>
+ * The part body is written to the output stream (e.g. temporary file) while reading,
+ * so only the fixed-size buffer is held in memory whatever the part size is.
+ * <pre>
+ * if (reader.skipPreamble()) {
+ *     do {
+ *         Map&lt;String, String&gt; headerMap = reader.readHeaders(charset);
+ *         reader.readBody(out);
+ *     } while (reader.readBoundaryTail());
+ * }
+ * </pre>
+ * @author jflute
+ * @since 0.8.4
+ */
+public class MultipartStreamReader {
+
+    // ===================================================================================
+    //                                                                          Definition
+    //                                                                          ==========
+    protected static final byte CR = '\r';
+    protected static final byte LF = '\n';
+    protected static final byte DASH = '-';
+    protected static final byte[] HEADER_END = new byte[] { CR, LF, CR, LF };
+
+    // ===================================================================================
+    //                                                                           Attribute
+    //                                                                           =========
+    protected final InputStream ins; // not null
+    protected final byte[] delimiter; // not null, CRLF + '--' + boundary
+    protected final int maxHeaderSize; // positive
+    protected final byte[] buffer; // not null, fixed size
+    protected int head; // start of unread bytes in buffer
+    protected int tail; // end of unread bytes in buffer
+
+    // ===================================================================================
+    //                                                                         Constructor
+    //                                                                         ===========
+    /**
+     * @param ins The input stream of multipart request body, not closed here. (NotNull)
+     * @param boundary The boundary of multipart, from content type. (NotNull, NotEmpty)
+     * @param bufferSize The size of reading buffer, enlarged if too small for the boundary. (NotMinus)
+     * @param maxHeaderSize The max size of headers per part, for memory protection. (NotMinus, NotZero)
+     */
+    public MultipartStreamReader(InputStream ins, String boundary, int bufferSize, int maxHeaderSize) {
+        if (ins == null) {
+            throw new IllegalArgumentException("The argument 'ins' should not be null.");
+        }
+        if (boundary == null || boundary.isEmpty()) {
+            throw new IllegalArgumentException("The argument 'boundary' should not be null or empty: " + boundary);
+        }
+        this.ins = ins;
+        this.delimiter = ("\r\n--" + boundary).getBytes(StandardCharsets.ISO_8859_1);
+        this.maxHeaderSize = maxHeaderSize;
+        this.buffer = new byte[Math.max(bufferSize, delimiter.length * 4)];
+    }
+
+    // ===================================================================================
+    //                                                                          Read Parts
+    //                                                                          ==========
+    /**
+     * Skip the preamble and the first boundary line.
+     * @return Does the stream have any part? (false if closed without parts)
+     * @throws IOException When it fails to read or the stream is malformed.
+     */
+    public boolean skipPreamble() throws IOException {
+        if (!scanTo(delimiter, 2, null)) { // first boundary may be at the beginning (no CRLF)
+            throw new IOException("Not found the first boundary in the multipart stream.");
+        }
+        return readBoundaryTail();
+    }
+
+    /**
+     * Read the rest of boundary line after the delimiter.
+     * @return Does the next part exist? (false if close delimiter)
+     * @throws IOException When it fails to read or the stream is malformed.
+     */
+    public boolean readBoundaryTail() throws IOException {
+        ensureOrThrow(2);
+        if (buffer[head] == DASH && buffer[head + 1] == DASH) { // close delimiter
+            head += 2;
+            return false;
+        }
+        while (true) { // transport padding
+            ensureOrThrow(1);
+            final byte current = buffer[head];
+            if (current != ' ' && current != '\t') {
+                break;
+            }
+            ++head;
+        }
+        ensureOrThrow(2);
+        if (buffer[head] != CR || buffer[head + 1] != LF) {
+            throw new IOException("Invalid boundary line in the multipart stream.");
+        }
+        head += 2;
+        return true;
+    }
+
+    /**
+     * Read the headers of current part, should be called after boundary line.
+     * @param charset The charset of header values e.g. file name. (NotNull)
+     * @return The map of headers, keyed by lower-case name. (NotNull, EmptyAllowed)
+     * @throws IOException When it fails to read or the headers are malformed or too large.
+     */
+    public Map<String, String> readHeaders(Charset charset) throws IOException {
+        final Map<String, String> headerMap = new LinkedHashMap<String, String>(4);
+        ensureOrThrow(2);
+        if (buffer[head] == CR && buffer[head + 1] == LF) { // no header
+            head += 2;
+            return headerMap;
+        }
+        final BoundedOutputStream headerOut = new BoundedOutputStream(maxHeaderSize);
+        if (!scanTo(HEADER_END, 0, headerOut)) {
+            throw new IOException("Unexpected end of the multipart stream in headers.");
+        }
+        String previousName = null;
+        for (String line : new String(headerOut.toByteArray(), charset).split("\r\n")) {
+            if (!line.isEmpty() && (line.charAt(0) == ' ' || line.charAt(0) == '\t') && previousName != null) { // folded
+                headerMap.put(previousName, headerMap.get(previousName) + " " + line.trim());
+                continue;
+            }
+            final int colonIndex = line.indexOf(':');
+            if (colonIndex <= 0) { // ignore invalid line
+                continue;
+            }
+            previousName = line.substring(0, colonIndex).trim().toLowerCase(Locale.ENGLISH);
+            headerMap.put(previousName, line.substring(colonIndex + 1).trim());
+        }
+        return headerMap;
+    }
+
+    /**
+     * Read the body of current part to the output stream, should be called after headers.
+     * @param out The output stream to write the body. (NullAllowed: if null, skipped)
+     * @throws IOException When it fails to read or write, or the stream ends before delimiter.
+     */
+    public void readBody(OutputStream out) throws IOException {
+        if (!scanTo(delimiter, 0, out)) {
+            throw new IOException("Unexpected end of the multipart stream in part body.");
+        }
+    }
+
+    // ===================================================================================
+    //                                                                       Stream Helper
+    //                                                                       =============
+    protected boolean scanTo(byte[] pattern, int patternOffset, OutputStream out) throws IOException {
+        final int patternLength = pattern.length - patternOffset;
+        while (true) {
+            final int found = indexOf(pattern, patternOffset);
+            if (found >= 0) {
+                if (out != null && found > head) {
+                    out.write(buffer, head, found - head);
+                }
+                head = found + patternLength;
+                return true;
+            }
+            final int safeEnd = tail - (patternLength - 1); // rear bytes may be the start of pattern
+            if (safeEnd > head) {
+                if (out != null) {
+                    out.write(buffer, head, safeEnd - head);
+                }
+                head = safeEnd;
+            }
+            if (!fill()) {
+                return false;
+            }
+        }
+    }
+
+    protected int indexOf(byte[] pattern, int patternOffset) {
+        final int patternLength = pattern.length - patternOffset;
+        final byte first = pattern[patternOffset];
+        final int last = tail - patternLength;
+        outer: for (int i = head; i <= last; i++) {
+            if (buffer[i] != first) {
+                continue;
+            }
+            for (int j = 1; j < patternLength; j++) {
+                if (buffer[i + j] != pattern[patternOffset + j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    protected void ensureOrThrow(int count) throws IOException {
+        while (tail - head < count) {
+            if (!fill()) {
+                throw new IOException("Unexpected end of the multipart stream.");
+            }
+        }
+    }
+
+    protected boolean fill() throws IOException { // false if end of stream
+        if (head > 0) { // compact
+            System.arraycopy(buffer, head, buffer, 0, tail - head);
+            tail = tail - head;
+            head = 0;
+        }
+        final int read = ins.read(buffer, tail, buffer.length - tail);
+        if (read < 0) {
+            return false;
+        }
+        tail += read;
+        return true;
+    }
+
+    protected static class BoundedOutputStream extends OutputStream {
+
+        protected final ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+        protected final int maxSize;
+
+        public BoundedOutputStream(int maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] { (byte) b }, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (out.size() + len > maxSize) {
+                throw new IOException("Too large headers in the multipart stream: max=" + maxSize);
+            }
+            out.write(b, off, len);
+        }
+
+        public byte[] toByteArray() {
+            return out.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright 2015-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.web.ruts.multipart;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.dbflute.optional.OptionalThing;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The multipart form file that has the data in memory or in temporary file (spooled). <br>
+ * The temporary file is deleted by destroy(), which is called when the request ends.
+ * @author jflute
+ * @since 0.8.4
+ */
+public class SpooledMultipartFormFile implements MultipartFormFile {
+
+    // ===================================================================================
+    //                                                                          Definition
+    //                                                                          ==========
+    private static final Logger logger = LoggerFactory.getLogger(SpooledMultipartFormFile.class);
+
+    // ===================================================================================
+    //                                                                           Attribute
+    //                                                                           =========
+    protected final String fileName; // not null, base name (no directory path)
+    protected final String contentType; // null allowed
+    protected final long fileLength; // not minus
+    protected byte[] memoryData; // null allowed: when spooled or destroyed
+    protected final Path spooledPath; // null allowed: when in memory
+    protected volatile boolean destroyed;
+
+    // ===================================================================================
+    //                                                                         Constructor
+    //                                                                         ===========
+    /**
+     * @param fileName The base name of uploaded file. (NotNull, EmptyAllowed: when no file selected)
+     * @param contentType The content type of the part. (NullAllowed)
+     * @param fileLength The size of the data. (NotMinus)
+     * @param memoryData The data in memory. (NullAllowed: if spooled)
+     * @param spooledPath The path of temporary file that has the data. (NullAllowed: if in memory)
+     */
+    public SpooledMultipartFormFile(String fileName, String contentType, long fileLength, byte[] memoryData, Path spooledPath) {
+        if (fileName == null) {
+            throw new IllegalArgumentException("The argument 'fileName' should not be null.");
+        }
+        if ((memoryData == null) == (spooledPath == null)) {
+            throw new IllegalArgumentException("Either memoryData or spooledPath should be specified: " + fileName);
+        }
+        this.fileName = fileName;
+        this.contentType = contentType;
+        this.fileLength = fileLength;
+        this.memoryData = memoryData;
+        this.spooledPath = spooledPath;
+    }
+
+    // ===================================================================================
+    //                                                                           File Data
+    //                                                                           =========
+    /**
+     * {@inheritDoc} <br>
+     * If spooled, the whole file is read to heap so you should use e.g. transferTo() for large file.
+     */
+    @Override
+    public byte[] getFileData() throws IOException {
+        assertNotDestroyed();
+        return memoryData != null ? memoryData : Files.readAllBytes(spooledPath);
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        assertNotDestroyed();
+        return memoryData != null ? new ByteArrayInputStream(memoryData) : Files.newInputStream(spooledPath);
+    }
+
+    @Override
+    public ReadableByteChannel openChannel() throws IOException {
+        assertNotDestroyed();
+        return memoryData != null ? Channels.newChannel(new ByteArrayInputStream(memoryData)) : openFileChannel();
+    }
+
+    protected FileChannel openFileChannel() throws IOException {
+        return FileChannel.open(spooledPath, StandardOpenOption.READ);
+    }
+
+    @Override
+    public long transferTo(WritableByteChannel target) throws IOException {
+        assertNotDestroyed();
+        if (memoryData != null) {
+            final ByteBuffer buffer = ByteBuffer.wrap(memoryData);
+            while (buffer.hasRemaining()) {
+                if (target.write(buffer) == 0) { // e.g. non-blocking channel
+                    throwTransferNoProgressException(target, buffer.position(), memoryData.length);
+                }
+            }
+            return memoryData.length;
+        }
+        try (FileChannel source = openFileChannel()) {
+            long size = source.size();
+            long position = 0;
+            while (position < size) { // transferTo() may transfer less than requested
+                final long transferred = source.transferTo(position, size - position, target);
+                if (transferred == 0) {
+                    size = source.size(); // may be truncated
+                    if (position >= size) {
+                        break;
+                    }
+                    throwTransferNoProgressException(target, position, size);
+                }
+                position += transferred;
+            }
+            return position;
+        }
+    }
+
+    protected void throwTransferNoProgressException(WritableByteChannel target, long position, long size) throws IOException {
+        String msg = "Cannot transfer the multipart form file because of no progress:";
+        msg = msg + " target=" + target + ", position=" + position + ", size=" + size + ", file=" + this;
+        throw new IOException(msg);
+    }
+
+    protected void assertNotDestroyed() {
+        if (destroyed) {
+            throw new IllegalStateException("The multipart form file has been already destroyed: " + this);
+        }
+    }
+
+    // ===================================================================================
+    //                                                                             Destroy
+    //                                                                             =======
+    @Override
+    public void destroy() {
+        destroyed = true;
+        memoryData = null;
+        if (spooledPath != null) {
+            try {
+                Files.deleteIfExists(spooledPath);
+            } catch (IOException | RuntimeException e) { // continue for other files
+                logger.warn("Failed to delete the spooled file: " + spooledPath, e);
+            }
+        }
+    }
+
+    // ===================================================================================
+    //                                                                      Basic Override
+    //                                                                      ==============
+    @Override
+    public String toString() {
+        return "formFile:{" + fileName + ", " + contentType + ", " + fileLength + " bytes, " + (spooledPath != null ? "spooled" : "memory")
+                + (destroyed ? ", destroyed" : "") + "}";
+    }
+
+    // ===================================================================================
+    //                                                                            Accessor
+    //                                                                            ========
+    @Override
+    public String getContentType() {
+        return contentType;
+    }
+
+    /**
+     * {@inheritDoc} <br>
+     * If the file is over integer range, it returns max integer so use getFileLength() for large file.
+     */
+    @Override
+    public int getFileSize() {
+        return (int) Math.min(fileLength, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public long getFileLength() {
+        return fileLength;
+    }
+
+    @Override
+    public String getFileName() {
+        return fileName;
+    }
+
+    @Override
+    public OptionalThing<Path> getSpooledPath() {
+        return OptionalThing.ofNullable(destroyed ? null : spooledPath, () -> {
+            throw new IllegalStateException("Not found the spooled path (in memory or destroyed): " + toString());
+        });
+    }
+
+    public boolean isInMemory() {
+        return memoryData != null;
+    }
+}
@@ -0,0 +1,486 @@
+/*
+ * Copyright 2015-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.web.ruts.multipart;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+
+import org.dbflute.util.Srl;
+import org.lastaflute.web.ruts.multipart.exception.MultipartExceededException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The built-in multipart handler that reads parts from the request stream and spools large files to temporary files. <br>
+ * File parts over the memory threshold (or over the memory budget of the request) are written to disk while reading,
+ * so memory usage is bounded whatever the upload size is. Spooled files are deleted by finish() or rollback(),
+ * which is called when the request ends.
+ * <pre>
+ * e.g. your multipart resource provider
+ *  public MultipartRequestHandler createHandler() {
+ *      return new SpoolingMultipartRequestHandler(op -&gt; op.maxRequestSize(500L * 1024L * 1024L));
+ *  }
+ * </pre>
+ * @author jflute
+ * @since 0.8.4
+ */
+public class SpoolingMultipartRequestHandler implements MultipartRequestHandler {
+
+    // ===================================================================================
+    //                                                                          Definition
+    //                                                                          ==========
+    private static final Logger logger = LoggerFactory.getLogger(SpoolingMultipartRequestHandler.class);
+    protected static final String CONTENT_DISPOSITION = "content-disposition";
+    protected static final String CONTENT_TYPE = "content-type";
+    protected static final String TEMP_FILE_PREFIX = "lastaflute-multipart-";
+    protected static final String TEMP_FILE_SUFFIX = ".tmp";
+
+    // ===================================================================================
+    //                                                                           Attribute
+    //                                                                           =========
+    protected final MultipartSpoolingOption option; // not null
+    protected final Map<String, MultipartFormFile> fileElements = new LinkedHashMap<String, MultipartFormFile>();
+    protected final Map<String, String[]> textElements = new LinkedHashMap<String, String[]>();
+    protected final List<Path> temporaryPathList = new ArrayList<Path>(); // to delete in any case
+    protected long memoryUsage; // bytes kept in memory in this request
+
+    // ===================================================================================
+    //                                                                         Constructor
+    //                                                                         ===========
+    public SpoolingMultipartRequestHandler() {
+        this(op -> {});
+    }
+
+    /**
+     * @param opLambda The callback for option of spooling, e.g. memory threshold. (NotNull)
+     */
+    public SpoolingMultipartRequestHandler(Consumer<MultipartSpoolingOption> opLambda) {
+        if (opLambda == null) {
+            throw new IllegalArgumentException("The argument 'opLambda' should not be null.");
+        }
+        final MultipartSpoolingOption option = new MultipartSpoolingOption();
+        opLambda.accept(option);
+        this.option = option;
+    }
+
+    // ===================================================================================
+    //                                                                            Handling
+    //                                                                            ========
+    @Override
+    public void handleRequest(HttpServletRequest request) throws ServletException {
+        final String contentType = request.getContentType();
+        final String boundary = extractBoundary(contentType);
+        if (boundary == null) {
+            throw new ServletException("Not found the boundary in the content type: " + contentType);
+        }
+        final long maxRequestSize = option.getMaxRequestSize();
+        final long contentLength = request.getContentLengthLong(); // minus if unknown e.g. chunked
+        if (maxRequestSize >= 0 && contentLength > maxRequestSize) { // fast rejection before reading
+            registerExceeded(request, createRequestSizeExceededException(contentLength, maxRequestSize));
+            return;
+        }
+        final Charset charset = prepareCharset(request);
+        try {
+            final InputStream ins = wrapRequestSizeLimit(request.getInputStream(), maxRequestSize); // not closed here
+            parseMultipart(ins, boundary, charset);
+        } catch (MultipartExceededException e) {
+            rollback();
+            registerExceeded(request, e);
+            return;
+        } catch (IOException e) {
+            rollback();
+            throw new ServletException("Failed to parse the multipart request: " + request.getRequestURI(), e);
+        } catch (RuntimeException e) {
+            rollback();
+            throw e;
+        }
+        reflectTextToRequest(request);
+        if (logger.isDebugEnabled()) {
+            logger.debug("...Handling multipart request: texts={}, files={}, memory={}", textElements.keySet(), fileElements.values(),
+                    memoryUsage);
+        }
+    }
+
+    protected String extractBoundary(String contentType) { // null allowed
+        if (contentType == null) {
+            return null;
+        }
+        for (String element : contentType.split(";")) {
+            final String trimmed = element.trim();
+            if (trimmed.regionMatches(true, 0, "boundary=", 0, "boundary=".length())) {
+                final String boundary = Srl.unquoteDouble(trimmed.substring("boundary=".length()).trim());
+                return !boundary.isEmpty() ? boundary : null;
+            }
+        }
+        return null;
+    }
+
+    protected Charset prepareCharset(HttpServletRequest request) {
+        final String encoding = request.getCharacterEncoding();
+        return encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8; // browsers send file name as page charset
+    }
+
+    protected void registerExceeded(HttpServletRequest request, MultipartExceededException e) {
+        logger.debug("...Registering exceeded multipart request: {}", e.getMessage());
+        request.setAttribute(MAX_LENGTH_EXCEEDED_KEY, e);
+    }
+
+    protected void reflectTextToRequest(HttpServletRequest request) {
+        if (request instanceof MultipartRequestWrapper) { // to get them as request parameter
+            final MultipartRequestWrapper wrapper = (MultipartRequestWrapper) request;
+            textElements.forEach((name, values) -> {
+                for (String value : values) {
+                    wrapper.setParameter(name, value);
+                }
+            });
+        }
+    }
+
+    // ===================================================================================
+    //                                                                               Parse
+    //                                                                               =====
+    /**
+     * @param ins The input stream of request body, not closed here. (NotNull)
+     * @param boundary The boundary of multipart. (NotNull, NotEmpty)
+     * @param charset The charset for text parts and headers. (NotNull)
+     * @throws IOException When it fails to read or the stream is malformed.
+     */
+    public void parseMultipart(InputStream ins, String boundary, Charset charset) throws IOException {
+        final MultipartStreamReader reader = newMultipartStreamReader(ins, boundary);
+        if (!reader.skipPreamble()) {
+            return; // no part
+        }
+        do {
+            final Map<String, String> headerMap = reader.readHeaders(charset);
+            final Map<String, String> dispositionMap = parseDisposition(headerMap.get(CONTENT_DISPOSITION));
+            final String fieldName = dispositionMap.get("name");
+            if (fieldName == null) { // not form-data e.g. mixed, skip it
+                reader.readBody(null);
+                continue;
+            }
+            final String fileName = dispositionMap.get("filename");
+            if (fileName != null) {
+                handleFilePart(reader, fieldName, extractBaseName(fileName), headerMap.get(CONTENT_TYPE));
+            } else {
+                handleTextPart(reader, fieldName, charset);
+            }
+        } while (reader.readBoundaryTail());
+    }
+
+    protected MultipartStreamReader newMultipartStreamReader(InputStream ins, String boundary) {
+        return new MultipartStreamReader(ins, boundary, option.getBufferSize(), option.getMaxHeaderSize());
+    }
+
+    protected Map<String, String> parseDisposition(String disposition) { // e.g. form-data; name="sea"; filename="land.txt"
+        if (disposition == null) {
+            return Collections.emptyMap();
+        }
+        final Map<String, String> dispositionMap = new LinkedHashMap<String, String>(4);
+        boolean quoted = false;
+        int start = 0;
+        for (int i = 0; i <= disposition.length(); i++) {
+            final char ch = i < disposition.length() ? disposition.charAt(i) : ';';
+            if (ch == '"') {
+                quoted = !quoted;
+            } else if (ch == ';' && !quoted) {
+                final String element = disposition.substring(start, i).trim();
+                final int equalIndex = element.indexOf('=');
+                if (equalIndex > 0) {
+                    final String key = element.substring(0, equalIndex).trim().toLowerCase();
+                    dispositionMap.put(key, Srl.unquoteDouble(element.substring(equalIndex + 1).trim()));
+                }
+                start = i + 1;
+            }
+        }
+        return dispositionMap;
+    }
+
+    protected String extractBaseName(String fileName) { // e.g. C:\sea\land.txt (old browser) to land.txt
+        final int separatorIndex = Math.max(fileName.lastIndexOf('/'), fileName.lastIndexOf('\\'));
+        return separatorIndex >= 0 ? fileName.substring(separatorIndex + 1) : fileName;
+    }
+
+    // -----------------------------------------------------
+    //                                             Text Part
+    //                                             ---------
+    protected void handleTextPart(MultipartStreamReader reader, String fieldName, Charset charset) throws IOException {
+        final TextPartOutputStream out = new TextPartOutputStream();
+        reader.readBody(out);
+        final String value = new String(out.toByteArray(), charset);
+        final String[] existing = textElements.get(fieldName);
+        final String[] values;
+        if (existing != null) { // e.g. same-name check boxes
+            values = Arrays.copyOf(existing, existing.length + 1);
+            values[existing.length] = value;
+        } else {
+            values = new String[] { value };
+        }
+        textElements.put(fieldName, values);
+    }
+
+    protected class TextPartOutputStream extends ByteArrayOutputStream { // text is always in memory
+
+        @Override
+        public synchronized void write(byte[] b, int off, int len) {
+            reserveTextMemory(len);
+            super.write(b, off, len);
+        }
+
+        @Override
+        public synchronized void write(int b) {
+            reserveTextMemory(1);
+            super.write(b);
+        }
+    }
+
+    protected void reserveTextMemory(int len) {
+        final long budget = option.getMemoryBudget();
+        if (memoryUsage + len > budget) {
+            final String msg = "Too large text parameters in the multipart request: budget=" + budget;
+            throw new MultipartExceededException(msg, memoryUsage + len, budget, null);
+        }
+        memoryUsage += len;
+    }
+
+    // -----------------------------------------------------
+    //                                             File Part
+    //                                             ---------
+    protected void handleFilePart(MultipartStreamReader reader, String fieldName, String fileName, String contentType)
+            throws IOException {
+        final FilePartOutputStream out = new FilePartOutputStream(fileName);
+        try {
+            reader.readBody(out);
+        } finally {
+            out.close();
+        }
+        final SpooledMultipartFormFile formFile = out.toFormFile(contentType);
+        fileElements.put(fieldName, formFile);
+    }
+
+    /**
+     * The output stream of file part, which keeps the data in memory until threshold, and spools to file after that.
+     */
+    protected class FilePartOutputStream extends OutputStream {
+
+        protected final String fileName; // not null
+        protected ByteArrayOutputStream memoryOut = new ByteArrayOutputStream(256); // null after spooled
+        protected Path spooledPath; // null allowed: until spooled
+        protected OutputStream fileOut; // null allowed: until spooled
+        protected long size;
+
+        public FilePartOutputStream(String fileName) {
+            this.fileName = fileName;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] { (byte) b }, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            size += len;
+            checkFileSize(fileName, size);
+            if (fileOut == null) {
+                if (memoryOut.size() + len <= option.getMemoryThreshold() && reserveFileMemory(len)) {
+                    memoryOut.write(b, off, len);
+                    return;
+                }
+                spool();
+            }
+            fileOut.write(b, off, len);
+        }
+
+        protected void spool() throws IOException {
+            spooledPath = createTemporaryFile();
+            fileOut = new BufferedOutputStream(Files.newOutputStream(spooledPath), option.getBufferSize());
+            memoryOut.writeTo(fileOut);
+            releaseFileMemory(memoryOut.size());
+            memoryOut = null;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (fileOut != null) {
+                fileOut.close();
+            }
+        }
+
+        public SpooledMultipartFormFile toFormFile(String contentType) {
+            final byte[] memoryData = memoryOut != null ? memoryOut.toByteArray() : null;
+            return newSpooledMultipartFormFile(fileName, contentType, size, memoryData, spooledPath);
+        }
+    }
+
+    protected boolean reserveFileMemory(int len) {
+        if (memoryUsage + len > option.getMemoryBudget()) { // spooled
+            return false;
+        }
+        memoryUsage += len;
+        return true;
+    }
+
+    protected void releaseFileMemory(int len) {
+        memoryUsage -= len;
+    }
+
+    protected void checkFileSize(String fileName, long size) {
+        final long maxFileSize = option.getMaxFileSize();
+        if (maxFileSize >= 0 && size > maxFileSize) {
+            final String msg = "Too large file in the multipart request: file=" + fileName + ", max=" + maxFileSize;
+            throw new MultipartExceededException(msg, size, maxFileSize, null);
+        }
+    }
+
+    protected Path createTemporaryFile() throws IOException {
+        final Path path;
+        if (option.getTempDirectory().isPresent()) {
+            path = Files.createTempFile(option.getTempDirectory().get(), TEMP_FILE_PREFIX, TEMP_FILE_SUFFIX);
+        } else {
+            path = Files.createTempFile(TEMP_FILE_PREFIX, TEMP_FILE_SUFFIX);
+        }
+        temporaryPathList.add(path); // registered before writing for rollback
+        return path;
+    }
+
+    protected SpooledMultipartFormFile newSpooledMultipartFormFile(String fileName, String contentType, long size, byte[] memoryData,
+            Path spooledPath) {
+        return new SpooledMultipartFormFile(fileName, contentType, size, memoryData, spooledPath);
+    }
+
+    // -----------------------------------------------------
+    //                                          Request Size
+    //                                          ------------
+    protected InputStream wrapRequestSizeLimit(InputStream ins, long maxRequestSize) {
+        if (maxRequestSize < 0) {
+            return ins;
+        }
+        return new FilterInputStream(ins) { // for unknown content length e.g. chunked
+            protected long readSize;
+
+            @Override
+            public int read() throws IOException {
+                final int read = super.read();
+                if (read >= 0) {
+                    countReadSize(1);
+                }
+                return read;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                final int read = super.read(b, off, len);
+                if (read > 0) {
+                    countReadSize(read);
+                }
+                return read;
+            }
+
+            protected void countReadSize(int read) {
+                readSize += read;
+                if (readSize > maxRequestSize) {
+                    throw createRequestSizeExceededException(readSize, maxRequestSize);
+                }
+            }
+
+            @Override
+            public void close() { // request stream is closed by container
+            }
+        };
+    }
+
+    protected MultipartExceededException createRequestSizeExceededException(long actual, long maxRequestSize) {
+        final String msg = "Too large multipart request: actual=" + actual + ", max=" + maxRequestSize;
+        return new MultipartExceededException(msg, actual, maxRequestSize, null);
+    }
+
+    // ===================================================================================
+    //                                                                     Finish/Rollback
+    //                                                                     ===============
+    /**
+     * Destroy all files and delete all temporary files, also partially-written ones.
+     */
+    @Override
+    public void rollback() {
+        for (MultipartFormFile formFile : fileElements.values()) {
+            formFile.destroy();
+        }
+        for (Path path : temporaryPathList) { // for e.g. failure while writing
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException | RuntimeException e) { // continue for other files
+                logger.warn("Failed to delete the temporary file: " + path, e);
+            }
+        }
+        temporaryPathList.clear();
+        memoryUsage = 0;
+    }
+
+    /**
+     * Called when the request ends, so uploaded files cannot be used after this.
+     */
+    @Override
+    public void finish() {
+        rollback();
+    }
+
+    // ===================================================================================
+    //                                                                            Accessor
+    //                                                                            ========
+    @Override
+    public Map<String, Object> getAllElements() {
+        final Map<String, Object> allElements = new LinkedHashMap<String, Object>(textElements.size() + fileElements.size());
+        allElements.putAll(textElements);
+        allElements.putAll(fileElements);
+        return allElements;
+    }
+
+    @Override
+    public Map<String, MultipartFormFile> getFileElements() {
+        return Collections.unmodifiableMap(fileElements);
+    }
+
+    @Override
+    public Map<String, String[]> getTextElements() {
+        return Collections.unmodifiableMap(textElements);
+    }
+
+    public MultipartSpoolingOption getOption() {
+        return option;
+    }
+
+    public long getMemoryUsage() {
+        return memoryUsage;
+    }
+}
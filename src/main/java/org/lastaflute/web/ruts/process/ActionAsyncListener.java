@@ -0,0 +1,140 @@
+/*
+ * Copyright 2015-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.web.ruts.process;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.http.HttpServletResponse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The listener of asynchronous action request, which decides who owns the response. <br>
+ * The completion thread can write the response only if the request is not timed out or failed yet,
+ * and the timeout (or error) of container does not touch the response while the completion thread writes it.
+ * <pre>
+ * RUNNING --(future completed)--&gt; COMPLETING --&gt; DONE : completion thread writes and completes
+ * RUNNING --(container timeout)--&gt; EXPIRED            : listener responds and completes, completion thread skips
+ * RUNNING --(container error)--&gt; EXPIRED              : listener completes, completion thread skips
+ * </pre>
+ * @author jflute
+ * @since 0.8.4
+ */
+public class ActionAsyncListener implements AsyncListener {
+
+    // ===================================================================================
+    //                                                                          Definition
+    //                                                                          ==========
+    private static final Logger logger = LoggerFactory.getLogger(ActionAsyncListener.class);
+
+    protected static final int RUNNING = 0;
+    protected static final int COMPLETING = 1;
+    protected static final int DONE = 2;
+    protected static final int EXPIRED = 3;
+
+    // ===================================================================================
+    //                                                                           Attribute
+    //                                                                           =========
+    protected final ActionRuntime runtime; // not null
+    protected final AtomicInteger state = new AtomicInteger(RUNNING);
+
+    // ===================================================================================
+    //                                                                         Constructor
+    //                                                                         ===========
+    public ActionAsyncListener(ActionRuntime runtime) {
+        this.runtime = runtime;
+    }
+
+    // ===================================================================================
+    //                                                                   Completion Thread
+    //                                                                   =================
+    /**
+     * Begin the completion of the action, called by completion thread before writing response.
+     * @return Can the completion thread write the response? (false if e.g. already timed out)
+     */
+    public boolean beginCompletion() {
+        return state.compareAndSet(RUNNING, COMPLETING);
+    }
+
+    /**
+     * End the completion of the action, called by completion thread after writing response.
+     * @return Should the completion thread complete the async context? (false if e.g. timed out while writing)
+     */
+    public boolean endCompletion() {
+        return state.compareAndSet(COMPLETING, DONE);
+    }
+
+    /**
+     * @return Is the request already expired by e.g. timeout, error of container?
+     */
+    public boolean isExpired() {
+        return state.get() == EXPIRED;
+    }
+
+    // ===================================================================================
+    //                                                                     Container Event
+    //                                                                     ===============
+    @Override
+    public void onTimeout(AsyncEvent event) throws IOException {
+        if (state.compareAndSet(RUNNING, EXPIRED)) { // the response is ours
+            logger.warn("The asynchronous action timed out: " + runtime);
+            final HttpServletResponse response = (HttpServletResponse) event.getSuppliedResponse();
+            if (response != null && !response.isCommitted()) {
+                response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            }
+            completeQuietly(event.getAsyncContext());
+        } else if (state.compareAndSet(COMPLETING, EXPIRED)) { // completion thread is writing, no way to stop it
+            logger.warn("The asynchronous action timed out while writing the response: " + runtime);
+        }
+    }
+
+    @Override
+    public void onError(AsyncEvent event) throws IOException {
+        final int previous = state.getAndSet(EXPIRED);
+        if (previous == RUNNING) { // e.g. client abort
+            logger.debug("The asynchronous action failed by the container: {}", runtime, event.getThrowable());
+            completeQuietly(event.getAsyncContext());
+        }
+    }
+
+    protected void completeQuietly(AsyncContext asyncContext) {
+        try {
+            asyncContext.complete();
+        } catch (IllegalStateException ignored) { // e.g. already completed by container
+        }
+    }
+
+    @Override
+    public void onComplete(AsyncEvent event) throws IOException {
+    }
+
+    @Override
+    public void onStartAsync(AsyncEvent event) throws IOException {
+    }
+
+    // ===================================================================================
+    //                                                                      Basic Override
+    //                                                                      ==============
+    @Override
+    public String toString() {
+        return "asyncListener:{" + runtime.getRequestPath() + ", state=" + state.get() + "}";
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2015-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.web.ruts.process;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.dbflute.hook.AccessContext;
+import org.dbflute.hook.CallbackContext;
+import org.lastaflute.core.magic.ThreadCacheContext;
+import org.lastaflute.core.util.ContainerUtil;
+import org.lastaflute.db.dbflute.accesscontext.PreparedAccessContext;
+import org.lastaflute.di.core.ExternalContext;
+
+/**
+ * The thread context of asynchronous action, captured on the request thread
+ * and inherited to the thread that completes the action's future. <br>
+ * It carries the request and response of external context, thread cache, prepared access context and callback context.
+ * (transaction is not inherited: the completion begins its own transaction when reflecting the response)
+ * @author jflute
+ * @since 0.8.4
+ */
+public class ActionAsyncThreadContext {
+
+    // ===================================================================================
+    //                                                                           Attribute
+    //                                                                           =========
+    protected final Object request; // null allowed (basically not null)
+    protected final Object response; // null allowed (basically not null)
+    protected final Map<String, Object> threadCacheMap; // not null, copied
+    protected final AccessContext accessContext; // null allowed when e.g. no prologue
+    protected final CallbackContext callbackContext; // null allowed when e.g. no prologue, used by epilogue e.g. SQL count
+    protected final Thread capturedThread; // not null
+
+    // ===================================================================================
+    //                                                                         Constructor
+    //                                                                         ===========
+    protected ActionAsyncThreadContext(Object request, Object response, Map<String, Object> threadCacheMap, AccessContext accessContext,
+            CallbackContext callbackContext, Thread capturedThread) {
+        this.request = request;
+        this.response = response;
+        this.threadCacheMap = threadCacheMap;
+        this.accessContext = accessContext;
+        this.callbackContext = callbackContext;
+        this.capturedThread = capturedThread;
+    }
+
+    /**
+     * Capture the current thread context, should be called on the request thread.
+     * @return The new-created thread context that has current state. (NotNull)
+     */
+    public static ActionAsyncThreadContext capture() {
+        final ExternalContext externalContext = ContainerUtil.retrieveExternalContext();
+        final Map<String, Object> threadCacheMap;
+        if (ThreadCacheContext.exists()) {
+            threadCacheMap = new HashMap<String, Object>(ThreadCacheContext.getReadOnlyCacheMap());
+        } else {
+            threadCacheMap = new HashMap<String, Object>(); // just in case
+        }
+        final AccessContext accessContext = PreparedAccessContext.getAccessContextOnThread(); // same request so plainly
+        final CallbackContext callbackContext = CallbackContext.getCallbackContextOnThread(); // cleared by removing, not modified
+        return new ActionAsyncThreadContext(externalContext.getRequest(), externalContext.getResponse(), threadCacheMap, accessContext,
+                callbackContext, Thread.currentThread());
+    }
+
+    // ===================================================================================
+    //                                                                               Carry
+    //                                                                               =====
+    /**
+     * Run the process with the captured context, and restore the previous context after that. <br>
+     * It also restores on the captured thread (e.g. already-completed future)
+     * because the contexts of request thread are cleared after the execute method.
+     * @param process The process to be run with the captured context. (NotNull)
+     */
+    public void carry(Runnable process) {
+        final ExternalContext externalContext = ContainerUtil.retrieveExternalContext();
+        final Object previousRequest = externalContext.getRequest();
+        final Object previousResponse = externalContext.getResponse();
+        final boolean existsThreadCache = ThreadCacheContext.exists();
+        final AccessContext previousAccessContext = PreparedAccessContext.getAccessContextOnThread();
+        final CallbackContext previousCallbackContext = CallbackContext.getCallbackContextOnThread();
+        try {
+            externalContext.setRequest(request);
+            externalContext.setResponse(response);
+            if (!existsThreadCache) {
+                ThreadCacheContext.initialize();
+            }
+            for (Entry<String, Object> entry : threadCacheMap.entrySet()) {
+                ThreadCacheContext.setObject(entry.getKey(), entry.getValue());
+            }
+            if (accessContext != null) {
+                PreparedAccessContext.setAccessContextOnThread(accessContext);
+            }
+            if (callbackContext != null) {
+                CallbackContext.setCallbackContextOnThread(callbackContext);
+            }
+            process.run();
+        } finally {
+            if (previousCallbackContext != null) {
+                CallbackContext.setCallbackContextOnThread(previousCallbackContext);
+            } else {
+                CallbackContext.clearCallbackContextOnThread();
+            }
+            if (previousAccessContext != null) {
+                PreparedAccessContext.setAccessContextOnThread(previousAccessContext);
+            } else {
+                PreparedAccessContext.clearAccessContextOnThread();
+            }
+            if (!existsThreadCache) {
+                ThreadCacheContext.clear();
+            }
+            externalContext.setRequest(previousRequest);
+            externalContext.setResponse(previousResponse);
+        }
+    }
+
+    // ===================================================================================
+    //                                                                      Basic Override
+    //                                                                      ==============
+    @Override
+    public String toString() {
+        return "asyncThreadContext:{" + capturedThread.getName() + ", cache=" + threadCacheMap.keySet() + "}";
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2015-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.web.ruts.process;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.dbflute.util.DfTypeUtil;
+
+/**
+ * The bulkhead of action, which limits concurrent requests so that a slow action cannot use all threads. <br>
+ * Requests over the max in-flight count wait in the bounded queue until the timeout,
+ * and requests over the queue size are rejected immediately.
+ * @author jflute
+ * @since 0.8.4
+ */
+public class ActionBulkhead {
+
+    // ===================================================================================
+    //                                                                           Attribute
+    //                                                                           =========
+    protected final String name; // not null
+    protected final int maxInFlight; // positive
+    protected final int waitQueueSize; // not minus
+    protected final long waitTimeoutMillis; // not minus
+    protected final Semaphore permits;
+    protected final AtomicInteger waitingCount = new AtomicInteger();
+
+    // -----------------------------------------------------
+    //                                            Statistics
+    //                                            ----------
+    protected final LongAdder enteredCount = new LongAdder();
+    protected final LongAdder queuedCount = new LongAdder();
+    protected final LongAdder queueFullRejectedCount = new LongAdder();
+    protected final LongAdder timeoutRejectedCount = new LongAdder();
+
+    // ===================================================================================
+    //                                                                         Constructor
+    //                                                                         ===========
+    public ActionBulkhead(String name, int maxInFlight, int waitQueueSize, long waitTimeoutMillis) {
+        if (name == null) {
+            throw new IllegalArgumentException("The argument 'name' should not be null.");
+        }
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("The argument 'maxInFlight' should be positive: " + maxInFlight);
+        }
+        this.name = name;
+        this.maxInFlight = maxInFlight;
+        this.waitQueueSize = Math.max(waitQueueSize, 0);
+        this.waitTimeoutMillis = Math.max(waitTimeoutMillis, 0L);
+        this.permits = new Semaphore(maxInFlight, true); // fair for waiting requests
+    }
+
+    // ===================================================================================
+    //                                                                         Enter/Leave
+    //                                                                         ===========
+    /**
+     * Try to enter the bulkhead, waiting in the queue if full. <br>
+     * You should call {@link #leave()} after the process if entered.
+     * @return The determination, true if entered, false if rejected. (then no need to leave)
+     */
+    public boolean tryEnter() {
+        if (permits.tryAcquire()) { // mainly here
+            enteredCount.increment();
+            return true;
+        }
+        if (waitingCount.incrementAndGet() > waitQueueSize) { // queue is full
+            waitingCount.decrementAndGet();
+            queueFullRejectedCount.increment();
+            return false;
+        }
+        queuedCount.increment();
+        try {
+            if (permits.tryAcquire(waitTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                enteredCount.increment();
+                return true;
+            }
+            timeoutRejectedCount.increment();
+            return false;
+        } catch (InterruptedException e) { // e.g. shutdown
+            Thread.currentThread().interrupt();
+            timeoutRejectedCount.increment();
+            return false;
+        } finally {
+            waitingCount.decrementAndGet();
+        }
+    }
+
+    /**
+     * Leave the bulkhead, should be called once after entered.
+     */
+    public void leave() {
+        permits.release();
+    }
+
+    // ===================================================================================
+    //                                                                      Basic Override
+    //                                                                      ==============
+    @Override
+    public String toString() {
+        return DfTypeUtil.toClassTitle(this) + ":{" + name + ", inFlight=" + getInFlightCount() + "/" + maxInFlight + ", waiting="
+                + getWaitingCount() + "/" + waitQueueSize + ", entered=" + enteredCount.sum() + ", rejected="
+                + queueFullRejectedCount.sum() + "+" + timeoutRejectedCount.sum() + "}";
+    }
+
+    // ===================================================================================
+    //                                                                            Accessor
+    //                                                                            ========
+    public String getName() {
+        return name;
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public int getWaitQueueSize() {
+        return waitQueueSize;
+    }
+
+    public long getWaitTimeoutMillis() {
+        return waitTimeoutMillis;
+    }
+
+    /**
+     * @return The count of requests in the bulkhead now. (NotMinus)
+     */
+    public int getInFlightCount() {
+        return Math.max(maxInFlight - permits.availablePermits(), 0);
+    }
+
+    /**
+     * @return The count of requests waiting in the queue now. (NotMinus)
+     */
+    public int getWaitingCount() {
+        return Math.max(waitingCount.get(), 0);
+    }
+
+    public long getEnteredCount() {
+        return enteredCount.sum();
+    }
+
+    public long getQueuedCount() {
+        return queuedCount.sum();
+    }
+
+    public long getQueueFullRejectedCount() {
+        return queueFullRejectedCount.sum();
+    }
+
+    public long getTimeoutRejectedCount() {
+        return timeoutRejectedCount.sum();
+    }
+
+    public long getRejectedCount() {
+        return queueFullRejectedCount.sum() + timeoutRejectedCount.sum();
+    }
+}
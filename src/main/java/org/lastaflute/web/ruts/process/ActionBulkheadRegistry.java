@@ -0,0 +1,113 @@
+/*
+ * Copyright 2015-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.web.ruts.process;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.dbflute.optional.OptionalThing;
+import org.lastaflute.web.path.ActionAdjustmentProvider;
+import org.lastaflute.web.path.ActionBulkheadOption;
+import org.lastaflute.web.ruts.config.ActionExecute;
+import org.lastaflute.web.ruts.config.ModuleConfig;
+
+/**
+ * The registry of action bulkheads, which are prepared per action execute (or shared name) at first request. <br>
+ * The bulkhead settings are provided by {@link ActionAdjustmentProvider#adjustActionBulkhead(ActionExecute)},
+ * and they are cleared when the action mappings are disposed e.g. by hot deploy.
+ * @author jflute
+ * @since 0.8.4
+ */
+public class ActionBulkheadRegistry {
+
+    // ===================================================================================
+    //                                                                           Attribute
+    //                                                                           =========
+    protected final ModuleConfig moduleConfig; // not null
+    protected final ActionAdjustmentProvider adjustmentProvider; // not null
+    protected final Map<ActionExecute, OptionalThing<ActionBulkhead>> executeBulkheadMap = new ConcurrentHashMap<>();
+    protected final Map<String, ActionBulkhead> namedBulkheadMap = new ConcurrentHashMap<>(); // for statistics, sharing
+    protected volatile int generation; // module configuration generation that bulkheads depend on
+
+    // ===================================================================================
+    //                                                                         Constructor
+    //                                                                         ===========
+    public ActionBulkheadRegistry(ModuleConfig moduleConfig, ActionAdjustmentProvider adjustmentProvider) {
+        this.moduleConfig = moduleConfig;
+        this.adjustmentProvider = adjustmentProvider;
+        this.generation = moduleConfig.getDisposedCount();
+    }
+
+    // ===================================================================================
+    //                                                                       Find Bulkhead
+    //                                                                       =============
+    /**
+     * Find the bulkhead of the action execute, prepared at first time.
+     * @param execute The action execute of current request. (NotNull)
+     * @return The optional bulkhead. (NotNull, EmptyAllowed: when no bulkhead for the execute)
+     */
+    public OptionalThing<ActionBulkhead> findBulkhead(ActionExecute execute) {
+        invalidateIfGenerationChanged();
+        return executeBulkheadMap.computeIfAbsent(execute, key -> prepareBulkhead(key));
+    }
+
+    protected OptionalThing<ActionBulkhead> prepareBulkhead(ActionExecute execute) {
+        final ActionBulkheadOption option = adjustmentProvider.adjustActionBulkhead(execute);
+        if (option == null) { // mainly here
+            return OptionalThing.empty();
+        }
+        final String name = option.getBulkheadName() != null ? option.getBulkheadName() : execute.toSimpleMethodExp();
+        final ActionBulkhead bulkhead = namedBulkheadMap.computeIfAbsent(name, key -> {
+            return newActionBulkhead(key, option);
+        }); // shared by the same name
+        return OptionalThing.of(bulkhead);
+    }
+
+    protected ActionBulkhead newActionBulkhead(String name, ActionBulkheadOption option) {
+        return new ActionBulkhead(name, option.getMaxInFlight(), option.getWaitQueueSize(), option.getWaitTimeoutMillis());
+    }
+
+    protected void invalidateIfGenerationChanged() {
+        final int currentGeneration = moduleConfig.getDisposedCount();
+        if (generation != currentGeneration) { // e.g. hot deploy (in-flight requests leave their old bulkhead)
+            synchronized (this) {
+                if (generation != currentGeneration) {
+                    executeBulkheadMap.clear();
+                    namedBulkheadMap.clear();
+                    generation = currentGeneration;
+                }
+            }
+        }
+    }
+
+    // ===================================================================================
+    //                                                                            Accessor
+    //                                                                            ========
+    /**
+     * @return The snapshot list of prepared bulkheads, e.g. for statistics. (NotNull, EmptyAllowed)
+     */
+    public List<ActionBulkhead> getBulkheadList() {
+        return new ArrayList<ActionBulkhead>(namedBulkheadMap.values());
+    }
+
+    public OptionalThing<ActionBulkhead> findBulkheadByName(String name) {
+        return OptionalThing.ofNullable(namedBulkheadMap.get(name), () -> {
+            throw new IllegalStateException("Not found the bulkhead by the name: " + name + " in " + namedBulkheadMap.keySet());
+        });
+    }
+}
@@ -16,23 +16,24 @@
 package org.lastaflute.web.ruts.process;
 
 import java.io.IOException;
+import java.io.PushbackReader;
+import java.io.Reader;
 import java.lang.reflect.Array;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
-import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Enumeration;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import javax.servlet.ServletException;
@@ -60,10 +61,9 @@ import org.lastaflute.di.helper.beans.ParameterizedClassDesc;
 import org.lastaflute.di.helper.beans.PropertyDesc;
 import org.lastaflute.di.helper.beans.factory.BeanDescFactory;
 import org.lastaflute.di.helper.misc.ParameterizedRef;
-import org.lastaflute.di.util.LdiArrayUtil;
 import org.lastaflute.di.util.LdiClassUtil;
 import org.lastaflute.di.util.LdiModifierUtil;
-import org.lastaflute.web.api.JsonParameter;
+import org.lastaflute.web.api.JsonBodyStream;
 import org.lastaflute.web.direction.FwWebDirection;
 import org.lastaflute.web.exception.Forced400BadRequestException;
 import org.lastaflute.web.exception.IndexedPropertyNonParameterizedListException;
@@ -75,6 +75,9 @@ import org.lastaflute.web.exception.RequestPropertyMappingFailureException;
 import org.lastaflute.web.path.ActionAdjustmentProvider;
 import org.lastaflute.web.path.FormMappingOption;
 import org.lastaflute.web.ruts.VirtualForm;
+import org.lastaflute.web.ruts.config.ActionFormBinder;
+import org.lastaflute.web.ruts.config.ActionFormBinder.NativeConverter;
+import org.lastaflute.web.ruts.config.ActionFormBinder.PropertyBinding;
 import org.lastaflute.web.ruts.config.ActionFormMeta;
 import org.lastaflute.web.ruts.config.ActionFormProperty;
 import org.lastaflute.web.ruts.config.ModuleConfig;
@@ -122,6 +125,7 @@ public class ActionFormMapper {
     protected final ModuleConfig moduleConfig;
     protected final FwAssistantDirector assistantDirector;
     protected final RequestManager requestManager;
+    protected final Map<String, IndexedPathStructure> indexStructureCacheMap = new ConcurrentHashMap<String, IndexedPathStructure>(); // bounded
 
     // ===================================================================================
     //                                                                         Constructor
@@ -148,6 +152,7 @@ public class ActionFormMapper {
             final MultipartRequestWrapper wrapper = newMultipartRequestWrapper(requestManager.getRequest());
             ContainerUtil.overrideExternalRequest(wrapper);
             multipartHandler = createMultipartRequestHandler();
+            runtime.manageMultipartHandler(multipartHandler); // to finish at request end, e.g. deleting temporary files
             multipartHandler.handleRequest(wrapper);
             if (MultipartRequestHandler.findExceededException(wrapper) != null) {
                 return; // you can confirm exceeded by the static find method
@@ -155,11 +160,19 @@ public class ActionFormMapper {
         }
         final FormMappingOption option = adjustFormMapping(); // not null
         final Object realForm = virtualForm.getRealForm(); // not null
-        for (Entry<String, Object> entry : getAllParameters(multipartHandler).entrySet()) {
+        final ActionFormBinder binder = prepareFormBinder(virtualForm, realForm); // null allowed
+        final Map<String, Object> paramMap = getAllParameters(multipartHandler);
+        final Map<String, Integer> arraySizeMap = analyzeIndexedArraySize(paramMap); // null allowed
+        for (Entry<String, Object> entry : paramMap.entrySet()) {
             final String name = entry.getKey();
             final Object value = entry.getValue();
             try {
-                setProperty(virtualForm, realForm, name, value, null, option, null, null);
+                if (arraySizeMap != null) { // in the try to handle failure as the parameter
+                    prepareIndexedArraySize(realForm, name, arraySizeMap);
+                }
+                if (!setPropertyByBinder(virtualForm, realForm, binder, name, value, option)) { // e.g. nested property
+                    setProperty(virtualForm, realForm, name, value, null, option, null, null);
+                }
             } catch (Throwable cause) {
                 handleIllegalPropertyPopulateException(realForm, name, value, runtime, cause); // adjustment here
             }
@@ -241,11 +254,15 @@ public class ActionFormMapper {
     //                                                                           =========
     protected boolean handleJsonBody(ActionRuntime runtime, VirtualForm virtualForm) throws IOException {
         if (isJsonBodyForm(virtualForm.getFormMeta().getFormType())) {
-            mappingJsonBody(runtime, virtualForm, prepareJsonFromRequestBody(virtualForm));
+            mappingJsonBody(runtime, virtualForm, prepareJsonBodyReader(virtualForm));
+            return true;
+        }
+        if (isStreamJsonBodyForm(virtualForm)) { // before list because also list form
+            mappingStreamJsonBody(runtime, virtualForm, prepareJsonBodyReader(virtualForm));
             return true;
         }
         if (isListJsonBodyForm(virtualForm)) {
-            mappingListJsonBody(runtime, virtualForm, prepareJsonFromRequestBody(virtualForm));
+            mappingListJsonBody(runtime, virtualForm, prepareJsonBodyReader(virtualForm));
             return true;
         }
         return false;
@@ -261,14 +278,23 @@ public class ActionFormMapper {
         }).orElse(false);
     }
 
-    protected String prepareJsonFromRequestBody(VirtualForm virtualForm) {
+    protected boolean isStreamJsonBodyForm(VirtualForm virtualForm) {
+        return virtualForm.getFormMeta().isJsonBodyStream() && isListJsonBodyForm(virtualForm);
+    }
+
+    // -----------------------------------------------------
+    //                                           Body Reader
+    //                                           -----------
+    // JSON body is parsed as stream (no whole string) for large body e.g. bulk import,
+    // and the bounded prefix is captured for logging and debug challenge
+    protected JsonBodyPrefixCaptureReader prepareJsonBodyReader(VirtualForm virtualForm) {
         try {
-            final String body = requestManager.getRequestBody();
-            if (logger.isDebugEnabled()) {
-                logger.debug("#flow ...Parsing JSON from request body:{}", buildJsonBodyDebugDisplay(body));
+            Reader reader = requestManager.getRequestBodyReader();
+            if (logger.isDebugEnabled()) { // before parsing to show also broken body
+                reader = showParsingJsonBody(reader);
             }
-            return body;
-        } catch (RuntimeException e) {
+            return newJsonBodyPrefixCaptureReader(reader);
+        } catch (RuntimeException | IOException e) {
             final ExceptionMessageBuilder br = new ExceptionMessageBuilder();
             br.addNotice("Cannot read request body for JSON.");
             br.addItem("Advice");
@@ -282,45 +308,97 @@ public class ActionFormMapper {
         }
     }
 
+    protected JsonBodyPrefixCaptureReader newJsonBodyPrefixCaptureReader(Reader reader) {
+        return new JsonBodyPrefixCaptureReader(reader, getJsonBodyCaptureLimit());
+    }
+
+    /**
+     * @return The max count of characters captured from JSON body for debug. (NotMinus)
+     */
+    protected int getJsonBodyCaptureLimit() {
+        return 64 * 1024; // enough for debug challenge of normal body
+    }
+
+    protected Reader showParsingJsonBody(Reader reader) throws IOException { // peeks only the displayed prefix
+        final int peekSize = getJsonBodyDebugDisplayLimit() + 1; // plus one to know truncated
+        final PushbackReader pushbackReader = new PushbackReader(reader, peekSize);
+        final char[] peeked = new char[peekSize];
+        int peekedCount = 0;
+        int size;
+        while (peekedCount < peekSize && (size = pushbackReader.read(peeked, peekedCount, peekSize - peekedCount)) >= 0) {
+            peekedCount += size;
+        }
+        final String prefix = new String(peeked, 0, peekedCount);
+        logger.debug("#flow ...Parsing JSON from request body:{}", buildJsonBodyDebugDisplay(prefix));
+        pushbackReader.unread(peeked, 0, peekedCount);
+        return pushbackReader;
+    }
+
+    /**
+     * @return The max count of characters of JSON body shown in debug log. (NotMinus)
+     */
+    protected int getJsonBodyDebugDisplayLimit() {
+        return 800;
+    }
+
     protected String buildJsonBodyDebugDisplay(String value) {
         // want to show all as parameter, but limit just in case to avoid large logging
         final String trimmed = value.trim();
-        return !trimmed.isEmpty() ? "\n" + Srl.cut(trimmed, 800, "...") : " *empty body"; // might have rear LF
+        return !trimmed.isEmpty() ? "\n" + Srl.cut(trimmed, getJsonBodyDebugDisplayLimit(), "...") : " *empty body"; // might have rear LF
+    }
+
+    protected String prepareCapturedJsonForDebug(JsonBodyPrefixCaptureReader reader) {
+        reader.captureRest(); // to show whole body if small
+        return reader.getCapturedPrefix();
     }
 
     // -----------------------------------------------------
     //                                             Bean JSON
     //                                             ---------
-    protected void mappingJsonBody(ActionRuntime runtime, VirtualForm virtualForm, String json) {
+    protected void mappingJsonBody(ActionRuntime runtime, VirtualForm virtualForm, JsonBodyPrefixCaptureReader reader) {
         final JsonManager jsonManager = getJsonManager();
         try {
-            final Object fromJson = jsonManager.fromJson(json, virtualForm.getFormMeta().getFormType());
+            final Object fromJson = jsonManager.fromJson(reader, virtualForm.getFormMeta().getFormType());
             acceptJsonRealForm(virtualForm, fromJson);
         } catch (RuntimeException e) {
-            throwJsonBodyParseFailureException(runtime, virtualForm, json, e);
+            final String json = prepareCapturedJsonForDebug(reader);
+            throwJsonBodyParseFailureException(runtime, virtualForm, json, reader.isTruncated(), e);
         }
     }
 
     protected void throwJsonBodyParseFailureException(ActionRuntime runtime, VirtualForm virtualForm, String json, RuntimeException e) {
+        throwJsonBodyParseFailureException(runtime, virtualForm, json, false, e); // not truncated as default
+    }
+
+    protected void throwJsonBodyParseFailureException(ActionRuntime runtime, VirtualForm virtualForm, String json, boolean truncated,
+            RuntimeException e) {
         final StringBuilder sb = new StringBuilder();
         sb.append("Cannot parse json on the request body.");
         sb.append(LF).append(LF).append("[JsonBody Parse Failure]");
         sb.append(LF).append(runtime);
         sb.append(LF).append(virtualForm);
         sb.append(LF).append(json);
-        final Map<String, Object> retryMap = retryJsonAsMapForDebug(json);
         List<JsonDebugChallenge> challengeList = new ArrayList<JsonDebugChallenge>();
-        if (!retryMap.isEmpty()) {
-            sb.append(LF).append(buildDebugChallengeTitle());
-            final List<JsonDebugChallenge> nestedList = prepareJsonBodyDebugChallengeList(virtualForm, retryMap, null);
-            for (JsonDebugChallenge challenge : nestedList) {
-                sb.append(challenge.toChallengeDisp());
+        if (truncated) { // cannot retry by the prefix
+            sb.append(buildTruncatedJsonNotice());
+        } else {
+            final Map<String, Object> retryMap = retryJsonAsMapForDebug(json);
+            if (!retryMap.isEmpty()) {
+                sb.append(LF).append(buildDebugChallengeTitle());
+                final List<JsonDebugChallenge> nestedList = prepareJsonBodyDebugChallengeList(virtualForm, retryMap, null);
+                for (JsonDebugChallenge challenge : nestedList) {
+                    sb.append(challenge.toChallengeDisp());
+                }
+                challengeList.addAll(nestedList);
             }
-            challengeList.addAll(nestedList);
         }
         throwRequestJsonParseFailureException(sb.toString(), challengeList, e);
     }
 
+    protected String buildTruncatedJsonNotice() {
+        return "..." + LF + "(the JSON body is too large so truncated, no debug challenge)";
+    }
+
     protected List<JsonDebugChallenge> prepareJsonBodyDebugChallengeList(VirtualForm virtualForm, Map<String, Object> retryMap,
             Integer elementIndex) {
         if (retryMap.isEmpty()) {
@@ -339,40 +417,114 @@ public class ActionFormMapper {
     // -----------------------------------------------------
     //                                             List JSON
     //                                             ---------
-    protected void mappingListJsonBody(ActionRuntime runtime, VirtualForm virtualForm, String json) {
+    protected void mappingListJsonBody(ActionRuntime runtime, VirtualForm virtualForm, JsonBodyPrefixCaptureReader reader) {
         try {
             final ActionFormMeta formMeta = virtualForm.getFormMeta();
             final ParameterizedType pt = formMeta.getListFormParameterParameterizedType().get(); // already checked
-            final List<Object> fromJsonList = getJsonManager().fromJsonParameteried(json, pt);
+            final List<Object> fromJsonList = getJsonManager().fromJsonParameteried(reader, pt);
             acceptJsonRealForm(virtualForm, fromJsonList);
         } catch (RuntimeException e) {
-            throwListJsonBodyParseFailureException(runtime, virtualForm, json, e);
+            final String json = prepareCapturedJsonForDebug(reader);
+            throwListJsonBodyParseFailureException(runtime, virtualForm, json, reader.isTruncated(), e);
         }
     }
 
     protected void throwListJsonBodyParseFailureException(ActionRuntime runtime, VirtualForm virtualForm, String json, RuntimeException e) {
+        throwListJsonBodyParseFailureException(runtime, virtualForm, json, false, e); // not truncated as default
+    }
+
+    protected void throwListJsonBodyParseFailureException(ActionRuntime runtime, VirtualForm virtualForm, String json, boolean truncated,
+            RuntimeException e) {
         final StringBuilder sb = new StringBuilder();
         sb.append("Cannot parse list json on the request body.");
         sb.append(LF).append(LF).append("[List JsonBody Parse Failure]");
         sb.append(LF).append(runtime);
         sb.append(LF).append(virtualForm);
         sb.append(LF).append(json);
-        final List<Map<String, Object>> retryList = retryJsonListAsMapForDebug(json);
         final List<JsonDebugChallenge> challengeList = new ArrayList<JsonDebugChallenge>();
-        if (!retryList.isEmpty()) {
-            sb.append(LF).append(buildDebugChallengeTitle());
-            int index = 1;
-            for (Map<String, Object> retryMap : retryList) {
-                sb.append(LF).append(" (index: ").append(index).append(")");
-                final List<JsonDebugChallenge> nestedList = prepareJsonBodyDebugChallengeList(virtualForm, retryMap, index);
-                challengeList.addAll(nestedList);
-                nestedList.forEach(challenge -> sb.append(challenge.toChallengeDisp()));
-                ++index;
+        if (truncated) { // cannot retry by the prefix
+            sb.append(buildTruncatedJsonNotice());
+        } else {
+            final List<Map<String, Object>> retryList = retryJsonListAsMapForDebug(json);
+            if (!retryList.isEmpty()) {
+                sb.append(LF).append(buildDebugChallengeTitle());
+                int index = 1;
+                for (Map<String, Object> retryMap : retryList) {
+                    sb.append(LF).append(" (index: ").append(index).append(")");
+                    final List<JsonDebugChallenge> nestedList = prepareJsonBodyDebugChallengeList(virtualForm, retryMap, index);
+                    challengeList.addAll(nestedList);
+                    nestedList.forEach(challenge -> sb.append(challenge.toChallengeDisp()));
+                    ++index;
+                }
             }
         }
         throwRequestJsonParseFailureException(sb.toString(), challengeList, e);
     }
 
+    // -----------------------------------------------------
+    //                                           Stream JSON
+    //                                           -----------
+    // elements are parsed when the action iterates them (not here),
+    // so the parse failure is thrown in the execute method with element index
+    protected void mappingStreamJsonBody(ActionRuntime runtime, VirtualForm virtualForm, JsonBodyPrefixCaptureReader reader) {
+        @SuppressWarnings("unchecked")
+        final Class<Object> bodyType = (Class<Object>) virtualForm.getFormMeta().getListFormParameterGenericType().get(); // already checked
+        final Iterator<Object> plainIterator = getJsonManager().fromJsonArrayIterator(reader, bodyType);
+        if (logger.isDebugEnabled()) {
+            logger.debug("#flow ...Streaming JSON body elements to the action: {}", bodyType.getSimpleName());
+        }
+        final Iterator<Object> elementIterator = wrapStreamJsonBodyIterator(runtime, virtualForm, reader, plainIterator);
+        acceptJsonRealForm(virtualForm, newJsonBodyStream(bodyType, elementIterator));
+    }
+
+    protected Iterator<Object> wrapStreamJsonBodyIterator(ActionRuntime runtime, VirtualForm virtualForm, JsonBodyPrefixCaptureReader reader,
+            Iterator<Object> plainIterator) {
+        return new Iterator<Object>() {
+            protected int elementIndex; // index of next element
+
+            @Override
+            public boolean hasNext() {
+                try {
+                    return plainIterator.hasNext();
+                } catch (RuntimeException e) {
+                    throwStreamJsonBodyParseFailureException(runtime, virtualForm, reader, elementIndex, e);
+                    return false; // unreachable
+                }
+            }
+
+            @Override
+            public Object next() {
+                try {
+                    final Object element = plainIterator.next();
+                    ++elementIndex;
+                    return element;
+                } catch (RuntimeException e) {
+                    throwStreamJsonBodyParseFailureException(runtime, virtualForm, reader, elementIndex, e);
+                    return null; // unreachable
+                }
+            }
+        };
+    }
+
+    protected JsonBodyStream<Object> newJsonBodyStream(Class<Object> bodyType, Iterator<Object> elementIterator) {
+        return new JsonBodyStream<Object>(bodyType, elementIterator);
+    }
+
+    protected void throwStreamJsonBodyParseFailureException(ActionRuntime runtime, VirtualForm virtualForm,
+            JsonBodyPrefixCaptureReader reader, int elementIndex, RuntimeException e) {
+        final StringBuilder sb = new StringBuilder();
+        sb.append("Cannot parse stream json on the request body.");
+        sb.append(LF).append(LF).append("[Stream JsonBody Parse Failure]");
+        sb.append(LF).append(runtime);
+        sb.append(LF).append(virtualForm);
+        sb.append(LF).append("(failed at element index: ").append(elementIndex).append(")");
+        sb.append(LF).append(reader.getCapturedPrefix()); // not capture rest, it may be large
+        if (reader.isTruncated()) { // elements already passed to the action so no debug challenge
+            sb.append(buildTruncatedJsonNotice());
+        }
+        throwRequestJsonParseFailureException(sb.toString(), Collections.emptyList(), e);
+    }
+
     // -----------------------------------------------------
     //                                          Assist Logic
     //                                          ------------
@@ -418,8 +570,8 @@ public class ActionFormMapper {
                 setProperty(virtualForm, simpleProperty, rear, value, pathSb, option, bean, front); // *recursive
             } else if (minIndex == indexedIndex) { // e.g. sea[0]
                 final IndexParsedResult result = parseIndex(name.substring(indexedIndex + 1));
-                final int[] resultIndexes = result.indexes;
-                final String resultName = result.name;
+                final int[] resultIndexes = result.getIndexes();
+                final String resultName = result.getName();
                 final String front = name.substring(0, indexedIndex);
                 if (resultName == null || resultName.isEmpty()) {
                     setIndexedProperty(bean, front, resultIndexes, value);
@@ -437,9 +589,31 @@ public class ActionFormMapper {
         }
     }
 
-    protected static class IndexParsedResult {
-        public int[] indexes = new int[0];
-        public String name;
+    protected static class IndexParsedResult { // shared by parse cache so immutable
+
+        protected final int[] indexes; // not null, not shared
+        protected final String name; // not null, empty allowed
+
+        public IndexParsedResult(int[] indexes, String name) {
+            this.indexes = indexes.clone();
+            this.name = name;
+        }
+
+        public int[] getIndexes() { // copied for e.g. overridden setIndexedProperty()
+            return indexes.clone();
+        }
+
+        public int getIndexCount() {
+            return indexes.length;
+        }
+
+        public int getIndex(int position) {
+            return indexes[position];
+        }
+
+        public String getName() {
+            return name;
+        }
     }
 
     protected int minIndex(int index1, int index2) {
@@ -452,6 +626,97 @@ public class ActionFormMapper {
         }
     }
 
+    // ===================================================================================
+    //                                                                     Compiled Binder
+    //                                                                     ===============
+    protected ActionFormBinder prepareFormBinder(VirtualForm virtualForm, Object realForm) { // null allowed
+        if (!isCompiledFormBinderEnabled()) {
+            return null;
+        }
+        final ActionFormMeta formMeta = virtualForm.getFormMeta();
+        if (formMeta == null || !formMeta.getFormBinder().isPresent()) { // e.g. list form
+            return null;
+        }
+        final ActionFormBinder binder = formMeta.getFormBinder().get();
+        return binder.getFormType().equals(realForm.getClass()) ? binder : null; // just in case (e.g. enhanced form)
+    }
+
+    /**
+     * Is the compiled form binder enabled for first-level parameters? <br>
+     * The binder does not call the mapping hooks (e.g. setProperty(), convertToNativeIfPossible()),
+     * so override this to return false if your sub-class overrides them for first-level parameters.
+     * @return The determination, true or false.
+     */
+    protected boolean isCompiledFormBinderEnabled() {
+        return true;
+    }
+
+    /**
+     * Set the parameter to the first-level property by the compiled binder.
+     * @param virtualForm The virtual instance of form, which has real form. (NotNull)
+     * @param realForm The real instance of form that has the property. (NotNull)
+     * @param binder The compiled binder of the form. (NullAllowed: then no binding)
+     * @param name The name of request parameter, e.g. sea, sea.land (NotNull)
+     * @param value The value of the request parameter (NullAllowed, EmptyAllowed)
+     * @param option The option of form mapping. (NotNull)
+     * @return The determination, true if bound, false if the parameter should be set by plain logic.
+     */
+    protected boolean setPropertyByBinder(VirtualForm virtualForm, Object realForm, ActionFormBinder binder, String name, Object value,
+            FormMappingOption option) {
+        if (binder == null) {
+            return false;
+        }
+        final PropertyBinding binding = binder.findBinding(name); // null if e.g. sea.land, sea[0], undefined
+        if (binding == null) {
+            return false;
+        }
+        final StringBuilder pathSb = new StringBuilder(name);
+        try {
+            binding.setValue(realForm, mappingByBinding(virtualForm, realForm, name, value, pathSb, option, binding));
+        } catch (RuntimeException e) {
+            handleMappingFailureException(realForm, name, value, pathSb, binding.getPropertyDesc(), e);
+        }
+        return true;
+    }
+
+    protected Object mappingByBinding(VirtualForm virtualForm, Object bean, String name, Object value, StringBuilder pathSb,
+            FormMappingOption option, PropertyBinding binding) { // same logic as mappingToProperty()
+        final PropertyDesc pd = binding.getPropertyDesc();
+        switch (binding.getBindingType()) {
+        case ARRAY:
+            return prepareStringArray(value, name, binding.getPropertyType(), option);
+        case JSON_LIST:
+        case JSON:
+            return parseJsonParameter(virtualForm, bean, name, prepareJsonString(prepareObjectScalar(value)), pd);
+        case LIST:
+            final List<String> strList = prepareStringList(value, name, binding.getPropertyType(), option);
+            final Class<?> elementType = binding.getListElementType();
+            if (elementType == null) { // not parameterized
+                return strList;
+            }
+            final List<Object> mappedList = new ArrayList<Object>(strList.size());
+            for (String exp : strList) { // already filtered
+                mappedList.add(convertToNativeByConverter(bean, name, exp, elementType, binding.getNativeConverter(), option));
+            }
+            return Collections.unmodifiableList(mappedList);
+        default: // native
+            final Object exp = prepareObjectScalar(value);
+            final Class<?> propertyType = binding.getPropertyType();
+            try {
+                final Object filtered = filterIfSimpleText(exp, option, name, propertyType);
+                return convertToNativeByConverter(bean, name, filtered, propertyType, binding.getNativeConverter(), option);
+            } catch (RuntimeException e) {
+                if (isTypeFailureException(e)) {
+                    virtualForm.acceptTypeFailure(pathSb.toString(), exp); // to render failure value
+                    handleTypeFailure(virtualForm, bean, name, exp, pd, propertyType, pathSb, e);
+                    return null;
+                } else {
+                    throw e;
+                }
+            }
+        }
+    }
+
     // ===================================================================================
     //                                                                     Simple Property
     //                                                                     ===============
@@ -652,26 +917,7 @@ public class ActionFormMapper {
     //                                        JSON Parameter
     //                                        --------------
     protected boolean isJsonParameterProperty(PropertyDesc pd) {
-        final Class<JsonParameter> annoType = JsonParameter.class;
-        final Field field = pd.getField();
-        if (field != null && field.getAnnotation(annoType) != null) {
-            return true;
-        }
-        if (field != null && !LdiModifierUtil.isPublic(field)) { // not public field
-            if (pd.hasReadMethod()) {
-                final Method readMethod = pd.getReadMethod();
-                if (readMethod != null && readMethod.getAnnotation(annoType) != null) {
-                    return true;
-                }
-            }
-            if (pd.hasWriteMethod()) {
-                final Method writeMethod = pd.getWriteMethod();
-                if (writeMethod != null && writeMethod.getAnnotation(annoType) != null) {
-                    return true;
-                }
-            }
-        }
-        return false;
+        return ActionFormBinder.isJsonParameterProperty(pd); // also used in compiled binder
     }
 
     protected Object parseJsonParameter(VirtualForm virtualForm, Object bean, String name, String json, PropertyDesc pd) {
@@ -866,40 +1112,51 @@ public class ActionFormMapper {
     }
 
     protected Object convertToNativeIfPossible(Object bean, String name, Object exp, Class<?> propertyType, FormMappingOption option) {
+        return convertToNativeByConverter(bean, name, exp, propertyType, selectNativeConverter(propertyType), option);
+    }
+
+    protected NativeConverter selectNativeConverter(Class<?> propertyType) {
+        return isClassificationProperty(propertyType) ? NativeConverter.CLASSIFICATION : NativeConverter.of(propertyType);
+    }
+
+    protected Object convertToNativeByConverter(Object bean, String name, Object exp, Class<?> propertyType, NativeConverter converter,
+            FormMappingOption option) {
         // not to depend on conversion logic in BeanDesc
         final Object converted;
-        if (propertyType.isPrimitive()) {
-            if (propertyType.equals(boolean.class) && isCheckboxOn(exp)) {
-                converted = true;
-            } else {
-                converted = DfTypeUtil.toWrapper(exp, propertyType);
-            }
-        } else if (String.class.isAssignableFrom(propertyType)) {
+        switch (converter) {
+        case PRIMITIVE_BOOLEAN:
+            converted = isCheckboxOn(exp) ? true : DfTypeUtil.toWrapper(exp, propertyType);
+            break;
+        case PRIMITIVE:
+            converted = DfTypeUtil.toWrapper(exp, propertyType);
+            break;
+        case STRING:
             if (option.isKeepEmptyStringParameter()) {
                 converted = exp != null ? exp : ""; // empty string as default
             } else { // filter empty to null or plain
-                return exp instanceof String && ((String) exp).isEmpty() ? null : exp;
+                converted = exp instanceof String && ((String) exp).isEmpty() ? null : exp;
             }
-        } else if (Number.class.isAssignableFrom(propertyType)) {
+            break;
+        case NUMBER:
             converted = DfTypeUtil.toNumber(exp, propertyType);
-            // old date types are unsupported for LocalDate invitation
-            //} else if (Timestamp.class.isAssignableFrom(propertyType)) {
-            //    filtered = DfTypeUtil.toTimestamp(exp);
-            //} else if (Time.class.isAssignableFrom(propertyType)) {
-            //    filtered = DfTypeUtil.toTime(exp);
-            //} else if (java.util.Date.class.isAssignableFrom(propertyType)) {
-            //    filtered = DfTypeUtil.toDate(exp);
-        } else if (LocalDate.class.isAssignableFrom(propertyType)) { // #date_parade
+            break;
+        // old date types are unsupported for LocalDate invitation
+        case LOCAL_DATE: // #date_parade
             converted = DfTypeUtil.toLocalDate(exp);
-        } else if (LocalDateTime.class.isAssignableFrom(propertyType)) {
+            break;
+        case LOCAL_DATE_TIME:
             converted = DfTypeUtil.toLocalDateTime(exp);
-        } else if (LocalTime.class.isAssignableFrom(propertyType)) {
+            break;
+        case LOCAL_TIME:
             converted = DfTypeUtil.toLocalTime(exp);
-        } else if (Boolean.class.isAssignableFrom(propertyType)) {
+            break;
+        case BOOLEAN:
             converted = isCheckboxOn(exp) ? true : DfTypeUtil.toBoolean(exp);
-        } else if (isClassificationProperty(propertyType)) { // means CDef
+            break;
+        case CLASSIFICATION: // means CDef
             converted = toVerifiedClassification(bean, name, exp, propertyType);
-        } else { // e.g. multipart form file or unsupported type
+            break;
+        default: // e.g. multipart form file or unsupported type
             converted = exp;
         }
         return converted;
@@ -1073,32 +1330,140 @@ public class ActionFormMapper {
             throwIndexedPropertyNonNumberIndexException(name, e);
             return null; // unreachable
         }
-        checkIndexedPropertySize(name, parseResult);
+        checkIndexedPropertySize(name, parseResult); // every time, the limit may be changed
         return parseResult;
     }
 
-    protected IndexParsedResult doParseIndex(String name) {
-        IndexParsedResult result = new IndexParsedResult();
+    protected IndexParsedResult doParseIndex(String name) { // e.g. 3].options[1].code
+        final String structureKey = buildIndexStructureKey(name); // e.g. ].options[1].code
+        IndexedPathStructure structure = findIndexStructureCache(structureKey);
+        if (structure == null) {
+            structure = compileIndexStructure(name);
+            cacheIndexStructure(structureKey, structure);
+        }
+        return new IndexParsedResult(extractIndexes(name, structure.getIndexCount()), structure.getName());
+    }
+
+    // -----------------------------------------------------
+    //                                       Structure Cache
+    //                                       ---------------
+    // big forms repeat the same parameter names with other indexes in every request (e.g. rows[0].name ... rows[99].name),
+    // so the structure of the names without index values (e.g. ].name) is reused across rows and requests,
+    // bounded by simply clearing when too many (not reached by normal forms because of no index values in key)
+    protected String buildIndexStructureKey(String name) { // e.g. 3][1].code to ][].code
+        final int length = name.length();
+        final StringBuilder sb = new StringBuilder(length);
+        int current = 0;
+        while (current < length) {
+            final char ch = name.charAt(current);
+            if (ch >= '0' && ch <= '9') { // index value
+                ++current;
+                continue;
+            }
+            sb.append(ch);
+            ++current;
+            if (ch == INDEXED_DELIM2 && (current == length || name.charAt(current) != INDEXED_DELIM)) { // end of indexes
+                sb.append(name, current, length); // rest name as it is, e.g. .options[1].code
+                break;
+            }
+        }
+        return sb.toString();
+    }
+
+    protected IndexedPathStructure compileIndexStructure(String name) { // validates delimiters and index values
+        int indexCount = 0;
+        int current = 0;
+        final int length = name.length();
         while (true) {
-            int index = name.indexOf(INDEXED_DELIM2);
+            final int index = name.indexOf(INDEXED_DELIM2, current);
             if (index < 0) {
-                throw new IllegalArgumentException(INDEXED_DELIM2 + " is not found in " + name);
+                throw new IllegalArgumentException(INDEXED_DELIM2 + " is not found in " + name.substring(current));
             }
-            result.indexes = LdiArrayUtil.add(result.indexes, Integer.valueOf(name.substring(0, index)).intValue());
-            name = name.substring(index + 1);
-            if (name.length() == 0) {
+            Integer.parseInt(name.substring(current, index)); // only check, values are extracted per name
+            ++indexCount;
+            current = index + 1;
+            if (current == length) {
                 break;
-            } else if (name.charAt(0) == INDEXED_DELIM) {
-                name = name.substring(1);
-            } else if (name.charAt(0) == NESTED_DELIM) {
-                name = name.substring(1);
+            }
+            final char nextChar = name.charAt(current);
+            if (nextChar == INDEXED_DELIM) {
+                ++current;
+            } else if (nextChar == NESTED_DELIM) {
+                ++current;
                 break;
             } else {
-                throw new IllegalArgumentException(name);
+                throw new IllegalArgumentException(name.substring(current));
+            }
+        }
+        return new IndexedPathStructure(indexCount, name.substring(current));
+    }
+
+    protected int[] extractIndexes(String name, int indexCount) { // same structure as compiled one
+        final int[] indexes = new int[indexCount];
+        int current = 0;
+        for (int i = 0; i < indexCount; i++) {
+            final int end = name.indexOf(INDEXED_DELIM2, current);
+            indexes[i] = parseIndexValue(name, current, end);
+            current = end + 2; // skip ][ or ].
+        }
+        return indexes;
+    }
+
+    protected int parseIndexValue(String name, int start, int end) { // without substring
+        final boolean minus = start < end && name.charAt(start) == '-';
+        long value = 0;
+        for (int i = minus ? start + 1 : start; i < end; i++) {
+            final char ch = name.charAt(i);
+            if (ch < '0' || ch > '9') {
+                throw new NumberFormatException("For input string: " + name.substring(start, end));
+            }
+            value = value * 10 + (ch - '0');
+            if (value > Integer.MAX_VALUE + 1L) {
+                throw new NumberFormatException("For input string: " + name.substring(start, end));
             }
         }
-        result.name = name;
-        return result;
+        final long signed = minus ? -value : value;
+        if (end - start == (minus ? 1 : 0) || signed > Integer.MAX_VALUE) { // empty or overflow
+            throw new NumberFormatException("For input string: " + name.substring(start, end));
+        }
+        return (int) signed;
+    }
+
+    protected IndexedPathStructure findIndexStructureCache(String structureKey) { // null allowed
+        return indexStructureCacheMap.get(structureKey);
+    }
+
+    protected void cacheIndexStructure(String structureKey, IndexedPathStructure structure) {
+        if (indexStructureCacheMap.size() >= getIndexParsedCacheLimit()) { // e.g. attack by random names
+            indexStructureCacheMap.clear(); // frequent structures are soon cached again
+        }
+        indexStructureCacheMap.put(structureKey, structure);
+    }
+
+    protected static class IndexedPathStructure { // shared by structure cache so immutable
+
+        protected final int indexCount; // positive
+        protected final String name; // not null, empty allowed, rest name after indexes
+
+        public IndexedPathStructure(int indexCount, String name) {
+            this.indexCount = indexCount;
+            this.name = name;
+        }
+
+        public int getIndexCount() {
+            return indexCount;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    /**
+     * @return The max size of cached name structures for indexed property parsing. (NotMinus: if zero, no cache)
+     */
+    protected int getIndexParsedCacheLimit() {
+        return 4096; // enough for big forms, small memory
     }
 
     protected void throwIndexedPropertyNonNumberIndexException(String name, NumberFormatException e) {
@@ -1107,12 +1472,13 @@ public class ActionFormMapper {
     }
 
     protected void checkIndexedPropertySize(String name, IndexParsedResult parseResult) {
-        final int[] indexes = parseResult.indexes;
-        if (indexes.length == 0) {
+        final int indexCount = parseResult.getIndexCount();
+        if (indexCount == 0) {
             return;
         }
         final int indexedPropertySizeLimit = getIndexedPropertySizeLimit();
-        for (int index : indexes) {
+        for (int i = 0; i < indexCount; i++) {
+            final int index = parseResult.getIndex(i);
             if (index < 0) {
                 throwIndexedPropertyMinusIndexException(name, index);
             }
@@ -1315,24 +1681,126 @@ public class ActionFormMapper {
     }
 
     protected Object expand(Object array, int[] indexes, Class<?> elementType) {
-        int length = Array.getLength(array);
-        if (length <= indexes[0]) {
-            int[] newIndexes = new int[indexes.length];
-            newIndexes[0] = indexes[0] + 1;
-            Object newArray = Array.newInstance(elementType, newIndexes);
+        return doExpand(array, indexes, 0, elementType);
+    }
+
+    protected Object doExpand(Object array, int[] indexes, int depth, Class<?> elementType) { // no indexes copy per depth
+        final int length = Array.getLength(array);
+        final int index = indexes[depth];
+        if (length <= index) { // not needed if first-level array is already sized
+            final int[] dimensions = new int[indexes.length - depth];
+            dimensions[0] = index + 1;
+            final Object newArray = Array.newInstance(elementType, dimensions);
             System.arraycopy(array, 0, newArray, 0, length);
             array = newArray;
         }
-        if (indexes.length > 1) {
-            int[] newIndexes = new int[indexes.length - 1];
-            for (int i = 1; i < indexes.length; i++) {
-                newIndexes[i - 1] = indexes[i];
-            }
-            Array.set(array, indexes[0], expand(Array.get(array, indexes[0]), newIndexes, elementType));
+        if (depth < indexes.length - 1) {
+            Array.set(array, index, doExpand(Array.get(array, index), indexes, depth + 1, elementType));
         }
         return array;
     }
 
+    // -----------------------------------------------------
+    //                                    Indexed Array Size
+    //                                    ------------------
+    // arrays are expanded one by one when indexes arrive in order (e.g. sea[0], sea[1], ..., sea[99]),
+    // so first-level (one-dimension) arrays are sized by max index of parameters before mapping
+    /**
+     * Analyze the size of first-level indexed arrays by max index of the parameters.
+     * @param paramMap The map of all parameters. (NotNull)
+     * @return The map of property name to max index. (NullAllowed: when no indexed parameter or disabled)
+     */
+    protected Map<String, Integer> analyzeIndexedArraySize(Map<String, Object> paramMap) {
+        if (!isIndexedArraySizeEnabled()) {
+            return null;
+        }
+        Map<String, Integer> maxIndexMap = null; // lazy loaded
+        for (String name : paramMap.keySet()) {
+            final int indexedIndex = name.indexOf(INDEXED_DELIM);
+            if (indexedIndex <= 0 || isNestedOrMappedFront(name, indexedIndex)) { // e.g. sea.land[0]
+                continue;
+            }
+            final IndexParsedResult result = findOrParseIndexQuietly(name.substring(indexedIndex + 1));
+            if (result == null || result.getIndexCount() != 1 || !isIndexedArraySizeTarget(result.getIndex(0))) {
+                continue; // invalid indexes are handled in mapping
+            }
+            if (maxIndexMap == null) {
+                maxIndexMap = new HashMap<String, Integer>();
+            }
+            maxIndexMap.merge(name.substring(0, indexedIndex), result.getIndex(0), Math::max);
+        }
+        return maxIndexMap;
+    }
+
+    /**
+     * Prepare the size of indexed array before mapping its first parameter. (only once per property)
+     * @param realForm The real form to be mapped. (NotNull)
+     * @param name The name of the parameter, e.g. sea[0], sea[0].land, land (NotNull)
+     * @param arraySizeMap The map of property name to max index, the prepared property is removed. (NotNull)
+     */
+    protected void prepareIndexedArraySize(Object realForm, String name, Map<String, Integer> arraySizeMap) {
+        final int indexedIndex = name.indexOf(INDEXED_DELIM);
+        if (indexedIndex <= 0) { // mostly here
+            return;
+        }
+        final String propertyName = name.substring(0, indexedIndex);
+        final Integer maxIndex = arraySizeMap.remove(propertyName);
+        if (maxIndex == null) { // e.g. already prepared, nested
+            return;
+        }
+        final BeanDesc beanDesc = BeanDescFactory.getBeanDesc(realForm.getClass());
+        if (!beanDesc.hasPropertyDesc(propertyName)) {
+            return;
+        }
+        final PropertyDesc pd = beanDesc.getPropertyDesc(propertyName);
+        final Class<?> propertyType = pd.getPropertyType();
+        if (!propertyType.isArray() || propertyType.getComponentType().isArray() || !pd.isReadable() || !pd.isWritable()) {
+            return; // e.g. list (amortized), multi-dimension array
+        }
+        final Object array = pd.getValue(realForm);
+        final int length = maxIndex + 1;
+        final int currentLength = array != null ? Array.getLength(array) : 0;
+        if (currentLength < length) { // same size as expanded one by one
+            final Object newArray = Array.newInstance(propertyType.getComponentType(), length);
+            if (array != null) {
+                System.arraycopy(array, 0, newArray, 0, currentLength);
+            }
+            pd.setValue(realForm, newArray);
+        }
+    }
+
+    protected boolean isNestedOrMappedFront(String name, int indexedIndex) {
+        for (int i = 0; i < indexedIndex; i++) {
+            final char ch = name.charAt(i);
+            if (ch == NESTED_DELIM || ch == MAPPED_DELIM) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    protected IndexParsedResult findOrParseIndexQuietly(String name) { // null allowed when invalid
+        try {
+            return doParseIndex(name);
+        } catch (RuntimeException ignored) { // e.g. non-number index, thrown in mapping
+            return null;
+        }
+    }
+
+    /**
+     * Is the indexed array sizing before mapping enabled? <br>
+     * The sizing does not call the indexed hooks (e.g. setIndexedProperty(), expand()),
+     * so override this to return false if your sub-class overrides them for first-level arrays.
+     * @return The determination, true or false.
+     */
+    protected boolean isIndexedArraySizeEnabled() {
+        return true;
+    }
+
+    protected boolean isIndexedArraySizeTarget(int index) {
+        return index >= 0 && index <= getIndexedPropertySizeLimit(); // same as size check, over-limit index is thrown in mapping
+    }
+
     protected Class<?> convertClass(Class<?> clazz) {
         return LdiModifierUtil.isAbstract(clazz) && Map.class.isAssignableFrom(clazz) ? HashMap.class : clazz;
     }
@@ -15,10 +15,16 @@
  */
 package org.lastaflute.web.ruts.process;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Writer;
 import java.lang.reflect.Parameter;
+import java.nio.charset.Charset;
 import java.util.function.Consumer;
+import java.util.zip.GZIPOutputStream;
 
 import org.dbflute.optional.OptionalThing;
+import org.lastaflute.core.json.JsonManager;
 import org.lastaflute.web.LastaWebKey;
 import org.lastaflute.web.path.ActionAdjustmentProvider;
 import org.lastaflute.web.path.ResponseReflectingOption;
@@ -29,12 +35,17 @@ import org.lastaflute.web.response.StreamResponse;
 import org.lastaflute.web.response.XmlResponse;
 import org.lastaflute.web.response.pushed.PushedFormInfo;
 import org.lastaflute.web.response.render.RenderData;
+import org.lastaflute.web.response.stream.JsonArrayStreamCall;
 import org.lastaflute.web.ruts.NextJourney;
 import org.lastaflute.web.ruts.VirtualForm;
 import org.lastaflute.web.ruts.config.ActionExecute;
 import org.lastaflute.web.ruts.process.ActionRuntime.DisplayDataValidator;
 import org.lastaflute.web.servlet.request.RequestManager;
+import org.lastaflute.web.servlet.request.ResponseBytesCache;
+import org.lastaflute.web.servlet.request.ResponseBytesCache.CachedBytes;
 import org.lastaflute.web.servlet.request.ResponseManager;
+import org.lastaflute.web.servlet.request.compression.ResponseCompressionEncoding;
+import org.lastaflute.web.servlet.request.stream.WritternTextCall;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -200,28 +211,143 @@ public class ActionResponseReflector {
         if (response.isReturnAsEmptyBody()) {
             return undefinedJourney();
         }
-        final String json;
+        if (response.isCacheSerialized() && !response.getCallback().isPresent() && !response.isReturnAsJsonArrayStream()) {
+            final OptionalThing<ResponseBytesCache> optCache = responseManager.getResponseBytesCache();
+            if (optCache.isPresent()) { // e.g. code list, same for every caller
+                writeSerializedCache(responseManager, optCache.get(), response);
+                return undefinedJourney();
+            }
+        }
+        final WritternTextCall jsonLambda;
         if (response.isReturnAsJsonDirectly()) {
-            json = response.getDirectJson().get();
+            final String json = response.getDirectJson().get();
+            jsonLambda = writer -> writer.write(json);
+        } else if (response.isReturnAsJsonArrayStream()) { // e.g. huge list by cursor
+            jsonLambda = prepareJsonArrayStream(response.getJsonArrayStreamCall().get());
         } else { // mainly here
             final Object jsonBean = response.getJsonBean();
             validateJsonBeanIfNeeds(jsonBean, response);
-            json = requestManager.getJsonManager().toJson(jsonBean);
+            jsonLambda = prepareStreamingJson(jsonBean); // no whole JSON string
         }
         response.getCallback().ifPresent(callback -> {
-            final String script = callback + "(" + json + ")";
-            responseManager.writeAsJavaScript(script);
+            responseManager.writeAsJavaScript(writer -> {
+                writer.write(callback);
+                writer.write('(');
+                jsonLambda.callback(writer);
+                writer.write(')');
+            });
         }).orElse(() -> {
             /* responseManager might have debug logging so no logging here */
             if (response.isForcedlyJavaScript()) {
-                responseManager.writeAsJavaScript(json);
+                responseManager.writeAsJavaScript(jsonLambda);
             } else { /* as JSON (default) */
-                responseManager.writeAsJson(json);
+                responseManager.writeAsJson(jsonLambda);
             }
         });
         return undefinedJourney();
     }
 
+    // -----------------------------------------------------
+    //                                      Serialized Cache
+    //                                      ----------------
+    protected void writeSerializedCache(ResponseManager responseManager, ResponseBytesCache cache, JsonResponse<?> response) {
+        final String key = response.getSerializedCacheKey().get();
+        final String version = response.getSerializedCacheVersion().get();
+        CachedBytes cached = cache.find(key, version);
+        if (cached == null) { // first time or version changed
+            final byte[] plainBytes = serializeJsonBytes(response);
+            final byte[] gzippedBytes = response.isSerializedCacheGzip() ? gzipBytes(plainBytes) : null;
+            cached = cache.cache(key, version, plainBytes, gzippedBytes);
+            logger.debug("...Caching serialized JSON: {}, {}", key, cached);
+        }
+        final String contentType = response.isForcedlyJavaScript() ? "application/javascript" : "application/json";
+        final byte[] gzippedBytes = cached.getGzippedBytes();
+        if (gzippedBytes != null) {
+            responseManager.addHeader("Vary", "Accept-Encoding"); // for shared cache e.g. proxy
+            if (isGzipAcceptedClient()) {
+                responseManager.addHeader("Content-Encoding", "gzip");
+                responseManager.write(gzippedBytes, contentType, getSerializedCacheEncoding());
+                return;
+            }
+        }
+        responseManager.write(cached.getPlainBytes(), contentType, getSerializedCacheEncoding());
+    }
+
+    protected byte[] serializeJsonBytes(JsonResponse<?> response) {
+        final String json;
+        if (response.isReturnAsJsonDirectly()) {
+            json = response.getDirectJson().get();
+        } else {
+            final Object jsonBean = response.getJsonBean();
+            validateJsonBeanIfNeeds(jsonBean, response); // only when serialized, same bean while same version
+            json = requestManager.getJsonManager().toJson(jsonBean);
+        }
+        return json.getBytes(Charset.forName(getSerializedCacheEncoding()));
+    }
+
+    protected String getSerializedCacheEncoding() {
+        return "UTF-8"; // fixedly, not depends on request encoding because shared by requests
+    }
+
+    protected byte[] gzipBytes(byte[] plainBytes) {
+        final ByteArrayOutputStream bytesOut = new ByteArrayOutputStream(Math.max(plainBytes.length / 4, 64));
+        try (GZIPOutputStream gzipOut = new GZIPOutputStream(bytesOut)) {
+            gzipOut.write(plainBytes);
+        } catch (IOException e) { // basically no way because of memory stream
+            throw new IllegalStateException("Failed to gzip the serialized JSON: length=" + plainBytes.length, e);
+        }
+        return bytesOut.toByteArray();
+    }
+
+    protected boolean isGzipAcceptedClient() { // e.g. Accept-Encoding: gzip, deflate
+        return requestManager.getHeader("Accept-Encoding").map(encodings -> {
+            return ResponseCompressionEncoding.GZIP.isAcceptedBy(encodings);
+        }).orElse(false);
+    }
+
+    protected WritternTextCall prepareStreamingJson(Object jsonBean) {
+        final JsonManager jsonManager = requestManager.getJsonManager();
+        return writer -> { // serialized into the response writer
+            try {
+                jsonManager.toJson(jsonBean, writer);
+            } catch (RuntimeException e) { // e.g. JsonIOException of Gson
+                if (e.getCause() instanceof IOException) { // e.g. client abort, handled by response manager
+                    throw (IOException) e.getCause();
+                }
+                throw e;
+            }
+        };
+    }
+
+    protected WritternTextCall prepareJsonArrayStream(JsonArrayStreamCall<?> streamCall) {
+        final JsonManager jsonManager = requestManager.getJsonManager();
+        return writer -> {
+            final JsonArrayStreamWriter<Object> out = newJsonArrayStreamWriter(writer, jsonManager);
+            out.begin();
+            try {
+                callbackJsonArrayStream(streamCall, out);
+            } catch (RuntimeException e) { // write failure (e.g. client abort) is prior to wrapped one
+                out.throwIfWriteFailed();
+                throw e;
+            }
+            out.end();
+            logger.debug("...Writing JSON array stream: written={}", out.getWrittenCount());
+        };
+    }
+
+    protected JsonArrayStreamWriter<Object> newJsonArrayStreamWriter(Writer writer, JsonManager jsonManager) {
+        return new JsonArrayStreamWriter<Object>(writer, jsonManager, getJsonArrayStreamFlushInterval());
+    }
+
+    protected int getJsonArrayStreamFlushInterval() { // element count
+        return 100; // not to wait for huge elements at client
+    }
+
+    @SuppressWarnings("unchecked")
+    protected void callbackJsonArrayStream(JsonArrayStreamCall<?> streamCall, JsonArrayStreamWriter<Object> out) {
+        ((JsonArrayStreamCall<Object>) streamCall).callback(out);
+    }
+
     // -----------------------------------------------------
     //                                             Validator
     //                                             ---------
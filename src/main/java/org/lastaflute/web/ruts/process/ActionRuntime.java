@@ -33,6 +33,8 @@ import org.lastaflute.web.response.HtmlResponse;
 import org.lastaflute.web.response.JsonResponse;
 import org.lastaflute.web.ruts.VirtualForm;
 import org.lastaflute.web.ruts.config.ActionExecute;
+import org.lastaflute.web.ruts.config.ActionExecutePlan;
+import org.lastaflute.web.ruts.multipart.MultipartRequestHandler;
 import org.lastaflute.web.util.LaParamWrapperUtil;
 
 /**
@@ -59,6 +61,7 @@ public class ActionRuntime {
     protected UserMessages validationErrors;
     protected Map<String, Object> displayDataMap; // lazy loaded
     protected DisplayDataValidator displayDataValidator; // is set when html responce reflecting
+    protected MultipartRequestHandler multipartHandler; // is set when multipart request, to finish at request end
 
     @FunctionalInterface
     public static interface DisplayDataValidator {
@@ -307,6 +310,14 @@ public class ActionRuntime {
         return execute;
     }
 
+    /**
+     * Get the execution plan of the requested action execute, which has static decisions e.g. annotations.
+     * @return The immutable execution plan decided when action execute is created. (NotNull)
+     */
+    public ActionExecutePlan getExecutePlan() {
+        return execute.getExecutePlan();
+    }
+
     /**
      * Get the URL parameters of the request for the action.
      * @return The object that has e.g. URL parameter values. (NotNull)
@@ -383,6 +394,21 @@ public class ActionRuntime {
         this.displayDataValidator = displayDataValidator;
     }
 
+    /**
+     * Get the handler of multipart request, which has uploaded files until the request ends.
+     * @return The optional multipart handler. (NotNull, EmptyAllowed: when not multipart request)
+     */
+    public OptionalThing<MultipartRequestHandler> getMultipartHandler() {
+        return OptionalThing.ofNullable(multipartHandler, () -> {
+            throw new IllegalStateException("Not found the multipart handler, not multipart request? " + requestPath);
+        });
+    }
+
+    public void manageMultipartHandler(MultipartRequestHandler multipartHandler) {
+        assertArgumentNotNull("multipartHandler", multipartHandler);
+        this.multipartHandler = multipartHandler;
+    }
+
     // ===================================================================================
     //                                                                        Small Helper
     //                                                                        ============
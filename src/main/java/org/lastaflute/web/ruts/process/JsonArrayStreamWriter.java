@@ -0,0 +1,128 @@
+/*
+ * Copyright 2015-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.web.ruts.process;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+import org.lastaflute.core.json.JsonManager;
+import org.lastaflute.web.response.stream.JsonArrayStreamOut;
+
+/**
+ * The writer of JSON array response, which serializes each element to the response writer when produced. <br>
+ * The elements are not kept so the memory usage does not depend on the count of elements. <br>
+ * IO failure (e.g. client abort) is kept and thrown as unchecked exception to stop the producer. <br>
+ * The periodic flush commits the response (status 200), so if the producer fails after that,
+ * the client receives the truncated JSON array (the writer is not flushed and closed on failure).
+ * And the flush may not send the bytes while compressed response is under the minimum size.
+ * @param <ELEMENT> The type of element in JSON array.
+ * @author jflute
+ * @since 0.8.4
+ */
+public class JsonArrayStreamWriter<ELEMENT> implements JsonArrayStreamOut<ELEMENT> {
+
+    // ===================================================================================
+    //                                                                           Attribute
+    //                                                                           =========
+    protected final Writer writer; // not null
+    protected final JsonManager jsonManager; // not null
+    protected final int flushInterval; // element count, zero or minus means no periodic flush
+    protected long writtenCount;
+    protected IOException writeFailureCause; // null allowed: until failure
+
+    // ===================================================================================
+    //                                                                         Constructor
+    //                                                                         ===========
+    /**
+     * @param writer The writer of response. (NotNull)
+     * @param jsonManager The manager of JSON to serialize elements. (NotNull)
+     * @param flushInterval The element count to flush the response, e.g. 100. (zero or minus means no periodic flush)
+     */
+    public JsonArrayStreamWriter(Writer writer, JsonManager jsonManager, int flushInterval) {
+        if (writer == null) {
+            throw new IllegalArgumentException("The argument 'writer' should not be null.");
+        }
+        if (jsonManager == null) {
+            throw new IllegalArgumentException("The argument 'jsonManager' should not be null.");
+        }
+        this.writer = writer;
+        this.jsonManager = jsonManager;
+        this.flushInterval = flushInterval;
+    }
+
+    // ===================================================================================
+    //                                                                               Write
+    //                                                                               =====
+    public void begin() throws IOException {
+        writer.write('[');
+    }
+
+    @Override
+    public void write(ELEMENT element) {
+        if (writeFailureCause != null) { // e.g. producer ignores the failure
+            throw new UncheckedIOException("Already failed to write the JSON array: written=" + writtenCount, writeFailureCause);
+        }
+        try {
+            if (writtenCount > 0) {
+                writer.write(',');
+            }
+            if (element != null) {
+                jsonManager.toJson(element, writer);
+            } else {
+                writer.write("null");
+            }
+            ++writtenCount;
+            if (flushInterval > 0 && writtenCount % flushInterval == 0) { // to send chunk to client
+                writer.flush();
+            }
+        } catch (IOException e) {
+            throw handleWriteFailure(e);
+        } catch (RuntimeException e) { // e.g. IO exception wrapped by JSON parser
+            if (e.getCause() instanceof IOException) {
+                throw handleWriteFailure((IOException) e.getCause());
+            }
+            throw e;
+        }
+    }
+
+    protected UncheckedIOException handleWriteFailure(IOException cause) {
+        writeFailureCause = cause;
+        return new UncheckedIOException("Failed to write the JSON array: written=" + writtenCount, cause);
+    }
+
+    public void end() throws IOException {
+        throwIfWriteFailed();
+        writer.write(']');
+    }
+
+    /**
+     * Throw the kept IO failure, e.g. when the producer fails by the unchecked exception of write().
+     * @throws IOException When the write has failed, e.g. client abort.
+     */
+    public void throwIfWriteFailed() throws IOException {
+        if (writeFailureCause != null) {
+            throw writeFailureCause;
+        }
+    }
+
+    // ===================================================================================
+    //                                                                            Accessor
+    //                                                                            ========
+    public long getWrittenCount() {
+        return writtenCount;
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2015-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.web.ruts.process;
+
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * The reader of JSON body that captures the prefix of read characters for debug. <br>
+ * The JSON parser reads the body as stream (no whole string), and the bounded prefix is used
+ * for logging and debug challenge when the parsing fails. (so large body is not kept in memory)
+ * @author jflute
+ * @since 0.8.4
+ */
+public class JsonBodyPrefixCaptureReader extends FilterReader {
+
+    // ===================================================================================
+    //                                                                           Attribute
+    //                                                                           =========
+    protected final int captureLimit; // not minus
+    protected final StringBuilder captured;
+    protected long readCount;
+
+    // ===================================================================================
+    //                                                                         Constructor
+    //                                                                         ===========
+    /**
+     * @param in The reader of request body. (NotNull)
+     * @param captureLimit The max count of captured characters. (NotMinus)
+     */
+    public JsonBodyPrefixCaptureReader(Reader in, int captureLimit) {
+        super(in);
+        if (captureLimit < 0) {
+            throw new IllegalArgumentException("The argument 'captureLimit' should not be minus: " + captureLimit);
+        }
+        this.captureLimit = captureLimit;
+        this.captured = new StringBuilder(Math.min(captureLimit, 1024));
+    }
+
+    // ===================================================================================
+    //                                                                                Read
+    //                                                                                ====
+    @Override
+    public int read() throws IOException {
+        final int ch = super.read();
+        if (ch >= 0) {
+            ++readCount;
+            if (captured.length() < captureLimit) {
+                captured.append((char) ch);
+            }
+        }
+        return ch;
+    }
+
+    @Override
+    public int read(char[] cbuf, int off, int len) throws IOException {
+        final int size = super.read(cbuf, off, len);
+        if (size > 0) {
+            readCount += size;
+            final int rest = captureLimit - captured.length();
+            if (rest > 0) {
+                captured.append(cbuf, off, Math.min(rest, size));
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public long skip(long n) throws IOException { // to keep prefix coherent (basically not called by parser)
+        final char[] buf = new char[(int) Math.min(n, 1024L)];
+        long skipped = 0;
+        while (skipped < n) {
+            final int size = read(buf, 0, (int) Math.min(buf.length, n - skipped));
+            if (size < 0) {
+                break;
+            }
+            skipped += size;
+        }
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false; // capture cannot be reset
+    }
+
+    /**
+     * Read the rest of body into the capture (within the limit), e.g. for debug after failure. <br>
+     * The rest over the limit is only counted (not captured).
+     */
+    public void captureRest() {
+        final char[] buf = new char[1024];
+        try {
+            while (read(buf, 0, buf.length) >= 0) {
+                // only capture and count
+            }
+        } catch (IOException ignored) { // e.g. client abort, captured text is enough for debug
+        }
+    }
+
+    // ===================================================================================
+    //                                                                            Accessor
+    //                                                                            ========
+    /**
+     * @return The captured prefix of read characters. (NotNull, EmptyAllowed)
+     */
+    public String getCapturedPrefix() {
+        return captured.toString();
+    }
+
+    /**
+     * @return Is the captured prefix truncated? (true if read characters are over the limit)
+     */
+    public boolean isTruncated() {
+        return readCount > captured.length();
+    }
+
+    /**
+     * @return The count of read characters. (NotMinus)
+     */
+    public long getReadCount() {
+        return readCount;
+    }
+}
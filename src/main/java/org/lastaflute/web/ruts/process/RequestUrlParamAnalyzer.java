@@ -41,6 +41,7 @@ import org.lastaflute.web.exception.Forced404NotFoundException;
 import org.lastaflute.web.exception.UrlParamArgsDifferentCountException;
 import org.lastaflute.web.exception.UrlParamOptionalParameterEmptyAccessException;
 import org.lastaflute.web.ruts.config.ActionExecute;
+import org.lastaflute.web.ruts.config.UrlParamMatchResult;
 import org.lastaflute.web.servlet.request.RequestManager;
 import org.lastaflute.web.util.LaActionExecuteUtil;
 
@@ -70,7 +71,17 @@ public class RequestUrlParamAnalyzer {
      * @return The object for URL parameter value that has e.g. map:{index = value} (NotNull)
      */
     public RequestUrlParam analyzeUrlParam(ActionExecute execute, String paramPath) {
-        return doAnalyzeUrlParam(execute, extractRealParamPath(execute, paramPath));
+        return analyzeUrlParam(execute, paramPath, null);
+    }
+
+    /**
+     * @param execute The definition of action execute. (NotNull)
+     * @param paramPath The parameter path from URL. (NullAllowed)
+     * @param matchResult The result of URL parameter matching in routing, to reuse matched values. (NullAllowed: if null, match here)
+     * @return The object for URL parameter value that has e.g. map:{index = value} (NotNull)
+     */
+    public RequestUrlParam analyzeUrlParam(ActionExecute execute, String paramPath, UrlParamMatchResult matchResult) {
+        return doAnalyzeUrlParam(execute, extractRealParamPath(execute, paramPath), matchResult);
     }
 
     protected String extractRealParamPath(ActionExecute execute, String paramPath) {
@@ -91,7 +102,7 @@ public class RequestUrlParamAnalyzer {
         return real;
     }
 
-    protected RequestUrlParam doAnalyzeUrlParam(ActionExecute execute, String paramPath) {
+    protected RequestUrlParam doAnalyzeUrlParam(ActionExecute execute, String paramPath, UrlParamMatchResult matchResult) {
         final List<Class<?>> urlParamTypeList = execute.getUrlParamArgs().map(args -> {
             return args.getUrlParamTypeList();
         }).orElse(Collections.emptyList());
@@ -100,7 +111,7 @@ public class RequestUrlParamAnalyzer {
         }).orElse(Collections.emptyMap());
         final Map<Integer, Object> urlParamValueMap;
         if (paramPath != null && paramPath.length() > 0) {
-            urlParamValueMap = fromParamPath(execute, paramPath, urlParamTypeList, optGenTypeMap);
+            urlParamValueMap = fromParamPath(execute, paramPath, urlParamTypeList, optGenTypeMap, matchResult);
         } else {
             urlParamValueMap = withoutParamPath(execute, urlParamTypeList);
         }
@@ -117,7 +128,7 @@ public class RequestUrlParamAnalyzer {
     //                                        from ParamPath
     //                                        --------------
     protected Map<Integer, Object> fromParamPath(ActionExecute execute, String paramPath, List<Class<?>> urlParamTypeList,
-            Map<Integer, Class<?>> optGenTypeMap) {
+            Map<Integer, Class<?>> optGenTypeMap, UrlParamMatchResult matchResult) {
         // _/_/_/_/_/_/_/_/_/_/_/_/_/_/_/_/_/_/_/_/_/_/_/_/_/_/_/_/_/_/_/_/_/_/_/_/_/_/_/_/_/_/_/_/_/_/_/_/_/_/_/_/_/_/
         // e.g. index(String first) /product/list/2/
         //  => urlPatternRegexp=^([^/]+)$, paramPath=2, urlParamTypeList=[String]
@@ -128,7 +139,7 @@ public class RequestUrlParamAnalyzer {
         // e.g. land(String first, String second) /product/list/sea/2/3/
         //  => urlPatternRegexp=^land/([^/]+)/([^/]+)$, paramPath=2/3, urlParamTypeList=[String, String]
         // _/_/_/_/_/_/_/_/_/_/
-        final List<String> paramList = prepareParamList(execute, paramPath, urlParamTypeList);
+        final List<String> paramList = prepareParamList(execute, paramPath, urlParamTypeList, matchResult);
         final Map<Integer, Object> valueMap = new LinkedHashMap<Integer, Object>(urlParamTypeList.size());
         int index = 0;
         for (Class<?> paramType : urlParamTypeList) {
@@ -139,8 +150,16 @@ public class RequestUrlParamAnalyzer {
         return Collections.unmodifiableMap(valueMap);
     }
 
-    protected List<String> prepareParamList(ActionExecute execute, String paramPath, List<Class<?>> urlParamTypeList) {
+    protected List<String> prepareParamList(ActionExecute execute, String paramPath, List<Class<?>> urlParamTypeList,
+            UrlParamMatchResult matchResult) {
         final List<String> paramList = new ArrayList<String>(urlParamTypeList.size());
+        final List<String> matchedValueList = findReusableMatchedValueList(execute, matchResult);
+        if (matchedValueList != null) { // already matched in routing so no more matching
+            for (int i = 0; i < urlParamTypeList.size(); i++) {
+                paramList.add(matchedValueList.get(i));
+            }
+            return paramList;
+        }
         final Matcher matcher = execute.getPreparedUrlPattern().matcher(adjustParamPathPrefix(execute, paramPath));
         if (matcher.find()) {
             for (int i = 0; i < urlParamTypeList.size(); i++) {
@@ -159,6 +178,13 @@ public class RequestUrlParamAnalyzer {
         return paramList;
     }
 
+    protected List<String> findReusableMatchedValueList(ActionExecute execute, UrlParamMatchResult matchResult) {
+        if (matchResult == null || matchResult.getExecute() != execute) { // e.g. not found in routing or forwarded
+            return null;
+        }
+        return matchResult.getMatchedValueList(); // null allowed e.g. optional parameter mapping
+    }
+
     protected String adjustParamPathPrefix(ActionExecute execute, String paramPath) {
         if (execute.isIndexMethod()) {
             return paramPath;
@@ -36,6 +36,7 @@ import org.lastaflute.web.path.ActionPathResolver;
 import org.lastaflute.web.response.HtmlResponse;
 import org.lastaflute.web.ruts.ActionRequestProcessor;
 import org.lastaflute.web.ruts.config.ActionExecute;
+import org.lastaflute.web.ruts.config.UrlParamMatchResult;
 import org.lastaflute.web.ruts.process.RequestUrlParam;
 import org.lastaflute.web.ruts.process.RequestUrlParamAnalyzer;
 import org.lastaflute.web.servlet.request.RequestManager;
@@ -160,8 +161,18 @@ public class RequestRoutingFilter implements Filter {
     }
 
     protected ActionFoundPathHandler createActionPathHandler(HttpServletRequest httpReq, HttpServletResponse httpRes, String contextPath) {
-        return (requestPath, actionName, paramPath, execByParam) -> {
-            return routingToAction(httpReq, httpRes, contextPath, requestPath, actionName, paramPath, execByParam);
+        return new ActionFoundPathHandler() {
+            public boolean handleActionPath(String requestPath, String actionName, String paramPath, ActionExecute execByParam)
+                    throws Exception {
+                final UrlParamMatchResult matchResult = execByParam != null ? new UrlParamMatchResult(execByParam, null) : null;
+                return handleActionPath(requestPath, actionName, paramPath, matchResult);
+            }
+
+            @Override
+            public boolean handleActionPath(String requestPath, String actionName, String paramPath, UrlParamMatchResult matchResult)
+                    throws Exception {
+                return routingToAction(httpReq, httpRes, contextPath, requestPath, actionName, paramPath, matchResult);
+            }
         };
     }
 
@@ -177,9 +188,9 @@ public class RequestRoutingFilter implements Filter {
     //                                                                   Routing to Action
     //                                                                   =================
     protected boolean routingToAction(HttpServletRequest request, HttpServletResponse response, String contextPath, String requestPath,
-            String actionName, String paramPath, ActionExecute execByParam) throws IOException, ServletException {
-        if (execByParam != null) { // already found
-            processAction(request, response, execByParam, paramPath); // #to_action
+            String actionName, String paramPath, UrlParamMatchResult matchResult) throws IOException, ServletException {
+        if (matchResult != null) { // already found
+            processAction(request, response, matchResult.getExecute(), paramPath, matchResult); // #to_action
             return true;
         }
         final OptionalThing<ActionExecute> found = LaActionExecuteUtil.findActionExecute(actionName, request);
@@ -188,7 +199,7 @@ public class RequestRoutingFilter implements Filter {
             if (needsTrailingSlashRedirect(request, requestPath, execute)) { // index() or by request parameter
                 redirectWithTrailingSlash(request, response, contextPath, requestPath);
             } else {
-                processAction(request, response, execute, null); // #to_action
+                processAction(request, response, execute, null, null); // #to_action
             }
             return true;
         } else { // e.g. not found index()
@@ -232,18 +243,18 @@ public class RequestRoutingFilter implements Filter {
     // ===================================================================================
     //                                                                      Process Action
     //                                                                      ==============
-    protected void processAction(HttpServletRequest request, HttpServletResponse response, ActionExecute execute, String paramPath)
-            throws IOException, ServletException {
+    protected void processAction(HttpServletRequest request, HttpServletResponse response, ActionExecute execute, String paramPath,
+            UrlParamMatchResult matchResult) throws IOException, ServletException {
         logger.debug("...Routing to action: name={} params={}", execute.getActionMapping().getActionName(), paramPath);
         LaActionExecuteUtil.setActionExecute(execute); // for e.g. tag-library use
-        getRequestProcessor().process(execute, analyzeUrlParam(execute, paramPath)); // #to_action
+        getRequestProcessor().process(execute, analyzeUrlParam(execute, paramPath, matchResult)); // #to_action
     }
 
     // -----------------------------------------------------
     //                                      Request UrlParam
     //                                      ----------------
-    protected RequestUrlParam analyzeUrlParam(ActionExecute execute, String paramPath) {
-        return getUrlParamAnalyzer().analyzeUrlParam(execute, paramPath);
+    protected RequestUrlParam analyzeUrlParam(ActionExecute execute, String paramPath, UrlParamMatchResult matchResult) {
+        return getUrlParamAnalyzer().analyzeUrlParam(execute, paramPath, matchResult); // matched values are reused
     }
 
     // -----------------------------------------------------
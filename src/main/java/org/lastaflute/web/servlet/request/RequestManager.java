@@ -15,6 +15,8 @@
  */
 package org.lastaflute.web.servlet.request;
 
+import java.io.Reader;
+import java.io.StringReader;
 import java.util.Locale;
 import java.util.TimeZone;
 
@@ -120,6 +122,16 @@ public interface RequestManager extends ScopedAttributeHolder {
      */
     String getRequestBody();
 
+    /**
+     * Get the reader of request body, to read it as stream without whole string. <br>
+     * The body can be read only once so you cannot use both this and {@link #getRequestBody()}. <br>
+     * The default implementation reads all as string so you should override it for streaming.
+     * @return The reader of request body, which has character encoding of request. (NotNull)
+     */
+    default Reader getRequestBodyReader() {
+        return new StringReader(getRequestBody());
+    }
+
     // ===================================================================================
     //                                                                       Path Handling
     //                                                                       =============
@@ -0,0 +1,213 @@
+/*
+ * Copyright 2015-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.web.servlet.request;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import org.dbflute.util.DfTypeUtil;
+import org.lastaflute.core.cache.SecondChanceCache;
+import org.lastaflute.core.cache.SecondChanceCache.SecondChanceEntry;
+
+/**
+ * The bounded concurrent cache of serialized response bytes, keyed by application key and checked by version. <br>
+ * It is for immutable (or versioned) payloads that are same for every caller, e.g. code list, classification dump,
+ * so they are written to output stream as pre-encoded bytes without serialization per request. <br>
+ * The size is bounded by total bytes (plain and gzipped), and the eviction is approximate LRU
+ * by second-chance (clock) algorithm, no lock when reading.
+ * @author jflute
+ * @since 0.8.4
+ */
+public class ResponseBytesCache extends SecondChanceCache<ResponseBytesCache.CachedBytes> {
+
+    // ===================================================================================
+    //                                                                          Definition
+    //                                                                          ==========
+    protected static final byte[] NO_BYTES = new byte[0];
+
+    // ===================================================================================
+    //                                                                           Attribute
+    //                                                                           =========
+    // -----------------------------------------------------
+    //                                            Statistics
+    //                                            ----------
+    protected final LongAdder staleCount = new LongAdder(); // version changed
+    protected final LongAdder rejectionCount = new LongAdder(); // too large or other version requested
+
+    // ===================================================================================
+    //                                                                         Constructor
+    //                                                                         ===========
+    /**
+     * @param maxBytes The max size of total cached bytes, should be positive. (NotMinus, NotZero)
+     */
+    public ResponseBytesCache(long maxBytes) {
+        super(maxBytes, 16);
+    }
+
+    // ===================================================================================
+    //                                                                          Find/Cache
+    //                                                                          ==========
+    /**
+     * Find the cached bytes of the version. <br>
+     * When not found, the version is remembered as requested one for the key,
+     * so bytes of other (old) version cached after this are not registered.
+     * @param key The application key of the response, e.g. code-list-sea (NotNull)
+     * @param version The application version of the payload, e.g. 20161017 (NotNull)
+     * @return The cached bytes of the version. (NullAllowed: when not cached or other version)
+     */
+    public CachedBytes find(String key, String version) {
+        final CachedBytes entry = entryMap.get(key);
+        if (entry == null) {
+            entryMap.putIfAbsent(key, createPendingBytes(version)); // no weight
+            markMiss();
+            return null;
+        }
+        if (!entry.version.equals(version)) { // e.g. master data updated
+            if (replaceEntry(key, entry, createPendingBytes(version)) && !entry.pending) {
+                staleCount.increment();
+            }
+            markMiss();
+            return null;
+        }
+        if (entry.pending) { // other thread is serializing the version
+            markMiss();
+            return null;
+        }
+        markHit(entry);
+        return entry;
+    }
+
+    protected CachedBytes createPendingBytes(String version) {
+        return new CachedBytes(version, NO_BYTES, null, true);
+    }
+
+    /**
+     * Cache the bytes of the version. <br>
+     * The bytes are not cached if too large, or if other version is requested after finding,
+     * e.g. the version is changed while serializing, not to re-register the old version.
+     * @param key The application key of the response, e.g. code-list-sea (NotNull)
+     * @param version The application version of the payload, e.g. 20161017 (NotNull)
+     * @param plainBytes The serialized bytes of the response, e.g. UTF-8 JSON. (NotNull)
+     * @param gzippedBytes The gzipped bytes of the plain bytes. (NullAllowed: when no gzip)
+     * @return The bytes to be written, which is not cached if rejected. (NotNull)
+     */
+    public CachedBytes cache(String key, String version, byte[] plainBytes, byte[] gzippedBytes) {
+        final CachedBytes entry = new CachedBytes(version, plainBytes, gzippedBytes, false);
+        if (entry.weight > getMaxEntryBytes()) { // written but not cached
+            final CachedBytes existing = entryMap.get(key);
+            if (existing != null && existing.pending && existing.version.equals(version)) {
+                removeEntry(key, existing); // pending marker is no longer needed
+            }
+            rejectionCount.increment();
+            return entry;
+        }
+        if (!registerEntry(key, entry, existing -> existing.version.equals(version))) { // other version requested
+            rejectionCount.increment();
+        }
+        return entry;
+    }
+
+    protected long getMaxEntryBytes() {
+        return maxWeight / 4; // not to evict almost all entries by one huge payload
+    }
+
+    // ===================================================================================
+    //                                                                        Cached Value
+    //                                                                        ============
+    /**
+     * The serialized bytes of response, immutable except reference mark.
+     */
+    public static class CachedBytes extends SecondChanceEntry {
+
+        protected final String version; // not null
+        protected final byte[] plainBytes; // not null, should not be modified
+        protected final byte[] gzippedBytes; // null allowed, should not be modified
+        protected final long weight; // total length of bytes
+        protected final boolean pending; // true if marker of requested version, no bytes
+
+        public CachedBytes(String version, byte[] plainBytes, byte[] gzippedBytes) {
+            this(version, plainBytes, gzippedBytes, false);
+        }
+
+        protected CachedBytes(String version, byte[] plainBytes, byte[] gzippedBytes, boolean pending) {
+            this.version = version;
+            this.plainBytes = plainBytes;
+            this.gzippedBytes = gzippedBytes;
+            this.weight = (long) plainBytes.length + (gzippedBytes != null ? gzippedBytes.length : 0);
+            this.pending = pending;
+        }
+
+        @Override
+        public String toString() {
+            if (pending) {
+                return "bytes:{" + version + ", pending}";
+            }
+            return "bytes:{" + version + ", plain=" + plainBytes.length + (gzippedBytes != null ? ", gzipped=" + gzippedBytes.length : "")
+                    + "}";
+        }
+
+        @Override
+        public long getWeight() {
+            return weight;
+        }
+
+        public String getVersion() {
+            return version;
+        }
+
+        /**
+         * @return The serialized bytes of response, should not be modified. (NotNull)
+         */
+        public byte[] getPlainBytes() {
+            return plainBytes;
+        }
+
+        /**
+         * @return The gzipped bytes of response, should not be modified. (NullAllowed: when no gzip)
+         */
+        public byte[] getGzippedBytes() {
+            return gzippedBytes;
+        }
+    }
+
+    // ===================================================================================
+    //                                                                      Basic Override
+    //                                                                      ==============
+    @Override
+    public String toString() {
+        return DfTypeUtil.toClassTitle(this) + ":{size=" + entryMap.size() + ", bytes=" + totalWeight.get() + "/" + maxWeight + ", hit="
+                + hitCount.sum() + ", miss=" + missCount.sum() + ", stale=" + staleCount.sum() + ", eviction=" + evictionCount.sum()
+                + ", rejection=" + rejectionCount.sum() + "}";
+    }
+
+    // ===================================================================================
+    //                                                                            Accessor
+    //                                                                            ========
+    public long getMaxBytes() {
+        return maxWeight;
+    }
+
+    public long getTotalBytes() {
+        return totalWeight.get();
+    }
+
+    public long getStaleCount() {
+        return staleCount.sum();
+    }
+
+    public long getRejectionCount() {
+        return rejectionCount.sum();
+    }
+}
@@ -15,23 +15,41 @@
  */
 package org.lastaflute.web.servlet.request;
 
-import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.Charset;
-import java.util.LinkedHashMap;
-import java.util.Map;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+import java.util.zip.Deflater;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import org.lastaflute.web.exception.ResponseClientAbortIOException;
 import org.lastaflute.web.exception.ResponseDownloadFailureException;
+import org.lastaflute.web.ruts.process.ActionAsyncThreadContext;
+import org.lastaflute.web.servlet.request.compression.ResponseCompressor;
 import org.lastaflute.web.servlet.request.stream.WritternStreamCall;
 import org.lastaflute.web.servlet.request.stream.WritternZipStreamCall;
 import org.lastaflute.web.servlet.request.stream.WritternZipStreamWriter;
+import org.lastaflute.web.util.LaRequestUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -45,6 +63,40 @@ public class ResponseDownloadPerformer {
     //                                                                          ==========
     private static final Logger logger = LoggerFactory.getLogger(ResponseDownloadPerformer.class);
     protected static final String LF = "\n";
+    protected static final String HEADER_RANGE = "Range";
+    protected static final String HEADER_IF_RANGE = "If-Range";
+    protected static final String HEADER_CONTENT_RANGE = "Content-Range";
+    protected static final String HEADER_ACCEPT_RANGES = "Accept-Ranges";
+    protected static final String HEADER_ETAG = "ETag";
+    protected static final String HEADER_LAST_MODIFIED = "Last-Modified";
+
+    // request attributes of Tomcat for zero-copy file sending
+    protected static final String TOMCAT_SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    protected static final String TOMCAT_SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    protected static final String TOMCAT_SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    protected static final String TOMCAT_SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    // ===================================================================================
+    //                                                                           Attribute
+    //                                                                           =========
+    protected final ResponseCompressor responseCompressor; // null allowed: no compression
+    protected final Supplier<? extends Executor> zipDeflateExecutorProvider; // null allowed: no parallel zip
+
+    // ===================================================================================
+    //                                                                         Constructor
+    //                                                                         ===========
+    public ResponseDownloadPerformer() {
+        this(null, null);
+    }
+
+    /**
+     * @param responseCompressor The compressor of response body. (NullAllowed: then no compression)
+     * @param zipDeflateExecutorProvider The provider of executor for parallel zip, called only when needed. (NullAllowed: then no parallel)
+     */
+    public ResponseDownloadPerformer(ResponseCompressor responseCompressor, Supplier<? extends Executor> zipDeflateExecutorProvider) {
+        this.responseCompressor = responseCompressor;
+        this.zipDeflateExecutorProvider = zipDeflateExecutorProvider;
+    }
 
     // ===================================================================================
     //                                                                           Byte Data
@@ -56,7 +108,7 @@ public class ResponseDownloadPerformer {
             throw new IllegalArgumentException(msg);
         }
         try {
-            final OutputStream out = response.getOutputStream();
+            final OutputStream out = prepareDownloadOutputStream(resource, response, (long) byteData.length);
             try {
                 out.write(byteData);
             } finally {
@@ -80,11 +132,8 @@ public class ResponseDownloadPerformer {
             throw new IllegalArgumentException(msg);
         }
         try {
-            final Integer contentLength = resource.getContentLength();
-            if (contentLength != null) {
-                response.setContentLength(contentLength);
-            }
-            final OutputStream out = response.getOutputStream();
+            final Integer contentLength = resource.getContentLength(); // set if plain
+            final OutputStream out = prepareDownloadOutputStream(resource, response, contentLength != null ? contentLength.longValue() : null);
             try {
                 streamCall.callback(ins -> {
                     writeDownloadStream(ins, out);
@@ -100,53 +149,262 @@ public class ResponseDownloadPerformer {
         }
     }
 
+    // ===================================================================================
+    //                                                                           File Path
+    //                                                                           =========
+    public void downloadFilePath(ResponseDownloadResource resource, HttpServletResponse response) {
+        final Path filePath = resource.getFilePath();
+        if (filePath == null) {
+            String msg = "The file path is required: " + resource;
+            throw new IllegalArgumentException(msg);
+        }
+        final HttpServletRequest request = getDownloadRequest();
+        try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+            final long fileLength = channel.size();
+            final long lastModified = Files.getLastModifiedTime(filePath).toMillis();
+            final String entityTag = buildFileEntityTag(fileLength, lastModified);
+            setupFileValidatorHeader(response, entityTag, lastModified);
+            final ResponseDownloadRange range = resolveDownloadRange(request, response, fileLength);
+            final long start;
+            final long length;
+            if (range != null) {
+                response.setHeader(HEADER_CONTENT_RANGE, range.buildContentRange());
+                if (!range.isSatisfiable()) {
+                    response.setStatus(416); // Range Not Satisfiable
+                    response.setContentLength(0); // no body
+                    return;
+                }
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                start = range.getStart();
+                length = range.getLength();
+            } else {
+                start = 0;
+                length = fileLength;
+            }
+            response.setContentLengthLong(length); // not compressed (zero-copy and range need plain bytes)
+            if (isSendfileAvailable(request, filePath)) { // e.g. Tomcat with NIO/APR connector
+                reserveSendfile(request, filePath, start, length);
+                return; // written by the container after this request
+            }
+            final OutputStream out = response.getOutputStream();
+            try {
+                transferFileChannel(channel, start, length, out);
+                flushDownloadStream(out);
+            } finally {
+                closeDownloadStream(out);
+            }
+        } catch (NoSuchFileException e) {
+            throw new ResponseDownloadFailureException("Not found the file to download: " + filePath + ", " + resource, e);
+        } catch (RuntimeException e) {
+            throw new ResponseDownloadFailureException("Failed to download the file: " + resource, e);
+        } catch (IOException e) {
+            handleDownloadIOException(resource, e);
+        }
+    }
+
+    protected String buildFileEntityTag(long fileLength, long lastModified) { // strong validator for If-Range
+        return "\"" + Long.toHexString(fileLength) + "-" + Long.toHexString(lastModified) + "\"";
+    }
+
+    protected void setupFileValidatorHeader(HttpServletResponse response, String entityTag, long lastModified) {
+        response.setHeader(HEADER_ACCEPT_RANGES, "bytes");
+        if (!response.containsHeader(HEADER_ETAG)) { // application's one is prior
+            response.setHeader(HEADER_ETAG, entityTag);
+        }
+        if (!response.containsHeader(HEADER_LAST_MODIFIED)) {
+            response.setDateHeader(HEADER_LAST_MODIFIED, lastModified);
+        }
+    }
+
+    protected ResponseDownloadRange resolveDownloadRange(HttpServletRequest request, HttpServletResponse response, long fileLength) {
+        final String rangeHeader = request.getHeader(HEADER_RANGE);
+        if (rangeHeader == null || response.getStatus() != HttpServletResponse.SC_OK) { // e.g. application status
+            return null;
+        }
+        final String ifRange = request.getHeader(HEADER_IF_RANGE);
+        if (ifRange != null && !isIfRangeMatched(request, response, ifRange.trim())) { // file changed
+            return null; // whole content
+        }
+        return ResponseDownloadRange.parse(rangeHeader, fileLength);
+    }
+
+    protected boolean isIfRangeMatched(HttpServletRequest request, HttpServletResponse response, String ifRange) {
+        // compared with the validators actually sent, which may be application's ones
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) { // entity tag, weak tag is not matched
+            final String sentTag = response.getHeader(HEADER_ETAG);
+            return sentTag != null && !sentTag.startsWith("W/") && ifRange.equals(sentTag);
+        }
+        final String sentLastModified = response.getHeader(HEADER_LAST_MODIFIED);
+        if (sentLastModified == null) {
+            return false;
+        }
+        try {
+            final long ifRangeDate = request.getDateHeader(HEADER_IF_RANGE);
+            final long sentDate = ZonedDateTime.parse(sentLastModified, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+            return ifRangeDate >= 0 && ifRangeDate / 1000 == sentDate / 1000; // HTTP date is by seconds
+        } catch (IllegalArgumentException | DateTimeParseException ignored) { // broken date
+            return false;
+        }
+    }
+
+    protected HttpServletRequest getDownloadRequest() {
+        return LaRequestUtil.getRequest();
+    }
+
+    protected boolean isSendfileAvailable(HttpServletRequest request, Path filePath) {
+        return Boolean.TRUE.equals(request.getAttribute(TOMCAT_SENDFILE_SUPPORT)) && filePath.getFileSystem() == FileSystems.getDefault();
+    }
+
+    protected void reserveSendfile(HttpServletRequest request, Path filePath, long start, long length) {
+        request.setAttribute(TOMCAT_SENDFILE_FILENAME, filePath.toAbsolutePath().toString());
+        request.setAttribute(TOMCAT_SENDFILE_START, Long.valueOf(start));
+        request.setAttribute(TOMCAT_SENDFILE_END, Long.valueOf(start + length)); // exclusive
+    }
+
+    protected void transferFileChannel(FileChannel channel, long start, long length, OutputStream out) throws IOException {
+        final WritableByteChannel target = Channels.newChannel(out);
+        long position = start;
+        long remaining = length;
+        try {
+            while (remaining > 0) {
+                final long transferred = channel.transferTo(position, remaining, target);
+                if (transferred <= 0) { // e.g. file truncated while downloading
+                    throw new IOException("The file was shortened while downloading: position=" + position + ", remaining=" + remaining);
+                }
+                position += transferred;
+                remaining -= transferred;
+            }
+        } catch (IOException e) {
+            throwDownloadIOException(e);
+        }
+    }
+
     // ===================================================================================
     //                                                                          Zip Stream
     //                                                                          ==========
     public void downloadZipStreamCall(ResponseDownloadResource resource, HttpServletResponse response) {
+        final Integer zipParallelism = resource.getZipParallelism();
+        if (zipParallelism != null && zipParallelism > 1 && zipDeflateExecutorProvider != null) {
+            downloadZipStreamParallel(resource, response, zipParallelism);
+            return;
+        }
         try (ZipOutputStream zipOus = new ZipOutputStream(response.getOutputStream(), getZipOutputCharset(resource))) {
-            final Map<String, WritternZipStreamWriter> zipWriterMap = createZipWriterMap(resource);
-            zipWriterMap.forEach((fileName, writer) -> {
-                try (ByteArrayOutputStream byteOus = new ByteArrayOutputStream()) {
-                    writer.write(byteOus);
+            final OutputStream entryOus = new ZipEntryShieldOutputStream(zipOus); // writer cannot close zip stream
+            final Set<String> fileNameSet = new HashSet<String>();
+            final WritternZipStreamCall zipStreamCall = resource.getZipStreamCall();
+            zipStreamCall.callback((fileName, writer) -> { // written directly (no buffering per entry)
+                assertZipEntryRegistration(fileNameSet, fileName, writer);
+                try {
                     zipOus.putNextEntry(new ZipEntry(fileName));
-                    byteOus.writeTo(zipOus);
+                    writer.write(entryOus);
+                    zipOus.closeEntry();
                 } catch (IOException e) {
-                    handleDownloadIOException(resource, fileName, e);
-                } finally {
-                    try {
-                        zipOus.closeEntry();
-                    } catch (IOException e) {
-                        handleDownloadIOException(resource, fileName, e);
-                    }
+                    handleZipEntryIOException(resource, fileName, e);
                 }
             });
+            assertZipEntryExists(zipStreamCall, fileNameSet);
         } catch (IOException e) {
             handleDownloadIOException(resource, e);
         }
     }
 
+    protected void downloadZipStreamParallel(ResponseDownloadResource resource, HttpServletResponse response, int zipParallelism) {
+        final Executor executor = prepareZipDeflateExecutor();
+        ResponseParallelZipWriter zipWriter = null;
+        try {
+            final OutputStream out = response.getOutputStream();
+            try {
+                zipWriter = newResponseParallelZipWriter(resource, out, executor, zipParallelism);
+                final ResponseParallelZipWriter registeredWriter = zipWriter;
+                final Set<String> fileNameSet = new HashSet<String>();
+                final WritternZipStreamCall zipStreamCall = resource.getZipStreamCall();
+                zipStreamCall.callback((fileName, writer) -> {
+                    assertZipEntryRegistration(fileNameSet, fileName, writer);
+                    registeredWriter.write(fileName, writer); // may write preceding entries
+                });
+                assertZipEntryExists(zipStreamCall, fileNameSet);
+                zipWriter.finish();
+            } finally {
+                if (zipWriter != null) {
+                    zipWriter.cancel(); // no-op if finished
+                }
+                closeDownloadStream(out);
+            }
+        } catch (IOException e) {
+            handleDownloadIOException(resource, isClientAbortIOException(e) ? newClientAbortIOException(e) : e);
+        }
+    }
+
+    protected Executor prepareZipDeflateExecutor() {
+        final Executor executor = zipDeflateExecutorProvider.get();
+        final ActionAsyncThreadContext threadContext = ActionAsyncThreadContext.capture(); // writers may use e.g. thread cache
+        return task -> executor.execute(() -> threadContext.carry(task));
+    }
+
+    protected ResponseParallelZipWriter newResponseParallelZipWriter(ResponseDownloadResource resource, OutputStream out,
+            Executor executor, int zipParallelism) {
+        return new ResponseParallelZipWriter(out, getZipOutputCharset(resource), executor, zipParallelism, Deflater.DEFAULT_COMPRESSION);
+    }
+
     protected Charset getZipOutputCharset(ResponseDownloadResource resource) {
         return Charset.forName(resource.getZipStreamCall().zipStreamEncoding());
     }
 
-    protected Map<String, WritternZipStreamWriter> createZipWriterMap(ResponseDownloadResource resource) throws IOException {
-        final WritternZipStreamCall zipStreamCall = resource.getZipStreamCall();
-        final Map<String, WritternZipStreamWriter> writerMap = new LinkedHashMap<String, WritternZipStreamWriter>();
-        zipStreamCall.callback((fileName, writer) -> {
-            assertArgumentNotNull("fileName", fileName);
-            assertArgumentNotNull("writer", writer);
-            writerMap.put(fileName, writer);
-        });
-        if (writerMap.isEmpty()) {
+    protected void assertZipEntryRegistration(Set<String> fileNameSet, String fileName, WritternZipStreamWriter writer) {
+        assertArgumentNotNull("fileName", fileName);
+        assertArgumentNotNull("writer", writer);
+        if (!fileNameSet.add(fileName)) { // cannot be overridden because already written
+            throw new IllegalStateException("Duplicate file name in the zip stream: " + fileName);
+        }
+    }
+
+    protected void assertZipEntryExists(WritternZipStreamCall zipStreamCall, Set<String> fileNameSet) {
+        if (fileNameSet.isEmpty()) {
             throw new IllegalStateException("The callback of zip stream should have at least one writer: " + zipStreamCall);
         }
-        return writerMap;
+    }
+
+    protected void handleZipEntryIOException(ResponseDownloadResource resource, String fileName, IOException e) throws IOException {
+        if (isClientAbortIOException(e)) { // no more entries can be written so handled by outer
+            throw newClientAbortIOException(e);
+        }
+        handleDownloadIOException(resource, fileName, e);
+    }
+
+    /**
+     * The output stream for zip entry writer, which ignores close() because the entry is closed by performer.
+     */
+    protected static class ZipEntryShieldOutputStream extends FilterOutputStream {
+
+        public ZipEntryShieldOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len); // not byte by byte
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush(); // entry is closed by performer
+        }
     }
 
     // ===================================================================================
     //                                                                        Stream Logic
     //                                                                        ============
+    protected OutputStream prepareDownloadOutputStream(ResponseDownloadResource resource, HttpServletResponse response, Long contentLength)
+            throws IOException {
+        if (responseCompressor != null) { // e.g. text/csv if compressible type, not zip
+            return responseCompressor.prepareOutputStream(getDownloadRequest(), response, resource.getContentType(), contentLength);
+        }
+        if (contentLength != null) {
+            response.setContentLengthLong(contentLength);
+        }
+        return response.getOutputStream();
+    }
+
     protected void writeDownloadStream(InputStream ins, OutputStream out) throws IOException {
         try {
             fromInputStreamToOutputStream(ins, out);
@@ -184,13 +442,21 @@ public class ResponseDownloadPerformer {
     //                                                                   =================
     protected void throwDownloadIOException(IOException e) throws IOException {
         if (isClientAbortIOException(e)) { // will catched immediately so simple message
-            throw new ResponseClientAbortIOException("Download was aborted by client.", e);
+            throw newClientAbortIOException(e);
         } else {
             throw e;
         }
     }
 
-    protected boolean isClientAbortIOException(IOException cause) {
+    protected ResponseClientAbortIOException newClientAbortIOException(IOException e) {
+        return new ResponseClientAbortIOException("Download was aborted by client.", e);
+    }
+
+    /**
+     * @param cause The IO exception from response stream. (NotNull)
+     * @return Is the exception client abort? (e.g. broken pipe of Jetty, ClientAbortException of Tomcat)
+     */
+    public boolean isClientAbortIOException(IOException cause) {
         return isJettyClientAbort(cause) || isTomcatClientAbort(cause);
     }
 
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2015-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.web.servlet.request;
+
+import org.dbflute.util.Srl;
+
+/**
+ * The byte range of download, parsed from Range header for e.g. resumable download. <br>
+ * Only single range is supported, multiple ranges are ignored (then whole content as 200).
+ * <pre>
+ * e.g. content length 1000
+ *  bytes=0-499     : 0-499 (500 bytes)
+ *  bytes=500-      : 500-999
+ *  bytes=-100      : 900-999 (last 100 bytes)
+ *  bytes=0-9999    : 0-999 (end is clipped)
+ *  bytes=1000-     : unsatisfiable (416)
+ *  bytes=0-1,5-9   : ignored (null)
+ *  items=0-1       : ignored (null)
+ * </pre>
+ * @author jflute
+ * @since 0.8.4
+ */
+public class ResponseDownloadRange {
+
+    // ===================================================================================
+    //                                                                          Definition
+    //                                                                          ==========
+    protected static final String BYTES_UNIT_PREFIX = "bytes=";
+
+    // ===================================================================================
+    //                                                                           Attribute
+    //                                                                           =========
+    protected final long start; // inclusive, -1 if unsatisfiable
+    protected final long end; // inclusive, -1 if unsatisfiable
+    protected final long entityLength; // whole length of the content
+
+    // ===================================================================================
+    //                                                                         Constructor
+    //                                                                         ===========
+    protected ResponseDownloadRange(long start, long end, long entityLength) {
+        this.start = start;
+        this.end = end;
+        this.entityLength = entityLength;
+    }
+
+    // ===================================================================================
+    //                                                                               Parse
+    //                                                                               =====
+    /**
+     * @param rangeHeader The value of Range header, e.g. bytes=0-499 (NullAllowed: then null)
+     * @param entityLength The whole length of the content. (NotMinus)
+     * @return The range of download. (NullAllowed: when no range or ignored e.g. multiple ranges, broken header)
+     */
+    public static ResponseDownloadRange parse(String rangeHeader, long entityLength) {
+        if (rangeHeader == null) {
+            return null;
+        }
+        final String trimmed = rangeHeader.trim();
+        if (!trimmed.regionMatches(true, 0, BYTES_UNIT_PREFIX, 0, BYTES_UNIT_PREFIX.length())) { // other unit
+            return null;
+        }
+        final String spec = trimmed.substring(BYTES_UNIT_PREFIX.length()).trim();
+        if (spec.contains(",") || !spec.contains("-")) { // multiple ranges (multipart/byteranges) or broken
+            return null;
+        }
+        final String first = Srl.substringFirstFront(spec, "-").trim();
+        final String last = Srl.substringFirstRear(spec, "-").trim();
+        try {
+            if (first.isEmpty()) { // suffix range, e.g. bytes=-100
+                final long suffixLength = Long.parseLong(last);
+                if (suffixLength <= 0 || entityLength == 0) {
+                    return unsatisfiable(entityLength);
+                }
+                return new ResponseDownloadRange(Math.max(0, entityLength - suffixLength), entityLength - 1, entityLength);
+            }
+            final long start = Long.parseLong(first);
+            final Long end = last.isEmpty() ? null : Long.parseLong(last); // null means to the end
+            if (start < 0 || (end != null && end < start)) { // broken
+                return null;
+            }
+            if (start >= entityLength) {
+                return unsatisfiable(entityLength);
+            }
+            return new ResponseDownloadRange(start, end != null ? Math.min(end, entityLength - 1) : entityLength - 1, entityLength);
+        } catch (NumberFormatException ignored) { // broken header
+            return null;
+        }
+    }
+
+    protected static ResponseDownloadRange unsatisfiable(long entityLength) {
+        return new ResponseDownloadRange(-1, -1, entityLength);
+    }
+
+    // ===================================================================================
+    //                                                                        Header Value
+    //                                                                        ============
+    /**
+     * @return The value of Content-Range header, e.g. bytes 0-499/1000, bytes &#42;/1000 (if unsatisfiable) (NotNull)
+     */
+    public String buildContentRange() {
+        return "bytes " + (isSatisfiable() ? start + "-" + end : "*") + "/" + entityLength;
+    }
+
+    // ===================================================================================
+    //                                                                      Basic Override
+    //                                                                      ==============
+    @Override
+    public String toString() {
+        return "range:{" + buildContentRange() + "}";
+    }
+
+    // ===================================================================================
+    //                                                                            Accessor
+    //                                                                            ========
+    /**
+     * @return Is the range satisfiable? (false means 416 Range Not Satisfiable)
+     */
+    public boolean isSatisfiable() {
+        return start >= 0;
+    }
+
+    public long getStart() {
+        return start;
+    }
+
+    public long getEnd() {
+        return end;
+    }
+
+    /**
+     * @return The length of the range. (zero if unsatisfiable)
+     */
+    public long getLength() {
+        return isSatisfiable() ? end - start + 1 : 0;
+    }
+
+    public long getEntityLength() {
+        return entityLength;
+    }
+}
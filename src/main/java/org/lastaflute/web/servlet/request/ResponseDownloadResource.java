@@ -15,6 +15,7 @@
  */
 package org.lastaflute.web.servlet.request;
 
+import java.nio.file.Path;
 import java.util.Map;
 
 import org.dbflute.helper.StringKeyMap;
@@ -35,6 +36,8 @@ public class ResponseDownloadResource {
     protected byte[] byteData;
     protected WritternStreamCall streamCall;
     protected WritternZipStreamCall zipStreamCall;
+    protected Integer zipParallelism; // null allowed: not parallel
+    protected Path filePath;
     protected Integer contentLength;
     protected boolean returnAsEmptyBody;
 
@@ -124,6 +127,7 @@ public class ResponseDownloadResource {
         if (zipStreamCall != null) {
             throw new IllegalStateException("The zipStreamCall already exists: " + zipStreamCall);
         }
+        assertFilePathNotExists();
         this.byteData = data;
     }
 
@@ -146,6 +150,7 @@ public class ResponseDownloadResource {
         if (zipStreamCall != null) {
             throw new IllegalStateException("The zipStreamCall already exists: " + zipStreamCall);
         }
+        assertFilePathNotExists();
         this.streamCall = streamCall;
     }
 
@@ -162,9 +167,50 @@ public class ResponseDownloadResource {
         if (streamCall != null) {
             throw new IllegalStateException("The streamCall already exists: " + streamCall);
         }
+        assertFilePathNotExists();
         this.zipStreamCall = zipStreamCall;
     }
 
+    /**
+     * Deflate the entries of zip stream in parallel, keeping the entry order.
+     * @param zipParallelism The max count of entries written and deflated at the same time. (NotMinus, NotZero)
+     * @return this. (NotNull)
+     */
+    public ResponseDownloadResource zipParallelism(int zipParallelism) {
+        if (zipParallelism <= 0) {
+            throw new IllegalArgumentException("The argument 'zipParallelism' should be positive: " + zipParallelism);
+        }
+        this.zipParallelism = zipParallelism;
+        return this;
+    }
+
+    /**
+     * Download the file by the path, written by file channel with content length. <br>
+     * Range request (e.g. resumable download) is also supported for the file.
+     * @param filePath The path of the file to download. (NotNull)
+     * @return this. (NotNull)
+     */
+    public ResponseDownloadResource file(Path filePath) {
+        assertArgumentNotNull("filePath", filePath);
+        if (byteData != null) {
+            throw new IllegalStateException("The byte data already exists: " + byteData);
+        }
+        if (streamCall != null) {
+            throw new IllegalStateException("The streamCall already exists: " + streamCall);
+        }
+        if (zipStreamCall != null) {
+            throw new IllegalStateException("The zipStreamCall already exists: " + zipStreamCall);
+        }
+        this.filePath = filePath;
+        return this;
+    }
+
+    protected void assertFilePathNotExists() {
+        if (filePath != null) {
+            throw new IllegalStateException("The file path already exists: " + filePath);
+        }
+    }
+
     public boolean hasByteData() {
         return byteData != null;
     }
@@ -189,6 +235,18 @@ public class ResponseDownloadResource {
         return zipStreamCall;
     }
 
+    public Integer getZipParallelism() {
+        return zipParallelism;
+    }
+
+    public boolean hasFilePath() {
+        return filePath != null;
+    }
+
+    public Path getFilePath() {
+        return filePath;
+    }
+
     public Integer getContentLength() {
         return contentLength;
     }
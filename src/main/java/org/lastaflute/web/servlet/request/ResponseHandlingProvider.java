@@ -17,6 +17,8 @@ package org.lastaflute.web.servlet.request;
 
 import java.util.Map;
 
+import org.lastaflute.web.servlet.request.compression.ResponseCompressionOption;
+
 /**
  * The provider of response handling.
  * @author jflute
@@ -27,4 +29,22 @@ public interface ResponseHandlingProvider {
      * @return The map of content type for extensions. (NullAllowed)
      */
     Map<String, String> provideDownloadExtensionContentTypeMap();
+
+    /**
+     * Provide the max size of response bytes cache, used by e.g. JSON response of cacheSerialized(). <br>
+     * Only opted-in responses are cached so the cache is enabled as default.
+     * @return The max size of total cached bytes. (zero or minus means no cache, the opted-in responses are serialized per request)
+     */
+    default long provideResponseBytesCacheMaxBytes() {
+        return 16L * 1024L * 1024L; // 16MB
+    }
+
+    /**
+     * Provide the option of response compression (e.g. gzip) by Accept-Encoding, content type and size. <br>
+     * It is applied to text writing (e.g. JSON, XML) and download by byte data or stream.
+     * @return The option of response compression. (NullAllowed: then no compression, e.g. compressed by proxy)
+     */
+    default ResponseCompressionOption provideResponseCompressionOption() {
+        return null;
+    }
 }
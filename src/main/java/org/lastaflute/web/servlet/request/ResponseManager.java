@@ -16,6 +16,11 @@
 package org.lastaflute.web.servlet.request;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletResponse;
@@ -23,6 +28,7 @@ import javax.servlet.http.HttpServletResponse;
 import org.dbflute.optional.OptionalThing;
 import org.lastaflute.core.message.UserMessages;
 import org.lastaflute.web.servlet.request.stream.WritternStreamCall;
+import org.lastaflute.web.servlet.request.stream.WritternTextCall;
 
 /**
  * The manager of response. (response facade)
@@ -117,6 +123,61 @@ public interface ResponseManager {
      */
     void writeAsXml(String xmlStr, String encoding);
 
+    /**
+     * Write the text to the response incrementally, without whole text string. <br>
+     * If the callback fails, the written text is not flushed and the response buffer is reset
+     * if not committed yet, but the text over the buffers may have been already sent. <br>
+     * The default implementation writes the whole string so you should override it for streaming.
+     * @param textLambda The callback to write the text to the response writer. (NotNull)
+     * @param contentType The content type of the response. (NotNull)
+     * @param encoding The encoding for the response. (NullAllowed: then request encoding or UTF-8)
+     */
+    default void write(WritternTextCall textLambda, String contentType, String encoding) {
+        write(buildWrittenText(textLambda), contentType, encoding);
+    }
+
+    /**
+     * The default implementation writes the whole string so you should override it for streaming.
+     * @param jsonLambda The callback to write JSON to the response writer, e.g. streaming JSON. (NotNull)
+     */
+    default void writeAsJson(WritternTextCall jsonLambda) {
+        writeAsJson(buildWrittenText(jsonLambda));
+    }
+
+    /**
+     * The default implementation writes the whole string so you should override it for streaming.
+     * @param scriptLambda The callback to write script to the response writer, e.g. JSONP. (NotNull)
+     */
+    default void writeAsJavaScript(WritternTextCall scriptLambda) {
+        writeAsJavaScript(buildWrittenText(scriptLambda));
+    }
+
+    /**
+     * @param textLambda The callback to write the text to the writer. (NotNull)
+     * @return The whole string of the written text. (NotNull, EmptyAllowed)
+     */
+    default String buildWrittenText(WritternTextCall textLambda) {
+        final StringWriter writer = new StringWriter();
+        try {
+            textLambda.callback(writer);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to write the text to the string writer: " + textLambda, e);
+        }
+        return writer.toString();
+    }
+
+    /**
+     * Write the already-encoded bytes to the response output stream as they are, with content length. <br>
+     * e.g. serialized JSON from response bytes cache
+     * @param bytes The encoded bytes of the text, should not be modified. (NotNull)
+     * @param contentType The content type of the response. (NotNull)
+     * @param encoding The encoding that the bytes are encoded by. (NotNull)
+     */
+    default void write(byte[] bytes, String contentType, String encoding) {
+        // the default implementation writes them as text so you should override it for e.g. gzipped bytes
+        write(new String(bytes, Charset.forName(encoding)), contentType, encoding);
+    }
+
     // ===================================================================================
     //                                                                   Download Response
     //                                                                   =================
@@ -159,6 +220,24 @@ public interface ResponseManager {
      */
     void download(String fileName, WritternStreamCall writtenStreamLambda, int contentLength);
 
+    /**
+     * Download the file by the path, with content length and range request support. <br>
+     * Default Content-type is 'application/octet-stream' (or by extension), Content-disposition is 'attachment'.
+     * <pre>
+     * responseManager.<span style="color: #CC4747">download</span>("sea.zip", <span style="color: #553000">archivePath</span>);
+     * </pre>
+     * @param fileName The file name as 'filename' used in the header. (NotNull)
+     * @param filePath The path of the file to download. (NotNull)
+     */
+    default void download(String fileName, Path filePath) {
+        // the default implementation streams the whole file so you should override it for range request
+        download(fileName, out -> {
+            try (InputStream ins = Files.newInputStream(filePath)) {
+                out.write(ins);
+            }
+        });
+    }
+
     /**
      * Download the resource by flexible settings. <br>
      * Default Content-type is 'application/octet-stream', Content-disposition is 'attachment'.
@@ -166,6 +245,17 @@ public interface ResponseManager {
      */
     void download(ResponseDownloadResource resource);
 
+    // ===================================================================================
+    //                                                                         Bytes Cache
+    //                                                                         ===========
+    /**
+     * Get the cache of serialized response bytes, e.g. for JSON response of cacheSerialized().
+     * @return The optional bytes cache. (NotNull, EmptyAllowed: when no cache size or hot deploy)
+     */
+    default OptionalThing<ResponseBytesCache> getResponseBytesCache() {
+        return OptionalThing.empty(); // no cache as default, serialized per request
+    }
+
     // ===================================================================================
     //                                                                     Header Handling
     //                                                                     ===============
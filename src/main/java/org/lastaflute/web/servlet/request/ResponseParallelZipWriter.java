@@ -0,0 +1,450 @@
+/*
+ * Copyright 2015-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.web.servlet.request;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.function.BooleanSupplier;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+import org.lastaflute.web.servlet.request.stream.WritternZipStreamWriter;
+
+/**
+ * The writer of zip stream whose entries are written and deflated in parallel, keeping the registration order. <br>
+ * Each entry is written by its writer into deflater on the executor, and the deflated entries are written
+ * to the response stream in order, so only compressed bytes of in-flight entries (up to parallelism) are held. <br>
+ * The zip format is written here because ZipOutputStream cannot accept deflated data.
+ * The file names should be unique, which is checked by caller e.g. download performer.
+ * (no ZIP64: each entry and the whole zip should be under 4GB, and entries under 65535)
+ * @author jflute
+ * @since 0.8.4
+ */
+public class ResponseParallelZipWriter {
+
+    // ===================================================================================
+    //                                                                          Definition
+    //                                                                          ==========
+    protected static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+    protected static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+    protected static final int END_OF_CENTRAL_SIGNATURE = 0x06054b50;
+    protected static final int VERSION_DEFLATE = 20; // 2.0
+    protected static final int METHOD_DEFLATED = 8;
+    protected static final int FLAG_UTF8_NAME = 0x0800; // language encoding flag (EFS)
+    protected static final long MAX_UINT32 = 0xFFFFFFFFL;
+    protected static final int MAX_ENTRY_COUNT = 0xFFFF;
+
+    // ===================================================================================
+    //                                                                           Attribute
+    //                                                                           =========
+    protected final OutputStream out; // not null, response stream
+    protected final Charset fileNameCharset; // not null
+    protected final Executor executor; // not null
+    protected final int parallelism; // positive
+    protected final int compressionLevel;
+    protected final Deque<PendingEntry> pendingQueue = new ArrayDeque<PendingEntry>(); // in registration order
+    protected final List<WrittenEntry> writtenList = new ArrayList<WrittenEntry>();
+    protected int entryCount; // registered entries
+    protected long writtenLength; // offset of next local header
+    protected boolean finished;
+    protected volatile boolean cancelled; // referred by executor threads
+
+    // ===================================================================================
+    //                                                                         Constructor
+    //                                                                         ===========
+    /**
+     * @param out The output stream of response, not closed here. (NotNull)
+     * @param fileNameCharset The charset of entry file name. (NotNull)
+     * @param executor The executor to write and deflate entries, should be bounded. (NotNull)
+     * @param parallelism The max count of entries in flight, should be positive.
+     * @param compressionLevel The level of compression, 1 (speed) to 9 (size), or -1 as default.
+     */
+    public ResponseParallelZipWriter(OutputStream out, Charset fileNameCharset, Executor executor, int parallelism,
+            int compressionLevel) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("The argument 'parallelism' should be positive: " + parallelism);
+        }
+        this.out = out;
+        this.fileNameCharset = fileNameCharset;
+        this.executor = executor;
+        this.parallelism = parallelism;
+        this.compressionLevel = compressionLevel;
+    }
+
+    // ===================================================================================
+    //                                                                         Write Entry
+    //                                                                         ===========
+    /**
+     * Register the entry to be written and deflated on the executor. <br>
+     * It waits for the oldest entry to be written if the in-flight entries reach the parallelism.
+     * @param fileName The file name of the entry in zip. (NotNull)
+     * @param writer The writer of the entry content, called on the executor thread. (NotNull)
+     * @throws IOException When it fails to write the entry or preceding entries.
+     */
+    public void write(String fileName, WritternZipStreamWriter writer) throws IOException {
+        if (finished) {
+            throw new IllegalStateException("Already finished the zip: " + fileName);
+        }
+        if (++entryCount > MAX_ENTRY_COUNT) {
+            throw new IOException("Too many entries for the parallel zip (no ZIP64): max=" + MAX_ENTRY_COUNT);
+        }
+        while (pendingQueue.size() >= parallelism) { // bounded in-flight entries
+            writeHeadEntry();
+        }
+        final PendingEntry pending = new PendingEntry(fileName, LocalDateTime.now());
+        pending.future = CompletableFuture.supplyAsync(() -> {
+            return deflateEntry(pending, writer);
+        }, executor);
+        pendingQueue.addLast(pending);
+    }
+
+    protected DeflatedEntry deflateEntry(PendingEntry pending, WritternZipStreamWriter writer) { // executor thread
+        final String fileName = pending.fileName;
+        if (!pending.startRunning()) { // cancelled before running
+            throw new ParallelZipEntryFailureException(fileName, new InterruptedIOException("Cancelled the zip entry."));
+        }
+        try {
+            return doDeflateEntry(fileName, writer);
+        } finally {
+            pending.finishRunning();
+        }
+    }
+
+    protected DeflatedEntry doDeflateEntry(String fileName, WritternZipStreamWriter writer) {
+        final ByteArrayOutputStream deflatedOut = new ByteArrayOutputStream();
+        final Deflater deflater = new Deflater(compressionLevel, /*nowrap*/true); // raw deflate for zip
+        final CRC32 crc = new CRC32();
+        try {
+            final DeflaterOutputStream deflaterOut = new DeflaterOutputStream(deflatedOut, deflater, 8192);
+            writer.write(new EntryShieldOutputStream(new CheckedOutputStream(deflaterOut, crc), () -> cancelled));
+            deflaterOut.finish();
+            return new DeflatedEntry(deflatedOut, crc.getValue(), deflater.getBytesRead());
+        } catch (IOException e) {
+            throw new ParallelZipEntryFailureException(fileName, e);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    protected void writeHeadEntry() throws IOException { // request thread
+        final PendingEntry pending = pendingQueue.removeFirst();
+        final DeflatedEntry deflated = waitForDeflated(pending);
+        final long compressedSize = deflated.deflatedOut.size();
+        if (deflated.plainSize > MAX_UINT32 || compressedSize > MAX_UINT32 || writtenLength > MAX_UINT32) {
+            throw new IOException("Too large entry for the parallel zip (no ZIP64): " + pending.fileName);
+        }
+        final WrittenEntry entry = new WrittenEntry(encodeFileName(pending.fileName), toDosTime(pending.entryTime), deflated.crc,
+                compressedSize, deflated.plainSize, writtenLength);
+        writeLocalHeader(entry);
+        deflated.deflatedOut.writeTo(out);
+        writtenLength += compressedSize;
+        writtenList.add(entry);
+    }
+
+    protected DeflatedEntry waitForDeflated(PendingEntry pending) throws IOException {
+        try {
+            return pending.future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while deflating the zip entry: " + pending.fileName);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof ParallelZipEntryFailureException) { // from writer
+                throw new IOException(cause.getMessage(), cause.getCause());
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException("Failed to deflate the zip entry: " + pending.fileName, cause);
+        }
+    }
+
+    // ===================================================================================
+    //                                                                              Finish
+    //                                                                              ======
+    /**
+     * Write all remaining entries and central directory. (the output stream is not closed)
+     * @throws IOException When it fails to write the entries.
+     */
+    public void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        while (!pendingQueue.isEmpty()) {
+            writeHeadEntry();
+        }
+        finished = true;
+        final long centralOffset = writtenLength;
+        for (WrittenEntry entry : writtenList) {
+            writeCentralHeader(entry);
+        }
+        final long centralSize = writtenLength - centralOffset;
+        if (centralOffset > MAX_UINT32 || centralSize > MAX_UINT32) {
+            throw new IOException("Too large zip for the parallel zip (no ZIP64): " + writtenLength);
+        }
+        writeEndOfCentral(writtenList.size(), centralSize, centralOffset);
+        out.flush();
+    }
+
+    /**
+     * Cancel the in-flight entries, e.g. when failure. (the output stream is not closed) <br>
+     * Running writers are interrupted and their writing fails at next write,
+     * and this waits for them to end so that they do not run after the request.
+     */
+    public void cancel() {
+        cancelled = true; // not-started writers are skipped
+        for (PendingEntry pending : pendingQueue) {
+            pending.interruptRunning();
+        }
+        for (PendingEntry pending : pendingQueue) {
+            if (!awaitCancelledEntry(pending)) { // interrupted request thread
+                break;
+            }
+        }
+        pendingQueue.clear();
+        finished = true;
+    }
+
+    protected boolean awaitCancelledEntry(PendingEntry pending) {
+        try {
+            pending.future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException ignored) { // failure by cancel is expected
+        }
+        return true;
+    }
+
+    // ===================================================================================
+    //                                                                         Zip Headers
+    //                                                                         ===========
+    protected void writeLocalHeader(WrittenEntry entry) throws IOException {
+        writeInt(LOCAL_HEADER_SIGNATURE);
+        writeShort(VERSION_DEFLATE); // version needed to extract
+        writeShort(buildGeneralFlag());
+        writeShort(METHOD_DEFLATED);
+        writeInt(entry.dosTime);
+        writeInt(entry.crc);
+        writeInt(entry.compressedSize);
+        writeInt(entry.plainSize);
+        writeShort(entry.encodedName.length);
+        writeShort(0); // extra field length
+        writeBytes(entry.encodedName);
+    }
+
+    protected void writeCentralHeader(WrittenEntry entry) throws IOException {
+        writeInt(CENTRAL_HEADER_SIGNATURE);
+        writeShort(VERSION_DEFLATE); // version made by
+        writeShort(VERSION_DEFLATE); // version needed to extract
+        writeShort(buildGeneralFlag());
+        writeShort(METHOD_DEFLATED);
+        writeInt(entry.dosTime);
+        writeInt(entry.crc);
+        writeInt(entry.compressedSize);
+        writeInt(entry.plainSize);
+        writeShort(entry.encodedName.length);
+        writeShort(0); // extra field length
+        writeShort(0); // file comment length
+        writeShort(0); // disk number start
+        writeShort(0); // internal file attributes
+        writeInt(0); // external file attributes
+        writeInt(entry.localHeaderOffset);
+        writeBytes(entry.encodedName);
+    }
+
+    protected void writeEndOfCentral(int entryCount, long centralSize, long centralOffset) throws IOException {
+        writeInt(END_OF_CENTRAL_SIGNATURE);
+        writeShort(0); // number of this disk
+        writeShort(0); // disk where central directory starts
+        writeShort(entryCount); // on this disk
+        writeShort(entryCount); // total
+        writeInt(centralSize);
+        writeInt(centralOffset);
+        writeShort(0); // comment length
+    }
+
+    protected int buildGeneralFlag() {
+        return StandardCharsets.UTF_8.equals(fileNameCharset) ? FLAG_UTF8_NAME : 0;
+    }
+
+    protected byte[] encodeFileName(String fileName) throws IOException {
+        final byte[] encoded = fileName.getBytes(fileNameCharset);
+        if (encoded.length > 0xFFFF) {
+            throw new IOException("Too long file name in the zip: " + fileName);
+        }
+        return encoded;
+    }
+
+    protected long toDosTime(LocalDateTime time) {
+        final int year = Math.max(time.getYear(), 1980); // DOS time starts from 1980
+        final long dosDate = ((year - 1980) << 9) | (time.getMonthValue() << 5) | time.getDayOfMonth();
+        final long dosTime = (time.getHour() << 11) | (time.getMinute() << 5) | (time.getSecond() >> 1);
+        return (dosDate << 16) | dosTime;
+    }
+
+    protected void writeShort(int value) throws IOException { // little endian
+        out.write(value & 0xFF);
+        out.write((value >>> 8) & 0xFF);
+        writtenLength += 2;
+    }
+
+    protected void writeInt(long value) throws IOException { // little endian
+        out.write((int) (value & 0xFF));
+        out.write((int) ((value >>> 8) & 0xFF));
+        out.write((int) ((value >>> 16) & 0xFF));
+        out.write((int) ((value >>> 24) & 0xFF));
+        writtenLength += 4;
+    }
+
+    protected void writeBytes(byte[] bytes) throws IOException {
+        out.write(bytes);
+        writtenLength += bytes.length;
+    }
+
+    // ===================================================================================
+    //                                                                        Entry Holder
+    //                                                                        ============
+    protected static class PendingEntry {
+
+        protected final String fileName;
+        protected final LocalDateTime entryTime;
+        protected CompletableFuture<DeflatedEntry> future; // not null after registration
+        protected Thread runner; // null allowed: not running, guarded by this
+        protected boolean interrupted; // guarded by this
+
+        public PendingEntry(String fileName, LocalDateTime entryTime) {
+            this.fileName = fileName;
+            this.entryTime = entryTime;
+        }
+
+        public synchronized boolean startRunning() { // executor thread
+            if (interrupted) {
+                return false;
+            }
+            runner = Thread.currentThread();
+            return true;
+        }
+
+        public synchronized void finishRunning() { // executor thread
+            runner = null;
+            if (interrupted) {
+                Thread.interrupted(); // clear interruption by cancel not to affect pooled thread
+            }
+        }
+
+        public synchronized void interruptRunning() { // request thread
+            interrupted = true;
+            if (runner != null) {
+                runner.interrupt(); // e.g. sleeping or blocking writer
+            }
+        }
+    }
+
+    protected static class DeflatedEntry {
+
+        protected final ByteArrayOutputStream deflatedOut;
+        protected final long crc;
+        protected final long plainSize;
+
+        public DeflatedEntry(ByteArrayOutputStream deflatedOut, long crc, long plainSize) {
+            this.deflatedOut = deflatedOut;
+            this.crc = crc;
+            this.plainSize = plainSize;
+        }
+    }
+
+    protected static class WrittenEntry {
+
+        protected final byte[] encodedName;
+        protected final long dosTime;
+        protected final long crc;
+        protected final long compressedSize;
+        protected final long plainSize;
+        protected final long localHeaderOffset;
+
+        public WrittenEntry(byte[] encodedName, long dosTime, long crc, long compressedSize, long plainSize, long localHeaderOffset) {
+            this.encodedName = encodedName;
+            this.dosTime = dosTime;
+            this.crc = crc;
+            this.compressedSize = compressedSize;
+            this.plainSize = plainSize;
+            this.localHeaderOffset = localHeaderOffset;
+        }
+    }
+
+    /**
+     * The output stream for entry writer, which ignores close() not to close the deflater too early,
+     * and fails when the zip is cancelled.
+     */
+    protected static class EntryShieldOutputStream extends FilterOutputStream {
+
+        protected final BooleanSupplier cancelledDeterminer;
+
+        public EntryShieldOutputStream(OutputStream out, BooleanSupplier cancelledDeterminer) {
+            super(out);
+            this.cancelledDeterminer = cancelledDeterminer;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            assertNotCancelled();
+            out.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            assertNotCancelled();
+            out.write(b, off, len); // not byte by byte
+        }
+
+        protected void assertNotCancelled() throws IOException {
+            if (cancelledDeterminer.getAsBoolean()) {
+                throw new InterruptedIOException("Cancelled the zip while writing the entry.");
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush(); // finished by the zip writer
+        }
+    }
+
+    protected static class ParallelZipEntryFailureException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        public ParallelZipEntryFailureException(String fileName, IOException cause) {
+            super("Failed to write the zip entry: " + fileName, cause);
+        }
+    }
+}
@@ -15,10 +15,20 @@
  */
 package org.lastaflute.web.servlet.request;
 
+import java.io.BufferedWriter;
+import java.io.FilterWriter;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.file.Path;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.Resource;
@@ -27,16 +37,24 @@ import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import org.dbflute.optional.OptionalThing;
 import org.dbflute.util.Srl;
 import org.lastaflute.core.direction.FwAssistantDirector;
 import org.lastaflute.core.message.UserMessages;
+import org.lastaflute.core.smartdeploy.ManagedHotdeploy;
 import org.lastaflute.core.util.ContainerUtil;
+import org.lastaflute.di.DisposableUtil;
 import org.lastaflute.web.direction.FwWebDirection;
 import org.lastaflute.web.exception.Forced400BadRequestException;
 import org.lastaflute.web.exception.Forced403ForbiddenException;
 import org.lastaflute.web.exception.Forced404NotFoundException;
+import org.lastaflute.web.exception.ResponseClientAbortIOException;
 import org.lastaflute.web.path.ActionPathResolver;
+import org.lastaflute.web.servlet.request.compression.ResponseCompressionOption;
+import org.lastaflute.web.servlet.request.compression.ResponseCompressionOutputStream;
+import org.lastaflute.web.servlet.request.compression.ResponseCompressor;
 import org.lastaflute.web.servlet.request.stream.WritternStreamCall;
+import org.lastaflute.web.servlet.request.stream.WritternTextCall;
 import org.lastaflute.web.util.LaRequestUtil;
 import org.lastaflute.web.util.LaResponseUtil;
 import org.slf4j.Logger;
@@ -67,6 +85,15 @@ public class SimpleResponseManager implements ResponseManager {
     /** The map of content type for extensions. (NullAllowed) */
     protected Map<String, String> downloadExtensionContentTypeMap;
 
+    /** The cache of serialized response bytes. (NullAllowed: when no cache size or hot deploy) */
+    protected ResponseBytesCache responseBytesCache;
+
+    /** The compressor of response body e.g. gzip. (NullAllowed: when no compression option) */
+    protected ResponseCompressor responseCompressor;
+
+    /** The service of executor for parallel zip deflate. (NullAllowed: lazy-loaded) */
+    protected volatile ExecutorService zipDeflateExecutorService;
+
     // ===================================================================================
     //                                                                          Initialize
     //                                                                          ==========
@@ -81,6 +108,8 @@ public class SimpleResponseManager implements ResponseManager {
         if (provider != null) {
             downloadExtensionContentTypeMap = provider.provideDownloadExtensionContentTypeMap();
         }
+        responseBytesCache = createResponseBytesCache(provider);
+        responseCompressor = createResponseCompressor(provider);
         showBootLogging();
     }
 
@@ -88,10 +117,30 @@ public class SimpleResponseManager implements ResponseManager {
         return assistantDirector.assistWebDirection();
     }
 
+    protected ResponseBytesCache createResponseBytesCache(ResponseHandlingProvider provider) {
+        final long maxBytes = provider != null ? provider.provideResponseBytesCacheMaxBytes() : getDefaultResponseBytesCacheMaxBytes();
+        return maxBytes > 0 && !ManagedHotdeploy.isHotdeploy() ? new ResponseBytesCache(maxBytes) : null;
+    }
+
+    protected long getDefaultResponseBytesCacheMaxBytes() { // when no provider
+        return 16L * 1024L * 1024L; // same as provider's default
+    }
+
+    protected ResponseCompressor createResponseCompressor(ResponseHandlingProvider provider) {
+        final ResponseCompressionOption option = provider != null ? provider.provideResponseCompressionOption() : null;
+        return option != null ? new ResponseCompressor(option) : null;
+    }
+
     protected void showBootLogging() {
         if (logger.isInfoEnabled()) {
             logger.info("[Response Manager]");
             logger.info(" downloadExtensionContentTypeMap: " + downloadExtensionContentTypeMap);
+            if (responseBytesCache != null) {
+                logger.info(" responseBytesCache: " + responseBytesCache);
+            }
+            if (responseCompressor != null) {
+                logger.info(" responseCompressor: " + responseCompressor);
+            }
         }
     }
 
@@ -208,6 +257,33 @@ public class SimpleResponseManager implements ResponseManager {
         write(xmlStr, contentType, encoding);
     }
 
+    @Override
+    public void write(WritternTextCall textLambda, String contentType, String encoding) {
+        assertArgumentNotNull("textLambda", textLambda);
+        assertArgumentNotNull("contentType", contentType);
+        doWrite(textLambda, contentType, encoding);
+    }
+
+    @Override
+    public void writeAsJson(WritternTextCall jsonLambda) {
+        assertArgumentNotNull("jsonLambda", jsonLambda);
+        write(jsonLambda, "application/json", null);
+    }
+
+    @Override
+    public void writeAsJavaScript(WritternTextCall scriptLambda) {
+        assertArgumentNotNull("scriptLambda", scriptLambda);
+        write(scriptLambda, "application/javascript", null);
+    }
+
+    @Override
+    public void write(byte[] bytes, String contentType, String encoding) {
+        assertArgumentNotNull("bytes", bytes);
+        assertArgumentNotNull("contentType", contentType);
+        assertArgumentNotNull("encoding", encoding);
+        doWrite(bytes, contentType, encoding);
+    }
+
     protected void showWritingResponse(String value, String contentType) {
         if (logger.isDebugEnabled()) {
             // to suppress noisy big data (no need all data for debug: also you can see it by response)
@@ -242,7 +318,7 @@ public class SimpleResponseManager implements ResponseManager {
         try {
             PrintWriter out = null;
             try {
-                out = new PrintWriter(new OutputStreamWriter(response.getOutputStream(), encoding));
+                out = new PrintWriter(new OutputStreamWriter(prepareWritingOutputStream(response, contentType, null), encoding));
                 out.print(text);
             } finally {
                 if (out != null) {
@@ -255,6 +331,183 @@ public class SimpleResponseManager implements ResponseManager {
         }
     }
 
+    protected void doWrite(WritternTextCall textLambda, String contentType, String encoding) {
+        if (encoding == null) {
+            encoding = LaRequestUtil.getRequest().getCharacterEncoding();
+            if (encoding == null) {
+                encoding = "UTF-8";
+            }
+        }
+        final HttpServletResponse response = getResponse();
+        response.setContentType(contentType + "; charset=" + encoding);
+        final ResponsePrefixCaptureWriter captureWriter;
+        try {
+            // buffered writer encodes the text to bytes in chunks so the whole text is not needed
+            final OutputStream ous = prepareWritingOutputStream(response, contentType, null);
+            final Writer out = new BufferedWriter(new OutputStreamWriter(ous, encoding), getWritingBufferSize());
+            boolean written = false;
+            try {
+                captureWriter = logger.isDebugEnabled() ? new ResponsePrefixCaptureWriter(out, getDebugDisplayLimit()) : null;
+                callbackWrittenText(textLambda, captureWriter != null ? captureWriter : out);
+                written = true;
+            } finally {
+                if (written) {
+                    out.close();
+                } else { // not flush partial text e.g. broken JSON
+                    discardFailedWriting(response, ous);
+                }
+            }
+        } catch (IOException e) {
+            if (isClientAbortIOException(e)) { // e.g. huge JSON array stream
+                handleWritingClientAbort(contentType, e);
+                return;
+            }
+            String msg = "Failed to write the text: contentType=" + contentType + ", encoding=" + encoding;
+            throw new IllegalStateException(msg, e);
+        }
+        if (captureWriter != null) { // debug enabled
+            final String exp = captureWriter.getCapturedPrefix() + (captureWriter.isTruncated() ? "..." : "");
+            logger.debug("#flow ...Writing response as {} (streaming): \n{}", contentType, exp);
+        }
+    }
+
+    protected void callbackWrittenText(WritternTextCall textLambda, Writer writer) throws IOException {
+        try {
+            textLambda.callback(writer);
+        } catch (RuntimeException e) { // e.g. JsonIOException of Gson
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException) { // IO failure wrapped by e.g. JSON parser, may be client abort
+                throw (IOException) cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Discard the written text when the callback fails. <br>
+     * The buffered text is not flushed, and the response buffer is reset if not committed yet
+     * so that the error handling can send its own response (e.g. 500). <br>
+     * If already committed (e.g. the text is larger than the buffers, or flushed by the callback),
+     * the partial text has been sent with the status, and the client receives the truncated text.
+     * @param response The response of the failed writing. (NotNull)
+     * @param out The output stream for the text, might be compressing stream. (NotNull)
+     */
+    protected void discardFailedWriting(HttpServletResponse response, OutputStream out) {
+        if (response.isCommitted()) {
+            return; // cannot discard
+        }
+        if (out instanceof ResponseCompressionOutputStream && ((ResponseCompressionOutputStream) out).isCompressing()) {
+            response.reset(); // also remove Content-Encoding header, for plain error response
+        } else {
+            response.resetBuffer();
+        }
+    }
+
+    protected void doWrite(byte[] bytes, String contentType, String encoding) {
+        final HttpServletResponse response = getResponse();
+        response.setContentType(contentType + "; charset=" + encoding);
+        try {
+            final OutputStream out = prepareWritingOutputStream(response, contentType, (long) bytes.length);
+            try {
+                out.write(bytes); // already encoded so no writer
+            } finally {
+                out.close();
+            }
+        } catch (IOException e) {
+            if (isClientAbortIOException(e)) {
+                handleWritingClientAbort(contentType, e);
+                return;
+            }
+            String msg = "Failed to write the bytes: contentType=" + contentType + ", encoding=" + encoding + ", length=" + bytes.length;
+            throw new IllegalStateException(msg, e);
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("#flow ...Writing response as {} (bytes): length={}", contentType, bytes.length);
+        }
+    }
+
+    protected OutputStream prepareWritingOutputStream(HttpServletResponse response, String contentType, Long contentLength)
+            throws IOException {
+        if (responseCompressor != null) { // compressed if accepted and compressible
+            return responseCompressor.prepareOutputStream(LaRequestUtil.getRequest(), response, contentType, contentLength);
+        }
+        if (contentLength != null) {
+            response.setContentLengthLong(contentLength);
+        }
+        return response.getOutputStream();
+    }
+
+    protected boolean isClientAbortIOException(IOException cause) {
+        return cause instanceof ResponseClientAbortIOException || createResponseDownloadPerformer().isClientAbortIOException(cause);
+    }
+
+    protected void handleWritingClientAbort(String contentType, IOException cause) {
+        if (logger.isDebugEnabled()) { // not error because no way to send response
+            logger.debug("...Handling client abort of writing response as {} (but continue): {}", contentType, cause.toString());
+        }
+    }
+
+    protected int getWritingBufferSize() {
+        return 8192;
+    }
+
+    protected int getDebugDisplayLimit() {
+        return 500; // same as string response
+    }
+
+    /**
+     * The writer that captures the prefix of written characters for debug log.
+     */
+    protected static class ResponsePrefixCaptureWriter extends FilterWriter {
+
+        protected final int captureLimit;
+        protected final StringBuilder captured;
+        protected long writtenCount;
+
+        public ResponsePrefixCaptureWriter(Writer out, int captureLimit) {
+            super(out);
+            this.captureLimit = captureLimit;
+            this.captured = new StringBuilder(captureLimit);
+        }
+
+        @Override
+        public void write(int c) throws IOException {
+            super.write(c);
+            ++writtenCount;
+            if (captured.length() < captureLimit) {
+                captured.append((char) c);
+            }
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException {
+            super.write(cbuf, off, len);
+            writtenCount += len;
+            final int rest = captureLimit - captured.length();
+            if (rest > 0) {
+                captured.append(cbuf, off, Math.min(rest, len));
+            }
+        }
+
+        @Override
+        public void write(String str, int off, int len) throws IOException {
+            super.write(str, off, len);
+            writtenCount += len;
+            final int rest = captureLimit - captured.length();
+            if (rest > 0) {
+                captured.append(str, off, off + Math.min(rest, len));
+            }
+        }
+
+        public String getCapturedPrefix() {
+            return captured.toString();
+        }
+
+        public boolean isTruncated() {
+            return writtenCount > captured.length();
+        }
+    }
+
     // ===================================================================================
     //                                                                   Download Response
     //                                                                   =================
@@ -281,6 +534,13 @@ public class SimpleResponseManager implements ResponseManager {
         doDownload(createResponseDownloadResource(fileName).stream(writtenStreamLambda, contentLength));
     }
 
+    @Override
+    public void download(String fileName, Path filePath) {
+        assertArgumentNotNull("fileName", fileName);
+        assertArgumentNotNull("filePath", filePath);
+        doDownload(createResponseDownloadResource(fileName).file(filePath));
+    }
+
     protected ResponseDownloadResource createResponseDownloadResource(String fileName) {
         final ResponseDownloadResource resource = new ResponseDownloadResource(fileName);
         setupContentTypeByExtension(resource);
@@ -305,6 +565,8 @@ public class SimpleResponseManager implements ResponseManager {
             doDownloadStreamCall(resource, response);
         } else if (resource.hasZipStreamCall()) {
             doDownloadZipStreamCall(resource, response);
+        } else if (resource.hasFilePath()) {
+            doDownloadFilePath(resource, response);
         } else {
             throw new IllegalStateException("Unknown download resource: " + resource);
         }
@@ -354,8 +616,60 @@ public class SimpleResponseManager implements ResponseManager {
         createResponseDownloadPerformer().downloadZipStreamCall(resource, response);
     }
 
+    protected void doDownloadFilePath(ResponseDownloadResource resource, HttpServletResponse response) {
+        createResponseDownloadPerformer().downloadFilePath(resource, response);
+    }
+
     protected ResponseDownloadPerformer createResponseDownloadPerformer() {
-        return new ResponseDownloadPerformer();
+        return new ResponseDownloadPerformer(responseCompressor, () -> getZipDeflateExecutorService());
+    }
+
+    protected ExecutorService getZipDeflateExecutorService() { // caller thread
+        if (zipDeflateExecutorService != null) {
+            return zipDeflateExecutorService;
+        }
+        synchronized (this) {
+            if (zipDeflateExecutorService != null) {
+                return zipDeflateExecutorService;
+            }
+            logger.info("...Creating the executor service for parallel zip deflate.");
+            zipDeflateExecutorService = newZipDeflateExecutorService();
+            DisposableUtil.add(() -> disposeZipDeflateExecutorService()); // e.g. application shutdown
+            return zipDeflateExecutorService;
+        }
+    }
+
+    protected void disposeZipDeflateExecutorService() {
+        synchronized (this) {
+            if (zipDeflateExecutorService != null) {
+                logger.info("...Shutting down the executor service for parallel zip deflate.");
+                zipDeflateExecutorService.shutdown(); // queued entries are written, no new entry
+                zipDeflateExecutorService = null; // created again if needed after hot deploy
+            }
+        }
+    }
+
+    protected ExecutorService newZipDeflateExecutorService() { // caller thread
+        final int poolSize = Runtime.getRuntime().availableProcessors(); // CPU-bound so bounded by cores
+        final AtomicInteger threadNumber = new AtomicInteger();
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(poolSize, poolSize, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), runnable -> {
+                    final Thread thread = new Thread(runnable, "lasta_zip_deflate-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true); // not to prevent shutdown
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true); // no threads while no parallel zip
+        return executor;
+    }
+
+    // ===================================================================================
+    //                                                                         Bytes Cache
+    //                                                                         ===========
+    @Override
+    public OptionalThing<ResponseBytesCache> getResponseBytesCache() {
+        return OptionalThing.ofNullable(responseBytesCache, () -> {
+            throw new IllegalStateException("Not found the response bytes cache (not enabled).");
+        });
     }
 
     // ===================================================================================
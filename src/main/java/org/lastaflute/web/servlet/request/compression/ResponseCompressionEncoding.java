@@ -0,0 +1,84 @@
+/*
+ * Copyright 2015-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.web.servlet.request.compression;
+
+import org.dbflute.util.Srl;
+
+/**
+ * The content encoding of response compression, decided by Accept-Encoding of request.
+ * @author jflute
+ * @since 0.8.4
+ */
+public enum ResponseCompressionEncoding {
+
+    GZIP("gzip"), DEFLATE("deflate");
+
+    private final String headerValue;
+
+    private ResponseCompressionEncoding(String headerValue) {
+        this.headerValue = headerValue;
+    }
+
+    /**
+     * Is the encoding accepted by the header value? (explicit coding is prior to asterisk)
+     * <pre>
+     * e.g. GZIP
+     *  gzip, deflate, br : true
+     *  deflate;q=1, *    : true
+     *  gzip;q=0, *       : false
+     *  deflate           : false
+     * </pre>
+     * @param acceptEncoding The header value of Accept-Encoding. (NullAllowed: then false)
+     * @return The determination, true or false.
+     */
+    public boolean isAcceptedBy(String acceptEncoding) {
+        if (acceptEncoding == null || acceptEncoding.trim().isEmpty()) {
+            return false;
+        }
+        Boolean asteriskAccepted = null;
+        for (String element : acceptEncoding.split(",")) {
+            final String coding = Srl.substringFirstFront(element, ";").trim();
+            if (headerValue.equalsIgnoreCase(coding)) {
+                return !isZeroQuality(element);
+            } else if ("*".equals(coding)) {
+                asteriskAccepted = !isZeroQuality(element);
+            }
+        }
+        return asteriskAccepted != null && asteriskAccepted;
+    }
+
+    protected boolean isZeroQuality(String element) { // e.g. gzip;q=0
+        if (!element.contains(";")) {
+            return false;
+        }
+        final String param = Srl.substringFirstRear(element, ";").trim();
+        if (!param.startsWith("q=")) {
+            return false;
+        }
+        try {
+            return Double.parseDouble(param.substring("q=".length()).trim()) <= 0.0;
+        } catch (NumberFormatException ignored) { // broken header
+            return false;
+        }
+    }
+
+    /**
+     * @return The value for Content-Encoding header, e.g. gzip (NotNull)
+     */
+    public String headerValue() {
+        return headerValue;
+    }
+}
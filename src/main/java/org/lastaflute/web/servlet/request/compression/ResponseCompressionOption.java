@@ -0,0 +1,148 @@
+/*
+ * Copyright 2015-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.web.servlet.request.compression;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.Deflater;
+
+import org.dbflute.util.DfTypeUtil;
+
+/**
+ * The option of response compression, provided by response handling provider.
+ * <pre>
+ * e.g. compress JSON and text over 2KB by gzip only
+ *  return new ResponseCompressionOption().minimumSize(2048).suppressDeflate();
+ * </pre>
+ * @author jflute
+ * @since 0.8.4
+ */
+public class ResponseCompressionOption {
+
+    // ===================================================================================
+    //                                                                          Definition
+    //                                                                          ==========
+    /** The default list of compressible content types, prefix match with content type without parameters. */
+    protected static final List<String> DEFAULT_CONTENT_TYPE_LIST = Collections.unmodifiableList(Arrays.asList( //
+            "text/", "application/json", "application/javascript", "application/xml", "image/svg+xml"));
+
+    // ===================================================================================
+    //                                                                           Attribute
+    //                                                                           =========
+    protected int minimumSize = 1024; // bytes, small body is not worth compression
+    protected int compressionLevel = Deflater.DEFAULT_COMPRESSION;
+    protected int bufferSize = 8192;
+    protected List<String> contentTypeList = DEFAULT_CONTENT_TYPE_LIST;
+    protected boolean deflateSuppressed;
+
+    // ===================================================================================
+    //                                                                              Facade
+    //                                                                              ======
+    /**
+     * @param minimumSize The minimum size of response body to be compressed. (NotMinus)
+     * @return this. (NotNull)
+     */
+    public ResponseCompressionOption minimumSize(int minimumSize) {
+        if (minimumSize < 0) {
+            throw new IllegalArgumentException("The argument 'minimumSize' should not be minus: " + minimumSize);
+        }
+        this.minimumSize = minimumSize;
+        return this;
+    }
+
+    /**
+     * @param compressionLevel The level of compression, 1 (speed) to 9 (size), or -1 as default.
+     * @return this. (NotNull)
+     */
+    public ResponseCompressionOption compressionLevel(int compressionLevel) {
+        if (compressionLevel != Deflater.DEFAULT_COMPRESSION && (compressionLevel < 1 || compressionLevel > 9)) {
+            throw new IllegalArgumentException("The argument 'compressionLevel' should be 1 to 9 or -1: " + compressionLevel);
+        }
+        this.compressionLevel = compressionLevel;
+        return this;
+    }
+
+    /**
+     * @param bufferSize The size of compressing buffer. (NotMinus, NotZero)
+     * @return this. (NotNull)
+     */
+    public ResponseCompressionOption bufferSize(int bufferSize) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("The argument 'bufferSize' should be positive: " + bufferSize);
+        }
+        this.bufferSize = bufferSize;
+        return this;
+    }
+
+    /**
+     * Add the compressible content type (prefix match), e.g. text/csv, application/vnd.sea+json
+     * @param contentType The content type without parameters, or its prefix. (NotNull)
+     * @return this. (NotNull)
+     */
+    public ResponseCompressionOption addContentType(String contentType) {
+        if (contentType == null) {
+            throw new IllegalArgumentException("The argument 'contentType' should not be null.");
+        }
+        final List<String> newList = new ArrayList<String>(contentTypeList);
+        newList.add(contentType.toLowerCase());
+        contentTypeList = Collections.unmodifiableList(newList);
+        return this;
+    }
+
+    /**
+     * Use gzip only, no deflate even if gzip is not accepted.
+     * @return this. (NotNull)
+     */
+    public ResponseCompressionOption suppressDeflate() {
+        deflateSuppressed = true;
+        return this;
+    }
+
+    // ===================================================================================
+    //                                                                      Basic Override
+    //                                                                      ==============
+    @Override
+    public String toString() {
+        final String title = DfTypeUtil.toClassTitle(this);
+        return title + ":{min=" + minimumSize + ", level=" + compressionLevel + ", buffer=" + bufferSize + ", types=" + contentTypeList
+                + (deflateSuppressed ? ", gzipOnly" : "") + "}";
+    }
+
+    // ===================================================================================
+    //                                                                            Accessor
+    //                                                                            ========
+    public int getMinimumSize() {
+        return minimumSize;
+    }
+
+    public int getCompressionLevel() {
+        return compressionLevel;
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    public List<String> getContentTypeList() {
+        return contentTypeList;
+    }
+
+    public boolean isDeflateSuppressed() {
+        return deflateSuppressed;
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2015-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.web.servlet.request.compression;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * The output stream of response that compresses the body when it exceeds the minimum size. <br>
+ * Only the first bytes (under the minimum size) are held to decide compression,
+ * and after that the body is compressed on the fly (the whole body is not buffered). <br>
+ * If closed under the minimum size, the held bytes are written as plain with content length.
+ * Flush of compressed stream is sync flush so streaming response (e.g. JSON array stream) reaches client.
+ * @author jflute
+ * @since 0.8.4
+ */
+public class ResponseCompressionOutputStream extends OutputStream {
+
+    // ===================================================================================
+    //                                                                           Attribute
+    //                                                                           =========
+    protected final HttpServletResponse response; // not null
+    protected final ResponseCompressionEncoding encoding; // not null
+    protected final ResponseCompressionOption option; // not null
+    protected byte[] heldBytes; // not null before decision, null after compression started
+    protected int heldCount;
+    protected DeflaterOutputStream compressingOut; // null allowed: before compression
+    protected Deflater deflater; // null allowed: only for deflate (gzip has own deflater)
+    protected boolean closed;
+
+    // ===================================================================================
+    //                                                                         Constructor
+    //                                                                         ===========
+    /**
+     * @param response The response to write the body. (NotNull)
+     * @param encoding The content encoding accepted by the client. (NotNull)
+     * @param option The option of response compression. (NotNull)
+     */
+    public ResponseCompressionOutputStream(HttpServletResponse response, ResponseCompressionEncoding encoding,
+            ResponseCompressionOption option) {
+        this.response = response;
+        this.encoding = encoding;
+        this.option = option;
+        this.heldBytes = new byte[option.getMinimumSize()];
+    }
+
+    // ===================================================================================
+    //                                                                               Write
+    //                                                                               =====
+    @Override
+    public void write(int b) throws IOException {
+        assertNotClosed();
+        if (compressingOut != null) {
+            compressingOut.write(b);
+        } else if (heldCount < heldBytes.length) {
+            heldBytes[heldCount++] = (byte) b;
+        } else {
+            startCompression().write(b);
+        }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        assertNotClosed();
+        if (compressingOut != null) {
+            compressingOut.write(b, off, len);
+        } else if (heldCount + len <= heldBytes.length) {
+            System.arraycopy(b, off, heldBytes, heldCount, len);
+            heldCount += len;
+        } else {
+            startCompression().write(b, off, len);
+        }
+    }
+
+    protected DeflaterOutputStream startCompression() throws IOException {
+        response.setHeader("Content-Encoding", encoding.headerValue()); // no content length (chunked)
+        final OutputStream out = response.getOutputStream();
+        final int level = option.getCompressionLevel();
+        final int bufferSize = option.getBufferSize();
+        if (encoding == ResponseCompressionEncoding.GZIP) {
+            compressingOut = new GZIPOutputStream(out, bufferSize, /*syncFlush*/true) {
+                {
+                    def.setLevel(level); // default deflater of gzip stream
+                }
+            };
+        } else { // zlib format as HTTP deflate
+            deflater = new Deflater(level);
+            compressingOut = new DeflaterOutputStream(out, deflater, bufferSize, /*syncFlush*/true);
+        }
+        compressingOut.write(heldBytes, 0, heldCount);
+        heldBytes = null; // no longer needed
+        heldCount = 0;
+        return compressingOut;
+    }
+
+    // ===================================================================================
+    //                                                                       Flush & Close
+    //                                                                       =============
+    @Override
+    public void flush() throws IOException {
+        if (compressingOut != null) {
+            compressingOut.flush(); // sync flush
+        }
+        // held bytes are not flushed to keep decision of compression (small enough to wait)
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (compressingOut != null) {
+            try {
+                compressingOut.close(); // finish and close servlet output stream
+            } finally {
+                if (deflater != null) {
+                    deflater.end(); // not default deflater so ended here
+                }
+            }
+        } else { // small body, not compressed
+            response.setContentLength(heldCount);
+            final OutputStream out = response.getOutputStream();
+            out.write(heldBytes, 0, heldCount);
+            out.close();
+        }
+    }
+
+    protected void assertNotClosed() throws IOException {
+        if (closed) {
+            throw new IOException("The response output stream is already closed: " + response);
+        }
+    }
+
+    // ===================================================================================
+    //                                                                            Accessor
+    //                                                                            ========
+    /**
+     * @return Has the compression been started? (false if e.g. still under minimum size)
+     */
+    public boolean isCompressing() {
+        return compressingOut != null;
+    }
+
+    public ResponseCompressionEncoding getEncoding() {
+        return encoding;
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright 2015-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.web.servlet.request.compression;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.dbflute.util.DfTypeUtil;
+import org.dbflute.util.Srl;
+
+/**
+ * The compressor of response body, which decides compression by Accept-Encoding, content type and size. <br>
+ * It prepares output stream for response writing, e.g. JSON, XML, download by stream.
+ * @author jflute
+ * @since 0.8.4
+ */
+public class ResponseCompressor {
+
+    // ===================================================================================
+    //                                                                          Definition
+    //                                                                          ==========
+    protected static final String HEADER_ACCEPT_ENCODING = "Accept-Encoding";
+    protected static final String HEADER_CONTENT_ENCODING = "Content-Encoding";
+    protected static final String HEADER_VARY = "Vary";
+
+    // ===================================================================================
+    //                                                                           Attribute
+    //                                                                           =========
+    protected final ResponseCompressionOption option; // not null
+
+    // ===================================================================================
+    //                                                                         Constructor
+    //                                                                         ===========
+    /**
+     * @param option The option of response compression. (NotNull)
+     */
+    public ResponseCompressor(ResponseCompressionOption option) {
+        if (option == null) {
+            throw new IllegalArgumentException("The argument 'option' should not be null.");
+        }
+        this.option = option;
+    }
+
+    // ===================================================================================
+    //                                                                      Prepare Stream
+    //                                                                      ==============
+    /**
+     * Prepare the output stream to write response body, compressing or plain. <br>
+     * The content length is set here if plain (and known), so the caller should not set it.
+     * @param request The current request to get Accept-Encoding. (NotNull)
+     * @param response The current response to write the body, content type should be already set. (NotNull)
+     * @param contentType The content type of the response body, parameters are ignored. (NullAllowed: then plain)
+     * @param contentLength The length of plain body. (NullAllowed: when unknown, then decided by written size)
+     * @return The output stream for the body, should be closed by caller. (NotNull)
+     * @throws IOException When it fails to get the output stream of response.
+     */
+    public OutputStream prepareOutputStream(HttpServletRequest request, HttpServletResponse response, String contentType,
+            Long contentLength) throws IOException {
+        if (response.containsHeader(HEADER_CONTENT_ENCODING) || !isCompressibleContentType(contentType)) { // e.g. pre-gzipped
+            return preparePlainOutputStream(response, contentLength);
+        }
+        addVaryAcceptEncodingIfNeeds(response); // compressible so response depends on the header
+        final ResponseCompressionEncoding encoding = chooseEncoding(request.getHeader(HEADER_ACCEPT_ENCODING));
+        if (encoding == null || (contentLength != null && contentLength <= option.getMinimumSize())) {
+            return preparePlainOutputStream(response, contentLength);
+        }
+        return newResponseCompressionOutputStream(response, encoding);
+    }
+
+    protected OutputStream preparePlainOutputStream(HttpServletResponse response, Long contentLength) throws IOException {
+        if (contentLength != null) {
+            response.setContentLengthLong(contentLength);
+        }
+        return response.getOutputStream();
+    }
+
+    protected ResponseCompressionOutputStream newResponseCompressionOutputStream(HttpServletResponse response,
+            ResponseCompressionEncoding encoding) {
+        return new ResponseCompressionOutputStream(response, encoding, option);
+    }
+
+    // ===================================================================================
+    //                                                                           Determine
+    //                                                                           =========
+    /**
+     * @param contentType The content type of the response body, e.g. application/json; charset=UTF-8 (NullAllowed: then false)
+     * @return Is the content type compressible by the option?
+     */
+    public boolean isCompressibleContentType(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        final String mimeType = Srl.substringFirstFront(contentType, ";").trim().toLowerCase();
+        if (mimeType.endsWith("+json") || mimeType.endsWith("+xml")) { // e.g. application/hal+json
+            return true;
+        }
+        for (String compressibleType : option.getContentTypeList()) {
+            if (mimeType.startsWith(compressibleType)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param acceptEncoding The header value of Accept-Encoding. (NullAllowed: then null)
+     * @return The chosen encoding, gzip is prior to deflate. (NullAllowed: when no acceptable encoding)
+     */
+    public ResponseCompressionEncoding chooseEncoding(String acceptEncoding) {
+        if (ResponseCompressionEncoding.GZIP.isAcceptedBy(acceptEncoding)) {
+            return ResponseCompressionEncoding.GZIP;
+        }
+        if (!option.isDeflateSuppressed() && ResponseCompressionEncoding.DEFLATE.isAcceptedBy(acceptEncoding)) {
+            return ResponseCompressionEncoding.DEFLATE;
+        }
+        return null;
+    }
+
+    protected void addVaryAcceptEncodingIfNeeds(HttpServletResponse response) {
+        final Collection<String> varyList = response.getHeaders(HEADER_VARY);
+        if (varyList != null) {
+            for (String vary : varyList) {
+                if (vary.equals("*") || Srl.containsIgnoreCase(vary, HEADER_ACCEPT_ENCODING)) { // already exists
+                    return;
+                }
+            }
+        }
+        response.addHeader(HEADER_VARY, HEADER_ACCEPT_ENCODING);
+    }
+
+    // ===================================================================================
+    //                                                                      Basic Override
+    //                                                                      ==============
+    @Override
+    public String toString() {
+        return DfTypeUtil.toClassTitle(this) + ":{" + option + "}";
+    }
+
+    // ===================================================================================
+    //                                                                            Accessor
+    //                                                                            ========
+    public ResponseCompressionOption getOption() {
+        return option;
+    }
+}
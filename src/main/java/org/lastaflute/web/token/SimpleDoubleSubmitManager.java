@@ -307,7 +307,7 @@ public class SimpleDoubleSubmitManager implements DoubleSubmitManager {
     protected boolean certainlyCanBeValidated(ActionExecute execute) {
         // if annotations exist, validator is supposed to be called (checked in framework)
         // but if validation without annotation, returns false so not exactly
-        return execute.getFormMeta().filter(meta -> meta.isValidatorAnnotated()).isPresent();
+        return execute.getExecutePlan().isValidatorAnnotated(); // decided when execute created
     }
 
     protected boolean certainlyValidatorNotCalled() {
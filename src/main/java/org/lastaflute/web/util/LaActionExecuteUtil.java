@@ -30,6 +30,7 @@ import org.dbflute.util.DfReflectionUtil;
 import org.lastaflute.web.LastaWebKey;
 import org.lastaflute.web.ruts.config.ActionExecute;
 import org.lastaflute.web.ruts.config.ActionMapping;
+import org.lastaflute.web.ruts.config.UrlParamMatchResult;
 
 /**
  * @author modified by jflute (originated in Seasar)
@@ -72,6 +73,10 @@ public class LaActionExecuteUtil {
         return findActionMapping(actionName).map(mapping -> mapping.findActionExecute(paramPath));
     }
 
+    public static OptionalThing<UrlParamMatchResult> matchActionExecute(String actionName, String paramPath) {
+        return findActionMapping(actionName).map(mapping -> mapping.matchActionExecute(paramPath));
+    }
+
     public static OptionalThing<ActionExecute> findActionExecute(String actionName, HttpServletRequest request) {
         return findActionMapping(actionName).map(mapping -> mapping.findActionExecute(request));
     }
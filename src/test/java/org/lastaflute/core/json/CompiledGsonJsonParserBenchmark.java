@@ -0,0 +1,41 @@
+package org.lastaflute.core.json;
+
+import java.lang.reflect.ParameterizedType;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.lastaflute.core.json.CompiledGsonJsonParserTest.LandBean;
+import org.lastaflute.di.helper.misc.ParameterizedRef;
+import org.lastaflute.unit.benchmark.UnitBenchmark;
+
+/**
+ * The benchmark of JSON parser: plain Gson reflective adapter (old) vs. the compiled bean adapter (new).
+ * @author jflute
+ */
+public class CompiledGsonJsonParserBenchmark {
+
+    public static void main(String[] args) {
+        final GsonJsonParser plain = new GsonJsonParser(builder -> {} , op -> {});
+        final GsonJsonParser compiled = new CompiledGsonJsonParser(builder -> {} , op -> {});
+        final List<LandBean> landList = new ArrayList<LandBean>();
+        for (int i = 0; i < 200; i++) {
+            landList.add(new LandBean("land" + i, i));
+        }
+        final String json = plain.toJson(landList);
+        if (!json.equals(compiled.toJson(landList))) {
+            throw new IllegalStateException("Different JSON between plain and compiled.");
+        }
+        final ParameterizedType listType = (ParameterizedType) new ParameterizedRef<List<LandBean>>() {
+        }.getType();
+        new UnitBenchmark("toJson (" + landList.size() + " beans)", 2000).compare(() -> {
+            return plain.toJson(landList);
+        }, () -> {
+            return compiled.toJson(landList);
+        });
+        new UnitBenchmark("fromJson (" + landList.size() + " beans)", 2000).compare(() -> {
+            return plain.fromJsonParameteried(json, listType);
+        }, () -> {
+            return compiled.fromJsonParameteried(json, listType);
+        });
+    }
+}
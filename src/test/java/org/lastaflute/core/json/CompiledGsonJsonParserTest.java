@@ -0,0 +1,135 @@
+package org.lastaflute.core.json;
+
+import java.lang.reflect.ParameterizedType;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.lastaflute.core.json.adapter.CompiledBeanGsonAdaptable.CompiledBeanTypeAdapter;
+import org.lastaflute.di.helper.misc.ParameterizedRef;
+
+import com.google.gson.GsonBuilder;
+import com.google.gson.InstanceCreator;
+import com.google.gson.annotations.SerializedName;
+
+/**
+ * The compatibility tests are inherited from GsonJsonParserTest.
+ * @author jflute
+ */
+public class CompiledGsonJsonParserTest extends GsonJsonParserTest {
+
+    // ===================================================================================
+    //                                                                      Compiled Bean
+    //                                                                      =============
+    public void test_compiled_adapter() throws Exception {
+        // ## Arrange ##
+        GsonJsonParser parser = createParser(builder -> {} , op -> {});
+
+        // ## Act ##
+        // ## Assert ##
+        assertTrue(parser.gson.getAdapter(MockUser.class) instanceof CompiledBeanTypeAdapter);
+        assertFalse(parser.gson.getAdapter(String.class) instanceof CompiledBeanTypeAdapter);
+        assertFalse(parser.gson.getAdapter(NoDefaultConstructorBean.class) instanceof CompiledBeanTypeAdapter);
+    }
+
+    public void test_compiled_sameAsGson() throws Exception {
+        // ## Arrange ##
+        GsonJsonParser plain = new GsonJsonParser(builder -> builder.serializeNulls(), op -> {});
+        GsonJsonParser compiled = createParser(builder -> builder.serializeNulls(), op -> {});
+        SeaBean<LandBean> bean = new SeaBean<LandBean>();
+        bean.seaId = 3;
+        bean.seaName = "mystic";
+        bean.secret = "dockside";
+        bean.primitiveCount = 7;
+        bean.landList = Arrays.asList(new LandBean("oneman", 1), new LandBean("minnie", 2));
+        bean.generic = new LandBean("piari", 3);
+        bean.anything = new LandBean("bonvo", 4); // runtime type
+
+        // ## Act ##
+        String plainJson = plain.toJson(bean);
+        String compiledJson = compiled.toJson(bean);
+
+        // ## Assert ##
+        log(compiledJson);
+        assertEquals(plainJson, compiledJson);
+        assertFalse(compiledJson.contains("dockside")); // transient
+        assertContains(compiledJson, "\"sea_name\":\"mystic\"");
+
+        String json = "{\"seaId\":4,\"seaAlias\":\"hangar\",\"primitiveCount\":null,\"unknown\":[1,2]"
+                + ",\"landList\":[{\"landName\":\"amba\",\"rank\":5}],\"generic\":{\"landName\":\"celeb\",\"rank\":6}}";
+        ParameterizedType type = (ParameterizedType) new ParameterizedRef<SeaBean<LandBean>>() {
+        }.getType();
+        SeaBean<LandBean> plainBean = plain.fromJsonParameteried(json, type);
+        SeaBean<LandBean> compiledBean = compiled.fromJsonParameteried(json, type);
+        assertEquals(plain.toJson(plainBean), compiled.toJson(compiledBean));
+        assertEquals("hangar", compiledBean.seaName); // alternate name
+        assertEquals(-1, compiledBean.primitiveCount); // null is not set to primitive
+        assertEquals("celeb", compiledBean.generic.landName); // resolved type variable
+        assertEquals(Integer.valueOf(5), compiledBean.landList.get(0).rank); // inherited field
+    }
+
+    // ===================================================================================
+    //                                                                         Performance
+    //                                                                         ===========
+    public void test_compiled_instanceCreator() throws Exception {
+        // ## Arrange ##
+        InstanceCreator<LandBean> creator = type -> new LandBean("created", -1);
+        GsonJsonParser plain = new GsonJsonParser(builder -> builder.registerTypeAdapter(LandBean.class, creator), op -> {});
+        GsonJsonParser compiled = createParser(builder -> builder.registerTypeAdapter(LandBean.class, creator), op -> {});
+        String json = "{\"rank\":3}";
+
+        // ## Act ##
+        LandBean plainBean = plain.fromJson(json, LandBean.class);
+        LandBean compiledBean = compiled.fromJson(json, LandBean.class);
+
+        // ## Assert ##
+        assertTrue(compiled.gson.getAdapter(LandBean.class) instanceof CompiledBeanTypeAdapter);
+        assertEquals("created", plainBean.landName); // by creator
+        assertEquals("created", compiledBean.landName);
+        assertEquals(Integer.valueOf(3), compiledBean.rank);
+        assertEquals(plain.toJson(plainBean), compiled.toJson(compiledBean));
+    }
+
+    // ===================================================================================
+    //                                                                         Test Helper
+    //                                                                         ===========
+    @Override
+    protected GsonJsonParser createParser(Consumer<GsonBuilder> oneArgLambda, Consumer<JsonMappingOption> opLambda) {
+        return new CompiledGsonJsonParser(oneArgLambda, opLambda);
+    }
+
+    public static class SeaBean<GENERIC> {
+        public Integer seaId;
+        @SerializedName(value = "sea_name", alternate = "seaAlias")
+        public String seaName;
+        public transient String secret;
+        public int primitiveCount = -1;
+        public List<LandBean> landList;
+        public GENERIC generic;
+        public Object anything;
+    }
+
+    public static class AbstractLandBean {
+        public Integer rank;
+    }
+
+    public static class LandBean extends AbstractLandBean {
+        private String landName;
+
+        public LandBean() {
+        }
+
+        public LandBean(String landName, Integer rank) {
+            this.landName = landName;
+            this.rank = rank;
+        }
+    }
+
+    public static class NoDefaultConstructorBean {
+        public final String seaName;
+
+        public NoDefaultConstructorBean(String seaName) {
+            this.seaName = seaName;
+        }
+    }
+}
@@ -15,19 +15,26 @@
  */
 package org.lastaflute.core.json;
 
+import java.io.StringReader;
+import java.io.StringWriter;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.function.Consumer;
 
 import org.dbflute.utflute.core.PlainTestCase;
 import org.dbflute.utflute.core.cannonball.CannonballCar;
 import org.dbflute.utflute.core.cannonball.CannonballOption;
 import org.dbflute.utflute.core.cannonball.CannonballRun;
 import org.lastaflute.core.json.exception.JsonPropertyNumberParseFailureException;
+import org.lastaflute.di.helper.misc.ParameterizedRef;
 import org.lastaflute.unit.mock.db.MockCDef;
 
+import com.google.gson.GsonBuilder;
+
 /**
  * @author jflute
  */
@@ -38,7 +45,7 @@ public class GsonJsonParserTest extends PlainTestCase {
     //                                                                          ==========
     public void test_java8time_toJson_fromJson() throws Exception {
         // ## Arrange ##
-        GsonJsonParser parser = new GsonJsonParser(builder -> {} , op -> {});
+        GsonJsonParser parser = createParser(builder -> {} , op -> {});
         LocalDate date = toLocalDate("2015/05/18");
         LocalDateTime dateTime = toLocalDateTime("2015/05/25 12:34:56.789");
         LocalTime time = toLocalTime("23:15:47.731");
@@ -72,7 +79,7 @@ public class GsonJsonParserTest extends PlainTestCase {
     //                                                                             =======
     public void test_Boolean_toJson_fromJson_basic() throws Exception {
         // ## Arrange ##
-        GsonJsonParser parser = new GsonJsonParser(builder -> {} , op -> {});
+        GsonJsonParser parser = createParser(builder -> {} , op -> {});
         MockUser mockUser = new MockUser();
         mockUser.id = 2;
         mockUser.name = "land";
@@ -98,7 +105,7 @@ public class GsonJsonParserTest extends PlainTestCase {
 
     public void test_Boolean_toJson_fromJson_null() throws Exception {
         // ## Arrange ##
-        GsonJsonParser parser = new GsonJsonParser(builder -> {} , op -> {});
+        GsonJsonParser parser = createParser(builder -> {} , op -> {});
         MockUser mockUser = new MockUser();
         mockUser.id = 2;
         mockUser.name = "land";
@@ -124,7 +131,7 @@ public class GsonJsonParserTest extends PlainTestCase {
 
     public void test_Boolean_toJson_fromJson_everywhereQuoteWriting_andOthers() throws Exception {
         // ## Arrange ##
-        GsonJsonParser parser = new GsonJsonParser(builder -> builder.serializeNulls(), op -> {
+        GsonJsonParser parser = createParser(builder -> builder.serializeNulls(), op -> {
             op.asEverywhereQuoteWriting().asNullToEmptyWriting().asEmptyToNullReading();
         });
         MockUser mockUser = new MockUser();
@@ -152,7 +159,7 @@ public class GsonJsonParserTest extends PlainTestCase {
 
     public void test_Boolean_toJson_fromJson_booleanFilter_integer() throws Exception {
         // ## Arrange ##
-        GsonJsonParser parser = new GsonJsonParser(builder -> builder.serializeNulls(), op -> {
+        GsonJsonParser parser = createParser(builder -> builder.serializeNulls(), op -> {
             op.deserializeBooleanBy(exp -> exp.equals(1)).serializeBooleanBy(value -> value ? 1 : 0);
         });
         MockUser mockUser = new MockUser();
@@ -180,7 +187,7 @@ public class GsonJsonParserTest extends PlainTestCase {
 
     public void test_Boolean_toJson_fromJson_booleanFilter_string() throws Exception {
         // ## Arrange ##
-        GsonJsonParser parser = new GsonJsonParser(builder -> builder.serializeNulls(), op -> {
+        GsonJsonParser parser = createParser(builder -> builder.serializeNulls(), op -> {
             op.deserializeBooleanBy(exp -> exp.equals("1")).serializeBooleanBy(value -> value ? "1" : "0");
         });
         MockUser mockUser = new MockUser();
@@ -211,7 +218,7 @@ public class GsonJsonParserTest extends PlainTestCase {
     //                                                                              ======
     public void test_CDef_toJson_fromJson() throws Exception {
         // ## Arrange ##
-        GsonJsonParser parser = new GsonJsonParser(builder -> {} , op -> {});
+        GsonJsonParser parser = createParser(builder -> {} , op -> {});
         MockUser mockUser = new MockUser();
         mockUser.id = 2;
         mockUser.name = "land";
@@ -238,7 +245,7 @@ public class GsonJsonParserTest extends PlainTestCase {
     //                                                                       =============
     public void test_emptyToNull_toJson_non_nullAll() throws Exception {
         // ## Arrange ##
-        GsonJsonParser parser = new GsonJsonParser(builder -> builder.serializeNulls(), op -> {});
+        GsonJsonParser parser = createParser(builder -> builder.serializeNulls(), op -> {});
         String json =
                 "{id:null,name:null,status:null,birthdate:null,formalizedDatetime:null,morningCallTime:null,primitiveFlg:null,wrapperFlg:null,validFlg:null}";
 
@@ -257,7 +264,7 @@ public class GsonJsonParserTest extends PlainTestCase {
 
     public void test_emptyToNull_toJson_non_emptyProperty() throws Exception {
         // ## Arrange ##
-        GsonJsonParser parser = new GsonJsonParser(builder -> builder.serializeNulls(), op -> {});
+        GsonJsonParser parser = createParser(builder -> builder.serializeNulls(), op -> {});
         String json =
                 "{id:null,name:null,status:null,birthdate:null,formalizedDatetime:null,morningCallTime:null,primitiveFlg:null,wrapperFlg:null,validFlg:\"\"}";
 
@@ -276,7 +283,7 @@ public class GsonJsonParserTest extends PlainTestCase {
 
     public void test_emptyToNull_toJson_valid_nullAll() throws Exception {
         // ## Arrange ##
-        GsonJsonParser parser = new GsonJsonParser(builder -> builder.serializeNulls(), op -> op.asEmptyToNullReading());
+        GsonJsonParser parser = createParser(builder -> builder.serializeNulls(), op -> op.asEmptyToNullReading());
         String json = "{id:null,name:null,status:null,birthdate:null,formalizedDatetime:null,morningCallTime:null,validFlg:null}";
 
         // ## Act ##
@@ -292,7 +299,7 @@ public class GsonJsonParserTest extends PlainTestCase {
 
     public void test_emptyToNull_toJson_valid_emptyProperty() throws Exception {
         // ## Arrange ##
-        GsonJsonParser parser = new GsonJsonParser(builder -> builder.serializeNulls(), op -> op.asEmptyToNullReading());
+        GsonJsonParser parser = createParser(builder -> builder.serializeNulls(), op -> op.asEmptyToNullReading());
         String json = "{id:\"\",name:\"\",status:null,birthdate:\"\",formalizedDatetime:\"\",morningCallTime:\"\",validFlg:\"\"}";
 
         // ## Act ##
@@ -311,7 +318,7 @@ public class GsonJsonParserTest extends PlainTestCase {
     //                                                                       =============
     public void test_nullToEmpty_toJson_non() throws Exception {
         // ## Arrange ##
-        GsonJsonParser parser = new GsonJsonParser(builder -> builder.serializeNulls(), op -> {});
+        GsonJsonParser parser = createParser(builder -> builder.serializeNulls(), op -> {});
 
         // ## Act ##
         String json = parser.toJson(new MockUser());
@@ -332,7 +339,7 @@ public class GsonJsonParserTest extends PlainTestCase {
 
     public void test_nullToEmpty_toJson_valid() throws Exception {
         // ## Arrange ##
-        GsonJsonParser parser = new GsonJsonParser(builder -> {} , op -> op.asNullToEmptyWriting());
+        GsonJsonParser parser = createParser(builder -> {} , op -> op.asNullToEmptyWriting());
 
         // ## Act ##
         String json = parser.toJson(new MockUser());
@@ -357,7 +364,7 @@ public class GsonJsonParserTest extends PlainTestCase {
     //                                                                   =================
     public void test_filterSimpleText_fromJson_non() throws Exception {
         // ## Arrange ##
-        GsonJsonParser parser = new GsonJsonParser(builder -> builder.serializeNulls(), op -> {
+        GsonJsonParser parser = createParser(builder -> builder.serializeNulls(), op -> {
             op.filterSimpleTextReading(text -> text);
         });
         String json = "{id:\" 1 \",name:\" sea \",status:null,birthdate:\" 2015-12-15 \",validFlg:\" true \",primitiveFlg:\" true \"}";
@@ -374,7 +381,7 @@ public class GsonJsonParserTest extends PlainTestCase {
 
     public void test_filterSimpleText_fromJson_trim() throws Exception {
         // ## Arrange ##
-        GsonJsonParser parser = new GsonJsonParser(builder -> builder.serializeNulls(), op -> {
+        GsonJsonParser parser = createParser(builder -> builder.serializeNulls(), op -> {
             op.filterSimpleTextReading(text -> text.trim());
         });
         String json = "{id:\" 1 \",name:\" sea \",status:null,birthdate:\" 2015-12-15 \",validFlg:\" true \",primitiveFlg:\" true \"}";
@@ -399,7 +406,7 @@ public class GsonJsonParserTest extends PlainTestCase {
     //                                                          ==========================
     public void test_asListNullToEmptyReading_fromJson_noOption_null() throws Exception {
         // ## Arrange ##
-        GsonJsonParser parser = new GsonJsonParser(builder -> builder.serializeNulls(), op -> {});
+        GsonJsonParser parser = createParser(builder -> builder.serializeNulls(), op -> {});
         String json = "{id:\"1\",stringList:null}";
         // ## Act ##
         MockUser user = parser.fromJson(json, MockUser.class);
@@ -412,7 +419,7 @@ public class GsonJsonParserTest extends PlainTestCase {
 
     public void test_asListNullToEmptyReading_fromJson_noOption_hasElement() throws Exception {
         // ## Arrange ##
-        GsonJsonParser parser = new GsonJsonParser(builder -> builder.serializeNulls(), op -> {});
+        GsonJsonParser parser = createParser(builder -> builder.serializeNulls(), op -> {});
         String json = "{id:\"1\",stringList:[\"over\",\"mystic\"]}";
         // ## Act ##
         MockUser user = parser.fromJson(json, MockUser.class);
@@ -426,7 +433,7 @@ public class GsonJsonParserTest extends PlainTestCase {
 
     public void test_asListNullToEmptyReading_fromJson_null() throws Exception {
         // ## Arrange ##
-        GsonJsonParser parser = new GsonJsonParser(builder -> builder.serializeNulls(), op -> {
+        GsonJsonParser parser = createParser(builder -> builder.serializeNulls(), op -> {
             op.asListNullToEmptyReading();
         });
         String json = "{id:\"1\",stringList:null}";
@@ -442,7 +449,7 @@ public class GsonJsonParserTest extends PlainTestCase {
 
     public void test_asListNullToEmptyReading_fromJson_emptyList() throws Exception {
         // ## Arrange ##
-        GsonJsonParser parser = new GsonJsonParser(builder -> builder.serializeNulls(), op -> {
+        GsonJsonParser parser = createParser(builder -> builder.serializeNulls(), op -> {
             op.asListNullToEmptyReading();
         });
         String json = "{id:\"1\",stringList:[]}";
@@ -458,7 +465,7 @@ public class GsonJsonParserTest extends PlainTestCase {
 
     public void test_asListNullToEmptyReading_fromJson_hasElement() throws Exception {
         // ## Arrange ##
-        GsonJsonParser parser = new GsonJsonParser(builder -> builder.serializeNulls(), op -> {
+        GsonJsonParser parser = createParser(builder -> builder.serializeNulls(), op -> {
             op.asListNullToEmptyReading();
         });
         String json = "{id:\"1\",stringList:[\"over\",\"mystic\"]}";
@@ -477,7 +484,7 @@ public class GsonJsonParserTest extends PlainTestCase {
     //                                                          ==========================
     public void test_asListNullToEmptyWriting_toJson_noOption_null() throws Exception {
         // ## Arrange ##
-        GsonJsonParser parser = new GsonJsonParser(builder -> builder.serializeNulls(), op -> {});
+        GsonJsonParser parser = createParser(builder -> builder.serializeNulls(), op -> {});
         String sourceJson = "{id:\"1\",stringList:null}";
         MockUser user = parser.fromJson(sourceJson, MockUser.class);
         // ## Act ##
@@ -489,7 +496,7 @@ public class GsonJsonParserTest extends PlainTestCase {
 
     public void test_asListNullToEmptyWriting_toJson_noOption_hasElement() throws Exception {
         // ## Arrange ##
-        GsonJsonParser parser = new GsonJsonParser(builder -> builder.serializeNulls(), op -> {});
+        GsonJsonParser parser = createParser(builder -> builder.serializeNulls(), op -> {});
         String sourceJson = "{id:\"1\",stringList:[\"over\",\"mystic\"]}";
         MockUser user = parser.fromJson(sourceJson, MockUser.class);
         // ## Act ##
@@ -500,7 +507,7 @@ public class GsonJsonParserTest extends PlainTestCase {
     }
 
     public void test_asListNullToEmptyWriting_toJson_null() throws Exception {
-        GsonJsonParser parser = new GsonJsonParser(builder -> builder.serializeNulls(), op -> {
+        GsonJsonParser parser = createParser(builder -> builder.serializeNulls(), op -> {
             op.asListNullToEmptyWriting();
         });
         String sourceJson = "{id:\"1\",stringList:null}";
@@ -513,7 +520,7 @@ public class GsonJsonParserTest extends PlainTestCase {
     }
 
     public void test_asListNullToEmptyWriting_toJson_emptyList() throws Exception {
-        GsonJsonParser parser = new GsonJsonParser(builder -> builder.serializeNulls(), op -> {
+        GsonJsonParser parser = createParser(builder -> builder.serializeNulls(), op -> {
             op.asListNullToEmptyWriting();
         });
         String sourceJson = "{id:\"1\",stringList:[]}";
@@ -526,7 +533,7 @@ public class GsonJsonParserTest extends PlainTestCase {
     }
 
     public void test_asListNullToEmptyWriting_toJson_hasElement() throws Exception {
-        GsonJsonParser parser = new GsonJsonParser(builder -> builder.serializeNulls(), op -> {
+        GsonJsonParser parser = createParser(builder -> builder.serializeNulls(), op -> {
             op.asListNullToEmptyReading();
         });
         String sourceJson = "{id:\"1\",stringList:[\"over\",\"mystic\"]}";
@@ -538,12 +545,110 @@ public class GsonJsonParserTest extends PlainTestCase {
         assertContains(json, "\"stringList\":[\"over\",\"mystic\"]");
     }
 
+    // ===================================================================================
+    //                                                                              Reader
+    //                                                                              ======
+    public void test_fromJson_reader_basic() throws Exception {
+        // ## Arrange ##
+        GsonJsonParser parser = createParser(builder -> {} , op -> {});
+        String json = "{\"id\":2,\"name\":\"land\",\"birthdate\":\"2015-05-18\",\"stringList\":[\"a\",\"b\"]}";
+
+        // ## Act ##
+        MockUser fromJson = parser.fromJson(new StringReader(json), MockUser.class);
+
+        // ## Assert ##
+        log(fromJson);
+        assertEquals(Integer.valueOf(2), fromJson.id);
+        assertEquals("land", fromJson.name);
+        assertEquals(toLocalDate("2015/05/18"), fromJson.birthdate);
+        assertEquals(Arrays.asList("a", "b"), fromJson.stringList);
+    }
+
+    public void test_fromJson_reader_empty() throws Exception {
+        // ## Arrange ##
+        GsonJsonParser parser = createParser(builder -> {} , op -> {});
+
+        // ## Act ##
+        MockUser fromJson = parser.fromJson(new StringReader(""), MockUser.class);
+        List<MockUser> fromJsonList = parser.fromJsonParameteried(new StringReader(""), new ParameterizedRef<List<MockUser>>() {
+        }.getType());
+
+        // ## Assert ##
+        assertNotNull(fromJson); // new-only
+        assertNull(fromJson.name);
+        assertNotNull(fromJsonList);
+        assertTrue(fromJsonList.isEmpty());
+    }
+
+    public void test_fromJsonParameteried_reader_list() throws Exception {
+        // ## Arrange ##
+        GsonJsonParser parser = createParser(builder -> {} , op -> {});
+        String json = "[{\"id\":1,\"name\":\"sea\"},{\"id\":2,\"name\":\"land\"}]";
+
+        // ## Act ##
+        List<MockUser> fromJsonList = parser.fromJsonParameteried(new StringReader(json), new ParameterizedRef<List<MockUser>>() {
+        }.getType());
+
+        // ## Assert ##
+        assertHasAnyElement(fromJsonList);
+        assertEquals("sea", fromJsonList.get(0).name);
+        assertEquals("land", fromJsonList.get(1).name);
+    }
+
+    public void test_fromJsonArrayIterator_reader_elementByElement() throws Exception {
+        // ## Arrange ##
+        GsonJsonParser parser = createParser(builder -> {} , op -> {});
+        String json = "[{\"id\":1,\"name\":\"sea\"},{\"id\":2,\"name\":\"land\"},{\"id\":\"broken\"";
+
+        // ## Act ##
+        Iterator<MockUser> iterator = parser.fromJsonArrayIterator(new StringReader(json), MockUser.class);
+
+        // ## Assert ##
+        assertTrue(iterator.hasNext());
+        assertEquals("sea", iterator.next().name);
+        assertTrue(iterator.hasNext());
+        assertEquals("land", iterator.next().name); // parsed before the broken element
+        assertTrue(iterator.hasNext());
+        assertException(RuntimeException.class, () -> iterator.next());
+    }
+
+    public void test_fromJsonArrayIterator_reader_empty() throws Exception {
+        // ## Arrange ##
+        GsonJsonParser parser = createParser(builder -> {} , op -> {});
+
+        // ## Act ##
+        // ## Assert ##
+        assertFalse(parser.fromJsonArrayIterator(new StringReader(""), MockUser.class).hasNext());
+        assertFalse(parser.fromJsonArrayIterator(new StringReader("null"), MockUser.class).hasNext());
+        assertFalse(parser.fromJsonArrayIterator(new StringReader("[]"), MockUser.class).hasNext());
+        Iterator<MockUser> trailing = parser.fromJsonArrayIterator(new StringReader("[{\"id\":1}] {}"), MockUser.class);
+        assertEquals(Integer.valueOf(1), trailing.next().id);
+        assertException(RuntimeException.class, () -> trailing.hasNext()); // not fully consumed
+    }
+
+    public void test_toJson_writer_sameAsString() throws Exception {
+        // ## Arrange ##
+        GsonJsonParser parser = createParser(builder -> {} , op -> {});
+        MockUser user = new MockUser();
+        user.id = 3;
+        user.name = "sea\u3042\"land";
+        List<MockUser> userList = Arrays.asList(user, new MockUser());
+        StringWriter writer = new StringWriter();
+
+        // ## Act ##
+        parser.toJson(userList, writer);
+
+        // ## Assert ##
+        log(writer);
+        assertEquals(parser.toJson(userList), writer.toString());
+    }
+
     // ===================================================================================
     //                                                                         Thread Safe
     //                                                                         ===========
     public void test_threadSafe() throws Exception {
         // ## Arrange ##
-        GsonJsonParser parser = new GsonJsonParser(builder -> {} , op -> {});
+        GsonJsonParser parser = createParser(builder -> {} , op -> {});
 
         // ## Act ##
         // ## Assert ##
@@ -570,6 +675,10 @@ public class GsonJsonParserTest extends PlainTestCase {
     // ===================================================================================
     //                                                                         Test Helper
     //                                                                         ===========
+    protected GsonJsonParser createParser(Consumer<GsonBuilder> oneArgLambda, Consumer<JsonMappingOption> opLambda) {
+        return new GsonJsonParser(oneArgLambda, opLambda); // overridden by other parser's test
+    }
+
     public static class MockUser {
         public Integer id;
         public String name;
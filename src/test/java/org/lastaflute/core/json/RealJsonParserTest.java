@@ -0,0 +1,71 @@
+package org.lastaflute.core.json;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.lang.reflect.ParameterizedType;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.lastaflute.di.helper.misc.ParameterizedRef;
+import org.lastaflute.unit.UnitLastaFluteTestCase;
+
+/**
+ * @author jflute
+ */
+public class RealJsonParserTest extends UnitLastaFluteTestCase {
+
+    // ===================================================================================
+    //                                                                     Default Methods
+    //                                                                     ===============
+    public void test_defaultMethods_wholeString() throws Exception {
+        // ## Arrange ##
+        RealJsonParser parser = createStringOnlyParser();
+        String json = "[{\"seaId\":1,\"seaName\":\"mystic\"},{\"seaId\":2,\"seaName\":\"bigband\"}]";
+        ParameterizedType listType = (ParameterizedType) new ParameterizedRef<List<Map<String, Object>>>() {
+        }.getType();
+
+        // ## Act ##
+        SeaBean[] beans = parser.fromJson(new StringReader(json), SeaBean[].class);
+        List<Map<String, Object>> mapList = parser.fromJsonParameteried(new StringReader(json), listType);
+        Iterator<SeaBean> iterator = parser.fromJsonArrayIterator(new StringReader(json), SeaBean.class);
+        StringWriter writer = new StringWriter();
+        parser.toJson(beans, writer);
+
+        // ## Assert ##
+        assertEquals("bigband", beans[1].seaName);
+        assertEquals("mystic", mapList.get(0).get("seaName"));
+        List<String> nameList = new ArrayList<String>();
+        iterator.forEachRemaining(bean -> nameList.add(bean.seaName));
+        assertEquals("[mystic, bigband]", nameList.toString());
+        assertEquals(json, writer.toString());
+        assertFalse(parser.fromJsonArrayIterator(new StringReader(" "), SeaBean.class).hasNext()); // empty JSON
+        assertFalse(parser.fromJsonArrayIterator(new StringReader("null"), SeaBean.class).hasNext());
+    }
+
+    protected RealJsonParser createStringOnlyParser() { // to use default methods
+        GsonJsonParser gson = new GsonJsonParser(builder -> {}, op -> {});
+        return new RealJsonParser() {
+            @Override
+            public <BEAN> BEAN fromJson(String json, Class<BEAN> beanType) {
+                return gson.fromJson(json, beanType);
+            }
+
+            @Override
+            public <BEAN> BEAN fromJsonParameteried(String json, ParameterizedType parameterizedType) {
+                return gson.fromJsonParameteried(json, parameterizedType);
+            }
+
+            @Override
+            public String toJson(Object bean) {
+                return gson.toJson(bean);
+            }
+        };
+    }
+
+    public static class SeaBean {
+        public Integer seaId;
+        public String seaName;
+    }
+}
@@ -0,0 +1,74 @@
+package org.lastaflute.unit.benchmark;
+
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+/**
+ * The simple runner of micro benchmark comparing the old path with the new one. <br>
+ * Benchmarks are named as *Benchmark so that unit test (surefire) does not run them,
+ * run their main method with the test class-path instead e.g. from IDE. <br>
+ * The numbers depend on the environment, so they are only logged and not asserted.
+ * @author jflute
+ */
+public class UnitBenchmark {
+
+    // ===================================================================================
+    //                                                                           Attribute
+    //                                                                           =========
+    protected final String title; // not null
+    protected final int loopCount; // per round
+    protected int warmUpRound = 5;
+    protected int measuredRound = 10;
+    protected long sink; // to avoid dead code elimination
+
+    // ===================================================================================
+    //                                                                         Constructor
+    //                                                                         ===========
+    public UnitBenchmark(String title, int loopCount) {
+        this.title = title;
+        this.loopCount = loopCount;
+    }
+
+    // ===================================================================================
+    //                                                                             Compare
+    //                                                                             =======
+    /**
+     * Compare the old process with the new one, and log the median time per operation.
+     * @param oldProcess The process of old path, returning something from the operation. (NotNull)
+     * @param newProcess The process of new path, returning something from the operation. (NotNull)
+     */
+    public void compare(Supplier<Object> oldProcess, Supplier<Object> newProcess) {
+        for (int i = 0; i < warmUpRound; i++) { // alternately to warm up both
+            measure(oldProcess);
+            measure(newProcess);
+        }
+        final long[] oldTimes = new long[measuredRound];
+        final long[] newTimes = new long[measuredRound];
+        for (int i = 0; i < measuredRound; i++) {
+            oldTimes[i] = measure(oldProcess);
+            newTimes[i] = measure(newProcess);
+        }
+        final double oldNanos = median(oldTimes) / (double) loopCount;
+        final double newNanos = median(newTimes) / (double) loopCount;
+        System.out.println(String.format("[%s] old=%.1fns/op, new=%.1fns/op, ratio=%.2f (loop=%d, round=%d, sink=%d)", title, oldNanos,
+                newNanos, newNanos / oldNanos, loopCount, measuredRound, sink));
+    }
+
+    protected long measure(Supplier<Object> process) {
+        long hash = 0;
+        final long before = System.nanoTime();
+        for (int i = 0; i < loopCount; i++) {
+            final Object result = process.get();
+            hash += result != null ? result.hashCode() : 0;
+        }
+        final long time = System.nanoTime() - before;
+        sink += hash;
+        return time;
+    }
+
+    protected long median(long[] times) {
+        final long[] sorted = times.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}
@@ -0,0 +1,7 @@
+package org.lastaflute.unit.mock.app.web.sea;
+
+/**
+ * @author jflute
+ */
+public class SeaLandAction {
+}
@@ -0,0 +1,466 @@
+/*
+ * Copyright 2015-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.unit.mock.web;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.security.Principal;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.DispatcherType;
+import javax.servlet.RequestDispatcher;
+import javax.servlet.ServletContext;
+import javax.servlet.ServletException;
+import javax.servlet.ServletInputStream;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+import javax.servlet.http.HttpUpgradeHandler;
+import javax.servlet.http.Part;
+
+/**
+ * The mock of servlet request that has headers and attributes in memory. <br>
+ * It is async-supported only when the async context is registered.
+ * @author jflute
+ */
+public class MockHttpServletRequest implements HttpServletRequest {
+
+    // ===================================================================================
+    //                                                                           Attribute
+    //                                                                           =========
+    protected final Map<String, String> headerMap = new LinkedHashMap<String, String>();
+    protected final Map<String, Object> attributeMap = new LinkedHashMap<String, Object>();
+    protected final Map<String, String[]> parameterMap = new LinkedHashMap<String, String[]>();
+    protected String method = "GET";
+    protected String requestURI;
+    protected String characterEncoding;
+    protected AsyncContext asyncContext; // null allowed: not async-supported
+    protected boolean asyncStarted;
+
+    // ===================================================================================
+    //                                                                              Header
+    //                                                                              ======
+    @Override
+    public String getHeader(String name) {
+        return headerMap.get(name);
+    }
+
+    @Override
+    public Enumeration<String> getHeaders(String name) {
+        final String value = headerMap.get(name);
+        return Collections.enumeration(value != null ? Collections.singletonList(value) : Collections.emptyList());
+    }
+
+    @Override
+    public Enumeration<String> getHeaderNames() {
+        return Collections.enumeration(headerMap.keySet());
+    }
+
+    @Override
+    public long getDateHeader(String name) {
+        final String value = headerMap.get(name);
+        return value != null ? ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli() : -1L;
+    }
+
+    @Override
+    public int getIntHeader(String name) {
+        final String value = headerMap.get(name);
+        return value != null ? Integer.parseInt(value) : -1;
+    }
+
+    public void setHeader(String name, String value) {
+        headerMap.put(name, value);
+    }
+
+    @Override
+    public Cookie[] getCookies() {
+        return null;
+    }
+
+    // ===================================================================================
+    //                                                                   Request Attribute
+    //                                                                   =================
+    @Override
+    public Object getAttribute(String name) {
+        return attributeMap.get(name);
+    }
+
+    @Override
+    public Enumeration<String> getAttributeNames() {
+        return Collections.enumeration(attributeMap.keySet());
+    }
+
+    @Override
+    public void setAttribute(String name, Object o) {
+        attributeMap.put(name, o);
+    }
+
+    @Override
+    public void removeAttribute(String name) {
+        attributeMap.remove(name);
+    }
+
+    // ===================================================================================
+    //                                                                           Parameter
+    //                                                                           =========
+    @Override
+    public String getParameter(String name) {
+        final String[] values = parameterMap.get(name);
+        return values != null && values.length > 0 ? values[0] : null;
+    }
+
+    @Override
+    public Enumeration<String> getParameterNames() {
+        return Collections.enumeration(parameterMap.keySet());
+    }
+
+    @Override
+    public String[] getParameterValues(String name) {
+        return parameterMap.get(name);
+    }
+
+    @Override
+    public Map<String, String[]> getParameterMap() {
+        return parameterMap;
+    }
+
+    public void setParameter(String name, String... values) {
+        parameterMap.put(name, values);
+    }
+
+    // ===================================================================================
+    //                                                                               Async
+    //                                                                               =====
+    @Override
+    public AsyncContext startAsync() throws IllegalStateException {
+        if (asyncContext == null) {
+            throw new IllegalStateException("Not async-supported request.");
+        }
+        asyncStarted = true;
+        return asyncContext;
+    }
+
+    @Override
+    public AsyncContext startAsync(ServletRequest servletRequest, ServletResponse servletResponse) throws IllegalStateException {
+        return startAsync();
+    }
+
+    @Override
+    public boolean isAsyncStarted() {
+        return asyncStarted;
+    }
+
+    @Override
+    public boolean isAsyncSupported() {
+        return asyncContext != null;
+    }
+
+    @Override
+    public AsyncContext getAsyncContext() {
+        if (!asyncStarted) {
+            throw new IllegalStateException("Not started the async process.");
+        }
+        return asyncContext;
+    }
+
+    public void setAsyncContext(AsyncContext asyncContext) {
+        this.asyncContext = asyncContext;
+    }
+
+    @Override
+    public DispatcherType getDispatcherType() {
+        return asyncStarted ? DispatcherType.ASYNC : DispatcherType.REQUEST;
+    }
+
+    // ===================================================================================
+    //                                                                             Request
+    //                                                                             =======
+    @Override
+    public String getMethod() {
+        return method;
+    }
+
+    public void setMethod(String method) {
+        this.method = method;
+    }
+
+    @Override
+    public String getRequestURI() {
+        return requestURI;
+    }
+
+    public void setRequestURI(String requestURI) {
+        this.requestURI = requestURI;
+    }
+
+    @Override
+    public StringBuffer getRequestURL() {
+        return requestURI != null ? new StringBuffer("http://localhost").append(requestURI) : null;
+    }
+
+    @Override
+    public String getCharacterEncoding() {
+        return characterEncoding;
+    }
+
+    @Override
+    public void setCharacterEncoding(String env) {
+        characterEncoding = env;
+    }
+
+    @Override
+    public String getContextPath() {
+        return "";
+    }
+
+    @Override
+    public String getServletPath() {
+        return requestURI;
+    }
+
+    @Override
+    public String getPathInfo() {
+        return null;
+    }
+
+    @Override
+    public String getPathTranslated() {
+        return null;
+    }
+
+    @Override
+    public String getQueryString() {
+        return null;
+    }
+
+    @Override
+    public String getProtocol() {
+        return "HTTP/1.1";
+    }
+
+    @Override
+    public String getScheme() {
+        return "http";
+    }
+
+    @Override
+    public String getServerName() {
+        return "localhost";
+    }
+
+    @Override
+    public int getServerPort() {
+        return 80;
+    }
+
+    @Override
+    public boolean isSecure() {
+        return false;
+    }
+
+    @Override
+    public String getRemoteAddr() {
+        return "127.0.0.1";
+    }
+
+    @Override
+    public String getRemoteHost() {
+        return "localhost";
+    }
+
+    @Override
+    public int getRemotePort() {
+        return 0;
+    }
+
+    @Override
+    public String getLocalName() {
+        return "localhost";
+    }
+
+    @Override
+    public String getLocalAddr() {
+        return "127.0.0.1";
+    }
+
+    @Override
+    public int getLocalPort() {
+        return 80;
+    }
+
+    @Override
+    public Locale getLocale() {
+        return Locale.getDefault();
+    }
+
+    @Override
+    public Enumeration<Locale> getLocales() {
+        return Collections.enumeration(Collections.singletonList(getLocale()));
+    }
+
+    // ===================================================================================
+    //                                                                        Request Body
+    //                                                                        ============
+    @Override
+    public int getContentLength() {
+        return -1;
+    }
+
+    @Override
+    public long getContentLengthLong() {
+        return -1L;
+    }
+
+    @Override
+    public String getContentType() {
+        return headerMap.get("Content-Type");
+    }
+
+    @Override
+    public ServletInputStream getInputStream() throws IOException {
+        return null;
+    }
+
+    @Override
+    public BufferedReader getReader() throws IOException {
+        return null;
+    }
+
+    @Override
+    public Collection<Part> getParts() throws IOException, ServletException {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public Part getPart(String name) throws IOException, ServletException {
+        return null;
+    }
+
+    // ===================================================================================
+    //                                                                      Authentication
+    //                                                                      ==============
+    @Override
+    public String getAuthType() {
+        return null;
+    }
+
+    @Override
+    public String getRemoteUser() {
+        return null;
+    }
+
+    @Override
+    public boolean isUserInRole(String role) {
+        return false;
+    }
+
+    @Override
+    public Principal getUserPrincipal() {
+        return null;
+    }
+
+    @Override
+    public boolean authenticate(HttpServletResponse response) throws IOException, ServletException {
+        return false;
+    }
+
+    @Override
+    public void login(String username, String password) throws ServletException {
+    }
+
+    @Override
+    public void logout() throws ServletException {
+    }
+
+    // ===================================================================================
+    //                                                                             Session
+    //                                                                             =======
+    @Override
+    public HttpSession getSession(boolean create) {
+        return null;
+    }
+
+    @Override
+    public HttpSession getSession() {
+        return null;
+    }
+
+    @Override
+    public String changeSessionId() {
+        return null;
+    }
+
+    @Override
+    public String getRequestedSessionId() {
+        return null;
+    }
+
+    @Override
+    public boolean isRequestedSessionIdValid() {
+        return false;
+    }
+
+    @Override
+    public boolean isRequestedSessionIdFromCookie() {
+        return false;
+    }
+
+    @Override
+    public boolean isRequestedSessionIdFromURL() {
+        return false;
+    }
+
+    @Override
+    @Deprecated
+    public boolean isRequestedSessionIdFromUrl() {
+        return false;
+    }
+
+    // ===================================================================================
+    //                                                                           Container
+    //                                                                           =========
+    @Override
+    public ServletContext getServletContext() {
+        return null;
+    }
+
+    @Override
+    public RequestDispatcher getRequestDispatcher(String path) {
+        return null;
+    }
+
+    @Override
+    @Deprecated
+    public String getRealPath(String path) {
+        return null;
+    }
+
+    @Override
+    public <T extends HttpUpgradeHandler> T upgrade(Class<T> handlerClass) throws IOException, ServletException {
+        throw new UnsupportedOperationException("upgrade");
+    }
+}
@@ -0,0 +1,373 @@
+/*
+ * Copyright 2015-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.unit.mock.web;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletResponse;
+
+import org.lastaflute.web.exception.ResponseClientAbortIOException;
+
+/**
+ * The mock of servlet response that keeps written body and headers in memory. <br>
+ * It is committed when the body is over the buffer size or the output stream is flushed.
+ * @author jflute
+ */
+public class MockHttpServletResponse implements HttpServletResponse {
+
+    // ===================================================================================
+    //                                                                           Attribute
+    //                                                                           =========
+    protected final ByteArrayOutputStream body = new ByteArrayOutputStream();
+    protected final Map<String, List<String>> headerMap = new LinkedHashMap<String, List<String>>();
+    protected final List<Cookie> cookieList = new ArrayList<Cookie>();
+    protected final ServletOutputStream outputStream = createOutputStream();
+    protected PrintWriter writer; // null allowed until first call
+    protected int status = SC_OK;
+    protected long contentLength = -1;
+    protected String contentType;
+    protected String characterEncoding;
+    protected Locale locale;
+    protected int bufferSize = 1024;
+    protected boolean committed;
+    protected boolean clientAborted; // output stream throws client abort if true
+    protected int resetCount; // by reset()
+    protected int resetBufferCount; // by resetBuffer()
+
+    // ===================================================================================
+    //                                                                       Output Stream
+    //                                                                       =============
+    protected ServletOutputStream createOutputStream() {
+        return new ServletOutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                if (clientAborted) {
+                    throw new ResponseClientAbortIOException("Broken pipe"); // e.g. client closed the connection
+                }
+                body.write(b);
+                if (body.size() > bufferSize) { // over response buffer
+                    committed = true;
+                }
+            }
+
+            @Override
+            public void flush() throws IOException {
+                committed = true;
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+            }
+        };
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        return outputStream;
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        if (writer == null) {
+            final String encoding = characterEncoding != null ? characterEncoding : StandardCharsets.ISO_8859_1.name();
+            writer = new PrintWriter(new OutputStreamWriter(outputStream, encoding));
+        }
+        return writer;
+    }
+
+    // ===================================================================================
+    //                                                                              Header
+    //                                                                              ======
+    @Override
+    public boolean containsHeader(String name) {
+        return headerMap.containsKey(name);
+    }
+
+    @Override
+    public String getHeader(String name) {
+        final List<String> valueList = headerMap.get(name);
+        return valueList != null ? valueList.get(0) : null;
+    }
+
+    @Override
+    public Collection<String> getHeaders(String name) {
+        return headerMap.get(name);
+    }
+
+    @Override
+    public Collection<String> getHeaderNames() {
+        return headerMap.keySet();
+    }
+
+    @Override
+    public void setHeader(String name, String value) {
+        headerMap.put(name, new ArrayList<String>(Arrays.asList(value)));
+    }
+
+    @Override
+    public void addHeader(String name, String value) {
+        headerMap.computeIfAbsent(name, key -> new ArrayList<String>()).add(value);
+    }
+
+    @Override
+    public void setDateHeader(String name, long date) {
+        setHeader(name, formatHttpDate(date));
+    }
+
+    @Override
+    public void addDateHeader(String name, long date) {
+        addHeader(name, formatHttpDate(date));
+    }
+
+    @Override
+    public void setIntHeader(String name, int value) {
+        setHeader(name, String.valueOf(value));
+    }
+
+    @Override
+    public void addIntHeader(String name, int value) {
+        addHeader(name, String.valueOf(value));
+    }
+
+    protected String formatHttpDate(long millis) {
+        return DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneOffset.UTC));
+    }
+
+    @Override
+    public void addCookie(Cookie cookie) {
+        cookieList.add(cookie);
+    }
+
+    // ===================================================================================
+    //                                                                             Content
+    //                                                                             =======
+    @Override
+    public void setContentLength(int len) {
+        setContentLengthLong(len);
+    }
+
+    @Override
+    public void setContentLengthLong(long len) {
+        contentLength = len;
+        setHeader("Content-Length", String.valueOf(len));
+    }
+
+    @Override
+    public String getContentType() {
+        return contentType;
+    }
+
+    @Override
+    public void setContentType(String type) {
+        contentType = type;
+    }
+
+    @Override
+    public String getCharacterEncoding() {
+        return characterEncoding;
+    }
+
+    @Override
+    public void setCharacterEncoding(String charset) {
+        characterEncoding = charset;
+    }
+
+    @Override
+    public Locale getLocale() {
+        return locale;
+    }
+
+    @Override
+    public void setLocale(Locale loc) {
+        locale = loc;
+    }
+
+    // ===================================================================================
+    //                                                                              Status
+    //                                                                              ======
+    @Override
+    public int getStatus() {
+        return status;
+    }
+
+    @Override
+    public void setStatus(int sc) {
+        status = sc;
+    }
+
+    @Override
+    @Deprecated
+    public void setStatus(int sc, String sm) {
+        status = sc;
+    }
+
+    @Override
+    public void sendError(int sc) throws IOException {
+        sendError(sc, null);
+    }
+
+    @Override
+    public void sendError(int sc, String msg) throws IOException {
+        assertNotCommitted();
+        status = sc;
+        committed = true;
+    }
+
+    @Override
+    public void sendRedirect(String location) throws IOException {
+        assertNotCommitted();
+        status = SC_FOUND;
+        setHeader("Location", location);
+        committed = true;
+    }
+
+    // ===================================================================================
+    //                                                                              Buffer
+    //                                                                              ======
+    @Override
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    @Override
+    public void setBufferSize(int size) {
+        bufferSize = size;
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+        committed = true;
+    }
+
+    @Override
+    public boolean isCommitted() {
+        return committed;
+    }
+
+    @Override
+    public void reset() {
+        assertNotCommitted();
+        ++resetCount;
+        body.reset();
+        headerMap.clear();
+        status = SC_OK;
+    }
+
+    @Override
+    public void resetBuffer() {
+        assertNotCommitted();
+        ++resetBufferCount;
+        body.reset();
+    }
+
+    protected void assertNotCommitted() {
+        if (committed) {
+            throw new IllegalStateException("already committed");
+        }
+    }
+
+    // ===================================================================================
+    //                                                                          Encode URL
+    //                                                                          ==========
+    @Override
+    public String encodeURL(String url) {
+        return url;
+    }
+
+    @Override
+    public String encodeRedirectURL(String url) {
+        return url;
+    }
+
+    @Override
+    @Deprecated
+    public String encodeUrl(String url) {
+        return url;
+    }
+
+    @Override
+    @Deprecated
+    public String encodeRedirectUrl(String url) {
+        return url;
+    }
+
+    // ===================================================================================
+    //                                                                            Accessor
+    //                                                                            ========
+    public byte[] getBodyBytes() {
+        return body.toByteArray();
+    }
+
+    public String getBodyString(Charset charset) {
+        return new String(body.toByteArray(), charset);
+    }
+
+    public int getBodySize() {
+        return body.size();
+    }
+
+    public Map<String, List<String>> getHeaderMap() {
+        return headerMap;
+    }
+
+    public List<Cookie> getCookieList() {
+        return cookieList;
+    }
+
+    public long getContentLength() {
+        return contentLength;
+    }
+
+    public void setCommitted(boolean committed) {
+        this.committed = committed;
+    }
+
+    public void setClientAborted(boolean clientAborted) {
+        this.clientAborted = clientAborted;
+    }
+
+    public int getResetCount() {
+        return resetCount;
+    }
+
+    public int getResetBufferCount() {
+        return resetBufferCount;
+    }
+}
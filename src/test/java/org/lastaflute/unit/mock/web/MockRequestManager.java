@@ -15,6 +15,7 @@
  */
 package org.lastaflute.unit.mock.web;
 
+import java.io.Reader;
 import java.util.Locale;
 import java.util.TimeZone;
 
@@ -102,6 +103,11 @@ public class MockRequestManager implements RequestManager {
         return null;
     }
 
+    @Override
+    public Reader getRequestBodyReader() {
+        return null;
+    }
+
     @Override
     public String getContextPath() {
         return null;
@@ -0,0 +1,42 @@
+package org.lastaflute.web.api;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.lastaflute.unit.UnitLastaFluteTestCase;
+
+/**
+ * @author jflute
+ */
+public class JsonBodyStreamTest extends UnitLastaFluteTestCase {
+
+    public void test_forEach_basic() throws Exception {
+        // ## Arrange ##
+        JsonBodyStream<String> bodyStream = new JsonBodyStream<String>(String.class, Arrays.asList("sea", "land").iterator());
+        List<String> bodyList = new ArrayList<String>();
+
+        // ## Act ##
+        int count = bodyStream.forEach(body -> bodyList.add(body));
+
+        // ## Assert ##
+        assertEquals(2, count);
+        assertEquals(Arrays.asList("sea", "land"), bodyList);
+        assertTrue(bodyStream.isConsumed());
+        assertException(IllegalStateException.class, () -> bodyStream.forEach(body -> {}));
+        assertException(IllegalStateException.class, () -> bodyStream.stream());
+    }
+
+    public void test_stream_basic() throws Exception {
+        // ## Arrange ##
+        JsonBodyStream<String> bodyStream = new JsonBodyStream<String>(String.class, Arrays.asList("sea", "land").iterator());
+
+        // ## Act ##
+        List<String> bodyList = bodyStream.stream().map(body -> body.toUpperCase()).collect(Collectors.toList());
+
+        // ## Assert ##
+        assertEquals(Arrays.asList("SEA", "LAND"), bodyList);
+        assertException(IllegalStateException.class, () -> bodyStream.forEach(body -> {}));
+    }
+}
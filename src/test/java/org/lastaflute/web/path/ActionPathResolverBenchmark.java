@@ -0,0 +1,27 @@
+package org.lastaflute.web.path;
+
+import org.lastaflute.di.naming.StyledNamingConvention;
+import org.lastaflute.unit.benchmark.UnitBenchmark;
+import org.lastaflute.unit.mock.app.web.sea.SeaLandAction;
+
+/**
+ * The benchmark of reverse routing: deriving the action path per call (old) vs. the reverse routing table (new).
+ * @author jflute
+ */
+public class ActionPathResolverBenchmark {
+
+    public static void main(String[] args) {
+        final StyledNamingConvention namingConvention = new StyledNamingConvention();
+        namingConvention.addRootPackageName("org.lastaflute.unit.mock.app");
+        final ActionPathResolver resolver = new ActionPathResolver();
+        resolver.namingConvention = namingConvention;
+        if (!resolver.resolveActionPath(SeaLandAction.class).equals(resolver.doResolveActionPath(SeaLandAction.class))) {
+            throw new IllegalStateException("Different action path between the table and deriving.");
+        }
+        new UnitBenchmark("reverse routing", 100000).compare(() -> {
+            return resolver.doResolveActionPath(SeaLandAction.class); // deriving per call
+        }, () -> {
+            return resolver.resolveActionPath(SeaLandAction.class); // hit in the table
+        });
+    }
+}
@@ -0,0 +1,67 @@
+package org.lastaflute.web.path;
+
+import org.lastaflute.di.naming.StyledNamingConvention;
+import org.lastaflute.unit.UnitLastaFluteTestCase;
+import org.lastaflute.unit.mock.app.web.sea.SeaLandAction;
+import org.lastaflute.web.UrlChain;
+
+/**
+ * @author jflute
+ */
+public class ActionPathResolverTest extends UnitLastaFluteTestCase {
+
+    public void test_toActionUrl_basic() throws Exception {
+        // ## Arrange ##
+        ActionPathResolver resolver = createResolver();
+
+        // ## Act ##
+        String plain = resolver.toActionUrl(SeaLandAction.class);
+        String chained = resolver.toActionUrl(SeaLandAction.class, new UrlChain(null).moreUrl(3, "dockside").params("hangar", 7).hash("top"));
+
+        // ## Assert ##
+        assertEquals("/sea/land/", plain);
+        assertEquals("/sea/land/3/dockside?hangar=7#top", chained);
+        assertEquals(1, resolver.actionPathMap.size()); // reverse routing table
+    }
+
+    public void test_resolveActionPath_reverseRoutingTable() throws Exception {
+        // ## Arrange ##
+        ActionPathResolver resolver = createResolver();
+
+        // ## Act ##
+        String first = resolver.resolveActionPath(SeaLandAction.class);
+        String second = resolver.resolveActionPath(SeaLandAction.class);
+
+        // ## Assert ##
+        assertEquals(resolver.doResolveActionPath(SeaLandAction.class), first);
+        assertSame(first, second); // hit in the table
+        assertEquals(1, resolver.actionPathMap.size());
+        assertSame(first, resolver.actionPathMap.get(SeaLandAction.class));
+    }
+
+    public void test_resolveActionPath_tableUnavailable() throws Exception {
+        // ## Arrange ##
+        ActionPathResolver resolver = new ActionPathResolver() {
+            @Override
+            protected boolean isReverseRoutingTableAvailable() {
+                return false; // e.g. hot deploy
+            }
+        };
+        resolver.namingConvention = createResolver().namingConvention;
+
+        // ## Act ##
+        String actionPath = resolver.resolveActionPath(SeaLandAction.class);
+
+        // ## Assert ##
+        assertEquals("/sea/land/", actionPath);
+        assertTrue(resolver.actionPathMap.isEmpty());
+    }
+
+    protected ActionPathResolver createResolver() {
+        StyledNamingConvention namingConvention = new StyledNamingConvention();
+        namingConvention.addRootPackageName("org.lastaflute.unit.mock.app");
+        ActionPathResolver resolver = new ActionPathResolver();
+        resolver.namingConvention = namingConvention;
+        return resolver;
+    }
+}
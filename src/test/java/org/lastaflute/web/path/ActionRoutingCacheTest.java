@@ -0,0 +1,71 @@
+package org.lastaflute.web.path;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.lastaflute.unit.UnitLastaFluteTestCase;
+import org.lastaflute.web.path.ActionRoutingCache.RoutingHit;
+
+/**
+ * @author jflute
+ */
+public class ActionRoutingCacheTest extends UnitLastaFluteTestCase {
+
+    public void test_find_basic() throws Exception {
+        // ## Arrange ##
+        ActionRoutingCache cache = new ActionRoutingCache(10);
+        RoutingHit hit = new RoutingHit("sea_seaLandAction", "3", null);
+        cache.cache("GET /sea/land/3", 0, Arrays.asList(hit));
+        cache.cache("GET /sea/none", 0, Collections.emptyList());
+
+        // ## Act ##
+        List<RoutingHit> found = cache.find("GET /sea/land/3", 0);
+        List<RoutingHit> notFound = cache.find("GET /sea/none", 0);
+        List<RoutingHit> notCached = cache.find("POST /sea/land/3", 0);
+
+        // ## Assert ##
+        log(cache);
+        assertEquals(Arrays.asList(hit), found);
+        assertTrue(notFound.isEmpty()); // negative cache
+        assertNull(notCached);
+        assertEquals(2, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    public void test_find_generationChanged() throws Exception {
+        // ## Arrange ##
+        ActionRoutingCache cache = new ActionRoutingCache(10);
+        cache.cache("GET /sea", 0, Arrays.asList(new RoutingHit("seaAction", "", null)));
+
+        // ## Act ##
+        List<RoutingHit> found = cache.find("GET /sea", 1); // e.g. module configuration disposed
+
+        // ## Assert ##
+        assertNull(found);
+        assertEquals(0, cache.size());
+        assertEquals(1, cache.getInvalidationCount());
+    }
+
+    public void test_cache_eviction() throws Exception {
+        // ## Arrange ##
+        ActionRoutingCache cache = new ActionRoutingCache(10);
+        List<String> keyList = new ArrayList<String>();
+        for (int i = 0; i < 10; i++) {
+            String key = "GET /sea/" + i;
+            keyList.add(key);
+            cache.cache(key, 0, Collections.emptyList());
+        }
+        cache.find(keyList.get(3), 0); // referenced
+
+        // ## Act ##
+        cache.cache("GET /land", 0, Collections.emptyList());
+
+        // ## Assert ##
+        log(cache);
+        assertTrue(cache.size() <= 9);
+        assertTrue(cache.getEvictionCount() >= 2);
+        assertNotNull(cache.find(keyList.get(3), 0)); // second chance
+    }
+}
@@ -0,0 +1,60 @@
+package org.lastaflute.web.path;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.lastaflute.unit.UnitLastaFluteTestCase;
+import org.lastaflute.web.path.ActionRoutingTrie.RoutingNode;
+
+/**
+ * @author jflute
+ */
+public class ActionRoutingTrieTest extends UnitLastaFluteTestCase {
+
+    public void test_build_basic() throws Exception {
+        // ## Arrange ##
+        List<String> actionNameList = Arrays.asList("rootAction", "seaAction", "sea_seaAction", "sea_land_seaLandAction",
+                "seaLandAction", "sea_seaLandAction", "sea_landAction");
+
+        // ## Act ##
+        ActionRoutingTrie trie = ActionRoutingTrie.build(actionNameList, "Action");
+
+        // ## Assert ##
+        log(trie);
+        assertTrue(trie.existsRootAction());
+        RoutingNode sea = trie.getRootNode().findChild("sea");
+        assertEquals(Arrays.asList("seaAction", "sea_seaAction"), sea.getCandidateList());
+        RoutingNode land = sea.findChild("land");
+        assertEquals(Arrays.asList("seaLandAction", "sea_seaLandAction", "sea_land_seaLandAction"), land.getCandidateList());
+        assertNull(trie.getRootNode().findChild("land")); // sea_landAction cannot be routed
+        assertEquals(Arrays.asList("rootAction"), trie.getRootNode().findChild("root").getCandidateList());
+    }
+
+    public void test_build_uncasedBoundary() throws Exception {
+        // ## Arrange ##
+        List<String> actionNameList = Arrays.asList("sea2ndAction", "sea_sea2ndLandAction");
+
+        // ## Act ##
+        ActionRoutingTrie trie = ActionRoutingTrie.build(actionNameList, "Action");
+
+        // ## Assert ##
+        RoutingNode root = trie.getRootNode();
+        assertEquals(Arrays.asList("sea2ndAction"), root.findChild("sea2nd").getCandidateList());
+        assertEquals(Arrays.asList("sea2ndAction"), root.findChild("sea").findChild("2nd").getCandidateList());
+        assertEquals(Arrays.asList("sea_sea2ndLandAction"), root.findChild("sea").findChild("2nd").findChild("land").getCandidateList());
+        assertNull(root.findChild("sea").findChild("2ndland"));
+    }
+
+    public void test_build_noRootAction() throws Exception {
+        // ## Arrange ##
+        List<String> actionNameList = Arrays.asList("seaAction");
+
+        // ## Act ##
+        ActionRoutingTrie trie = ActionRoutingTrie.build(actionNameList, "Action");
+
+        // ## Assert ##
+        assertFalse(trie.existsRootAction());
+        assertEquals(Arrays.asList("seaAction"), trie.getRootNode().findChild("sea").getCandidateList());
+        assertNull(trie.getRootNode().findChild("root"));
+    }
+}
@@ -0,0 +1,323 @@
+package org.lastaflute.web.ruts;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Supplier;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+
+import org.dbflute.optional.OptionalThing;
+import org.lastaflute.unit.UnitLastaFluteTestCase;
+import org.lastaflute.unit.mock.web.MockHttpServletRequest;
+import org.lastaflute.unit.mock.web.MockHttpServletResponse;
+import org.lastaflute.unit.mock.web.MockRequestManager;
+import org.lastaflute.web.ruts.process.ActionAsyncThreadContext;
+import org.lastaflute.web.ruts.process.ActionBulkhead;
+import org.lastaflute.web.ruts.process.ActionCoinHelper;
+import org.lastaflute.web.ruts.process.ActionResponseReflector;
+import org.lastaflute.web.ruts.process.ActionRuntime;
+import org.lastaflute.web.servlet.request.RequestManager;
+import org.lastaflute.web.servlet.request.ResponseManager;
+
+/**
+ * @author jflute
+ */
+public class ActionRequestProcessorTest extends UnitLastaFluteTestCase {
+
+    // ===================================================================================
+    //                                                                          Fire Async
+    //                                                                          ==========
+    public void test_fireAsync_alreadyCompleted() throws Exception {
+        // ## Arrange ##
+        List<String> callList = new ArrayList<String>();
+        ActionBulkhead bulkhead = new ActionBulkhead("sea", 1, 0, 0L);
+        MockProcessor processor = new MockProcessor(callList, bulkhead, true, form -> {
+            return CompletableFuture.completedFuture(() -> journey("/sea.html"));
+        });
+
+        // ## Act ##
+        processor.fireAsync(null);
+
+        // ## Assert ##
+        assertEquals("[startAsync, addListener, toNext(/sea.html), complete]", callList.toString());
+        assertEquals(0, bulkhead.getInFlightCount());
+    }
+
+    public void test_fireAsync_completedLater() throws Exception {
+        // ## Arrange ##
+        List<String> callList = new ArrayList<String>();
+        ActionBulkhead bulkhead = new ActionBulkhead("sea", 1, 0, 0L);
+        CompletableFuture<Supplier<NextJourney>> future = new CompletableFuture<Supplier<NextJourney>>();
+        MockProcessor processor = new MockProcessor(callList, bulkhead, true, form -> future);
+
+        // ## Act ##
+        processor.fireAsync(null);
+
+        // ## Assert ##
+        assertEquals("[startAsync, addListener]", callList.toString());
+        assertEquals(1, bulkhead.getInFlightCount()); // until completion
+        Thread thread = new Thread(() -> future.complete(() -> journey("/land.html")));
+        thread.start();
+        thread.join();
+        assertEquals("[startAsync, addListener, toNext(/land.html), complete]", callList.toString());
+        assertEquals(0, bulkhead.getInFlightCount());
+    }
+
+    public void test_fireAsync_exceptionalCompletion() throws Exception {
+        // ## Arrange ##
+        List<String> callList = new ArrayList<String>();
+        ActionBulkhead bulkhead = new ActionBulkhead("sea", 1, 0, 0L);
+        CompletableFuture<Supplier<NextJourney>> future = new CompletableFuture<Supplier<NextJourney>>();
+        MockProcessor processor = new MockProcessor(callList, bulkhead, true, form -> future.thenApply(finisher -> finisher));
+        processor.fireAsync(null);
+
+        // ## Act ##
+        future.completeExceptionally(new IllegalStateException("mystic"));
+
+        // ## Assert ##
+        assertEquals("[startAsync, addListener, failure(IllegalStateException:mystic), toNext(/failure.html), complete]",
+                callList.toString()); // unwrapped from completion exception
+        assertEquals(0, bulkhead.getInFlightCount());
+    }
+
+    public void test_fireAsync_finisherFailure() throws Exception {
+        // ## Arrange ##
+        List<String> callList = new ArrayList<String>();
+        ActionBulkhead bulkhead = new ActionBulkhead("sea", 1, 0, 0L);
+        MockProcessor processor = new MockProcessor(callList, bulkhead, true, form -> {
+            return CompletableFuture.completedFuture(() -> {
+                throw new IllegalStateException("oneman");
+            });
+        });
+
+        // ## Act ##
+        processor.fireAsync(null);
+
+        // ## Assert ##
+        assertEquals("[startAsync, addListener, failure(IllegalStateException:oneman), toNext(/failure.html), complete]",
+                callList.toString());
+        assertEquals(0, bulkhead.getInFlightCount());
+    }
+
+    public void test_fireAsync_executeFailure() throws Exception {
+        // ## Arrange ##
+        List<String> callList = new ArrayList<String>();
+        ActionBulkhead bulkhead = new ActionBulkhead("sea", 1, 0, 0L);
+        MockProcessor processor = new MockProcessor(callList, bulkhead, true, form -> {
+            throw new IllegalStateException("dockside");
+        });
+
+        // ## Act ##
+        processor.fireAsync(null);
+
+        // ## Assert ##
+        assertEquals("[failure(IllegalStateException:dockside), toNext(/failure.html)]", callList.toString()); // not started
+        assertEquals(0, bulkhead.getInFlightCount());
+    }
+
+    public void test_fireAsync_expired() throws Exception {
+        // ## Arrange ##
+        List<String> callList = new ArrayList<String>();
+        ActionBulkhead bulkhead = new ActionBulkhead("sea", 1, 0, 0L);
+        CompletableFuture<Supplier<NextJourney>> future = new CompletableFuture<Supplier<NextJourney>>();
+        MockProcessor processor = new MockProcessor(callList, bulkhead, true, form -> future);
+        processor.fireAsync(null);
+        processor.listener.onTimeout(new AsyncEvent(processor.asyncContext, null, processor.response));
+        callList.clear();
+
+        // ## Act ##
+        future.complete(() -> journey("/sea.html"));
+
+        // ## Assert ##
+        assertTrue(callList.isEmpty()); // the response is not touched
+        assertEquals(0, bulkhead.getInFlightCount()); // released even if expired
+    }
+
+    // -----------------------------------------------------
+    //                                  Not Async-Supported
+    //                                  -------------------
+    public void test_fireAsync_notAsyncSupported() throws Exception {
+        // ## Arrange ##
+        List<String> callList = new ArrayList<String>();
+        ActionBulkhead bulkhead = new ActionBulkhead("sea", 1, 0, 0L);
+        MockProcessor processor = new MockProcessor(callList, bulkhead, false, form -> {
+            return CompletableFuture.supplyAsync(() -> () -> journey("/sea.html"));
+        });
+
+        // ## Act ##
+        processor.fireAsync(null);
+
+        // ## Assert ##
+        assertEquals("[toNext(/sea.html)]", callList.toString()); // waits for the future on request thread
+        assertEquals(0, bulkhead.getInFlightCount());
+    }
+
+    public void test_fireAsync_notAsyncSupported_exceptionalCompletion() throws Exception {
+        // ## Arrange ##
+        List<String> callList = new ArrayList<String>();
+        ActionBulkhead bulkhead = new ActionBulkhead("sea", 1, 0, 0L);
+        MockProcessor processor = new MockProcessor(callList, bulkhead, false, form -> {
+            return CompletableFuture.supplyAsync(() -> {
+                throw new IllegalStateException("mystic");
+            });
+        });
+
+        // ## Act ##
+        processor.fireAsync(null);
+
+        // ## Assert ##
+        assertEquals("[failure(IllegalStateException:mystic), toNext(/failure.html)]", callList.toString());
+        assertEquals(0, bulkhead.getInFlightCount());
+    }
+
+    // ===================================================================================
+    //                                                                        Mock Process
+    //                                                                        ============
+    protected static interface AsyncExecution {
+
+        CompletionStage<Supplier<NextJourney>> execute(OptionalThing<VirtualForm> form);
+    }
+
+    protected static class MockProcessor extends ActionRequestProcessor {
+
+        protected final List<String> callList;
+        protected final ActionBulkhead bulkhead;
+        protected final VirtualAction action;
+        protected final MockHttpServletRequest request;
+        protected final MockHttpServletResponse response;
+        protected final AsyncContext asyncContext;
+        protected AsyncListener listener;
+
+        public MockProcessor(List<String> callList, ActionBulkhead bulkhead, boolean asyncSupported, AsyncExecution execution) {
+            this.callList = callList;
+            this.bulkhead = bulkhead;
+            this.actionCoinHelper = new ActionCoinHelper(null, null, null);
+            this.action = new VirtualAction() {
+                public NextJourney execute(OptionalThing<VirtualForm> form) {
+                    throw new IllegalStateException("Not called in async process");
+                }
+
+                @Override
+                public CompletionStage<Supplier<NextJourney>> executeAsync(OptionalThing<VirtualForm> form) {
+                    return execution.execute(form);
+                }
+            };
+            final ClassLoader loader = MockProcessor.class.getClassLoader();
+            this.response = new MockHttpServletResponse() {
+                @Override
+                public void sendError(int sc, String msg) throws IOException {
+                    callList.add("sendError(" + sc + ")");
+                    super.sendError(sc, msg);
+                }
+            };
+            this.asyncContext = (AsyncContext) Proxy.newProxyInstance(loader, new Class<?>[] { AsyncContext.class },
+                    (proxy, method, args) -> {
+                        if (method.getName().equals("addListener")) {
+                            callList.add("addListener");
+                            listener = (AsyncListener) args[0];
+                        } else if (method.getName().equals("complete")) {
+                            callList.add("complete");
+                        }
+                        return null;
+                    });
+            this.request = new MockHttpServletRequest() {
+                @Override
+                public AsyncContext startAsync() throws IllegalStateException {
+                    callList.add("startAsync");
+                    return super.startAsync();
+                }
+            };
+            if (asyncSupported) {
+                request.setAsyncContext(asyncContext);
+            }
+        }
+
+        @Override
+        protected ActionResponseReflector createResponseReflector(ActionRuntime runtime) {
+            return null;
+        }
+
+        @Override
+        protected void ready(ActionRuntime runtime, ActionResponseReflector reflector) {
+        }
+
+        @Override
+        protected OptionalThing<ActionBulkhead> enterBulkheadIfExists(ActionRuntime runtime) {
+            assertTrue(bulkhead.tryEnter());
+            return OptionalThing.of(bulkhead);
+        }
+
+        @Override
+        public OptionalThing<VirtualForm> prepareActionForm(ActionRuntime runtime) {
+            return OptionalThing.empty();
+        }
+
+        @Override
+        protected void populateParameter(ActionRuntime runtime, OptionalThing<VirtualForm> form) {
+        }
+
+        @Override
+        public VirtualAction createAction(ActionRuntime runtime, ActionResponseReflector reflector) {
+            return action;
+        }
+
+        @Override
+        protected ActionAsyncThreadContext captureAsyncThreadContext() {
+            return new ActionAsyncThreadContext(null, null, new HashMap<String, Object>(), null, null, Thread.currentThread()) {
+                @Override
+                public void carry(Runnable process) { // no container here
+                    process.run();
+                }
+            };
+        }
+
+        @Override
+        protected NextJourney handleActionFailureException(VirtualAction action, OptionalThing<VirtualForm> optForm,
+                ActionRuntime runtime, RuntimeException cause) throws IOException, ServletException {
+            callList.add("failure(" + cause.getClass().getSimpleName() + ":" + cause.getMessage() + ")");
+            return journey("/failure.html");
+        }
+
+        @Override
+        protected void toNext(ActionRuntime runtime, NextJourney journey) {
+            callList.add("toNext(" + journey.getRoutingPath() + ")");
+        }
+
+        @Override
+        protected void finishMultipartIfExists(ActionRuntime runtime) {
+        }
+
+        @Override
+        protected RequestManager getRequestManager() {
+            final ClassLoader loader = MockProcessor.class.getClassLoader();
+            final ResponseManager responseManager = (ResponseManager) Proxy.newProxyInstance(loader,
+                    new Class<?>[] { ResponseManager.class }, (proxy, method, args) -> {
+                        return method.getName().equals("getResponse") ? response : null;
+                    });
+            return new MockRequestManager() {
+                @Override
+                public HttpServletRequest getRequest() {
+                    return request;
+                }
+
+                @Override
+                public ResponseManager getResponseManager() {
+                    return responseManager;
+                }
+            };
+        }
+    }
+
+    protected static NextJourney journey(String routingPath) {
+        return new NextJourney(routingPath, false, false, OptionalThing.empty());
+    }
+}
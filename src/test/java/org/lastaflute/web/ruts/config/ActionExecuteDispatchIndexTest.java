@@ -0,0 +1,230 @@
+package org.lastaflute.web.ruts.config;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.dbflute.optional.OptionalThing;
+import org.lastaflute.di.core.meta.impl.ComponentDefImpl;
+import org.lastaflute.unit.UnitLastaFluteTestCase;
+import org.lastaflute.unit.mock.web.MockRequestManager;
+import org.lastaflute.web.response.JsonResponse;
+
+/**
+ * @author jflute
+ */
+public class ActionExecuteDispatchIndexTest extends UnitLastaFluteTestCase {
+
+    // ===================================================================================
+    //                                                                            Priority
+    //                                                                            ========
+    public void test_findActionExecute_restfulAndNonRestfulMixed() throws Exception {
+        // ## Arrange ##
+        MockMapping mapping = createMapping("get$index", "index", "post$index", "get$sea", "land");
+
+        // ## Act ##
+        // ## Assert ##
+        assertEquals("get$index", mapping.find("GET", "3"));
+        assertEquals("index", mapping.find("GET", "oneman")); // not number so next in registration order
+        assertEquals("index", mapping.find("POST", "3")); // registered before post$index
+        assertEquals("get$sea", mapping.find("GET", "sea/3"));
+        assertNull(mapping.find("POST", "sea/3")); // restful sea is only for GET
+        assertEquals("land", mapping.find("PUT", "land/mystic"));
+        assertEquals("index", mapping.find("PUT", "3")); // no restful execute for PUT
+        mapping.assertSameAsAllExecutes("GET", "POST", "PUT");
+    }
+
+    public void test_findActionExecute_restfulRegisteredLater() throws Exception {
+        // ## Arrange ##
+        MockMapping mapping = createMapping("index", "get$index", "post$index");
+
+        // ## Act ##
+        // ## Assert ##
+        assertEquals("index", mapping.find("GET", "3")); // first-match in registration order
+        assertEquals("index", mapping.find("POST", "3"));
+        mapping.assertSameAsAllExecutes("GET", "POST");
+    }
+
+    // ===================================================================================
+    //                                                                 Unrestricted Bucket
+    //                                                                 ===================
+    public void test_findActionExecute_optionalParameter() throws Exception {
+        // ## Arrange ##
+        MockMapping mapping = createMapping("get$sea", "piari", "land");
+
+        // ## Act ##
+        // ## Assert ##
+        assertNull(findExecute(mapping, "piari").findUrlParameterFirstLiteral()); // matched by parameter count
+        assertEquals("piari", mapping.find("GET", "piari/3"));
+        assertEquals("piari", mapping.find("GET", "piari"));
+        assertEquals("get$sea", mapping.find("GET", "sea/3"));
+        mapping.assertSameAsAllExecutes("GET", "POST");
+    }
+
+    public void test_findActionExecute_regexpFallback() throws Exception {
+        // ## Arrange ##
+        MockMapping mapping = createMapping("get$sea", "bonvo", "land");
+
+        // ## Act ##
+        // ## Assert ##
+        ActionExecute bonvo = findExecute(mapping, "bonvo");
+        assertNull(bonvo.getPreparedUrlPattern().getSegmentMatcher()); // variable with literal in one segment
+        assertNull(bonvo.findUrlParameterFirstLiteral());
+        assertEquals("bonvo", mapping.find("GET", "bonvo/3-dstore"));
+        assertNull(mapping.find("GET", "bonvo/3"));
+        assertEquals("land", mapping.find("GET", "land/mystic"));
+        mapping.assertSameAsAllExecutes("GET", "POST");
+    }
+
+    public void test_findCandidates_otherKey() throws Exception {
+        // ## Arrange ##
+        MockMapping mapping = createMapping("get$index", "get$sea", "piari", "bonvo", "land", "index");
+
+        // ## Act ##
+        ActionExecuteDispatchIndex index = mapping.prepareDispatchIndex();
+
+        // ## Assert ##
+        assertTrue(index.needsHttpMethod());
+        assertEquals("[get$index, piari, bonvo, index]", toNameList(index.findCandidates("GET", "dockside/3"))); // other segment
+        assertEquals("[piari, bonvo, land, index]", toNameList(index.findCandidates("DELETE", "land/3"))); // other method
+        assertEquals("[piari, bonvo, index]", toNameList(index.findCandidates("DELETE", "3"))); // other both
+        assertEquals("[piari, bonvo, index]", toNameList(index.findCandidates(null, "3"))); // no method
+        assertEquals("[get$index, get$sea, piari, bonvo, index]", toNameList(index.findCandidates("get", "sea"))); // case-insensitive
+        mapping.assertSameAsAllExecutes("GET", "DELETE");
+    }
+
+    // ===================================================================================
+    //                                                                         Lazy Build
+    //                                                                         ==========
+    public void test_dispatchIndex_builtAfterLastRegistration() throws Exception {
+        // ## Arrange ##
+        MockMapping mapping = createMapping("get$index", "get$sea");
+        assertNull(mapping.dispatchIndex); // not built per registration
+
+        // ## Act ##
+        assertEquals("get$sea", mapping.find("GET", "sea/3"));
+
+        // ## Assert ##
+        ActionExecuteDispatchIndex built = mapping.dispatchIndex;
+        assertNotNull(built);
+        assertEquals("get$index", mapping.find("GET", "3"));
+        assertSame(built, mapping.dispatchIndex); // reused
+        mapping.registerExecute(createExecute(mapping, "land"));
+        assertNull(mapping.dispatchIndex); // cleared by registration (e.g. hot deploy)
+        assertEquals("land", mapping.find("GET", "land/mystic"));
+        assertNotSame(built, mapping.dispatchIndex);
+    }
+
+    // ===================================================================================
+    //                                                                        Assist Logic
+    //                                                                        ============
+    protected MockMapping createMapping(String... methodNames) throws Exception {
+        MockMapping mapping = new MockMapping();
+        for (String methodName : methodNames) {
+            mapping.registerExecute(createExecute(mapping, methodName));
+        }
+        return mapping;
+    }
+
+    protected ActionExecute createExecute(MockMapping mapping, String methodName) {
+        Method method = Arrays.stream(MockDispatchAction.class.getMethods()).filter(mt -> mt.getName().equals(methodName)).findFirst().get();
+        String urlPattern = methodName.equals("bonvo") ? "{}-dstore" : null; // regular expression for the segment
+        ActionExecute execute = new ActionExecute(mapping, method, new ExecuteOption(urlPattern, false, false, -1));
+        execute.cachedRequestManager = mapping.requestManager;
+        return execute;
+    }
+
+    protected ActionExecute findExecute(MockMapping mapping, String methodName) {
+        return mapping.executeMap.get(methodName);
+    }
+
+    protected String toNameList(ActionExecute[] executes) {
+        return Arrays.stream(executes).map(execute -> execute.getExecuteMethod().getName()).collect(Collectors.toList()).toString();
+    }
+
+    protected static class MockMapping extends ActionMapping {
+
+        protected final MockHttpMethodRequestManager requestManager = new MockHttpMethodRequestManager();
+
+        public MockMapping() {
+            super(new ComponentDefImpl(MockDispatchAction.class), "mockDispatchAction", null);
+            cachedRequestManager = requestManager;
+        }
+
+        public String find(String httpMethod, String paramPath) {
+            requestManager.httpMethod = httpMethod;
+            ActionExecute execute = findActionExecute(paramPath);
+            UrlParamMatchResult result = matchActionExecute(paramPath);
+            assertEquals(execute, result != null ? result.getExecute() : null);
+            return execute != null ? execute.getExecuteMethod().getName() : null;
+        }
+
+        public void assertSameAsAllExecutes(String... httpMethods) { // same as matching all executes
+            List<String> pathList = new ArrayList<String>(Arrays.asList("3", "oneman", "-1.5", "sea", "sea/3", "sea/oneman", "sea/3/4"));
+            pathList.addAll(Arrays.asList("land", "land/mystic", "piari", "piari/3", "bonvo/3-dstore", "bonvo/3", "dockside/3"));
+            for (String httpMethod : httpMethods) {
+                requestManager.httpMethod = httpMethod;
+                for (String paramPath : pathList) {
+                    ActionExecute expected = null;
+                    for (ActionExecute execute : executeMap.values()) {
+                        if (execute.determineTargetByUrlParameter(paramPath)) {
+                            expected = execute;
+                            break;
+                        }
+                    }
+                    assertEquals(httpMethod + " " + paramPath, expected, findActionExecute(paramPath));
+                }
+            }
+        }
+    }
+
+    protected static class MockHttpMethodRequestManager extends MockRequestManager {
+
+        protected String httpMethod;
+
+        @Override
+        public OptionalThing<String> getHttpMethod() {
+            return OptionalThing.ofNullable(httpMethod, () -> {
+                throw new IllegalStateException("Not found the HTTP method.");
+            });
+        }
+
+        @Override
+        public boolean isHttpMethod(String httpMethod) {
+            return httpMethod.equalsIgnoreCase(this.httpMethod);
+        }
+    }
+
+    public static class MockDispatchAction {
+
+        public JsonResponse<Object> get$index(Integer id) {
+            return null;
+        }
+
+        public JsonResponse<Object> index(String code) {
+            return null;
+        }
+
+        public JsonResponse<Object> post$index(Integer id) {
+            return null;
+        }
+
+        public JsonResponse<Object> get$sea(Integer id) {
+            return null;
+        }
+
+        public JsonResponse<Object> land(String code) {
+            return null;
+        }
+
+        public JsonResponse<Object> piari(OptionalThing<Integer> id) {
+            return null;
+        }
+
+        public JsonResponse<Object> bonvo(String code) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package org.lastaflute.web.ruts.config;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+import org.lastaflute.db.jta.stage.TransactionGenre;
+import org.lastaflute.di.core.meta.impl.ComponentDefImpl;
+import org.lastaflute.unit.UnitLastaFluteTestCase;
+import org.lastaflute.web.api.ApiAction;
+import org.lastaflute.web.login.AllowAnyoneAccess;
+import org.lastaflute.web.response.ApiResponse;
+import org.lastaflute.web.response.HtmlResponse;
+import org.lastaflute.web.response.JsonResponse;
+
+/**
+ * @author jflute
+ */
+public class ActionExecutePlanTest extends UnitLastaFluteTestCase {
+
+    // ===================================================================================
+    //                                                                      Same as Before
+    //                                                                      ==============
+    public void test_createExecutePlan_sameAsPerRequestCheck() throws Exception {
+        for (Class<?> actionType : Arrays.asList(MockPlainAction.class, MockAnyoneApiAction.class)) {
+            ActionMapping mapping = new ActionMapping(new ComponentDefImpl(actionType), "mockAction", null);
+            for (Method method : actionType.getDeclaredMethods()) {
+                // ## Arrange ##
+                ActionExecute execute = new ActionExecute(mapping, method, new ExecuteOption(null, false, false, -1));
+
+                // ## Act ##
+                ActionExecutePlan plan = execute.getExecutePlan();
+
+                // ## Assert ##
+                log(actionType.getSimpleName() + "@" + method.getName(), plan);
+                String title = actionType.getSimpleName() + "@" + method.getName() + "()";
+                assertEquals(title, isAllowAnyoneAccessPerRequest(method), plan.isAllowAnyoneAccess());
+                assertEquals(title, isAsyncExecutePerRequest(method), plan.isAsyncExecute());
+                if (plan.isAsyncExecute()) { // checked by response type in the future
+                    Class<?> futureType = resolveFutureResponseType(method);
+                    assertEquals(title, isApiExecutePerRequest(actionType, futureType), plan.isApiExecute());
+                } else {
+                    assertEquals(title, isApiExecutePerRequest(actionType, method.getReturnType()), plan.isApiExecute());
+                }
+                assertEquals(title, TransactionGenre.REQUIRES_NEW, plan.getTransactionGenre());
+                assertFalse(title, plan.getSqlExecutionCountLimit().isPresent());
+            }
+        }
+    }
+
+    public void test_createExecutePlan_fixedExpectation() throws Exception {
+        // ## Arrange ##
+        ActionMapping plainMapping = new ActionMapping(new ComponentDefImpl(MockPlainAction.class), "mockPlainAction", null);
+        ActionMapping apiMapping = new ActionMapping(new ComponentDefImpl(MockAnyoneApiAction.class), "mockAnyoneApiAction", null);
+
+        // ## Act ##
+        ActionExecutePlan html = createPlan(plainMapping, MockPlainAction.class, "index");
+        ActionExecutePlan json = createPlan(plainMapping, MockPlainAction.class, "sea");
+        ActionExecutePlan asyncJson = createPlan(plainMapping, MockPlainAction.class, "land");
+        ActionExecutePlan asyncHtml = createPlan(plainMapping, MockPlainAction.class, "piari");
+        ActionExecutePlan apiHtml = createPlan(apiMapping, MockAnyoneApiAction.class, "index");
+
+        // ## Assert ##
+        assertPlan(html, false, false, false);
+        assertPlan(json, true, true, false); // annotated method
+        assertPlan(asyncJson, false, true, true);
+        assertPlan(asyncHtml, false, false, true);
+        assertPlan(apiHtml, true, true, false); // annotated class, API action
+    }
+
+    // ===================================================================================
+    //                                                                        Assist Logic
+    //                                                                        ============
+    // old per-request checks (before execution plan)
+    protected boolean isAllowAnyoneAccessPerRequest(Method executeMethod) { // login assist: action class and method
+        Class<?> actionClass = executeMethod.getDeclaringClass();
+        return actionClass.getAnnotation(AllowAnyoneAccess.class) != null || executeMethod.getAnnotation(AllowAnyoneAccess.class) != null;
+    }
+
+    protected boolean isApiExecutePerRequest(Class<?> actionType, Class<?> responseType) { // action execute: return type or action
+        return ApiResponse.class.isAssignableFrom(responseType) || ApiAction.class.isAssignableFrom(actionType);
+    }
+
+    protected boolean isAsyncExecutePerRequest(Method executeMethod) { // request processor: returned value is future
+        return CompletionStage.class.isAssignableFrom(executeMethod.getReturnType());
+    }
+
+    protected Class<?> resolveFutureResponseType(Method executeMethod) { // e.g. JsonResponse if CompletableFuture<JsonResponse<...>>
+        Type argType = ((ParameterizedType) executeMethod.getGenericReturnType()).getActualTypeArguments()[0];
+        return (Class<?>) (argType instanceof ParameterizedType ? ((ParameterizedType) argType).getRawType() : argType);
+    }
+
+    protected ActionExecutePlan createPlan(ActionMapping mapping, Class<?> actionType, String methodName) {
+        Method method = Arrays.stream(actionType.getDeclaredMethods()).filter(mt -> mt.getName().equals(methodName)).findFirst().get();
+        return new ActionExecute(mapping, method, new ExecuteOption(null, false, false, -1)).getExecutePlan();
+    }
+
+    protected void assertPlan(ActionExecutePlan plan, boolean allowAnyoneAccess, boolean apiExecute, boolean asyncExecute) {
+        assertEquals(allowAnyoneAccess, plan.isAllowAnyoneAccess());
+        assertEquals(apiExecute, plan.isApiExecute());
+        assertEquals(asyncExecute, plan.isAsyncExecute());
+    }
+
+    public static class MockPlainAction {
+
+        public HtmlResponse index() {
+            return null;
+        }
+
+        @AllowAnyoneAccess
+        public JsonResponse<Object> sea(Integer id) {
+            return null;
+        }
+
+        public CompletableFuture<JsonResponse<Object>> land(Integer id) {
+            return null;
+        }
+
+        public CompletableFuture<HtmlResponse> piari(Integer id) {
+            return null;
+        }
+    }
+
+    @AllowAnyoneAccess
+    public static class MockAnyoneApiAction implements ApiAction {
+
+        public HtmlResponse index() {
+            return null;
+        }
+
+        public JsonResponse<Object> sea(Integer id) {
+            return null;
+        }
+    }
+}
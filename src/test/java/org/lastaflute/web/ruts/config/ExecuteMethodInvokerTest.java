@@ -0,0 +1,68 @@
+package org.lastaflute.web.ruts.config;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+import org.lastaflute.unit.UnitLastaFluteTestCase;
+
+/**
+ * @author jflute
+ */
+public class ExecuteMethodInvokerTest extends UnitLastaFluteTestCase {
+
+    public void test_invokeDirectly_basic() throws Exception {
+        // ## Arrange ##
+        Method method = MockInvokedAction.class.getMethod("sea", int.class, String.class);
+        ExecuteMethodInvoker invoker = new ExecuteMethodInvoker(method);
+        MockInvokedAction action = new MockInvokedAction();
+        Object[] args = new Object[] { 3, "land" };
+
+        // ## Act ##
+        assertTrue(invoker.canInvokeDirectly(action, args));
+        Object result = invoker.invokeDirectly(action, args);
+
+        // ## Assert ##
+        assertEquals("sea:3:land", result);
+    }
+
+    public void test_invokeDirectly_exception() throws Exception {
+        // ## Arrange ##
+        Method method = MockInvokedAction.class.getMethod("land");
+        ExecuteMethodInvoker invoker = new ExecuteMethodInvoker(method);
+
+        // ## Act ##
+        // ## Assert ##
+        try {
+            invoker.invokeDirectly(new MockInvokedAction(), new Object[] {});
+            fail();
+        } catch (InvocationTargetException e) { // same as reflection
+            assertEquals(IllegalStateException.class, e.getTargetException().getClass());
+        }
+    }
+
+    public void test_canInvokeDirectly_mismatch() throws Exception {
+        // ## Arrange ##
+        Method method = MockInvokedAction.class.getMethod("sea", int.class, String.class);
+        ExecuteMethodInvoker invoker = new ExecuteMethodInvoker(method);
+        MockInvokedAction action = new MockInvokedAction();
+
+        // ## Act ##
+        // ## Assert ##
+        assertFalse(invoker.canInvokeDirectly(action, new Object[] { 3 })); // different number
+        assertFalse(invoker.canInvokeDirectly(action, new Object[] { "3", "land" })); // different type
+        assertFalse(invoker.canInvokeDirectly(action, new Object[] { null, "land" })); // null primitive
+        assertTrue(invoker.canInvokeDirectly(action, new Object[] { 3, null }));
+        assertFalse(invoker.canInvokeDirectly(new Object(), new Object[] { 3, "land" })); // different action
+    }
+
+    public static class MockInvokedAction {
+
+        public String sea(int first, String second) {
+            return "sea:" + first + ":" + second;
+        }
+
+        public String land() {
+            throw new IllegalStateException("land");
+        }
+    }
+}
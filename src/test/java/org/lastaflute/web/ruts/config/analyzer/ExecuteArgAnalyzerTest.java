@@ -0,0 +1,103 @@
+package org.lastaflute.web.ruts.config.analyzer;
+
+import java.lang.reflect.Method;
+import java.util.List;
+
+import org.lastaflute.unit.UnitLastaFluteTestCase;
+import org.lastaflute.web.api.JsonBodyStream;
+import org.lastaflute.web.exception.ActionFormNotLastParameterException;
+import org.lastaflute.web.ruts.config.analyzer.ExecuteArgAnalyzer.ExecuteArgBox;
+
+/**
+ * @author jflute
+ */
+public class ExecuteArgAnalyzerTest extends UnitLastaFluteTestCase {
+
+    public void test_analyzeExecuteArg_jsonBodyStream() throws Exception {
+        // ## Arrange ##
+        ExecuteArgAnalyzer analyzer = new ExecuteArgAnalyzer();
+        Method executeMethod = findMethod("stream");
+        ExecuteArgBox box = new ExecuteArgBox();
+
+        // ## Act ##
+        analyzer.analyzeExecuteArg(executeMethod, box);
+
+        // ## Assert ##
+        assertEquals(1, box.getUrlParamTypeList().size());
+        assertEquals(Integer.class, box.getUrlParamTypeList().get(0));
+        assertEquals(JsonBodyStream.class, box.getFormType());
+        assertEquals(executeMethod.getParameters()[1], box.getListFormParameter());
+    }
+
+    public void test_analyzeExecuteArg_jsonBodyStream_nonBody() throws Exception {
+        // ## Arrange ##
+        ExecuteArgAnalyzer analyzer = new ExecuteArgAnalyzer();
+
+        // ## Act ##
+        // ## Assert ##
+        for (String methodName : new String[] { "rawStream", "formStream", "wildcardStream" }) {
+            Method executeMethod = findMethod(methodName);
+            try {
+                analyzer.analyzeExecuteArg(executeMethod, new ExecuteArgBox());
+                fail(methodName);
+            } catch (ActionFormNotLastParameterException e) {
+                log(e.getMessage());
+                assertContains(e.getMessage(), "JsonBodyStream");
+            }
+        }
+    }
+
+    public void test_analyzeExecuteArg_list() throws Exception {
+        // ## Arrange ##
+        ExecuteArgAnalyzer analyzer = new ExecuteArgAnalyzer();
+        ExecuteArgBox box = new ExecuteArgBox();
+
+        // ## Act ##
+        analyzer.analyzeExecuteArg(findMethod("list"), box);
+
+        // ## Assert ##
+        assertEquals(0, box.getUrlParamTypeList().size());
+        assertEquals(List.class, box.getFormType());
+        assertNotNull(box.getListFormParameter());
+        assertException(ActionFormNotLastParameterException.class,
+                () -> analyzer.analyzeExecuteArg(findMethod("rawList"), new ExecuteArgBox()));
+    }
+
+    protected Method findMethod(String methodName) {
+        for (Method method : MockAction.class.getMethods()) {
+            if (method.getName().equals(methodName)) {
+                return method;
+            }
+        }
+        throw new IllegalStateException("Not found the method: " + methodName);
+    }
+
+    public static class MockAction {
+
+        public void stream(Integer pageNumber, JsonBodyStream<SeaBody> bodyStream) {
+        }
+
+        @SuppressWarnings("rawtypes")
+        public void rawStream(JsonBodyStream bodyStream) {
+        }
+
+        public void formStream(JsonBodyStream<SeaForm> bodyStream) {
+        }
+
+        public void wildcardStream(JsonBodyStream<?> bodyStream) {
+        }
+
+        public void list(List<SeaBody> bodyList) {
+        }
+
+        @SuppressWarnings("rawtypes")
+        public void rawList(List bodyList) {
+        }
+    }
+
+    public static class SeaBody {
+    }
+
+    public static class SeaForm {
+    }
+}
@@ -1,10 +1,15 @@
 package org.lastaflute.web.ruts.config.analyzer;
 
 import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.regex.Pattern;
 
 import org.lastaflute.unit.UnitLastaFluteTestCase;
+import org.lastaflute.web.ruts.config.UrlPatternSegmentMatcher;
 import org.lastaflute.web.ruts.config.analyzer.UrlPatternAnalyzer.UrlPatternChosenBox;
+import org.lastaflute.web.ruts.config.analyzer.UrlPatternAnalyzer.UrlPatternRegexpBox;
 
 /**
  * @author jflute
@@ -57,4 +62,90 @@ public class UrlPatternAnalyzerTest extends UnitLastaFluteTestCase {
         assertFalse(chosenBox.isMethodNamePrefix());
         assertTrue(chosenBox.isSpecified());
     }
+
+    // ===================================================================================
+    //                                                                     Segment Matcher
+    //                                                                     ===============
+    public void test_toRegexp_segmentMatcher_basic() throws Exception {
+        // ## Arrange ##
+        UrlPatternAnalyzer analyzer = new UrlPatternAnalyzer();
+        Method dummyMethod = getClass().getMethods()[0];
+        List<Class<?>> typeList = Arrays.asList(String.class, Integer.class);
+
+        // ## Act ##
+        UrlPatternRegexpBox box = analyzer.toRegexp(dummyMethod, "sea/{}/land/{}", typeList, Collections.emptyMap());
+
+        // ## Assert ##
+        UrlPatternSegmentMatcher matcher = box.getSegmentMatcher();
+        assertNotNull(matcher);
+        log(matcher);
+        assertTrue(matcher.matches("sea/mystic/land/3"));
+        assertTrue(matcher.matches("sea/mystic/land/-1.5"));
+        assertTrue(matcher.matches("sea/$/land/3"));
+        assertFalse(matcher.matches("sea/mystic/land/oneman")); // not number
+        assertFalse(matcher.matches("sea/mystic/land/"));
+        assertFalse(matcher.matches("sea//land/3"));
+        assertFalse(matcher.matches("sea/mystic/land/3/"));
+        assertFalse(matcher.matches("sea/mystic/land"));
+        assertFalse(matcher.matches("sea/mystic/piari/3"));
+        assertFalse(matcher.matches("sea/mystic/land/3/4"));
+        assertFalse(matcher.matches(""));
+        String[] paths = { "sea/mystic/land/3", "sea/mystic/land/-1.5", "sea/mystic/land/oneman", "sea/mystic/land/", "sea//land/3",
+                "sea/mystic/land/3/", "sea/mystic/land", "sea/mystic/piari/3", "sea/mystic/land/3/4", "sea/$/land/3", "" };
+        for (String path : paths) { // same as regular expression on any JDK
+            assertEquals(path, box.getRegexpPattern().matcher(path).find(), matcher.matches(path));
+        }
+        assertEquals(Arrays.asList("mystic", "-1.5"), matcher.extract("sea/mystic/land/-1.5"));
+        assertNull(matcher.extract("sea/mystic/land/oneman"));
+    }
+
+    public void test_toRegexp_segmentMatcher_numberChar_sameAsRegexp() throws Exception {
+        // ## Arrange ##
+        UrlPatternAnalyzer analyzer = new UrlPatternAnalyzer();
+        Method dummyMethod = getClass().getMethods()[0];
+        List<Class<?>> typeList = Arrays.asList(Integer.class);
+        UrlPatternRegexpBox box = analyzer.toRegexp(dummyMethod, "sea/{}", typeList, Collections.emptyMap());
+        UrlPatternSegmentMatcher matcher = box.getSegmentMatcher();
+        assertNotNull(matcher);
+
+        // ## Act ##
+        // ## Assert ##
+        int numberCharCount = 0;
+        for (int code = 0; code <= Character.MAX_VALUE; code++) {
+            String path = "sea/" + (char) code;
+            boolean regexp = box.getRegexpPattern().matcher(path).find();
+            assertEquals(path, regexp, matcher.matches(path));
+            numberCharCount += regexp ? 1 : 0;
+        }
+        assertEquals(12, numberCharCount); // digits, minus and dot
+    }
+
+    public void test_toRegexp_segmentMatcher_restful() throws Exception {
+        // ## Arrange ##
+        UrlPatternAnalyzer analyzer = new UrlPatternAnalyzer();
+        Method dummyMethod = getClass().getMethods()[0];
+
+        // ## Act ##
+        UrlPatternRegexpBox box = analyzer.toRegexp(dummyMethod, "sea$land/{}", Arrays.asList(String.class), Collections.emptyMap());
+
+        // ## Assert ##
+        UrlPatternSegmentMatcher matcher = box.getSegmentMatcher();
+        assertNotNull(matcher);
+        assertTrue(matcher.matches("sea$land/3"));
+        assertTrue(box.getRegexpPattern().matcher("sea$land/3").find());
+        assertFalse(matcher.matches("sealand/3"));
+    }
+
+    public void test_toRegexp_segmentMatcher_complex() throws Exception {
+        // ## Arrange ##
+        UrlPatternAnalyzer analyzer = new UrlPatternAnalyzer();
+        Method dummyMethod = getClass().getMethods()[0];
+        List<Class<?>> typeList = Arrays.asList(String.class, String.class);
+
+        // ## Act ##
+        // ## Assert ##
+        assertNull(analyzer.toRegexp(dummyMethod, "{}-{}", typeList, Collections.emptyMap()).getSegmentMatcher());
+        assertNull(analyzer.toRegexp(dummyMethod, "sea.land/{}/{}", typeList, Collections.emptyMap()).getSegmentMatcher());
+        assertNotNull(analyzer.toRegexp(dummyMethod, "{}/{}", typeList, Collections.emptyMap()).getSegmentMatcher());
+    }
 }
@@ -0,0 +1,155 @@
+package org.lastaflute.web.ruts.message.objective;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+
+import org.lastaflute.di.helper.message.MessageResourceBundle;
+import org.lastaflute.di.helper.message.MessageResourceBundleImpl;
+import org.lastaflute.unit.UnitLastaFluteTestCase;
+import org.lastaflute.web.ruts.message.exception.MessageLabelByLabelVariableInfinityLoopException;
+import org.lastaflute.web.ruts.message.exception.MessageLabelByLabelVariableNotFoundException;
+
+/**
+ * @author jflute
+ */
+public class ObjectiveMessageResourcesTest extends UnitLastaFluteTestCase {
+
+    protected int buildCount; // of resolved message map
+
+    public void test_getMessage_labelVariableResolved() {
+        // ## Arrange ##
+        Map<String, String> appMap = new HashMap<String, String>();
+        appMap.put("labels.memberPurchase", "Member Purchase");
+        appMap.put("labels.memberPurchase.list", "@[labels.list] of @[labels.memberPurchase]");
+        appMap.put("errors.required", "@[labels.memberPurchase.list] {0} is required");
+        Map<String, String> commonMap = new HashMap<String, String>();
+        commonMap.put("labels.list", "List");
+        commonMap.put("labels.memberPurchase", "Common Purchase"); // overridden by app
+        ObjectiveMessageResources resources = createResources("resolved", appMap, commonMap);
+
+        // ## Act ##
+        String label = resources.getMessage(Locale.ENGLISH, "labels.memberPurchase.list");
+        String error = resources.getMessage(Locale.ENGLISH, "errors.required", "labels.memberPurchase");
+
+        // ## Assert ##
+        log(label, error);
+        assertEquals("List of Member Purchase", label);
+        assertEquals("List of Member Purchase Member Purchase is required", error);
+        assertEquals("List", resources.getMessage(Locale.ENGLISH, "labels.list"));
+        assertNull(resources.getMessage(Locale.ENGLISH, "labels.none"));
+        assertNotNull(resources.findResolvedMessageMap(Locale.ENGLISH));
+    }
+
+    public void test_getMessage_flattenedTable() {
+        // ## Arrange ##
+        Map<String, String> appMap = new HashMap<String, String>();
+        appMap.put("labels.sea", "Sea");
+        appMap.put("errors.required", "@[labels.sea] {0} is required");
+        Map<String, String> commonMap = new HashMap<String, String>();
+        commonMap.put("labels.land", "Land");
+        commonMap.put("labels.sea", "Common Sea");
+        ObjectiveMessageResources resources = createResources("flattened", appMap, commonMap);
+        resources.setFlattenedTable(true);
+
+        // ## Act ##
+        String error = resources.getMessage(Locale.ENGLISH, "errors.required", "labels.land");
+
+        // ## Assert ##
+        log(error);
+        assertEquals("Sea Land is required", error);
+        assertEquals("Land", resources.getMessage(Locale.ENGLISH, "labels.land"));
+        assertNull(resources.getMessage(Locale.ENGLISH, "labels.none"));
+        assertTrue(resources.findResolvedMessageMap(Locale.ENGLISH) instanceof ObjectiveMessageTable);
+    }
+
+    public void test_setFlattenedTable_afterLookup() {
+        // ## Arrange ##
+        Map<String, String> appMap = new HashMap<String, String>();
+        appMap.put("labels.sea", "Sea");
+        ObjectiveMessageResources resources = createResources("switched", appMap, new HashMap<String, String>());
+        assertEquals("Sea", resources.getMessage(Locale.ENGLISH, "labels.sea")); // built as hash map
+        assertFalse(resources.findResolvedMessageMap(Locale.ENGLISH) instanceof ObjectiveMessageTable);
+
+        // ## Act ##
+        resources.setFlattenedTable(true);
+
+        // ## Assert ##
+        assertEquals("Sea", resources.getMessage(Locale.ENGLISH, "labels.sea"));
+        assertTrue(resources.findResolvedMessageMap(Locale.ENGLISH) instanceof ObjectiveMessageTable);
+    }
+
+    public void test_getMessage_labelVariableNotFound() {
+        // ## Arrange ##
+        Map<String, String> appMap = new HashMap<String, String>();
+        appMap.put("labels.sea", "Sea");
+        appMap.put("labels.land", "@[labels.none] Land");
+        ObjectiveMessageResources resources = createResources("notfound", appMap, new HashMap<String, String>());
+
+        // ## Act ##
+        // ## Assert ##
+        for (int i = 0; i < 2; i++) {
+            try {
+                resources.getMessage(Locale.ENGLISH, "labels.sea"); // thrown when loaded, even if valid key
+                fail();
+            } catch (MessageLabelByLabelVariableNotFoundException e) {
+                log(e.getMessage());
+            }
+        }
+        assertEquals(1, buildCount); // failure is cached
+    }
+
+    public void test_getMessage_labelVariableInfinityLoop() {
+        // ## Arrange ##
+        Map<String, String> appMap = new HashMap<String, String>();
+        appMap.put("labels.sea", "@[labels.land]");
+        appMap.put("labels.land", "@[labels.sea]");
+        ObjectiveMessageResources resources = createResources("infinity", appMap, new HashMap<String, String>());
+
+        // ## Act ##
+        // ## Assert ##
+        for (int i = 0; i < 2; i++) {
+            try {
+                resources.getMessage(Locale.ENGLISH, "labels.sea");
+                fail();
+            } catch (MessageLabelByLabelVariableInfinityLoopException e) {
+                log(e.getMessage());
+            }
+        }
+        assertEquals(1, buildCount); // not built per request
+    }
+
+    protected ObjectiveMessageResources createResources(String testName, Map<String, String> appMap, Map<String, String> commonMap) {
+        String appName = "unit_" + testName + "_app_message";
+        String commonName = "unit_" + testName + "_common_message";
+        return new ObjectiveMessageResources() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected String getAppMessageName() {
+                return appName;
+            }
+
+            @Override
+            protected List<String> getExtendsMessageNameList() {
+                return Arrays.asList(commonName);
+            }
+
+            @Override
+            protected Map<String, String> buildResolvedMessageMap(Locale locale) {
+                ++buildCount;
+                return super.buildResolvedMessageMap(locale);
+            }
+
+            @Override
+            protected MessageResourceBundle loadBundle(String messageName, Locale locale) {
+                Properties prop = new Properties();
+                prop.putAll(messageName.equals(appName) ? appMap : commonMap);
+                return new MessageResourceBundleImpl(prop);
+            }
+        };
+    }
+}
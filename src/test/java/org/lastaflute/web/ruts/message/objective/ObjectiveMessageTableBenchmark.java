@@ -0,0 +1,48 @@
+package org.lastaflute.web.ruts.message.objective;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.lastaflute.di.helper.message.MessageResourceBundle;
+import org.lastaflute.di.helper.message.MessageResourceBundleImpl;
+import org.lastaflute.unit.benchmark.UnitBenchmark;
+
+/**
+ * The benchmark of message lookup: layered resource bundles (old) vs. the flattened message table (new).
+ * @author jflute
+ */
+public class ObjectiveMessageTableBenchmark {
+
+    public static void main(String[] args) {
+        final int levelCount = 5; // e.g. app, extends, ..., default language
+        final int keyCount = 20000;
+        final List<Properties> propList = new ArrayList<Properties>();
+        for (int level = 0; level < levelCount; level++) {
+            propList.add(new Properties());
+        }
+        final String[] keys = new String[keyCount];
+        for (int i = 0; i < keyCount; i++) {
+            keys[i] = "labels.sea" + i;
+            propList.get(i % levelCount).setProperty(keys[i], "Sea Message " + i); // spread to levels
+        }
+        MessageResourceBundle bundle = null;
+        for (int level = levelCount - 1; level >= 0; level--) { // last level is root
+            bundle = new MessageResourceBundleImpl(propList.get(level), bundle);
+        }
+        final MessageResourceBundle layered = bundle;
+        final Map<String, String> flattenedMap = new HashMap<String, String>();
+        for (String key : keys) {
+            flattenedMap.put(key, layered.get(key));
+        }
+        final ObjectiveMessageTable table = new ObjectiveMessageTable(flattenedMap);
+        final int[] cursor = new int[1];
+        new UnitBenchmark("message lookup (" + keyCount + " keys, " + levelCount + " levels)", 200000).compare(() -> {
+            return layered.get(keys[cursor[0]++ % keyCount]);
+        }, () -> {
+            return table.get(keys[cursor[0]++ % keyCount]);
+        });
+    }
+}
@@ -0,0 +1,82 @@
+package org.lastaflute.web.ruts.message.objective;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.lastaflute.di.helper.message.MessageResourceBundle;
+import org.lastaflute.di.helper.message.MessageResourceBundleImpl;
+import org.lastaflute.unit.UnitLastaFluteTestCase;
+
+/**
+ * @author jflute
+ */
+public class ObjectiveMessageTableTest extends UnitLastaFluteTestCase {
+
+    // ===================================================================================
+    //                                                                              Lookup
+    //                                                                              ======
+    public void test_get_basic() {
+        // ## Arrange ##
+        Map<String, String> messageMap = new HashMap<String, String>();
+        for (int i = 0; i < 1000; i++) {
+            messageMap.put("labels.sea" + i, "Sea " + i);
+        }
+
+        // ## Act ##
+        ObjectiveMessageTable table = new ObjectiveMessageTable(messageMap);
+
+        // ## Assert ##
+        log(table.size(), table.capacity());
+        assertEquals(1000, table.size());
+        assertTrue(table.capacity() * 0.75f >= table.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals("Sea " + i, table.get(new String("labels.sea" + i))); // not interned key
+        }
+        assertNull(table.get("labels.land"));
+        assertNull(table.get(null));
+        assertFalse(table.containsKey("labels.land"));
+        assertEquals(messageMap, new HashMap<String, String>(table));
+    }
+
+    // ===================================================================================
+    //                                                                           Hierarchy
+    //                                                                           =========
+    public void test_get_sameAsLayeredBundle() {
+        // ## Arrange ##
+        int levelCount = 3; // e.g. app, extends, default language
+        List<Properties> propList = new ArrayList<Properties>();
+        for (int level = 0; level < levelCount; level++) {
+            propList.add(new Properties());
+        }
+        List<String> keyList = new ArrayList<String>();
+        for (int i = 0; i < 100; i++) {
+            String key = "labels.sea" + i;
+            keyList.add(key);
+            propList.get(i % levelCount).setProperty(key, "Sea " + i); // spread to levels
+            if (i % 10 == 0) {
+                propList.get(levelCount - 1).setProperty(key, "Root Sea " + i); // overridden by upper level
+            }
+        }
+        MessageResourceBundle layered = null;
+        for (int level = levelCount - 1; level >= 0; level--) { // last level is root
+            layered = new MessageResourceBundleImpl(propList.get(level), layered);
+        }
+        Map<String, String> flattenedMap = new HashMap<String, String>();
+        for (String key : keyList) {
+            flattenedMap.put(key, layered.get(key));
+        }
+
+        // ## Act ##
+        ObjectiveMessageTable table = new ObjectiveMessageTable(flattenedMap);
+
+        // ## Assert ##
+        for (String key : keyList) {
+            assertEquals(layered.get(key), table.get(key));
+        }
+        assertEquals("Sea 10", table.get("labels.sea10")); // upper level wins
+        assertEquals("Root Sea 20", table.get("labels.sea20")); // only in root
+    }
+}
@@ -0,0 +1,57 @@
+package org.lastaflute.web.ruts.message.objective;
+
+import java.text.MessageFormat;
+import java.util.Locale;
+
+import org.lastaflute.unit.UnitLastaFluteTestCase;
+
+/**
+ * @author jflute
+ */
+public class ObjectiveMessageTemplateTest extends UnitLastaFluteTestCase {
+
+    public void test_format_simple() {
+        // ## Arrange ##
+        String pattern = "{0} is required, it''s {1} and {0} (over {2}) }";
+        ObjectiveMessageTemplate template = new ObjectiveMessageTemplate(pattern, Locale.JAPANESE);
+
+        // ## Act ##
+        String formatted = template.format(new Object[] { "sea", null });
+
+        // ## Assert ##
+        log(template, formatted);
+        assertTrue(template.isSimple());
+        assertEquals(newFormat(pattern, Locale.JAPANESE).format(new Object[] { "sea", null }), formatted);
+        assertEquals("sea is required, it's null and sea (over {2}) }", formatted);
+    }
+
+    public void test_format_sameAsMessageFormat() {
+        // ## Arrange ##
+        String[] patterns = { "land", "{0}", "{1}{0}", "'{0}' is quoted", "{0,number,#.#} and {1}", "piari {0} {1}" };
+        Object[] args = { 1234.56, new java.util.Date(0L) };
+
+        for (String pattern : patterns) {
+            // ## Act ##
+            String formatted = new ObjectiveMessageTemplate(pattern, Locale.US).format(args);
+
+            // ## Assert ##
+            log(pattern, formatted);
+            assertEquals(newFormat(pattern, Locale.US).format(args), formatted);
+        }
+    }
+
+    public void test_format_invalid() {
+        try {
+            new ObjectiveMessageTemplate("sea {0", Locale.US);
+            fail();
+        } catch (IllegalArgumentException e) {
+            log(e.getMessage());
+        }
+    }
+
+    protected MessageFormat newFormat(String pattern, Locale locale) {
+        MessageFormat format = new MessageFormat(pattern);
+        format.setLocale(locale);
+        return format;
+    }
+}
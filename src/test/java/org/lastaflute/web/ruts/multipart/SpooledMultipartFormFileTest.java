@@ -0,0 +1,83 @@
+package org.lastaflute.web.ruts.multipart;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.lastaflute.unit.UnitLastaFluteTestCase;
+
+/**
+ * @author jflute
+ */
+public class SpooledMultipartFormFileTest extends UnitLastaFluteTestCase {
+
+    public void test_transferTo_memoryAndSpooled() throws Exception {
+        // ## Arrange ##
+        byte[] data = "sea and land".getBytes(StandardCharsets.UTF_8);
+        Path spooledPath = Files.createTempFile("lasta_spooled_test", ".tmp");
+        Files.write(spooledPath, data);
+        SpooledMultipartFormFile memoryFile = new SpooledMultipartFormFile("sea.txt", "text/plain", data.length, data, null);
+        SpooledMultipartFormFile spooledFile = new SpooledMultipartFormFile("land.txt", "text/plain", data.length, null, spooledPath);
+        try {
+            ByteArrayOutputStream memoryOut = new ByteArrayOutputStream();
+            ByteArrayOutputStream spooledOut = new ByteArrayOutputStream();
+
+            // ## Act ##
+            long memorySize = memoryFile.transferTo(Channels.newChannel(memoryOut));
+            long spooledSize = spooledFile.transferTo(Channels.newChannel(spooledOut));
+
+            // ## Assert ##
+            assertEquals(data.length, memorySize);
+            assertEquals(data.length, spooledSize);
+            assertEquals("sea and land", new String(memoryOut.toByteArray(), StandardCharsets.UTF_8));
+            assertEquals("sea and land", new String(spooledOut.toByteArray(), StandardCharsets.UTF_8));
+        } finally {
+            spooledFile.destroy();
+        }
+        assertFalse(Files.exists(spooledPath));
+    }
+
+    public void test_transferTo_noProgress() throws Exception {
+        // ## Arrange ##
+        byte[] data = "sea and land".getBytes(StandardCharsets.UTF_8);
+        Path spooledPath = Files.createTempFile("lasta_spooled_test", ".tmp");
+        Files.write(spooledPath, data);
+        SpooledMultipartFormFile memoryFile = new SpooledMultipartFormFile("sea.txt", "text/plain", data.length, data, null);
+        SpooledMultipartFormFile spooledFile = new SpooledMultipartFormFile("land.txt", "text/plain", data.length, null, spooledPath);
+        WritableByteChannel stuckChannel = new WritableByteChannel() { // e.g. non-blocking channel that cannot write now
+            @Override
+            public boolean isOpen() {
+                return true;
+            }
+
+            @Override
+            public void close() {
+            }
+
+            @Override
+            public int write(ByteBuffer src) {
+                return 0;
+            }
+        };
+        try {
+            // ## Act ##
+            // ## Assert ##
+            for (SpooledMultipartFormFile file : new SpooledMultipartFormFile[] { memoryFile, spooledFile }) {
+                try {
+                    file.transferTo(stuckChannel);
+                    fail();
+                } catch (IOException e) {
+                    log(e.getMessage());
+                    assertContains(e.getMessage(), "no progress");
+                }
+            }
+        } finally {
+            spooledFile.destroy();
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package org.lastaflute.web.ruts.multipart;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+
+import org.lastaflute.unit.UnitLastaFluteTestCase;
+import org.lastaflute.web.ruts.multipart.exception.MultipartExceededException;
+
+/**
+ * @author jflute
+ */
+public class SpoolingMultipartRequestHandlerTest extends UnitLastaFluteTestCase {
+
+    private static final String BOUNDARY = "----SeaBoundary";
+
+    // ===================================================================================
+    //                                                                               Parse
+    //                                                                               =====
+    public void test_parseMultipart_memoryAndSpooled() throws Exception {
+        // ## Arrange ##
+        SpoolingMultipartRequestHandler handler = new SpoolingMultipartRequestHandler(op -> op.memoryThreshold(16));
+        byte[] large = new byte[10000];
+        for (int i = 0; i < large.length; i++) {
+            large[i] = (byte) (i % 7 == 0 ? '\r' : 'a' + (i % 26)); // contains CR to test delimiter scan
+        }
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        writeText(body, "preamble\r\n--" + BOUNDARY + "\r\n");
+        writeText(body, "Content-Disposition: form-data; name=\"sea\"\r\n\r\nmystic\r\n--" + BOUNDARY + "\r\n");
+        writeText(body, "Content-Disposition: form-data; name=\"sea\"\r\n\r\nbonvo\r\n--" + BOUNDARY + "\r\n");
+        writeText(body, "Content-Disposition: form-data; name=\"small\"; filename=\"C:\\\\land\\\\piari.txt\"\r\n");
+        writeText(body, "Content-Type: text/plain\r\n\r\nami\r\n--" + BOUNDARY + "\r\n");
+        writeText(body, "Content-Disposition: form-data; name=\"large\"; filename=\"dstore;oneman.bin\"\r\n\r\n");
+        body.write(large);
+        writeText(body, "\r\n--" + BOUNDARY + "--\r\n");
+
+        // ## Act ##
+        handler.parseMultipart(new ByteArrayInputStream(body.toByteArray()), BOUNDARY, StandardCharsets.UTF_8);
+
+        // ## Assert ##
+        Map<String, String[]> textElements = handler.getTextElements();
+        assertEquals(Arrays.asList("mystic", "bonvo"), Arrays.asList(textElements.get("sea")));
+        SpooledMultipartFormFile small = (SpooledMultipartFormFile) handler.getFileElements().get("small");
+        assertEquals("piari.txt", small.getFileName());
+        assertEquals("text/plain", small.getContentType());
+        assertTrue(small.isInMemory());
+        assertEquals("ami", new String(small.getFileData(), StandardCharsets.UTF_8));
+
+        SpooledMultipartFormFile spooled = (SpooledMultipartFormFile) handler.getFileElements().get("large");
+        assertEquals("dstore;oneman.bin", spooled.getFileName());
+        assertFalse(spooled.isInMemory());
+        assertEquals(large.length, spooled.getFileLength());
+        Path path = spooled.getSpooledPath().get();
+        assertTrue(Files.exists(path));
+        ByteArrayOutputStream transferred = new ByteArrayOutputStream();
+        assertEquals(large.length, spooled.transferTo(Channels.newChannel(transferred)));
+        assertTrue(Arrays.equals(large, transferred.toByteArray()));
+
+        handler.finish();
+        assertFalse(Files.exists(path));
+    }
+
+    public void test_parseMultipart_fileSizeExceeded() throws Exception {
+        // ## Arrange ##
+        SpoolingMultipartRequestHandler handler = new SpoolingMultipartRequestHandler(op -> op.memoryThreshold(4).maxFileSize(8));
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        writeText(body, "--" + BOUNDARY + "\r\n");
+        writeText(body, "Content-Disposition: form-data; name=\"sea\"; filename=\"land.txt\"\r\n\r\n0123456789\r\n");
+        writeText(body, "--" + BOUNDARY + "--\r\n");
+
+        // ## Act ##
+        // ## Assert ##
+        try {
+            handler.parseMultipart(new ByteArrayInputStream(body.toByteArray()), BOUNDARY, StandardCharsets.UTF_8);
+            fail();
+        } catch (MultipartExceededException e) {
+            log(e.getMessage());
+        }
+        handler.rollback(); // deletes partially-written file
+        assertTrue(handler.temporaryPathList.isEmpty());
+    }
+
+    private void writeText(ByteArrayOutputStream out, String text) throws Exception {
+        out.write(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
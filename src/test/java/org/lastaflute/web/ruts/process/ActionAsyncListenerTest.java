@@ -0,0 +1,91 @@
+package org.lastaflute.web.ruts.process;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.http.HttpServletResponse;
+
+import org.lastaflute.unit.UnitLastaFluteTestCase;
+
+/**
+ * @author jflute
+ */
+public class ActionAsyncListenerTest extends UnitLastaFluteTestCase {
+
+    public void test_completion_basic() throws Exception {
+        // ## Arrange ##
+        ActionAsyncListener listener = new ActionAsyncListener(null);
+
+        // ## Act ##
+        // ## Assert ##
+        assertTrue(listener.beginCompletion());
+        assertTrue(listener.endCompletion());
+        assertFalse(listener.isExpired());
+    }
+
+    public void test_onTimeout_beforeCompletion() throws Exception {
+        // ## Arrange ##
+        ActionAsyncListener listener = new ActionAsyncListener(null);
+        List<String> callList = new ArrayList<String>();
+
+        // ## Act ##
+        listener.onTimeout(mockEvent(callList));
+
+        // ## Assert ##
+        assertEquals("[isCommitted, sendError(503), complete]", callList.toString());
+        assertTrue(listener.isExpired());
+        assertFalse(listener.beginCompletion()); // completion thread skips the response
+    }
+
+    public void test_onTimeout_whileCompleting() throws Exception {
+        // ## Arrange ##
+        ActionAsyncListener listener = new ActionAsyncListener(null);
+        List<String> callList = new ArrayList<String>();
+        assertTrue(listener.beginCompletion());
+
+        // ## Act ##
+        listener.onTimeout(mockEvent(callList));
+
+        // ## Assert ##
+        assertTrue(callList.isEmpty()); // not touch the response being written
+        assertFalse(listener.endCompletion()); // not complete the context finished by container
+    }
+
+    public void test_onError_beforeCompletion() throws Exception {
+        // ## Arrange ##
+        ActionAsyncListener listener = new ActionAsyncListener(null);
+        List<String> callList = new ArrayList<String>();
+
+        // ## Act ##
+        listener.onError(mockEvent(callList));
+
+        // ## Assert ##
+        assertEquals("[complete]", callList.toString());
+        assertFalse(listener.beginCompletion());
+    }
+
+    protected AsyncEvent mockEvent(List<String> callList) {
+        ClassLoader loader = getClass().getClassLoader();
+        HttpServletResponse response = (HttpServletResponse) Proxy.newProxyInstance(loader, new Class<?>[] { HttpServletResponse.class },
+                (proxy, method, args) -> {
+                    if (method.getName().equals("isCommitted")) {
+                        callList.add("isCommitted");
+                        return false;
+                    } else if (method.getName().equals("sendError")) {
+                        callList.add("sendError(" + args[0] + ")");
+                    }
+                    return null;
+                });
+        AsyncContext asyncContext = (AsyncContext) Proxy.newProxyInstance(loader, new Class<?>[] { AsyncContext.class },
+                (proxy, method, args) -> {
+                    if (method.getName().equals("complete")) {
+                        callList.add("complete");
+                    }
+                    return null;
+                });
+        return new AsyncEvent(asyncContext, null, response);
+    }
+}
@@ -0,0 +1,84 @@
+package org.lastaflute.web.ruts.process;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.lastaflute.unit.UnitLastaFluteTestCase;
+
+/**
+ * @author jflute
+ */
+public class ActionBulkheadTest extends UnitLastaFluteTestCase {
+
+    public void test_tryEnter_noQueue() throws Exception {
+        // ## Arrange ##
+        ActionBulkhead bulkhead = new ActionBulkhead("sea", 2, 0, 0L);
+
+        // ## Act ##
+        boolean first = bulkhead.tryEnter();
+        boolean second = bulkhead.tryEnter();
+        boolean third = bulkhead.tryEnter(); // full
+
+        // ## Assert ##
+        log(bulkhead);
+        assertTrue(first);
+        assertTrue(second);
+        assertFalse(third);
+        assertEquals(2, bulkhead.getInFlightCount());
+        assertEquals(1, bulkhead.getQueueFullRejectedCount());
+        bulkhead.leave();
+        assertTrue(bulkhead.tryEnter());
+        bulkhead.leave();
+        bulkhead.leave();
+        assertEquals(0, bulkhead.getInFlightCount());
+        assertEquals(3, bulkhead.getEnteredCount());
+    }
+
+    public void test_tryEnter_waitQueue() throws Exception {
+        // ## Arrange ##
+        ActionBulkhead bulkhead = new ActionBulkhead("land", 1, 1, 3000L);
+        assertTrue(bulkhead.tryEnter());
+        ExecutorService service = Executors.newSingleThreadExecutor();
+        try {
+            CountDownLatch started = new CountDownLatch(1);
+            Future<Boolean> waiting = service.submit(() -> {
+                started.countDown();
+                return bulkhead.tryEnter(); // wait in queue
+            });
+            started.await();
+            while (bulkhead.getWaitingCount() == 0) {
+                Thread.sleep(5L);
+            }
+
+            // ## Act ##
+            boolean overQueue = bulkhead.tryEnter(); // queue is full
+            bulkhead.leave(); // the waiting request can enter
+
+            // ## Assert ##
+            assertFalse(overQueue);
+            assertTrue(waiting.get(3, TimeUnit.SECONDS));
+            assertEquals(1, bulkhead.getInFlightCount());
+            assertEquals(1, bulkhead.getQueuedCount());
+            assertEquals(1, bulkhead.getRejectedCount());
+        } finally {
+            service.shutdownNow();
+        }
+    }
+
+    public void test_tryEnter_timeout() throws Exception {
+        // ## Arrange ##
+        ActionBulkhead bulkhead = new ActionBulkhead("piari", 1, 5, 10L);
+        assertTrue(bulkhead.tryEnter());
+
+        // ## Act ##
+        boolean entered = bulkhead.tryEnter();
+
+        // ## Assert ##
+        assertFalse(entered);
+        assertEquals(1, bulkhead.getTimeoutRejectedCount());
+        assertEquals(0, bulkhead.getWaitingCount());
+    }
+}
@@ -1,10 +1,27 @@
 package org.lastaflute.web.ruts.process;
 
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.Writer;
+import java.lang.reflect.Parameter;
+import java.lang.reflect.ParameterizedType;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 
+import org.dbflute.optional.OptionalThing;
+import org.lastaflute.core.json.GsonJsonParser;
+import org.lastaflute.core.json.JsonManager;
 import org.lastaflute.unit.UnitLastaFluteTestCase;
+import org.lastaflute.web.api.JsonBodyStream;
+import org.lastaflute.web.exception.RequestJsonParseFailureException;
 import org.lastaflute.web.path.FormMappingOption;
 import org.lastaflute.web.ruts.VirtualForm;
+import org.lastaflute.web.ruts.config.ActionFormBinder;
 import org.lastaflute.web.ruts.config.ActionFormMeta;
 
 /**
@@ -99,6 +116,308 @@ public class ActionFormMapperTest extends UnitLastaFluteTestCase {
         public Map<String, String> iksMap;
     }
 
+    // ===================================================================================
+    //                                                               setPropertyByBinder()
+    //                                                               =====================
+    public void test_setPropertyByBinder_sameAsPlain() throws Exception {
+        // ## Arrange ##
+        ActionFormMapper mapper = createMapper();
+        VirtualForm virtualForm = new VirtualForm(() -> "", (ActionFormMeta) null); // dummy
+        ActionFormBinder binder = new ActionFormBinder(LandForm.class);
+        Map<String, Object> paramMap = prepareLandParamMap();
+        FormMappingOption option = new FormMappingOption();
+        LandForm bound = new LandForm();
+        LandForm plain = new LandForm();
+
+        // ## Act ##
+        for (Entry<String, Object> entry : paramMap.entrySet()) {
+            assertTrue(mapper.setPropertyByBinder(virtualForm, bound, binder, entry.getKey(), entry.getValue(), option));
+            mapper.setProperty(virtualForm, plain, entry.getKey(), entry.getValue(), null, option, null, null);
+        }
+
+        // ## Assert ##
+        log(binder);
+        assertEquals("mystic", bound.sea);
+        assertEquals(Integer.valueOf(3), bound.landId);
+        assertEquals(7, bound.piari);
+        assertTrue(bound.dstore);
+        assertEquals(LocalDate.of(2016, 4, 1), bound.bonvo);
+        assertEquals(Arrays.asList(1, 2), bound.amba);
+        assertEquals(Arrays.asList("a", "b"), Arrays.asList(bound.miraco));
+        assertNull(bound.dohotel); // empty string to null
+        assertEquals(plain.sea, bound.sea);
+        assertEquals(plain.landId, bound.landId);
+        assertEquals(plain.piari, bound.piari);
+        assertEquals(plain.dstore, bound.dstore);
+        assertEquals(plain.bonvo, bound.bonvo);
+        assertEquals(plain.amba, bound.amba);
+        assertEquals(Arrays.asList(plain.miraco), Arrays.asList(bound.miraco));
+        assertEquals(plain.dohotel, bound.dohotel);
+        assertFalse(mapper.setPropertyByBinder(virtualForm, bound, binder, "sea.land", "over", option)); // nested
+        assertFalse(mapper.setPropertyByBinder(virtualForm, bound, binder, "undefined", "over", option));
+    }
+
+    public void test_isCompiledFormBinderEnabled_overridden() throws Exception {
+        // ## Arrange ##
+        ActionFormMapper plain = createMapper();
+        ActionFormMapper hooked = new ActionFormMapper(null, null, null) {
+            @Override
+            protected Object convertToNativeIfPossible(Object bean, String name, Object exp, Class<?> propertyType,
+                    FormMappingOption option) {
+                return super.convertToNativeIfPossible(bean, name, exp, propertyType, option);
+            }
+        };
+        ActionFormMapper disabled = new ActionFormMapper(null, null, null) {
+            @Override
+            protected boolean isCompiledFormBinderEnabled() {
+                return false; // to use overridden hooks
+            }
+        };
+
+        // ## Act ##
+        // ## Assert ##
+        assertTrue(plain.isCompiledFormBinderEnabled());
+        assertTrue(hooked.isCompiledFormBinderEnabled()); // not determined by overridden methods
+        assertFalse(disabled.isCompiledFormBinderEnabled());
+        assertNull(disabled.prepareFormBinder(null, new LandForm())); // not prepared
+    }
+
+    protected Map<String, Object> prepareLandParamMap() {
+        Map<String, Object> paramMap = newLinkedHashMap();
+        paramMap.put("sea", new String[] { "mystic" });
+        paramMap.put("landId", new String[] { "3" });
+        paramMap.put("piari", new String[] { "7" });
+        paramMap.put("dstore", new String[] { "on" });
+        paramMap.put("bonvo", new String[] { "2016-04-01" });
+        paramMap.put("amba", new String[] { "1", "2" });
+        paramMap.put("miraco", new String[] { "a", "b" });
+        paramMap.put("dohotel", new String[] { "" });
+        return paramMap;
+    }
+
+    public static class LandForm {
+        public String sea;
+        public Integer landId;
+        public int piari;
+        public boolean dstore;
+        public LocalDate bonvo;
+        public List<Integer> amba;
+        public String[] miraco;
+        public String dohotel;
+    }
+
+    // ===================================================================================
+    //                                                                    Indexed Property
+    //                                                                    ================
+    public void test_parseIndex_basic_cached() throws Exception {
+        // ## Arrange ##
+        ActionFormMapper mapper = createIndexedMapper();
+
+        // ## Act ##
+        ActionFormMapper.IndexParsedResult nested = mapper.parseIndex("3].options[1].code");
+        ActionFormMapper.IndexParsedResult multi = mapper.parseIndex("3][1].code");
+        ActionFormMapper.IndexParsedResult simple = mapper.parseIndex("12]");
+
+        // ## Assert ##
+        assertEquals(Arrays.toString(new int[] { 3 }), Arrays.toString(nested.getIndexes()));
+        assertEquals("options[1].code", nested.getName());
+        assertEquals(Arrays.toString(new int[] { 3, 1 }), Arrays.toString(multi.getIndexes()));
+        assertEquals("code", multi.getName());
+        assertEquals(Arrays.toString(new int[] { 12 }), Arrays.toString(simple.getIndexes()));
+        assertEquals("", simple.getName());
+        nested.getIndexes()[0] = 99; // cannot break parsed result
+        assertEquals(3, mapper.parseIndex("3].options[1].code").getIndex(0));
+        assertException(RuntimeException.class, () -> mapper.parseIndex("-1]"));
+        assertException(RuntimeException.class, () -> mapper.parseIndex("257]"));
+        assertException(RuntimeException.class, () -> mapper.parseIndex("].code")); // empty index with cached structure
+        assertException(RuntimeException.class, () -> mapper.parseIndex("2x].code"));
+    }
+
+    public void test_parseIndex_structureShared_overLimit() throws Exception {
+        // ## Arrange ##
+        ActionFormMapper mapper = createIndexedMapper();
+        int rowCount = 256; // max index of the mapper
+        String[] columns = new String[20];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = "column" + i;
+        }
+        assertTrue(rowCount * columns.length > mapper.getIndexParsedCacheLimit()); // more names than the limit
+
+        // ## Act ##
+        for (int row = 0; row < rowCount; row++) {
+            for (String column : columns) {
+                ActionFormMapper.IndexParsedResult result = mapper.parseIndex(row + "]." + column);
+
+                // ## Assert ##
+                assertEquals(row, result.getIndex(0));
+                assertEquals(column, result.getName());
+            }
+        }
+        assertEquals(columns.length, mapper.indexStructureCacheMap.size()); // shared by rows, no clear
+    }
+
+    public void test_prepareIndexedArraySize_inOrder() throws Exception {
+        // ## Arrange ##
+        ActionFormMapper mapper = createIndexedMapper();
+        VirtualForm virtualForm = new VirtualForm(() -> "", (ActionFormMeta) null); // dummy
+        LandForm form = new LandForm();
+        Map<String, Object> paramMap = newLinkedHashMap();
+        for (int i = 0; i < 100; i++) {
+            paramMap.put("miraco[" + i + "]", new String[] { "v" + i });
+        }
+        paramMap.put("sea.land[300]", new String[] { "ignored" }); // not first-level
+
+        // ## Act ##
+        Map<String, Integer> arraySizeMap = mapper.analyzeIndexedArraySize(paramMap);
+        String[] sized = null;
+        for (Entry<String, Object> entry : paramMap.entrySet()) {
+            mapper.prepareIndexedArraySize(form, entry.getKey(), arraySizeMap);
+            if (entry.getKey().startsWith("miraco")) {
+                if (sized == null) {
+                    sized = form.miraco;
+                }
+                mapper.setProperty(virtualForm, form, entry.getKey(), entry.getValue(), null, new FormMappingOption(), null, null);
+            }
+        }
+
+        // ## Assert ##
+        assertEquals(100, sized.length);
+        assertSame(sized, form.miraco); // not expanded one by one
+        assertTrue(arraySizeMap.isEmpty()); // prepared only once
+        assertEquals("v0", form.miraco[0]);
+        assertEquals("v99", form.miraco[99]);
+    }
+
+    public void test_analyzeIndexedArraySize_disabled() throws Exception {
+        // ## Arrange ##
+        ActionFormMapper mapper = new ActionFormMapper(null, null, null) {
+            @Override
+            protected int getIndexedPropertySizeLimit() {
+                return 256;
+            }
+
+            @Override
+            protected boolean isIndexedArraySizeEnabled() {
+                return false; // to use overridden indexed hooks
+            }
+        };
+        Map<String, Object> paramMap = newLinkedHashMap();
+        paramMap.put("miraco[3]", new String[] { "v3" });
+
+        // ## Act ##
+        Map<String, Integer> arraySizeMap = mapper.analyzeIndexedArraySize(paramMap);
+
+        // ## Assert ##
+        assertNull(arraySizeMap);
+        assertEquals(3, createIndexedMapper().analyzeIndexedArraySize(paramMap).get("miraco").intValue());
+    }
+
+    protected ActionFormMapper createIndexedMapper() {
+        return new ActionFormMapper(null, null, null) {
+            @Override
+            protected int getIndexedPropertySizeLimit() {
+                return 256;
+            }
+        };
+    }
+
+    // ===================================================================================
+    //                                                                    Stream JSON Body
+    //                                                                    ================
+    public void test_mappingStreamJsonBody_basic() throws Exception {
+        // ## Arrange ##
+        ActionFormMapper mapper = createStreamMapper();
+        VirtualForm virtualForm = new VirtualForm(() -> "", createStreamFormMeta());
+        String json = "[{\"seaId\":1,\"seaName\":\"mystic\"},{\"seaId\":2,\"seaName\":\"bonvo\"}]";
+
+        // ## Act ##
+        mapper.mappingStreamJsonBody(null, virtualForm, new JsonBodyPrefixCaptureReader(new StringReader(json), 1024));
+
+        // ## Assert ##
+        @SuppressWarnings("unchecked")
+        JsonBodyStream<StreamSeaBody> bodyStream = (JsonBodyStream<StreamSeaBody>) virtualForm.getRealForm();
+        assertEquals(StreamSeaBody.class, bodyStream.getBodyType());
+        List<String> nameList = new ArrayList<String>();
+        int count = bodyStream.forEach(body -> nameList.add(body.seaId + ":" + body.seaName));
+        assertEquals(2, count);
+        assertEquals(Arrays.asList("1:mystic", "2:bonvo"), nameList);
+    }
+
+    public void test_mappingStreamJsonBody_parseFailure() throws Exception {
+        // ## Arrange ##
+        ActionFormMapper mapper = createStreamMapper();
+        VirtualForm virtualForm = new VirtualForm(() -> "", createStreamFormMeta());
+        String json = "[{\"seaId\":1,\"seaName\":\"mystic\"},{\"seaId\":\"over\",\"seaName\":\"bonvo\"}]";
+        mapper.mappingStreamJsonBody(null, virtualForm, new JsonBodyPrefixCaptureReader(new StringReader(json), 1024));
+        @SuppressWarnings("unchecked")
+        JsonBodyStream<StreamSeaBody> bodyStream = (JsonBodyStream<StreamSeaBody>) virtualForm.getRealForm();
+        List<Integer> idList = new ArrayList<Integer>();
+
+        // ## Act ##
+        // ## Assert ##
+        try {
+            bodyStream.forEach(body -> idList.add(body.seaId));
+            fail();
+        } catch (RequestJsonParseFailureException e) {
+            log(e.getMessage());
+            assertContains(e.getMessage(), "failed at element index: 1");
+            assertContains(e.getMessage(), "mystic"); // captured prefix
+        }
+        assertEquals(Arrays.asList(1), idList); // first element already handled
+    }
+
+    protected ActionFormMapper createStreamMapper() {
+        GsonJsonParser parser = new GsonJsonParser(builder -> {}, op -> {});
+        JsonManager jsonManager = new JsonManager() {
+            @Override
+            public <BEAN> BEAN fromJson(String json, Class<BEAN> beanType) {
+                return parser.fromJson(json, beanType);
+            }
+
+            @Override
+            public <BEAN> BEAN fromJsonParameteried(String json, ParameterizedType parameterizedType) {
+                return parser.fromJsonParameteried(json, parameterizedType);
+            }
+
+            @Override
+            public <BEAN> Iterator<BEAN> fromJsonArrayIterator(Reader reader, Class<BEAN> elementType) {
+                return parser.fromJsonArrayIterator(reader, elementType); // streaming
+            }
+
+            @Override
+            public String toJson(Object bean) {
+                return parser.toJson(bean);
+            }
+
+            @Override
+            public void toJson(Object bean, Writer writer) {
+                parser.toJson(bean, writer);
+            }
+        };
+        return new ActionFormMapper(null, null, null) {
+            @Override
+            protected JsonManager getJsonManager() {
+                return jsonManager;
+            }
+        };
+    }
+
+    protected ActionFormMeta createStreamFormMeta() throws Exception {
+        Parameter parameter = StreamSeaAction.class.getMethod("index", JsonBodyStream.class).getParameters()[0];
+        return new ActionFormMeta(null, "bodyStream", JsonBodyStream.class, OptionalThing.of(parameter), OptionalThing.empty());
+    }
+
+    public static class StreamSeaAction {
+
+        public void index(JsonBodyStream<StreamSeaBody> bodyStream) {
+        }
+    }
+
+    public static class StreamSeaBody {
+        public Integer seaId;
+        public String seaName;
+    }
+
     // ===================================================================================
     //                                                                         Test Helper
     //                                                                         ===========
@@ -0,0 +1,90 @@
+package org.lastaflute.web.ruts.process;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+import org.lastaflute.core.json.GsonJsonParser;
+import org.lastaflute.core.json.JsonManager;
+import org.lastaflute.core.json.SimpleJsonManager;
+import org.lastaflute.unit.UnitLastaFluteTestCase;
+
+/**
+ * @author jflute
+ */
+public class JsonArrayStreamWriterTest extends UnitLastaFluteTestCase {
+
+    public void test_write_basic() throws Exception {
+        // ## Arrange ##
+        StringWriter writer = new StringWriter();
+        JsonArrayStreamWriter<SeaBean> out = new JsonArrayStreamWriter<SeaBean>(writer, createJsonManager(), 2);
+
+        // ## Act ##
+        out.begin();
+        out.write(new SeaBean(1, "mystic"));
+        out.write(null);
+        out.write(new SeaBean(3, "bonvo"));
+        out.end();
+
+        // ## Assert ##
+        log(writer);
+        assertEquals("[{\"seaId\":1,\"seaName\":\"mystic\"},null,{\"seaId\":3,\"seaName\":\"bonvo\"}]", writer.toString());
+        assertEquals(3, out.getWrittenCount());
+    }
+
+    public void test_write_empty() throws Exception {
+        // ## Arrange ##
+        StringWriter writer = new StringWriter();
+        JsonArrayStreamWriter<SeaBean> out = new JsonArrayStreamWriter<SeaBean>(writer, createJsonManager(), 0);
+
+        // ## Act ##
+        out.begin();
+        out.end();
+
+        // ## Assert ##
+        assertEquals("[]", writer.toString());
+    }
+
+    public void test_write_failure() throws Exception {
+        // ## Arrange ##
+        Writer brokenWriter = new StringWriter() {
+            @Override
+            public void flush() {
+                throw new UncheckedIOException(new IOException("Broken pipe")); // wrapped same as JSON parser
+            }
+        };
+        JsonArrayStreamWriter<SeaBean> out = new JsonArrayStreamWriter<SeaBean>(brokenWriter, createJsonManager(), 1);
+        out.begin();
+
+        // ## Act ##
+        // ## Assert ##
+        assertException(UncheckedIOException.class, () -> out.write(new SeaBean(1, "mystic")));
+        assertException(UncheckedIOException.class, () -> out.write(new SeaBean(2, "land"))); // already failed
+        try {
+            out.end();
+            fail();
+        } catch (IOException e) {
+            assertEquals("Broken pipe", e.getMessage());
+        }
+    }
+
+    private JsonManager createJsonManager() {
+        return new SimpleJsonManager() {
+            {
+                realJsonParser = new GsonJsonParser(builder -> {} , op -> {});
+            }
+        };
+    }
+
+    public static class SeaBean {
+
+        public Integer seaId;
+        public String seaName;
+
+        public SeaBean(Integer seaId, String seaName) {
+            this.seaId = seaId;
+            this.seaName = seaName;
+        }
+    }
+}
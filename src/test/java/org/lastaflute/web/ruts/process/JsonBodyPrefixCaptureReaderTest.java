@@ -0,0 +1,42 @@
+package org.lastaflute.web.ruts.process;
+
+import java.io.StringReader;
+
+import org.dbflute.utflute.core.PlainTestCase;
+
+/**
+ * @author jflute
+ */
+public class JsonBodyPrefixCaptureReaderTest extends PlainTestCase {
+
+    public void test_capture_withinLimit() throws Exception {
+        // ## Arrange ##
+        String json = "{\"sea\":\"mystic\",\"land\":3}";
+        JsonBodyPrefixCaptureReader reader = new JsonBodyPrefixCaptureReader(new StringReader(json), 100);
+        char[] buf = new char[5];
+
+        // ## Act ##
+        reader.read(buf, 0, buf.length);
+        reader.read();
+        reader.captureRest();
+
+        // ## Assert ##
+        assertEquals(json, reader.getCapturedPrefix());
+        assertFalse(reader.isTruncated());
+        assertEquals(json.length(), reader.getReadCount());
+    }
+
+    public void test_capture_overLimit() throws Exception {
+        // ## Arrange ##
+        String json = "{\"sea\":\"mystic\",\"land\":3}";
+        JsonBodyPrefixCaptureReader reader = new JsonBodyPrefixCaptureReader(new StringReader(json), 8);
+
+        // ## Act ##
+        reader.captureRest();
+
+        // ## Assert ##
+        assertEquals("{\"sea\":\"", reader.getCapturedPrefix());
+        assertTrue(reader.isTruncated());
+        assertEquals(json.length(), reader.getReadCount());
+    }
+}
@@ -0,0 +1,119 @@
+package org.lastaflute.web.ruts.process;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+
+import org.dbflute.optional.OptionalThing;
+import org.lastaflute.di.core.meta.impl.ComponentDefImpl;
+import org.lastaflute.unit.UnitLastaFluteTestCase;
+import org.lastaflute.unit.mock.web.MockRequestManager;
+import org.lastaflute.web.response.JsonResponse;
+import org.lastaflute.web.ruts.config.ActionExecute;
+import org.lastaflute.web.ruts.config.ActionMapping;
+import org.lastaflute.web.ruts.config.ExecuteOption;
+import org.lastaflute.web.ruts.config.UrlParamMatchResult;
+
+/**
+ * @author jflute
+ */
+public class RequestUrlParamAnalyzerTest extends UnitLastaFluteTestCase {
+
+    // ===================================================================================
+    //                                                                        Match Result
+    //                                                                        ============
+    public void test_analyzeUrlParam_matchResult_sameAsRematching() throws Exception {
+        // ## Arrange ##
+        RequestUrlParamAnalyzer analyzer = createAnalyzer();
+        ActionMapping mapping = createMapping();
+
+        // ## Act ##
+        // ## Assert ##
+        assertSameAsRematching(analyzer, createExecute(mapping, "index"), "3");
+        assertSameAsRematching(analyzer, createExecute(mapping, "sea"), "sea/3/mystic");
+        assertSameAsRematching(analyzer, createExecute(mapping, "sea"), "sea/-1/over%21the"); // decoded in both
+        assertSameAsRematching(analyzer, createExecute(mapping, "land"), "land/7");
+        assertSameAsRematching(analyzer, createExecute(mapping, "land"), "land"); // optional mapping, no matched values
+        assertSameAsRematching(analyzer, createExecute(mapping, "bonvo"), "bonvo/3-dstore");
+    }
+
+    public void test_analyzeUrlParam_matchResult_reusedValues() throws Exception {
+        // ## Arrange ##
+        RequestUrlParamAnalyzer analyzer = createAnalyzer();
+        ActionExecute execute = createExecute(createMapping(), "sea");
+        UrlParamMatchResult matchResult = new UrlParamMatchResult(execute, Arrays.asList("7", "bonvo")); // differs from path
+
+        // ## Act ##
+        RequestUrlParam urlParam = analyzer.analyzeUrlParam(execute, "sea/3/mystic", matchResult);
+
+        // ## Assert ##
+        log(urlParam);
+        assertEquals(7, urlParam.getUrlParamValueMap().get(0)); // not matched again
+        assertEquals("bonvo", urlParam.getUrlParamValueMap().get(1));
+    }
+
+    public void test_analyzeUrlParam_matchResult_otherExecute() throws Exception {
+        // ## Arrange ##
+        RequestUrlParamAnalyzer analyzer = createAnalyzer();
+        ActionMapping mapping = createMapping();
+        ActionExecute execute = createExecute(mapping, "sea");
+        UrlParamMatchResult matchResult = new UrlParamMatchResult(createExecute(mapping, "sea"), Arrays.asList("7", "bonvo"));
+
+        // ## Act ##
+        RequestUrlParam urlParam = analyzer.analyzeUrlParam(execute, "sea/3/mystic", matchResult);
+
+        // ## Assert ##
+        assertEquals(3, urlParam.getUrlParamValueMap().get(0)); // e.g. forwarded so matched here
+        assertEquals("mystic", urlParam.getUrlParamValueMap().get(1));
+    }
+
+    // ===================================================================================
+    //                                                                        Assist Logic
+    //                                                                        ============
+    protected void assertSameAsRematching(RequestUrlParamAnalyzer analyzer, ActionExecute execute, String paramPath) {
+        UrlParamMatchResult matchResult = execute.matchUrlParameter(paramPath);
+        assertNotNull(paramPath, matchResult);
+        RequestUrlParam reused = analyzer.analyzeUrlParam(execute, paramPath, matchResult);
+        RequestUrlParam rematched = analyzer.analyzeUrlParam(execute, paramPath);
+        log(paramPath, matchResult, reused);
+        assertEquals(paramPath, rematched.getUrlParamTypeList(), reused.getUrlParamTypeList());
+        assertEquals(paramPath, rematched.getUrlParamValueMap(), reused.getUrlParamValueMap());
+    }
+
+    protected RequestUrlParamAnalyzer createAnalyzer() {
+        return new RequestUrlParamAnalyzer(new MockRequestManager() {
+            @Override
+            public OptionalThing<String> getCharacterEncoding() {
+                return OptionalThing.of("UTF-8");
+            }
+        });
+    }
+
+    protected ActionMapping createMapping() {
+        return new ActionMapping(new ComponentDefImpl(MockUrlParamAction.class), "mockUrlParamAction", null);
+    }
+
+    protected ActionExecute createExecute(ActionMapping mapping, String methodName) {
+        Method method = Arrays.stream(MockUrlParamAction.class.getMethods()).filter(mt -> mt.getName().equals(methodName)).findFirst().get();
+        String urlPattern = methodName.equals("bonvo") ? "{}-dstore" : null; // regular expression for the segment
+        return new ActionExecute(mapping, method, new ExecuteOption(urlPattern, false, false, -1));
+    }
+
+    public static class MockUrlParamAction {
+
+        public JsonResponse<Object> index(Integer pageNumber) {
+            return null;
+        }
+
+        public JsonResponse<Object> sea(Integer id, String code) {
+            return null;
+        }
+
+        public JsonResponse<Object> land(OptionalThing<Integer> id) {
+            return null;
+        }
+
+        public JsonResponse<Object> bonvo(Integer id) {
+            return null;
+        }
+    }
+}
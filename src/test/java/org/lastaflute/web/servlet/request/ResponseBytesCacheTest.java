@@ -0,0 +1,97 @@
+package org.lastaflute.web.servlet.request;
+
+import org.lastaflute.unit.UnitLastaFluteTestCase;
+import org.lastaflute.web.servlet.request.ResponseBytesCache.CachedBytes;
+
+/**
+ * @author jflute
+ */
+public class ResponseBytesCacheTest extends UnitLastaFluteTestCase {
+
+    public void test_find_basic() throws Exception {
+        // ## Arrange ##
+        ResponseBytesCache cache = new ResponseBytesCache(1000);
+        byte[] plainBytes = "{\"sea\":\"mystic\"}".getBytes("UTF-8");
+        cache.cache("sea", "1", plainBytes, null);
+
+        // ## Act ##
+        CachedBytes found = cache.find("sea", "1");
+        CachedBytes notCached = cache.find("land", "1");
+
+        // ## Assert ##
+        log(cache);
+        assertSame(plainBytes, found.getPlainBytes());
+        assertNull(found.getGzippedBytes());
+        assertNull(notCached);
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(plainBytes.length, cache.getTotalBytes());
+    }
+
+    public void test_find_versionChanged() throws Exception {
+        // ## Arrange ##
+        ResponseBytesCache cache = new ResponseBytesCache(1000);
+        cache.cache("sea", "1", new byte[10], new byte[5]);
+        assertEquals(15, cache.getTotalBytes());
+
+        // ## Act ##
+        CachedBytes found = cache.find("sea", "2"); // e.g. master data updated
+
+        // ## Assert ##
+        assertNull(found);
+        assertEquals(0, cache.getTotalBytes());
+        assertEquals(1, cache.getStaleCount());
+    }
+
+    public void test_cache_staleVersionNotRegistered() throws Exception {
+        // ## Arrange ##
+        ResponseBytesCache cache = new ResponseBytesCache(1000);
+        cache.cache("sea", "1", new byte[10], null);
+        assertNull(cache.find("sea", "2")); // version changed while serializing old version
+
+        // ## Act ##
+        CachedBytes stale = cache.cache("sea", "1", new byte[20], null); // e.g. request before version change
+        CachedBytes latest = cache.cache("sea", "2", new byte[30], null);
+
+        // ## Assert ##
+        log(cache);
+        assertEquals(20, stale.getPlainBytes().length); // still written
+        assertEquals(1, cache.getRejectionCount());
+        assertSame(latest, cache.find("sea", "2"));
+        assertEquals(30, cache.getTotalBytes());
+    }
+
+    public void test_cache_eviction() throws Exception {
+        // ## Arrange ##
+        ResponseBytesCache cache = new ResponseBytesCache(1000);
+        for (int i = 0; i < 10; i++) {
+            cache.cache("sea" + i, "1", new byte[100], null);
+        }
+        cache.find("sea3", "1"); // referenced
+        assertEquals(1000, cache.getTotalBytes());
+
+        // ## Act ##
+        cache.cache("land", "1", new byte[100], null);
+
+        // ## Assert ##
+        log(cache);
+        assertTrue(cache.getTotalBytes() <= 900);
+        assertTrue(cache.getEvictionCount() >= 2);
+        assertNotNull(cache.find("sea3", "1")); // second chance
+        assertNotNull(cache.find("land", "1"));
+    }
+
+    public void test_cache_tooLarge() throws Exception {
+        // ## Arrange ##
+        ResponseBytesCache cache = new ResponseBytesCache(1000);
+
+        // ## Act ##
+        CachedBytes written = cache.cache("sea", "1", new byte[300], null);
+
+        // ## Assert ##
+        assertEquals(300, written.getPlainBytes().length); // still written
+        assertNull(cache.find("sea", "1"));
+        assertEquals(1, cache.getRejectionCount());
+        assertEquals(0, cache.getTotalBytes());
+    }
+}
@@ -0,0 +1,267 @@
+package org.lastaflute.web.servlet.request;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.lastaflute.unit.UnitLastaFluteTestCase;
+import org.lastaflute.unit.mock.web.MockHttpServletRequest;
+import org.lastaflute.unit.mock.web.MockHttpServletResponse;
+
+/**
+ * @author jflute
+ */
+public class ResponseDownloadPerformerTest extends UnitLastaFluteTestCase {
+
+    protected Path filePath;
+    protected final MockHttpServletRequest request = new MockHttpServletRequest();
+    protected final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        filePath = Files.createTempFile("lasta-download", ".txt");
+        Files.write(filePath, "0123456789".getBytes(StandardCharsets.US_ASCII));
+    }
+
+    @Override
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(filePath);
+        super.tearDown();
+    }
+
+    // ===================================================================================
+    //                                                                               Range
+    //                                                                               =====
+    public void test_downloadFilePath_whole() throws Exception {
+        // ## Arrange ##
+        ResponseDownloadPerformer performer = createPerformer();
+
+        // ## Act ##
+        performer.downloadFilePath(createResource(), response);
+
+        // ## Assert ##
+        assertEquals(200, response.getStatus());
+        assertEquals("0123456789", sentBody());
+        assertEquals(10, response.getContentLength());
+        assertEquals("bytes", response.getHeader("Accept-Ranges"));
+        assertNotNull(response.getHeader("ETag"));
+        assertNotNull(response.getHeader("Last-Modified"));
+    }
+
+    public void test_downloadFilePath_partial() throws Exception {
+        // ## Arrange ##
+        ResponseDownloadPerformer performer = createPerformer();
+        request.setHeader("Range", "bytes=2-5");
+
+        // ## Act ##
+        performer.downloadFilePath(createResource(), response);
+
+        // ## Assert ##
+        assertEquals(206, response.getStatus());
+        assertEquals("2345", sentBody());
+        assertEquals(4, response.getContentLength());
+        assertEquals("bytes 2-5/10", response.getHeader("Content-Range"));
+    }
+
+    public void test_downloadFilePath_unsatisfiable() throws Exception {
+        // ## Arrange ##
+        ResponseDownloadPerformer performer = createPerformer();
+        request.setHeader("Range", "bytes=10-");
+
+        // ## Act ##
+        performer.downloadFilePath(createResource(), response);
+
+        // ## Assert ##
+        assertEquals(416, response.getStatus());
+        assertEquals("", sentBody());
+        assertEquals(0, response.getContentLength());
+        assertEquals("bytes */10", response.getHeader("Content-Range"));
+    }
+
+    public void test_downloadFilePath_nonOkStatus() throws Exception {
+        // ## Arrange ##
+        ResponseDownloadPerformer performer = createPerformer();
+        request.setHeader("Range", "bytes=2-5");
+        response.setStatus(HttpServletResponse.SC_NOT_FOUND); // e.g. application status
+
+        // ## Act ##
+        performer.downloadFilePath(createResource(), response);
+
+        // ## Assert ##
+        assertEquals(404, response.getStatus()); // not partial
+        assertEquals("0123456789", sentBody());
+        assertNull(response.getHeader("Content-Range"));
+    }
+
+    // ===================================================================================
+    //                                                                            If-Range
+    //                                                                            ========
+    public void test_downloadFilePath_ifRange_entityTag_matched() throws Exception {
+        // ## Arrange ##
+        ResponseDownloadPerformer performer = createPerformer();
+        response.setHeader("ETag", "\"sea-v1\""); // application's one
+        request.setHeader("Range", "bytes=2-5");
+        request.setHeader("If-Range", "\"sea-v1\"");
+
+        // ## Act ##
+        performer.downloadFilePath(createResource(), response);
+
+        // ## Assert ##
+        assertEquals(206, response.getStatus());
+        assertEquals("2345", sentBody());
+        assertEquals("\"sea-v1\"", response.getHeader("ETag"));
+    }
+
+    public void test_downloadFilePath_ifRange_entityTag_mismatched() throws Exception {
+        // ## Arrange ##
+        ResponseDownloadPerformer performer = createPerformer();
+        response.setHeader("ETag", "\"sea-v2\""); // application's one
+        request.setHeader("Range", "bytes=2-5");
+        long lastModified = Files.getLastModifiedTime(filePath).toMillis();
+        String fileTag = "\"" + Long.toHexString(10) + "-" + Long.toHexString(lastModified) + "\"";
+        request.setHeader("If-Range", fileTag); // not sent tag
+
+        // ## Act ##
+        performer.downloadFilePath(createResource(), response);
+
+        // ## Assert ##
+        assertEquals(200, response.getStatus()); // whole content
+        assertEquals("0123456789", sentBody());
+        assertNull(response.getHeader("Content-Range"));
+    }
+
+    public void test_downloadFilePath_ifRange_lastModified_matched() throws Exception {
+        // ## Arrange ##
+        ResponseDownloadPerformer performer = createPerformer();
+        String lastModified = formatHttpDate(Files.getLastModifiedTime(filePath).toMillis());
+        request.setHeader("Range", "bytes=-3");
+        request.setHeader("If-Range", lastModified);
+
+        // ## Act ##
+        performer.downloadFilePath(createResource(), response);
+
+        // ## Assert ##
+        assertEquals(206, response.getStatus());
+        assertEquals("789", sentBody());
+    }
+
+    public void test_downloadFilePath_ifRange_lastModified_mismatched() throws Exception {
+        // ## Arrange ##
+        ResponseDownloadPerformer performer = createPerformer();
+        long lastModified = Files.getLastModifiedTime(filePath).toMillis();
+        response.setHeader("Last-Modified", formatHttpDate(lastModified + 60000L)); // application's one
+        request.setHeader("Range", "bytes=-3");
+        request.setHeader("If-Range", formatHttpDate(lastModified)); // not sent date
+
+        // ## Act ##
+        performer.downloadFilePath(createResource(), response);
+
+        // ## Assert ##
+        assertEquals(200, response.getStatus());
+        assertEquals("0123456789", sentBody());
+    }
+
+    // ===================================================================================
+    //                                                                          Zip Stream
+    //                                                                          ==========
+    public void test_downloadZipStreamCall_sequential() throws Exception {
+        // ## Arrange ##
+        ResponseDownloadPerformer performer = createPerformer();
+        ResponseDownloadResource resource = new ResponseDownloadResource("sea.zip").zipStreamChunked(out -> {
+            out.register("sea.txt", stream -> stream.write("mystic".getBytes(StandardCharsets.UTF_8)));
+            out.register("海/land.txt", stream -> {
+                stream.write("oneman".getBytes(StandardCharsets.UTF_8));
+                stream.close(); // ignored, closed by performer
+            });
+        });
+
+        // ## Act ##
+        performer.downloadZipStreamCall(resource, response); // written directly
+
+        // ## Assert ##
+        List<String> nameList = new ArrayList<String>();
+        Path zipPath = Files.createTempFile("lasta-download", ".zip");
+        try {
+            Files.write(zipPath, response.getBodyBytes());
+            try (ZipFile zipFile = new ZipFile(zipPath.toFile(), StandardCharsets.UTF_8)) { // by central directory
+                Enumeration<? extends ZipEntry> entries = zipFile.entries();
+                while (entries.hasMoreElements()) {
+                    ZipEntry entry = entries.nextElement();
+                    nameList.add(entry.getName());
+                    try (InputStream ins = zipFile.getInputStream(entry)) {
+                        ByteArrayOutputStream contentOut = new ByteArrayOutputStream();
+                        byte[] buffer = new byte[1024];
+                        int length;
+                        while ((length = ins.read(buffer)) >= 0) {
+                            contentOut.write(buffer, 0, length);
+                        }
+                        String content = new String(contentOut.toByteArray(), StandardCharsets.UTF_8);
+                        log(entry.getName(), content);
+                        assertEquals(entry.getName().startsWith("sea") ? "mystic" : "oneman", content);
+                    }
+                }
+            }
+        } finally {
+            Files.deleteIfExists(zipPath);
+        }
+        assertEquals("[sea.txt, 海/land.txt]", nameList.toString());
+    }
+
+    public void test_downloadZipStreamCall_duplicate() throws Exception {
+        // ## Arrange ##
+        ResponseDownloadPerformer performer = createPerformer();
+        ResponseDownloadResource resource = new ResponseDownloadResource("sea.zip").zipStreamChunked(out -> {
+            out.register("sea.txt", stream -> stream.write(1));
+            out.register("sea.txt", stream -> stream.write(2));
+        });
+
+        // ## Act ##
+        // ## Assert ##
+        try {
+            performer.downloadZipStreamCall(resource, response);
+            fail();
+        } catch (IllegalStateException e) {
+            log(e.getMessage());
+            assertContains(e.getMessage(), "sea.txt");
+        }
+    }
+
+    // ===================================================================================
+    //                                                                         Test Helper
+    //                                                                         ===========
+    protected ResponseDownloadPerformer createPerformer() {
+        return new ResponseDownloadPerformer() {
+            @Override
+            protected HttpServletRequest getDownloadRequest() {
+                return request;
+            }
+        };
+    }
+
+    protected ResponseDownloadResource createResource() {
+        return new ResponseDownloadResource("sea.txt").file(filePath);
+    }
+
+    protected String sentBody() {
+        return response.getBodyString(StandardCharsets.US_ASCII);
+    }
+
+    protected String formatHttpDate(long millis) {
+        return DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneOffset.UTC));
+    }
+}
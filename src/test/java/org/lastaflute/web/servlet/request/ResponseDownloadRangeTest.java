@@ -0,0 +1,60 @@
+package org.lastaflute.web.servlet.request;
+
+import org.lastaflute.unit.UnitLastaFluteTestCase;
+
+/**
+ * @author jflute
+ */
+public class ResponseDownloadRangeTest extends UnitLastaFluteTestCase {
+
+    public void test_parse_satisfiable() {
+        // ## Arrange ##
+        long entityLength = 1000;
+
+        // ## Act ##
+        ResponseDownloadRange firstHalf = ResponseDownloadRange.parse("bytes=0-499", entityLength);
+        ResponseDownloadRange toEnd = ResponseDownloadRange.parse("bytes=500-", entityLength);
+        ResponseDownloadRange suffix = ResponseDownloadRange.parse("bytes=-100", entityLength);
+        ResponseDownloadRange clipped = ResponseDownloadRange.parse("Bytes=990-9999", entityLength);
+
+        // ## Assert ##
+        log(firstHalf, toEnd, suffix, clipped);
+        assertEquals("bytes 0-499/1000", firstHalf.buildContentRange());
+        assertEquals(500, firstHalf.getLength());
+        assertEquals("bytes 500-999/1000", toEnd.buildContentRange());
+        assertEquals("bytes 900-999/1000", suffix.buildContentRange());
+        assertEquals(100, suffix.getLength());
+        assertEquals("bytes 990-999/1000", clipped.buildContentRange());
+    }
+
+    public void test_parse_unsatisfiable() {
+        // ## Arrange ##
+        long entityLength = 1000;
+
+        // ## Act ##
+        ResponseDownloadRange overStart = ResponseDownloadRange.parse("bytes=1000-", entityLength);
+        ResponseDownloadRange zeroSuffix = ResponseDownloadRange.parse("bytes=-0", entityLength);
+        ResponseDownloadRange emptyFile = ResponseDownloadRange.parse("bytes=-10", 0);
+
+        // ## Assert ##
+        assertFalse(overStart.isSatisfiable());
+        assertEquals("bytes */1000", overStart.buildContentRange());
+        assertEquals(0, overStart.getLength());
+        assertFalse(zeroSuffix.isSatisfiable());
+        assertFalse(emptyFile.isSatisfiable());
+    }
+
+    public void test_parse_ignored() {
+        // ## Arrange ##
+        long entityLength = 1000;
+
+        // ## Act ##
+        // ## Assert ##
+        assertNull(ResponseDownloadRange.parse(null, entityLength));
+        assertNull(ResponseDownloadRange.parse("bytes=0-1,5-9", entityLength)); // multiple ranges
+        assertNull(ResponseDownloadRange.parse("items=0-1", entityLength));
+        assertNull(ResponseDownloadRange.parse("bytes=9-1", entityLength));
+        assertNull(ResponseDownloadRange.parse("bytes=sea-land", entityLength));
+        assertNull(ResponseDownloadRange.parse("bytes=100", entityLength));
+    }
+}
@@ -0,0 +1,158 @@
+package org.lastaflute.web.servlet.request;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.lastaflute.unit.UnitLastaFluteTestCase;
+
+/**
+ * @author jflute
+ */
+public class ResponseParallelZipWriterTest extends UnitLastaFluteTestCase {
+
+    public void test_write_keepOrder() throws Exception {
+        // ## Arrange ##
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ResponseParallelZipWriter writer = new ResponseParallelZipWriter(out, StandardCharsets.UTF_8, executor, 2,
+                Deflater.DEFAULT_COMPRESSION);
+        try {
+            // ## Act ##
+            for (int i = 1; i <= 5; i++) {
+                final String content = buildContent(i);
+                final long sleep = (5 - i) * 10L; // later entries finish earlier
+                writer.write("sea" + i + ".txt", stream -> {
+                    try {
+                        Thread.sleep(sleep);
+                    } catch (InterruptedException ignored) {}
+                    stream.write(content.getBytes(StandardCharsets.UTF_8));
+                });
+            }
+            writer.write("海/land.txt", stream -> stream.write("piari".getBytes(StandardCharsets.UTF_8)));
+            writer.finish();
+        } finally {
+            executor.shutdown();
+        }
+
+        // ## Assert ##
+        List<String> nameList = new ArrayList<String>();
+        Path zipPath = Files.createTempFile("lasta-parallel", ".zip");
+        try {
+            Files.write(zipPath, out.toByteArray());
+            try (ZipFile zipFile = new ZipFile(zipPath.toFile(), StandardCharsets.UTF_8)) { // by central directory
+                Enumeration<? extends ZipEntry> entries = zipFile.entries();
+                while (entries.hasMoreElements()) {
+                    ZipEntry entry = entries.nextElement();
+                    String content = readContent(zipFile.getInputStream(entry));
+                    log(entry.getName(), entry.getCompressedSize(), content.length());
+                    nameList.add(entry.getName());
+                    assertEquals(content.getBytes(StandardCharsets.UTF_8).length, entry.getSize());
+                    if (entry.getName().startsWith("sea")) {
+                        int number = Integer.parseInt(entry.getName().substring(3, 4));
+                        assertEquals(buildContent(number), content);
+                    } else {
+                        assertEquals("piari", content);
+                    }
+                }
+            }
+        } finally {
+            Files.deleteIfExists(zipPath);
+        }
+        assertEquals("[sea1.txt, sea2.txt, sea3.txt, sea4.txt, sea5.txt, 海/land.txt]", nameList.toString());
+    }
+
+    public void test_cancel_stopRunning() throws Exception {
+        // ## Arrange ##
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        ResponseParallelZipWriter writer = new ResponseParallelZipWriter(new ByteArrayOutputStream(), StandardCharsets.UTF_8,
+                executor, 2, Deflater.DEFAULT_COMPRESSION);
+        CountDownLatch startedLatch = new CountDownLatch(1);
+        AtomicBoolean running = new AtomicBoolean();
+        try {
+            writer.write("sea.txt", stream -> {
+                running.set(true);
+                try {
+                    startedLatch.countDown();
+                    while (true) { // e.g. huge content
+                        stream.write(1);
+                    }
+                } finally {
+                    running.set(false);
+                }
+            });
+            writer.write("land.txt", stream -> {
+                try {
+                    Thread.sleep(60000L); // e.g. blocking query
+                } catch (InterruptedException e) {
+                    throw new InterruptedIOException("interrupted");
+                }
+            });
+            startedLatch.await();
+
+            // ## Act ##
+            writer.cancel();
+
+            // ## Assert ##
+            assertFalse(running.get()); // not running after cancel
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    public void test_write_failure() throws Exception {
+        // ## Arrange ##
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        ResponseParallelZipWriter writer = new ResponseParallelZipWriter(new ByteArrayOutputStream(), StandardCharsets.UTF_8,
+                executor, 2, Deflater.DEFAULT_COMPRESSION);
+        try {
+            writer.write("sea.txt", stream -> {
+                throw new IOException("mystic");
+            });
+
+            // ## Act ##
+            // ## Assert ##
+            try {
+                writer.finish();
+                fail();
+            } catch (IOException e) {
+                log(e.getMessage());
+                assertContains(e.getMessage(), "sea.txt");
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    protected String buildContent(int number) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 1000 * number; i++) {
+            sb.append("sea").append(number).append(i % 10);
+        }
+        return sb.toString();
+    }
+
+    protected String readContent(InputStream ins) throws IOException {
+        ByteArrayOutputStream contentOut = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        int length;
+        while ((length = ins.read(buffer)) >= 0) {
+            contentOut.write(buffer, 0, length);
+        }
+        return new String(contentOut.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,229 @@
+package org.lastaflute.web.servlet.request;
+
+import java.io.OutputStream;
+import java.lang.reflect.ParameterizedType;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.lastaflute.core.json.GsonJsonParser;
+import org.lastaflute.core.json.JsonManager;
+import org.lastaflute.core.json.RealJsonParser;
+import org.lastaflute.core.json.SimpleJsonManager;
+import org.lastaflute.unit.UnitLastaFluteTestCase;
+import org.lastaflute.unit.mock.web.MockHttpServletResponse;
+import org.lastaflute.web.ruts.process.JsonArrayStreamWriter;
+import org.lastaflute.web.servlet.request.compression.ResponseCompressionEncoding;
+import org.lastaflute.web.servlet.request.compression.ResponseCompressionOption;
+import org.lastaflute.web.servlet.request.compression.ResponseCompressionOutputStream;
+
+/**
+ * @author jflute
+ */
+public class SimpleResponseManagerTest extends UnitLastaFluteTestCase {
+
+    // ===================================================================================
+    //                                                                      Streaming Text
+    //                                                                      ==============
+    public void test_write_textCall_basic() throws Exception {
+        // ## Arrange ##
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        SimpleResponseManager manager = createManager(response);
+
+        // ## Act ##
+        manager.write(writer -> writer.write("{\"sea\":\"mystic\"}"), "application/json", "UTF-8");
+
+        // ## Assert ##
+        assertEquals("{\"sea\":\"mystic\"}", response.getBodyString(StandardCharsets.UTF_8));
+        assertEquals(0, response.getResetBufferCount());
+    }
+
+    public void test_write_textCall_failure_notCommitted() throws Exception {
+        // ## Arrange ##
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        SimpleResponseManager manager = createManager(response);
+
+        // ## Act ##
+        // ## Assert ##
+        try {
+            manager.write(writer -> {
+                writer.write("{\"sea\":");
+                throw new IllegalStateException("mystic"); // e.g. failure of JSON serialization
+            }, "application/json", "UTF-8");
+            fail();
+        } catch (IllegalStateException e) {
+            log(e.getMessage());
+            assertEquals("mystic", e.getMessage());
+        }
+        assertEquals(0, response.getBodySize()); // partial JSON is not flushed
+        assertFalse(response.isCommitted());
+        assertEquals(1, response.getResetBufferCount()); // for error response
+    }
+
+    public void test_write_textCall_failure_alreadyCommitted() throws Exception {
+        // ## Arrange ##
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        SimpleResponseManager manager = createManager(response);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 10000; i++) {
+            sb.append("sea");
+        }
+        String large = sb.toString(); // over the buffers
+
+        // ## Act ##
+        // ## Assert ##
+        try {
+            manager.write(writer -> {
+                writer.write("[\"" + large + "\",");
+                throw new IllegalStateException("mystic");
+            }, "application/json", "UTF-8");
+            fail();
+        } catch (IllegalStateException e) {
+            log(e.getMessage());
+        }
+        assertTrue(response.isCommitted());
+        assertEquals(0, response.getResetBufferCount()); // cannot reset
+        assertTrue(response.getBodySize() < large.length() + 3); // not flushed the rest in buffer
+    }
+
+    public void test_write_textCall_failure_compressing() throws Exception {
+        // ## Arrange ##
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        SimpleResponseManager manager = new SimpleResponseManager() {
+            @Override
+            public HttpServletResponse getResponse() {
+                return response;
+            }
+
+            @Override
+            protected OutputStream prepareWritingOutputStream(HttpServletResponse response, String contentType, Long contentLength) {
+                ResponseCompressionOption option = new ResponseCompressionOption().minimumSize(4);
+                return new ResponseCompressionOutputStream(response, ResponseCompressionEncoding.GZIP, option);
+            }
+        };
+
+        // ## Act ##
+        // ## Assert ##
+        try {
+            manager.write(writer -> {
+                writer.write("[");
+                for (int i = 0; i < 10000; i++) { // over the writer buffer to start compression
+                    writer.write("\"sea\",");
+                }
+                throw new IllegalStateException("mystic");
+            }, "application/json", "UTF-8");
+            fail();
+        } catch (IllegalStateException e) {
+            log(e.getMessage());
+        }
+        assertFalse(response.isCommitted()); // compressed bytes are in response buffer
+        assertEquals(0, response.getResetBufferCount());
+        assertEquals(1, response.getResetCount()); // also Content-Encoding header
+        assertEquals(0, response.getBodySize());
+    }
+
+    // ===================================================================================
+    //                                                                        Client Abort
+    //                                                                        ============
+    public void test_write_textCall_clientAbort_streamingJson() throws Exception {
+        // ## Arrange ##
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        SimpleResponseManager manager = createManager(response);
+        JsonManager jsonManager = new SimpleJsonManager() {
+            {
+                realJsonParser = new GsonJsonParser(builder -> {}, op -> {});
+            }
+        };
+        List<String> bean = prepareLargeBean(); // over the writer buffer
+        response.setClientAborted(true);
+
+        // ## Act ##
+        manager.write(writer -> jsonManager.toJson(bean, writer), "application/json", "UTF-8"); // JsonIOException of Gson
+
+        // ## Assert ##
+        assertEquals(0, response.getBodySize()); // handled as client abort, no exception
+    }
+
+    public void test_write_textCall_clientAbort_defaultParser() throws Exception {
+        // ## Arrange ##
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        SimpleResponseManager manager = createManager(response);
+        RealJsonParser gsonParser = new GsonJsonParser(builder -> {}, op -> {});
+        RealJsonParser defaultParser = new RealJsonParser() { // only required methods, so default toJson(bean, writer)
+            public <BEAN> BEAN fromJson(String json, Class<BEAN> beanType) {
+                return gsonParser.fromJson(json, beanType);
+            }
+
+            public <BEAN> BEAN fromJsonParameteried(String json, ParameterizedType parameterizedType) {
+                return gsonParser.fromJsonParameteried(json, parameterizedType);
+            }
+
+            public String toJson(Object bean) {
+                return gsonParser.toJson(bean);
+            }
+        };
+        List<String> bean = prepareLargeBean();
+        response.setClientAborted(true);
+
+        // ## Act ##
+        manager.write(writer -> defaultParser.toJson(bean, writer), "application/json", "UTF-8");
+
+        // ## Assert ##
+        assertEquals(0, response.getBodySize());
+    }
+
+    protected List<String> prepareLargeBean() {
+        List<String> bean = new ArrayList<String>();
+        for (int i = 0; i < 5000; i++) {
+            bean.add("sea" + i);
+        }
+        return bean;
+    }
+
+    // ===================================================================================
+    //                                                                    JSON Array Stream
+    //                                                                    =================
+    public void test_write_jsonArrayStream_failure_committed() throws Exception {
+        // ## Arrange ##
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        SimpleResponseManager manager = createManager(response);
+        JsonManager jsonManager = new SimpleJsonManager() {
+            {
+                realJsonParser = new GsonJsonParser(builder -> {}, op -> {});
+            }
+        };
+
+        // ## Act ##
+        // ## Assert ##
+        try {
+            manager.write(writer -> {
+                JsonArrayStreamWriter<String> out = new JsonArrayStreamWriter<String>(writer, jsonManager, 1);
+                out.begin();
+                out.write("sea"); // flushed
+                throw new IllegalStateException("mystic"); // e.g. cursor failure
+            }, "application/json", "UTF-8");
+            fail();
+        } catch (IllegalStateException e) {
+            log(e.getMessage());
+        }
+        String sent = response.getBodyString(StandardCharsets.UTF_8);
+        log(sent);
+        assertTrue(response.isCommitted());
+        assertEquals("[\"sea\"", sent); // truncated, no end bracket
+        assertEquals(0, response.getResetBufferCount());
+    }
+
+    // ===================================================================================
+    //                                                                         Test Helper
+    //                                                                         ===========
+    protected SimpleResponseManager createManager(HttpServletResponse response) {
+        return new SimpleResponseManager() {
+            @Override
+            public HttpServletResponse getResponse() {
+                return response;
+            }
+        };
+    }
+}
@@ -0,0 +1,138 @@
+package org.lastaflute.web.servlet.request.compression;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.lastaflute.unit.UnitLastaFluteTestCase;
+import org.lastaflute.unit.mock.web.MockHttpServletRequest;
+import org.lastaflute.unit.mock.web.MockHttpServletResponse;
+
+/**
+ * @author jflute
+ */
+public class ResponseCompressorTest extends UnitLastaFluteTestCase {
+
+    // ===================================================================================
+    //                                                                           Determine
+    //                                                                           =========
+    public void test_chooseEncoding() {
+        // ## Arrange ##
+        ResponseCompressor compressor = new ResponseCompressor(new ResponseCompressionOption());
+        ResponseCompressor gzipOnly = new ResponseCompressor(new ResponseCompressionOption().suppressDeflate());
+
+        // ## Act ##
+        // ## Assert ##
+        assertEquals(ResponseCompressionEncoding.GZIP, compressor.chooseEncoding("gzip, deflate, br"));
+        assertEquals(ResponseCompressionEncoding.GZIP, compressor.chooseEncoding("deflate;q=1, *"));
+        assertEquals(ResponseCompressionEncoding.DEFLATE, compressor.chooseEncoding("gzip;q=0, deflate"));
+        assertEquals(ResponseCompressionEncoding.DEFLATE, compressor.chooseEncoding("deflate"));
+        assertNull(gzipOnly.chooseEncoding("deflate"));
+        assertNull(compressor.chooseEncoding("br"));
+        assertNull(compressor.chooseEncoding("gzip;q=0.0, *;q=0"));
+        assertNull(compressor.chooseEncoding(null));
+    }
+
+    public void test_isCompressibleContentType() {
+        // ## Arrange ##
+        ResponseCompressor compressor = new ResponseCompressor(new ResponseCompressionOption().addContentType("application/vnd.sea"));
+
+        // ## Act ##
+        // ## Assert ##
+        assertTrue(compressor.isCompressibleContentType("application/json; charset=UTF-8"));
+        assertTrue(compressor.isCompressibleContentType("text/csv"));
+        assertTrue(compressor.isCompressibleContentType("application/hal+json"));
+        assertTrue(compressor.isCompressibleContentType("application/vnd.sea"));
+        assertFalse(compressor.isCompressibleContentType("application/zip"));
+        assertFalse(compressor.isCompressibleContentType("image/png"));
+        assertFalse(compressor.isCompressibleContentType(null));
+    }
+
+    // ===================================================================================
+    //                                                                      Prepare Stream
+    //                                                                      ==============
+    public void test_prepareOutputStream_compressed() throws IOException {
+        // ## Arrange ##
+        ResponseCompressor compressor = new ResponseCompressor(new ResponseCompressionOption().minimumSize(16));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        Map<String, List<String>> headerMap = response.getHeaderMap();
+        String json = "[\"sea\", \"land\", \"piari\", \"bonvo\", \"dstore\", \"amba\", \"miraco\", \"dohotel\"]";
+
+        // ## Act ##
+        OutputStream out = compressor.prepareOutputStream(mockRequest("gzip"), response, "application/json; charset=UTF-8", null);
+        out.write(json.substring(0, 10).getBytes("UTF-8")); // held
+        assertFalse(((ResponseCompressionOutputStream) out).isCompressing());
+        out.write(json.substring(10).getBytes("UTF-8")); // exceeds minimum size
+        out.flush();
+        out.close();
+
+        // ## Assert ##
+        log(headerMap);
+        assertEquals("gzip", headerMap.get("Content-Encoding").get(0));
+        assertEquals("Accept-Encoding", headerMap.get("Vary").get(0));
+        assertFalse(headerMap.containsKey("Content-Length"));
+        assertEquals(json, new String(gunzip(response.getBodyBytes()), StandardCharsets.UTF_8));
+    }
+
+    public void test_prepareOutputStream_small() throws IOException {
+        // ## Arrange ##
+        ResponseCompressor compressor = new ResponseCompressor(new ResponseCompressionOption().minimumSize(16));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        Map<String, List<String>> headerMap = response.getHeaderMap();
+
+        // ## Act ##
+        OutputStream out = compressor.prepareOutputStream(mockRequest("gzip"), response, "application/json", null);
+        out.write("[\"sea\"]".getBytes("UTF-8"));
+        out.close();
+
+        // ## Assert ##
+        log(headerMap);
+        assertFalse(headerMap.containsKey("Content-Encoding"));
+        assertEquals("7", headerMap.get("Content-Length").get(0));
+        assertEquals("[\"sea\"]", response.getBodyString(StandardCharsets.UTF_8));
+    }
+
+    public void test_prepareOutputStream_alreadyEncoded() throws IOException {
+        // ## Arrange ##
+        ResponseCompressor compressor = new ResponseCompressor(new ResponseCompressionOption().minimumSize(0));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        Map<String, List<String>> headerMap = response.getHeaderMap();
+        response.addHeader("Content-Encoding", "gzip"); // e.g. pre-gzipped cache
+
+        // ## Act ##
+        OutputStream out = compressor.prepareOutputStream(mockRequest("gzip"), response, "application/json", 3L);
+
+        // ## Assert ##
+        assertFalse(out instanceof ResponseCompressionOutputStream);
+        assertEquals("3", headerMap.get("Content-Length").get(0));
+        assertFalse(headerMap.containsKey("Vary"));
+    }
+
+    // ===================================================================================
+    //                                                                         Test Helper
+    //                                                                         ===========
+    protected byte[] gunzip(byte[] gzipped) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPInputStream ins = new GZIPInputStream(new ByteArrayInputStream(gzipped))) {
+            byte[] buf = new byte[1024];
+            int n;
+            while ((n = ins.read(buf)) != -1) {
+                out.write(buf, 0, n);
+            }
+        }
+        return out.toByteArray();
+    }
+
+    protected HttpServletRequest mockRequest(String acceptEncoding) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setHeader("Accept-Encoding", acceptEncoding);
+        return request;
+    }
+}